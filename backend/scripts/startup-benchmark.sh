@@ -0,0 +1,72 @@
+#!/usr/bin/env bash
+# 启动耗时对比测试：分别以默认方式（java -jar）和快速启动方式（CDS 归档 + fast 配置）启动后端，
+# 从启动进程开始计时，到第一个 GET /api/home 返回 200 为止（time-to-first-request），各运行多次取中位数。
+# 每次运行都从同一份预先初始化好的数据目录副本启动，两种方式使用相同的数据。
+#
+# 用法（在 backend 目录下）：
+#   mvn -Pfast-start package -DskipTests
+#   scripts/startup-benchmark.sh [运行次数，默认 5] [已有的 data 目录，默认新建空库]
+set -euo pipefail
+
+RUNS=${1:-5}
+SEED_DATA=${2:-}
+PORT=${BENCH_PORT:-18099}
+BACKEND_DIR=$(cd "$(dirname "$0")/.." && pwd)
+BOOT_JAR="$BACKEND_DIR/target/blogos-backend-0.0.1-SNAPSHOT.jar"
+FAST_DIR="$BACKEND_DIR/target/fast"
+FAST_JAR="$FAST_DIR/blogos-backend-0.0.1-SNAPSHOT-fast.jar"
+WORK=$(mktemp -d)
+trap 'pkill -f "server.port=$PORT" >/dev/null 2>&1 || true; rm -rf "$WORK"' EXIT
+
+for f in "$BOOT_JAR" "$FAST_JAR" "$FAST_DIR/app.jsa"; do
+    [ -e "$f" ] || { echo "缺少 $f，请先执行 mvn -Pfast-start package -DskipTests" >&2; exit 1; }
+done
+
+COMMON_ARGS=(--server.port=$PORT --spring.jpa.show-sql=false)
+BASELINE_CMD=(java -jar "$BOOT_JAR" "${COMMON_ARGS[@]}")
+FAST_CMD=(java -XX:SharedArchiveFile="$FAST_DIR/app.jsa" -jar "$FAST_JAR" --spring.profiles.active=fast "${COMMON_ARGS[@]}")
+
+# 启动一次并输出从启动到第一个成功请求的毫秒数
+measure() {
+    local mode=$1 dir=$2
+    local start end cmd
+    if [ "$mode" = fast ]; then cmd=("${FAST_CMD[@]}"); else cmd=("${BASELINE_CMD[@]}"); fi
+    start=$(date +%s%N)
+    (cd "$dir" && exec "${cmd[@]}" >"$dir/app.log" 2>&1) &
+    local pid=$!
+    until curl -sf -o /dev/null "http://localhost:$PORT/api/home"; do
+        if ! kill -0 $pid 2>/dev/null; then
+            echo "$mode 启动失败，日志：$dir/app.log" >&2
+            exit 1
+        fi
+        sleep 0.02
+    done
+    end=$(date +%s%N)
+    kill $pid
+    wait $pid 2>/dev/null || true
+    echo $(( (end - start) / 1000000 ))
+}
+
+median() {
+    sort -n | awk '{ a[NR] = $1 } END { print (NR % 2) ? a[(NR + 1) / 2] : int((a[NR / 2] + a[NR / 2 + 1]) / 2) }'
+}
+
+# 准备数据：每种方式先完整启动一次，完成建表或 Flyway 基线登记，之后的每次运行都复制这份数据
+for mode in baseline fast; do
+    mkdir -p "$WORK/seed-$mode"
+    if [ -n "$SEED_DATA" ]; then
+        cp -r "$SEED_DATA" "$WORK/seed-$mode/data"
+    fi
+    measure $mode "$WORK/seed-$mode" >/dev/null
+done
+
+for mode in baseline fast; do
+    results=()
+    for i in $(seq 1 "$RUNS"); do
+        run="$WORK/run-$mode-$i"
+        cp -r "$WORK/seed-$mode" "$run"
+        results+=("$(measure $mode "$run")")
+        rm -rf "$run"
+    done
+    printf '%-8s runs: %s  median: %s ms\n' "$mode" "${results[*]}" "$(printf '%s\n' "${results[@]}" | median)"
+done
@@ -6,6 +6,7 @@ package com.blogos;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.context.metrics.buffering.BufferingApplicationStartup;
 
 // Spring Boot 应用程序注解，启用自动配置和组件扫描
 @SpringBootApplication
@@ -15,7 +16,10 @@ public class BlogOsApplication {
      * @param args 命令行参数
      */
     public static void main(String[] args) {
+        SpringApplication application = new SpringApplication(BlogOsApplication.class);
+        // 记录启动各阶段和 Bean 创建耗时，供启动报告使用
+        application.setApplicationStartup(new BufferingApplicationStartup(4096));
         // 启动 Spring Boot 应用程序
-        SpringApplication.run(BlogOsApplication.class, args);
+        application.run(args);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,163 @@
+package com.blogos.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.Statement;
+import java.util.*;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 本地 H2 复制替身
+ * H2 没有内置的主从复制，本地测试读写分离时用该任务定期把主库数据整表复制到副本库：
+ * 表结构变化时先同步 DDL，每张表在一个副本事务内 "清空 + 批量插入"，副本读请求在提交前看到的仍是旧快照；
+ * 主库没有业务写入时只复制心跳表
+ */
+@Component
+@ConditionalOnProperty(name = "blogos.replica.standin.enabled", havingValue = "true")
+@Lazy(false)
+public class H2ReplicationStandIn {
+
+    private static final Logger logger = LoggerFactory.getLogger(H2ReplicationStandIn.class);
+
+    private static final int COPY_BATCH = 500;
+
+    @Value("${blogos.replica.standin.interval-ms:2000}")
+    private long intervalMs;
+
+    @Autowired
+    private HikariDataSource primaryDataSource;
+
+    @Autowired
+    private ReplicaRoutingDataSource routingDataSource;
+
+    private ScheduledExecutorService scheduler;
+
+    // 上次同步开始时间，用于判断期间是否有业务写入
+    private long lastSyncStartedAt = 0;
+
+    // 上次同步时的主库表结构签名
+    private String lastSchemaSignature = "";
+
+    @PostConstruct
+    public void start() {
+        scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "h2-replication-standin");
+            t.setDaemon(true);
+            return t;
+        });
+        scheduler.scheduleWithFixedDelay(this::syncAll, intervalMs, intervalMs, TimeUnit.MILLISECONDS);
+        logger.info("H2 replication stand-in copying primary to {} replica(s) every {} ms",
+                routingDataSource.getReplicaKeys().size(), intervalMs);
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+    }
+
+    private void syncAll() {
+        long startedAt = System.currentTimeMillis();
+        boolean dataChanged = routingDataSource.getLastWriteAt() >= lastSyncStartedAt;
+        try {
+            JdbcTemplate primary = new JdbcTemplate(primaryDataSource);
+            List<String> schema = primary.queryForList("SCRIPT NODATA", String.class);
+            String signature = String.join("\n", schema);
+            boolean schemaChanged = !signature.equals(lastSchemaSignature);
+            List<String> tables = dataChanged || schemaChanged ? primary.queryForList(
+                    "SELECT TABLE_NAME FROM INFORMATION_SCHEMA.TABLES WHERE TABLE_SCHEMA = 'PUBLIC' AND TABLE_TYPE = 'BASE TABLE'",
+                    String.class) : List.of(ReplicaHeartbeatMonitor.HEARTBEAT_TABLE.toUpperCase());
+
+            Map<Object, DataSource> targets = routingDataSource.getResolvedDataSources();
+            for (String key : routingDataSource.getReplicaKeys()) {
+                try (Connection replica = targets.get(key).getConnection()) {
+                    replica.setReadOnly(false);
+                    if (schemaChanged) {
+                        applySchema(replica, schema);
+                    }
+                    copyTables(replica, tables);
+                }
+            }
+            lastSchemaSignature = signature;
+            lastSyncStartedAt = startedAt;
+            if (dataChanged || schemaChanged) {
+                logger.debug("Replicated {} tables in {} ms", tables.size(), System.currentTimeMillis() - startedAt);
+            }
+        } catch (Exception e) {
+            logger.warn("H2 replication stand-in sync failed", e);
+        }
+    }
+
+    private void applySchema(Connection replica, List<String> schema) throws Exception {
+        try (Statement st = replica.createStatement()) {
+            st.execute("DROP ALL OBJECTS");
+            for (String ddl : schema) {
+                // 跳过用户、权限等与数据无关的语句
+                if (ddl.startsWith("CREATE USER") || ddl.startsWith("ALTER USER") || ddl.startsWith("GRANT")) {
+                    continue;
+                }
+                st.execute(ddl);
+            }
+        }
+    }
+
+    private void copyTables(Connection replica, List<String> tables) throws Exception {
+        replica.setAutoCommit(false);
+        try (Connection primary = primaryDataSource.getConnection();
+             Statement ddl = replica.createStatement()) {
+            ddl.execute("SET REFERENTIAL_INTEGRITY FALSE");
+            for (String table : tables) {
+                ddl.execute("DELETE FROM \"" + table + "\"");
+                try (Statement read = primary.createStatement()) {
+                    read.setFetchSize(COPY_BATCH);
+                    try (ResultSet rs = read.executeQuery("SELECT * FROM \"" + table + "\"")) {
+                        ResultSetMetaData meta = rs.getMetaData();
+                        int columns = meta.getColumnCount();
+                        String placeholders = String.join(", ", Collections.nCopies(columns, "?"));
+                        try (PreparedStatement insert = replica.prepareStatement(
+                                "INSERT INTO \"" + table + "\" VALUES (" + placeholders + ")")) {
+                            int pending = 0;
+                            while (rs.next()) {
+                                for (int i = 1; i <= columns; i++) {
+                                    insert.setObject(i, rs.getObject(i));
+                                }
+                                insert.addBatch();
+                                if (++pending % COPY_BATCH == 0) {
+                                    insert.executeBatch();
+                                }
+                            }
+                            insert.executeBatch();
+                        }
+                    }
+                }
+            }
+            replica.commit();
+        } catch (Exception e) {
+            replica.rollback();
+            throw e;
+        } finally {
+            try (Statement st = replica.createStatement()) {
+                st.execute("SET REFERENTIAL_INTEGRITY TRUE");
+            }
+            replica.setAutoCommit(true);
+        }
+    }
+}
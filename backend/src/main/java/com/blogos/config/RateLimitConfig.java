@@ -5,6 +5,7 @@ import org.springframework.context.annotation.Configuration;
 import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 
+import com.blogos.interceptor.ConcurrencyLimitInterceptor;
 import com.blogos.interceptor.RateLimitInterceptor;
 
 @Configuration
@@ -14,10 +15,21 @@ public class RateLimitConfig implements WebMvcConfigurer {
     public RateLimitInterceptor rateLimitInterceptor() {
         return new RateLimitInterceptor();
     }
+
+    @Bean
+    public ConcurrencyLimitInterceptor concurrencyLimitInterceptor() {
+        return new ConcurrencyLimitInterceptor();
+    }
     
     @Override
     public void addInterceptors(InterceptorRegistry registry) {
         registry.addInterceptor(rateLimitInterceptor())
-                .addPathPatterns("/api/**");
+                .addPathPatterns("/api/**")
+                // 内容寻址的媒体文件可长期缓存，一个页面会同时加载多张图片，不计入每 IP 限流；就绪检查由负载均衡器频繁轮询，同样不计入
+                .excludePathPatterns("/api/media/*", "/api/ready");
+        // 全局并发限制在每 IP 限流之后执行，被限流的请求不占用名额
+        registry.addInterceptor(concurrencyLimitInterceptor())
+                .addPathPatterns("/api/**")
+                .excludePathPatterns("/api/media/*", "/api/ready");
     }
 }
\ No newline at end of file
@@ -0,0 +1,94 @@
+package com.blogos.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 读写分离数据源配置类
+ * 启用 blogos.replica.enabled 后，以 spring.datasource.* 作为主库，
+ * blogos.replica.urls 中的每个地址作为一个只读副本
+ */
+@Configuration
+@ConditionalOnProperty(name = "blogos.replica.enabled", havingValue = "true")
+public class ReplicaDataSourceConfig {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReplicaDataSourceConfig.class);
+
+    @Value("${blogos.replica.urls}")
+    private List<String> replicaUrls;
+
+    @Value("${blogos.replica.read-your-writes-ms:5000}")
+    private long readYourWritesMs;
+
+    @Value("${blogos.replica.max-lag-ms:10000}")
+    private long maxLagMs;
+
+    @Value("${blogos.replica.heartbeat-ms:1000}")
+    private long heartbeatMs;
+
+    /**
+     * 主库连接池
+     */
+    @Bean
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setPoolName("primary");
+        return dataSource;
+    }
+
+    /**
+     * 路由数据源，持有主库和所有副本；副本连接池由路由数据源创建，容器关闭时由它关闭
+     */
+    @Bean(destroyMethod = "close")
+    public ReplicaRoutingDataSource replicaRoutingDataSource(HikariDataSource primaryDataSource,
+                                                             DataSourceProperties properties) {
+        Map<Object, Object> targets = new HashMap<>();
+        targets.put(ReplicaRoutingDataSource.PRIMARY, primaryDataSource);
+        List<String> keys = new ArrayList<>();
+        for (int i = 0; i < replicaUrls.size(); i++) {
+            String key = "replica-" + i;
+            HikariDataSource replica = new HikariDataSource();
+            replica.setPoolName(key);
+            replica.setJdbcUrl(replicaUrls.get(i).trim());
+            replica.setUsername(properties.getUsername());
+            replica.setPassword(properties.getPassword());
+            replica.setDriverClassName(properties.getDriverClassName());
+            replica.setReadOnly(true);
+            targets.put(key, replica);
+            keys.add(key);
+        }
+        // 探测到的延迟在 0 到一个心跳间隔（加上复制周期）之间来回变化，阈值贴着心跳间隔时副本会反复进出轮询
+        if (maxLagMs <= 2 * heartbeatMs) {
+            logger.warn("blogos.replica.max-lag-ms ({}) should be well above blogos.replica.heartbeat-ms ({}), "
+                    + "replicas will flap in and out of rotation", maxLagMs, heartbeatMs);
+        }
+        ReplicaRoutingDataSource routing = new ReplicaRoutingDataSource(keys, readYourWritesMs, maxLagMs);
+        routing.setTargetDataSources(targets);
+        routing.setDefaultTargetDataSource(primaryDataSource);
+        return routing;
+    }
+
+    /**
+     * 应用使用的数据源
+     * 延迟获取物理连接，使路由时能够读取到当前事务的只读标记
+     */
+    @Bean
+    @Primary
+    public DataSource dataSource(ReplicaRoutingDataSource replicaRoutingDataSource) {
+        return new LazyConnectionDataSourceProxy(replicaRoutingDataSource);
+    }
+}
@@ -0,0 +1,86 @@
+package com.blogos.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 副本延迟探测
+ * 定期在主库写入心跳时间戳，并从各副本读取已复制到的心跳，差值即为副本延迟；
+ * 心跳直接写主库连接池，不经过路由数据源，因此不会触发读己之写窗口
+ */
+@Component
+@ConditionalOnProperty(name = "blogos.replica.enabled", havingValue = "true")
+@Lazy(false)
+public class ReplicaHeartbeatMonitor {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReplicaHeartbeatMonitor.class);
+
+    public static final String HEARTBEAT_TABLE = "replication_heartbeat";
+
+    @Value("${blogos.replica.heartbeat-ms:1000}")
+    private long heartbeatMs;
+
+    @Autowired
+    private HikariDataSource primaryDataSource;
+
+    @Autowired
+    private ReplicaRoutingDataSource routingDataSource;
+
+    private ScheduledExecutorService scheduler;
+    private JdbcTemplate primary;
+
+    @PostConstruct
+    public void start() {
+        primary = new JdbcTemplate(primaryDataSource);
+        primary.execute("CREATE TABLE IF NOT EXISTS " + HEARTBEAT_TABLE + " (id INT PRIMARY KEY, beat_at BIGINT)");
+        scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "replica-heartbeat");
+            t.setDaemon(true);
+            return t;
+        });
+        scheduler.scheduleWithFixedDelay(this::beat, 0, heartbeatMs, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+    }
+
+    private void beat() {
+        long now = System.currentTimeMillis();
+        try {
+            primary.update("MERGE INTO " + HEARTBEAT_TABLE + " (id, beat_at) KEY(id) VALUES (1, ?)", now);
+        } catch (Exception e) {
+            logger.warn("Failed to write replication heartbeat", e);
+            return;
+        }
+        Map<Object, DataSource> targets = routingDataSource.getResolvedDataSources();
+        for (String key : routingDataSource.getReplicaKeys()) {
+            try {
+                Long beatAt = new JdbcTemplate(targets.get(key))
+                        .queryForObject("SELECT beat_at FROM " + HEARTBEAT_TABLE + " WHERE id = 1", Long.class);
+                routingDataSource.updateLag(key, beatAt == null ? Long.MAX_VALUE : Math.max(0, now - beatAt));
+            } catch (Exception e) {
+                // 副本不可达或尚未复制心跳表
+                routingDataSource.updateLag(key, Long.MAX_VALUE);
+            }
+        }
+    }
+}
@@ -0,0 +1,177 @@
+package com.blogos.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 读写分离路由数据源
+ * 只读事务（@Transactional(readOnly = true)）路由到副本库，其余请求使用主库；
+ * 最近发生过写入（读己之写窗口内）或副本延迟超过阈值时，只读请求也回退到主库
+ *
+ * 需要配合 LazyConnectionDataSourceProxy 使用，保证在事务的只读标记生效后才获取物理连接
+ */
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReplicaRoutingDataSource.class);
+
+    public static final String PRIMARY = "primary";
+
+    // 副本键列表，例如 replica-0、replica-1
+    private final List<String> replicaKeys;
+
+    // 主库最近一次写事务提交的时间
+    private final AtomicLong lastWriteAt = new AtomicLong(0);
+
+    // 当前事务已登记提交回调的标记，作为事务资源的键
+    private final Object writeMarker = new Object();
+
+    // 每个副本最近一次探测到的延迟（毫秒），未探测时为 Long.MAX_VALUE
+    private final Map<String, Long> replicaLagMs = new ConcurrentHashMap<>();
+
+    // 各数据源的路由次数统计
+    private final Map<String, AtomicLong> routedCounts = new ConcurrentHashMap<>();
+
+    private final AtomicInteger roundRobin = new AtomicInteger();
+
+    // 读己之写窗口：写入后该时间内的读请求固定走主库
+    private final long readYourWritesMs;
+
+    // 副本最大允许延迟，超过时不再向该副本路由
+    private final long maxLagMs;
+
+    public ReplicaRoutingDataSource(List<String> replicaKeys, long readYourWritesMs, long maxLagMs) {
+        this.replicaKeys = List.copyOf(replicaKeys);
+        this.readYourWritesMs = readYourWritesMs;
+        this.maxLagMs = maxLagMs;
+        for (String key : replicaKeys) {
+            replicaLagMs.put(key, Long.MAX_VALUE);
+        }
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        String key = route();
+        routedCounts.computeIfAbsent(key, k -> new AtomicLong()).incrementAndGet();
+        return key;
+    }
+
+    private String route() {
+        boolean inTransaction = TransactionSynchronizationManager.isActualTransactionActive();
+        boolean readOnly = inTransaction && TransactionSynchronizationManager.isCurrentTransactionReadOnly();
+        long now = System.currentTimeMillis();
+        if (!readOnly) {
+            // 事务外的连接（如序列化时的懒加载）同样走主库，但只有读写事务才计为写入
+            if (inTransaction) {
+                recordWriteOnCommit();
+            }
+            return PRIMARY;
+        }
+        if (now - lastWriteAt.get() < readYourWritesMs) {
+            return PRIMARY;
+        }
+        int size = replicaKeys.size();
+        int start = Math.floorMod(roundRobin.getAndIncrement(), size);
+        for (int i = 0; i < size; i++) {
+            String key = replicaKeys.get((start + i) % size);
+            if (replicaLagMs.getOrDefault(key, Long.MAX_VALUE) <= maxLagMs) {
+                return key;
+            }
+        }
+        return PRIMARY;
+    }
+
+    /**
+     * 在写事务提交后记录写入时间
+     * 获取连接时就记录的话，事务执行较久时读己之写窗口在提交前已经开始计时，提交后的读请求可能路由到尚未复制的副本
+     */
+    private void recordWriteOnCommit() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            lastWriteAt.set(System.currentTimeMillis());
+            return;
+        }
+        if (TransactionSynchronizationManager.hasResource(writeMarker)) {
+            return;
+        }
+        TransactionSynchronizationManager.bindResource(writeMarker, Boolean.TRUE);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                TransactionSynchronizationManager.unbindResourceIfPossible(writeMarker);
+                if (status == STATUS_COMMITTED) {
+                    lastWriteAt.set(System.currentTimeMillis());
+                }
+            }
+        });
+    }
+
+    /**
+     * 关闭所有副本连接池，主库连接池是独立的 Bean，由容器关闭
+     */
+    public void close() {
+        Map<Object, DataSource> targets = getResolvedDataSources();
+        for (String key : replicaKeys) {
+            if (targets.get(key) instanceof HikariDataSource replica) {
+                replica.close();
+            }
+        }
+    }
+
+    /**
+     * 更新副本延迟，由心跳探测任务调用
+     *
+     * @param replicaKey 副本键
+     * @param lagMs      延迟毫秒数，探测失败时传入 Long.MAX_VALUE
+     */
+    public void updateLag(String replicaKey, long lagMs) {
+        Long previous = replicaLagMs.put(replicaKey, lagMs);
+        boolean wasHealthy = previous != null && previous <= maxLagMs;
+        boolean healthy = lagMs <= maxLagMs;
+        if (wasHealthy != healthy) {
+            logger.warn("Replica {} is now {} (lag {} ms, max {} ms)", replicaKey,
+                    healthy ? "in rotation" : "out of rotation", lagMs == Long.MAX_VALUE ? -1 : lagMs, maxLagMs);
+        }
+    }
+
+    public List<String> getReplicaKeys() {
+        return replicaKeys;
+    }
+
+    public long getLastWriteAt() {
+        return lastWriteAt.get();
+    }
+
+    /**
+     * 获取路由状态（用于管理端点）
+     */
+    public Map<String, Object> getStatus() {
+        Map<String, Object> status = new LinkedHashMap<>();
+        status.put("readYourWritesMs", readYourWritesMs);
+        status.put("maxLagMs", maxLagMs);
+        status.put("lastWriteAt", lastWriteAt.get());
+        List<Map<String, Object>> replicas = new ArrayList<>();
+        for (String key : replicaKeys) {
+            long lag = replicaLagMs.getOrDefault(key, Long.MAX_VALUE);
+            Map<String, Object> info = new LinkedHashMap<>();
+            info.put("key", key);
+            info.put("lagMs", lag == Long.MAX_VALUE ? null : lag);
+            info.put("inRotation", lag <= maxLagMs);
+            replicas.add(info);
+        }
+        status.put("replicas", replicas);
+        Map<String, Long> counts = new TreeMap<>();
+        routedCounts.forEach((k, v) -> counts.put(k, v.get()));
+        status.put("routedConnections", counts);
+        return status;
+    }
+}
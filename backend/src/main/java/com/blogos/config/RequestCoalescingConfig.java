@@ -0,0 +1,31 @@
+package com.blogos.config;
+
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.blogos.interceptor.RequestCoalescingFilter;
+
+/**
+ * 请求合并配置类
+ * 把相同 GET 请求合并过滤器注册到 /api 路径
+ */
+@Configuration
+public class RequestCoalescingConfig {
+
+    @Bean
+    public RequestCoalescingFilter requestCoalescingFilter() {
+        return new RequestCoalescingFilter();
+    }
+
+    /**
+     * 过滤器位于限流拦截器之前：等待复用结果的请求不执行处理器，也不占用并发名额
+     * @return FilterRegistrationBean
+     */
+    @Bean
+    public FilterRegistrationBean<RequestCoalescingFilter> requestCoalescingFilterRegistration(RequestCoalescingFilter filter) {
+        FilterRegistrationBean<RequestCoalescingFilter> registration = new FilterRegistrationBean<>(filter);
+        registration.addUrlPatterns("/api/*");
+        return registration;
+    }
+}
@@ -4,24 +4,53 @@
  */
 package com.blogos.controller;
 
+import com.blogos.config.ReplicaRoutingDataSource;
+import com.blogos.interceptor.ConcurrencyLimitInterceptor;
 import com.blogos.interceptor.RateLimitInterceptor;
+import com.blogos.interceptor.RequestCoalescingFilter;
 import com.blogos.model.*;
 import com.blogos.repository.*;
+import com.blogos.service.CommentPipelineService;
+import com.blogos.service.ConfigService;
+import com.blogos.service.DashboardService;
+import com.blogos.service.FeedService;
+import com.blogos.service.HomeService;
+import com.blogos.service.IdMigrationService;
+import com.blogos.service.LiveUpdateService;
+import com.blogos.service.MemoService;
+import com.blogos.service.PlannerService;
+import com.blogos.service.PostAutosaveService;
+import com.blogos.service.PostContentStore;
+import com.blogos.service.PostRevisionService;
 import com.blogos.service.PostService;
+import com.blogos.service.PostViewService;
+import com.blogos.service.ProfilingService;
+import com.blogos.service.RelatedPostsService;
+import com.blogos.service.ScheduleIndexService;
+import com.blogos.service.StartupReportService;
+import com.blogos.service.WarmupService;
 import com.blogos.util.InputValidator;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.databind.node.ArrayNode;
-import com.fasterxml.jackson.databind.node.ObjectNode;
 import jakarta.servlet.http.HttpServletRequest;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.availability.ApplicationAvailability;
+import org.springframework.boot.availability.ReadinessState;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
-import java.security.MessageDigest;
-import java.security.NoSuchAlgorithmException;
+import java.io.IOException;
+import java.nio.file.NoSuchFileException;
 import java.util.*;
 
 // REST 控制器注解，标记这是一个 RESTful Web 服务控制器
@@ -37,21 +66,81 @@ public class ApiController {
     @Autowired
     private PostService postService;
 
-    // 自动注入系统配置仓库
+    // 自动注入文章正文存储
     @Autowired
-    private SystemConfigRepository configRepo;
+    private PostContentStore contentStore;
 
-    // 自动注入随手记仓库
+    // 自动注入首页聚合服务
     @Autowired
-    private MemoRepository memoRepo;
+    private HomeService homeService;
 
-    // 自动注入待办事项仓库
+    // 自动注入文章修订服务
     @Autowired
-    private TodoRepository todoRepo;
+    private PostRevisionService revisionService;
 
-    // 自动注入日程安排仓库
+    // 自动注入文章自动保存服务
     @Autowired
-    private ScheduleRepository scheduleRepo;
+    private PostAutosaveService autosaveService;
+
+    // 自动注入相关文章服务
+    @Autowired
+    private RelatedPostsService relatedPostsService;
+
+    // 自动注入文章浏览统计服务
+    @Autowired
+    private PostViewService viewService;
+
+    // 自动注入实时推送服务
+    @Autowired
+    private LiveUpdateService liveUpdateService;
+
+    // 自动注入评论写入管道
+    @Autowired
+    private CommentPipelineService commentPipeline;
+
+    // 自动注入启动报告服务
+    @Autowired
+    private StartupReportService startupReportService;
+
+    // 自动注入配置服务
+    @Autowired
+    private ConfigService configService;
+
+    // 自动注入读写分离路由数据源（仅在启用副本时存在）
+    @Autowired(required = false)
+    private ReplicaRoutingDataSource replicaRoutingDataSource;
+
+    // 自动注入随手记服务
+    @Autowired
+    private MemoService memoService;
+
+    // 自动注入个人计划服务（待办事项与日程安排）
+    @Autowired
+    private PlannerService plannerService;
+
+    // 自动注入个人仪表板服务
+    @Autowired
+    private DashboardService dashboardService;
+
+    // 自动注入日程索引服务，提供按时间范围展开和冲突检查
+    @Autowired
+    private ScheduleIndexService scheduleIndexService;
+
+    // 自动注入主键迁移服务，提供各表主键的存储占用
+    @Autowired
+    private IdMigrationService idMigrationService;
+
+    // 自动注入启动预热服务，预热结束前就绪检查返回 503
+    @Autowired
+    private WarmupService warmupService;
+
+    // 自动注入性能剖析服务，按需开启和转储 JFR 记录
+    @Autowired
+    private ProfilingService profilingService;
+
+    // 自动注入应用可用性状态，关闭过程中就绪检查同样返回 503
+    @Autowired
+    private ApplicationAvailability applicationAvailability;
 
     // 自动注入用户仓库
     @Autowired
@@ -61,12 +150,32 @@ public class ApiController {
     @Autowired
     private RateLimitInterceptor rateLimitInterceptor;
 
+    // 自动注入全局并发限制拦截器
+    @Autowired
+    private ConcurrencyLimitInterceptor concurrencyLimitInterceptor;
+
+    // 自动注入相同 GET 请求合并过滤器
+    @Autowired
+    private RequestCoalescingFilter requestCoalescingFilter;
+
     // 注入 HttpServletRequest 以获取客户端IP
     @Autowired
     private HttpServletRequest request;
 
     // --- 文章相关接口 ---
 
+    /**
+     * 获取首页聚合数据：精选文章、最新文章、分类计数、最新随手记和站点配置
+     * 返回缓存的编码结果，客户端通过 ETag 协商，内容未变化时返回 304
+     *
+     * @return 首页数据 JSON
+     */
+    @GetMapping("/home")
+    public ResponseEntity<byte[]> getHome(@RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+                                          @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        return homeService.getHome().toResponse(acceptEncoding, ifNoneMatch, CacheControl.noCache());
+    }
+
     /**
      * 获取所有文章
      *
@@ -77,6 +186,19 @@ public class ApiController {
         return postService.getAllPosts();
     }
 
+    /**
+     * 获取单篇文章（含正文）
+     *
+     * @param id 文章 ID
+     * @return 文章
+     */
+    @GetMapping("/posts/{id}")
+    public ResponseEntity<Post> getPost(@PathVariable String id) {
+        // 尚未写入的自动保存只在内存中叠加，读请求不写数据库
+        Post post = autosaveService.overlay(postService.getPost(id));
+        return post == null ? ResponseEntity.notFound().build() : ResponseEntity.ok(post);
+    }
+
     /**
      * 保存文章
      *
@@ -96,6 +218,10 @@ public class ApiController {
             post.setTitle(InputValidator.sanitizeTitle(post.getTitle()));
             post.setContent(post.getContent());
 
+            // 整篇保存覆盖尚未写入的自动保存
+            if (post.getId() != null) {
+                autosaveService.discard(post.getId());
+            }
             Post savedPost = postService.savePost(post);
             logger.info("Post saved successfully with ID: {} by IP: {}",
                     savedPost.getId(), getClientIpAddress(request));
@@ -106,6 +232,89 @@ public class ApiController {
         }
     }
 
+    /**
+     * 局部更新文章
+     * 只修改请求中出现的字段，正文可用文本区间编辑描述；autosave 为 true 时在服务端合并后延迟写入
+     *
+     * @param id       文章 ID
+     * @param patch    局部更新请求
+     * @param autosave 是否为编辑器自动保存
+     * @return 文章 ID 和是否仍在等待写入
+     */
+    @PatchMapping("/posts/{id}")
+    public ResponseEntity<Map<String, Object>> patchPost(@PathVariable String id, @RequestBody PostPatch patch,
+                                                         @RequestParam(defaultValue = "false") boolean autosave) {
+        if (patch.getTitle() != null) {
+            if (patch.getTitle().trim().isEmpty()) {
+                return ResponseEntity.badRequest().body(Map.of("error", "文章标题不能为空"));
+            }
+            patch.setTitle(InputValidator.sanitizeTitle(patch.getTitle()));
+        }
+        try {
+            Map<String, Object> result = new HashMap<>();
+            result.put("id", id);
+            if (autosave) {
+                autosaveService.autosave(id, patch);
+                result.put("pending", true);
+                return ResponseEntity.ok(result);
+            }
+            // 显式保存前先写入尚未落盘的自动保存，保证编辑基于最新正文
+            autosaveService.flush(id);
+            if (postService.patchPost(id, patch) == null) {
+                return ResponseEntity.notFound().build();
+            }
+            result.put("pending", false);
+            return ResponseEntity.ok(result);
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of("error", e.getMessage()));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    /**
+     * 获取相关文章，结果直接从内存索引返回
+     *
+     * @param id    文章 ID
+     * @param limit 最多返回的篇数
+     * @return 按相似度降序排列的相关文章
+     */
+    @GetMapping("/posts/{id}/related")
+    public List<RelatedPostsService.RelatedPost> getRelatedPosts(@PathVariable String id,
+                                                                 @RequestParam(defaultValue = "5") int limit) {
+        return relatedPostsService.getRelated(id, Math.max(1, Math.min(limit, 20)));
+    }
+
+    /**
+     * 获取文章的修订列表（不含正文）
+     *
+     * @param id 文章 ID
+     * @return 按修订号降序排列的修订列表
+     */
+    @GetMapping("/posts/{id}/revisions")
+    public List<PostRevisionSummary> getRevisions(@PathVariable String id) {
+        return revisionService.list(id);
+    }
+
+    /**
+     * 还原文章的指定修订
+     *
+     * @param id       文章 ID
+     * @param revision 修订号
+     * @return 修订号和该修订的正文
+     */
+    @GetMapping("/posts/{id}/revisions/{revision}")
+    public ResponseEntity<Map<String, Object>> getRevision(@PathVariable String id, @PathVariable int revision) {
+        String content = revisionService.load(id, revision);
+        if (content == null) {
+            return ResponseEntity.notFound().build();
+        }
+        Map<String, Object> result = new HashMap<>();
+        result.put("revision", revision);
+        result.put("content", content);
+        return ResponseEntity.ok(result);
+    }
+
     /**
      * 删除文章
      *
@@ -113,9 +322,59 @@ public class ApiController {
      */
     @DeleteMapping("/posts/{id}")
     public void deletePost(@PathVariable String id) {
+        autosaveService.discard(id);
         postService.deletePost(id);
     }
 
+    /**
+     * 记录一次文章浏览，只更新内存计数，不访问数据库
+     * 访客标识优先使用客户端生成的随机 ID，缺省时使用 IP 与 User-Agent
+     *
+     * @param id      文章 ID
+     * @param visitor 访客标识（可选）
+     */
+    @PostMapping("/posts/{id}/view")
+    public ResponseEntity<Void> recordView(@PathVariable String id, @RequestParam(required = false) String visitor) {
+        if (visitor == null || visitor.isEmpty() || visitor.length() > 64) {
+            visitor = getClientIpAddress(request) + "|" + request.getHeader(HttpHeaders.USER_AGENT);
+        }
+        viewService.record(id, visitor);
+        return ResponseEntity.noContent().build();
+    }
+
+    /**
+     * 订阅文章的实时更新（SSE）：新评论、点赞数、文章更新和删除
+     *
+     * @param id 文章 ID
+     * @return 事件流
+     */
+    @GetMapping(value = "/posts/{id}/live", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> subscribePost(@PathVariable String id) {
+        return subscribe(id);
+    }
+
+    /**
+     * 订阅全站实时更新（SSE）：各文章的新评论、点赞数、文章变更以及配置和随手记变更
+     *
+     * @return 事件流
+     */
+    @GetMapping(value = "/live", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> subscribeSite() {
+        return subscribe(null);
+    }
+
+    private ResponseEntity<SseEmitter> subscribe(String postId) {
+        SseEmitter emitter = liveUpdateService.subscribe(postId);
+        if (emitter == null) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).header(HttpHeaders.RETRY_AFTER, "30").build();
+        }
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.noStore())
+                // 关闭 nginx 的响应缓冲，事件到达后立即转发
+                .header("X-Accel-Buffering", "no")
+                .body(emitter);
+    }
+
     /**
      * 文章点赞
      *
@@ -129,112 +388,158 @@ public class ApiController {
 
     /**
      * 添加评论
+     * 评论校验后进入写入队列即返回 202，审核与写入在后台完成，结果可通过评论状态接口查询；
+     * 队列已满时返回 503，客户端应稍后重试
      *
      * @param id       文章 ID
      * @param comment  评论对象
      * @param parentId 父评论 ID（可选）
-     * @return 添加评论后的文章
+     * @return 评论 ID、状态和已入队的评论
      */
     @PostMapping("/posts/{id}/comments")
-    public Post addComment(@PathVariable String id, @RequestBody Comment comment, @RequestParam(required = false) String parentId) {
+    public ResponseEntity<Map<String, Object>> addComment(@PathVariable String id, @RequestBody Comment comment,
+                                                          @RequestParam(required = false) String parentId) {
+        Comment queued;
         try {
-            // 输入验证和清理
-            if (comment.getContent() == null || comment.getContent().trim().isEmpty()) {
-                logger.warn("Attempt to add empty comment from IP: {}",
-                        getClientIpAddress(request));
-                throw new IllegalArgumentException("评论内容不能为空");
-            }
+            queued = commentPipeline.submit(id, comment, parentId);
+        } catch (IllegalArgumentException e) {
+            logger.warn("Rejected comment on post ID: {} from IP: {}: {}", id, getClientIpAddress(request), e.getMessage());
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+        if (queued == null) {
+            logger.warn("Comment queue full, shedding comment on post ID: {} from IP: {}", id, getClientIpAddress(request));
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).header(HttpHeaders.RETRY_AFTER, "2")
+                    .body(Map.of("error", "评论提交繁忙，请稍后再试"));
+        }
+        logger.info("Comment {} queued for post ID: {} by IP: {}", queued.getId(), id, getClientIpAddress(request));
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("id", queued.getId());
+        result.put("status", CommentPipelineService.QUEUED);
+        result.put("comment", queued);
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(result);
+    }
 
-            // 清理评论内容
-            comment.setContent(InputValidator.sanitizeHtml(comment.getContent()));
+    /**
+     * 查询评论的处理结果
+     *
+     * @param id 评论 ID
+     * @return 处理结果，未知或已过期时返回 404
+     */
+    @GetMapping("/comments/{id}/status")
+    public ResponseEntity<CommentPipelineService.CommentStatus> getCommentStatus(@PathVariable String id) {
+        CommentPipelineService.CommentStatus status = commentPipeline.getStatus(id);
+        return status == null ? ResponseEntity.notFound().build() : ResponseEntity.ok(status);
+    }
 
-            // 清理作者名称
-            if (comment.getAuthor() != null) {
-                comment.setAuthor(InputValidator.sanitizeHtml(comment.getAuthor()));
-            }
+    // --- 配置相关接口 ---
 
-            Post updatedPost = postService.addComment(id, comment, parentId);
-            logger.info("Comment added to post ID: {} by IP: {}", id, getClientIpAddress(request));
-            return updatedPost;
-        } catch (Exception e) {
-            logger.error("Error adding comment to post ID: " + id + " from IP: " + getClientIpAddress(request), e);
-            throw new RuntimeException("添加评论失败: " + e.getMessage());
+    /**
+     * 获取公开站点配置，只包含公开分区，不含账户信息
+     * 返回缓存的编码结果，客户端通过 ETag 协商，内容未变化时返回 304
+     *
+     * @return 公开配置 JSON
+     */
+    @GetMapping("/config")
+    public ResponseEntity<byte[]> getConfig(@RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+                                            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        return configService.getPublicDocument().toResponse(acceptEncoding, ifNoneMatch, CacheControl.noCache());
+    }
+
+    /**
+     * 获取单个公开配置分区，ETag 为分区版本号；私有分区（账户）按不存在处理
+     *
+     * @param section 分区名：site、profile、friends、seo、sso
+     * @return 分区文档
+     */
+    @GetMapping("/config/{section}")
+    public ResponseEntity<JsonNode> getConfigSection(@PathVariable String section,
+                                                     @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        if (ConfigService.findSection(section).filter(ConfigService.Section::publicSection).isEmpty()) {
+            return ResponseEntity.notFound().build();
         }
+        return sectionResponse(configService.getSection(section), ifNoneMatch);
     }
 
-    // --- 配置相关接口 ---
+    /**
+     * 获取任意配置分区（管理端点），账户分区只返回用户名
+     *
+     * @param section 分区名：site、profile、friends、seo、sso、accounts
+     * @return 分区文档
+     */
+    @GetMapping("/admin/config/{section}")
+    public ResponseEntity<JsonNode> getAdminConfigSection(@PathVariable String section,
+                                                          @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        return sectionResponse(configService.getSection(section), ifNoneMatch);
+    }
+
+    private ResponseEntity<JsonNode> sectionResponse(Optional<ConfigService.SectionView> view, String ifNoneMatch) {
+        if (view.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        if (view.get().etag().equals(ifNoneMatch)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(view.get().etag()).build();
+        }
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.noCache())
+                .eTag(view.get().etag())
+                .body(view.get().body());
+    }
 
     /**
-     * 获取系统配置
+     * 以 JSON Merge Patch（RFC 7386）更新单个配置分区，只改写该分区
+     * 携带 If-Match 时只在分区版本一致时更新，否则返回 412；账户条目提供 password 时设置新密码，省略时保留原密码
      *
-     * @return 配置 JSON 字符串
+     * @param section 分区名
+     * @param patch   合并补丁
+     * @param ifMatch 期望的分区 ETag
+     * @return 更新后的分区文档
      */
-    @GetMapping("/config")
-    public String getConfig() {
-        return configRepo.findById("default")
-                .map(SystemConfig::getConfigJson)
-                .orElse("{}");
+    @PatchMapping(value = "/config/{section}", consumes = {"application/merge-patch+json", MediaType.APPLICATION_JSON_VALUE})
+    public ResponseEntity<?> patchConfigSection(@PathVariable String section, @RequestBody JsonNode patch,
+                                                @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        if (ConfigService.findSection(section).isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        Long expectedVersion = null;
+        if (ifMatch != null && !ifMatch.equals("*")) {
+            String prefix = "\"" + section + "-";
+            try {
+                if (!ifMatch.startsWith(prefix) || !ifMatch.endsWith("\"")) {
+                    throw new NumberFormatException(ifMatch);
+                }
+                expectedVersion = Long.parseLong(ifMatch.substring(prefix.length(), ifMatch.length() - 1));
+            } catch (NumberFormatException e) {
+                return ResponseEntity.status(HttpStatus.PRECONDITION_FAILED).body(Map.of("error", "If-Match 与分区版本不匹配"));
+            }
+        }
+        try {
+            ConfigService.SectionView view = configService.patchSection(section, patch, expectedVersion);
+            logger.info("Config section {} updated to version {} by IP: {}", section, view.version(), getClientIpAddress(request));
+            return ResponseEntity.ok().eTag(view.etag()).body(view.body());
+        } catch (IllegalArgumentException e) {
+            logger.warn("Rejected config section {} patch from IP: {}: {}", section, getClientIpAddress(request), e.getMessage());
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        } catch (IllegalStateException | OptimisticLockingFailureException e) {
+            return ResponseEntity.status(HttpStatus.PRECONDITION_FAILED).body(Map.of("error", "配置分区已被修改，请重新读取后再提交"));
+        }
     }
 
     /**
-     * 保存系统配置
+     * 整体保存系统配置（兼容旧版客户端），按字段拆分到各分区，只改写内容有变化的分区
+     * 账户条目提供 password 时设置新密码，省略时保留原密码；配置中没有 accounts 字段时账户保持不变
      *
      * @param configMap 配置映射
+     * @return 保存结果
      */
     @PostMapping("/config")
-    public void saveConfig(@RequestBody Map<String, Object> configMap) {
-        // 我们接受一个原始映射，以便轻松序列化为 JSON 字符串，而无需为复杂的配置定义严格的 POJO
+    public ResponseEntity<?> saveConfig(@RequestBody Map<String, Object> configMap) {
         try {
-            ObjectMapper mapper = new ObjectMapper();
-            JsonNode configJson = mapper.valueToTree(configMap);
-
-            // 如果有账户信息，则对密码进行哈希处理
-            JsonNode accounts = configJson.get("accounts");
-            if (accounts != null && accounts.isArray()) {
-                ArrayNode accountsArray = (ArrayNode) accounts;
-                for (JsonNode account : accountsArray) {
-                    if (account.has("password")) {
-                        String password = account.get("password").asText();
-                        // 验证密码强度
-                        if (!InputValidator.isValidPassword(password)) {
-                            logger.warn("Attempt to save config with weak password from IP: {}",
-                                    getClientIpAddress(request));
-                            throw new IllegalArgumentException("密码强度不足，必须至少8位且包含字母和数字");
-                        }
-                        String hashedPassword = hashPassword(password);
-
-                        // 更新密码为哈希值
-                        ((ObjectNode) account).put("password", hashedPassword);
-                    }
-
-                    // 验证用户名
-                    if (account.has("username")) {
-                        String username = account.get("username").asText();
-                        if (!InputValidator.isValidUsername(username)) {
-                            logger.warn("Attempt to save config with invalid username from IP: {}",
-                                    getClientIpAddress(request));
-                            throw new IllegalArgumentException("用户名格式不正确");
-                        }
-                    }
-                }
-            }
-
-            // 清理和验证站点名称
-            if (configJson.has("siteName")) {
-                String siteName = configJson.get("siteName").asText();
-                ((ObjectNode) configJson).put("siteName", InputValidator.sanitizeHtml(siteName));
-            }
-
-            String json = mapper.writeValueAsString(configJson);
-            SystemConfig config = new SystemConfig();
-            config.setId("default");
-            config.setConfigJson(json);
-            configRepo.save(config);
-
+            configService.saveConfig(new ObjectMapper().valueToTree(configMap));
             logger.info("Configuration saved successfully by IP: {}", getClientIpAddress(request));
-        } catch (Exception e) {
-            logger.error("Error saving configuration from IP: " + getClientIpAddress(request), e);
-            throw new RuntimeException("保存配置失败: " + e.getMessage());
+            return ResponseEntity.ok().build();
+        } catch (IllegalArgumentException e) {
+            logger.warn("Rejected configuration from IP: {}: {}", getClientIpAddress(request), e.getMessage());
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
         }
     }
 
@@ -247,7 +552,36 @@ public class ApiController {
      */
     @GetMapping("/memos")
     public List<Memo> getMemos() {
-        return memoRepo.findAll();
+        return memoService.getAll();
+    }
+
+    /**
+     * 获取随手记时间线的一页，按日期倒序，使用游标翻页
+     *
+     * @param cursor 上一页返回的游标，首页不传
+     * @param month  从该月（yyyy-MM）开始，用于从归档跳转
+     * @param limit  每页条数
+     * @return 本页随手记和下一页游标
+     */
+    @GetMapping("/memos/timeline")
+    public ResponseEntity<?> getMemoTimeline(@RequestParam(required = false) String cursor,
+                                             @RequestParam(required = false) String month,
+                                             @RequestParam(defaultValue = "20") int limit) {
+        try {
+            return ResponseEntity.ok(memoService.getTimeline(cursor, month, limit));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    /**
+     * 获取随手记的按月归档计数
+     *
+     * @return 按月份倒序的月份和条数
+     */
+    @GetMapping("/memos/archive")
+    public List<MemoService.ArchiveMonth> getMemoArchive() {
+        return memoService.getArchive();
     }
 
     /**
@@ -258,9 +592,8 @@ public class ApiController {
      */
     @PostMapping("/memos")
     public List<Memo> saveMemo(@RequestBody Memo memo) {
-        if (memo.getId() == null) memo.setId(UUID.randomUUID().toString());
-        memoRepo.save(memo);
-        return memoRepo.findAll();
+        memoService.save(memo);
+        return memoService.getAll();
     }
 
     /**
@@ -271,8 +604,25 @@ public class ApiController {
      */
     @DeleteMapping("/memos/{id}")
     public List<Memo> deleteMemo(@PathVariable String id) {
-        memoRepo.deleteById(id);
-        return memoRepo.findAll();
+        memoService.delete(id);
+        return memoService.getAll();
+    }
+
+    // --- 个人仪表板接口 ---
+
+    /**
+     * 获取个人仪表板摘要：按优先级的待办计数、当天和即将到来的日程、随手记条数
+     *
+     * @param date 客户端的当天日期（yyyy-MM-dd），不传时使用服务器日期
+     * @return 仪表板摘要
+     */
+    @GetMapping("/dashboard/summary")
+    public ResponseEntity<?> getDashboardSummary(@RequestParam(required = false) String date) {
+        try {
+            return ResponseEntity.ok(dashboardService.getSummary(date));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
     }
 
     // --- 待办事项相关接口 ---
@@ -284,7 +634,7 @@ public class ApiController {
      */
     @GetMapping("/todos")
     public List<Todo> getTodos() {
-        return todoRepo.findAll();
+        return plannerService.getTodos();
     }
 
     /**
@@ -295,9 +645,8 @@ public class ApiController {
      */
     @PostMapping("/todos")
     public List<Todo> saveTodo(@RequestBody Todo todo) {
-        if (todo.getId() == null) todo.setId(UUID.randomUUID().toString());
-        todoRepo.save(todo);
-        return todoRepo.findAll();
+        plannerService.saveTodo(todo);
+        return plannerService.getTodos();
     }
 
     /**
@@ -308,12 +657,8 @@ public class ApiController {
      */
     @PutMapping("/todos/{id}/toggle")
     public List<Todo> toggleTodo(@PathVariable String id) {
-        Optional<Todo> t = todoRepo.findById(id);
-        t.ifPresent(todo -> {
-            todo.setCompleted(!todo.isCompleted());
-            todoRepo.save(todo);
-        });
-        return todoRepo.findAll();
+        plannerService.toggleTodo(id);
+        return plannerService.getTodos();
     }
 
     /**
@@ -324,8 +669,48 @@ public class ApiController {
      */
     @DeleteMapping("/todos/{id}")
     public List<Todo> deleteTodo(@PathVariable String id) {
-        todoRepo.deleteById(id);
-        return todoRepo.findAll();
+        plannerService.deleteTodo(id);
+        return plannerService.getTodos();
+    }
+
+    /**
+     * 批量创建待办事项
+     *
+     * @param todos 待办事项列表
+     * @return 每项的处理结果
+     */
+    @PostMapping("/todos/bulk")
+    public PlannerService.BulkResult createTodos(@RequestBody List<Todo> todos) {
+        return plannerService.createTodos(todos);
+    }
+
+    /**
+     * 批量切换待办事项完成状态
+     *
+     * @param ids       待办事项 ID 列表
+     * @param completed 目标状态（可选），不传时切换当前状态
+     * @return 每项的处理结果
+     */
+    @PutMapping("/todos/bulk/toggle")
+    public PlannerService.BulkResult toggleTodos(@RequestBody List<String> ids,
+                                                 @RequestParam(required = false) Boolean completed) {
+        return plannerService.updateTodosCompleted(ids, completed);
+    }
+
+    /**
+     * 批量删除待办事项，按 ID 列表或按完成状态（例如 completed=true 清除所有已完成项）
+     *
+     * @param ids       待删除 ID 列表（可选）
+     * @param completed 完成状态条件（可选）
+     * @return 每项的处理结果
+     */
+    @PostMapping("/todos/bulk/delete")
+    public PlannerService.BulkResult deleteTodos(@RequestBody(required = false) List<String> ids,
+                                                 @RequestParam(required = false) Boolean completed) {
+        if (ids == null && completed == null) {
+            throw new IllegalArgumentException("必须提供 ID 列表或 completed 条件");
+        }
+        return plannerService.deleteTodos(ids, completed);
     }
 
     // --- 日程安排相关接口 ---
@@ -337,7 +722,40 @@ public class ApiController {
      */
     @GetMapping("/schedules")
     public List<Schedule> getSchedules() {
-        return scheduleRepo.findAll();
+        return plannerService.getSchedules();
+    }
+
+    /**
+     * 获取日期范围内发生的日程，重复日程展开为各次发生
+     *
+     * @param from 起始日期（yyyy-MM-dd，含）
+     * @param to   结束日期（yyyy-MM-dd，含）
+     * @return 按日期和时间排序的各次发生
+     */
+    @GetMapping("/schedules/occurrences")
+    public ResponseEntity<?> getScheduleOccurrences(@RequestParam String from, @RequestParam String to) {
+        try {
+            return ResponseEntity.ok(scheduleIndexService.getOccurrences(from, to));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    /**
+     * 检查日程（可以是尚未保存的重复日程）与已有日程的时间冲突
+     *
+     * @param schedule    待检查的日程
+     * @param horizonDays 重复日程从首次日期起检查的天数，默认 90
+     * @return 冲突列表
+     */
+    @PostMapping("/schedules/conflicts")
+    public ResponseEntity<?> findScheduleConflicts(@RequestBody Schedule schedule,
+                                                   @RequestParam(defaultValue = "90") int horizonDays) {
+        try {
+            return ResponseEntity.ok(scheduleIndexService.findConflicts(schedule, horizonDays));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
     }
 
     /**
@@ -347,10 +765,31 @@ public class ApiController {
      * @return 更新后的日程安排列表
      */
     @PostMapping("/schedules")
-    public List<Schedule> saveSchedule(@RequestBody Schedule schedule) {
-        if (schedule.getId() == null) schedule.setId(UUID.randomUUID().toString());
-        scheduleRepo.save(schedule);
-        return scheduleRepo.findAll();
+    public ResponseEntity<?> saveSchedule(@RequestBody Schedule schedule) {
+        try {
+            plannerService.saveSchedule(schedule);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+        return ResponseEntity.ok(plannerService.getSchedules());
+    }
+
+    /**
+     * 跳过重复日程的某一次发生
+     *
+     * @param id   日程安排 ID
+     * @param date 要跳过的日期（yyyy-MM-dd）
+     * @return 更新后的日程安排
+     */
+    @PostMapping("/schedules/{id}/skip")
+    public ResponseEntity<?> skipScheduleOccurrence(@PathVariable String id, @RequestParam String date) {
+        try {
+            return plannerService.skipOccurrence(id, date)
+                    .<ResponseEntity<?>>map(ResponseEntity::ok)
+                    .orElse(ResponseEntity.notFound().build());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
     }
 
     /**
@@ -361,8 +800,35 @@ public class ApiController {
      */
     @DeleteMapping("/schedules/{id}")
     public List<Schedule> deleteSchedule(@PathVariable String id) {
-        scheduleRepo.deleteById(id);
-        return scheduleRepo.findAll();
+        plannerService.deleteSchedule(id);
+        return plannerService.getSchedules();
+    }
+
+    /**
+     * 批量创建日程安排
+     *
+     * @param schedules 日程安排列表
+     * @return 每项的处理结果
+     */
+    @PostMapping("/schedules/bulk")
+    public PlannerService.BulkResult createSchedules(@RequestBody List<Schedule> schedules) {
+        return plannerService.createSchedules(schedules);
+    }
+
+    /**
+     * 批量删除日程安排，按 ID 列表或删除指定日期之前的日程
+     *
+     * @param ids    待删除 ID 列表（可选）
+     * @param before 日期条件（可选，yyyy-MM-dd）
+     * @return 每项的处理结果
+     */
+    @PostMapping("/schedules/bulk/delete")
+    public PlannerService.BulkResult deleteSchedules(@RequestBody(required = false) List<String> ids,
+                                                     @RequestParam(required = false) String before) {
+        if (ids == null && (before == null || before.isEmpty())) {
+            throw new IllegalArgumentException("必须提供 ID 列表或 before 条件");
+        }
+        return plannerService.deleteSchedules(ids, before);
     }
 
     // --- 用户认证相关接口 ---
@@ -393,39 +859,20 @@ public class ApiController {
         }
 
         // 简单的密码哈希处理
-        String hashedPassword = hashPassword(password);
+        String hashedPassword = ConfigService.hashPassword(password);
 
-        // 从系统配置中查找用户信息
-        Optional<SystemConfig> configOpt = configRepo.findById("default");
-        if (configOpt.isPresent()) {
-            try {
-                ObjectMapper mapper = new ObjectMapper();
-                JsonNode configJson = mapper.readTree(configOpt.get().getConfigJson());
-
-                // 查找用户账户信息
-                JsonNode accounts = configJson.get("accounts");
-                if (accounts != null && accounts.isArray()) {
-                    for (JsonNode account : accounts) {
-                        String configUsername = account.get("username").asText();
-                        String configPasswordHash = account.get("password").asText();
-
-                        if (configUsername.equals(username) && configPasswordHash.equals(hashedPassword)) {
-                            // 记录成功登录
-                            logger.info("Successful login for user: {} from IP: {}",
-                                    username, getClientIpAddress(request));
-
-                            // 生成一个简单的 JWT token（实际应用中应使用更安全的 JWT 库）
-                            String token = Base64.getEncoder().encodeToString(
-                                    ("{\"sub\":\"" + username + "\",\"exp\":" + (System.currentTimeMillis() + 24 * 60 * 60 * 1000) + "}").getBytes()
-                            );
-
-                            return Map.of("success", true, "token", token);
-                        }
-                    }
-                }
-            } catch (Exception e) {
-                logger.error("Error during login process for user: " + username, e);
-            }
+        // 从账户分区中查找用户信息
+        if (configService.checkAccount(username, hashedPassword)) {
+            // 记录成功登录
+            logger.info("Successful login for user: {} from IP: {}",
+                    username, getClientIpAddress(request));
+
+            // 生成一个简单的 JWT token（实际应用中应使用更安全的 JWT 库）
+            String token = Base64.getEncoder().encodeToString(
+                    ("{\"sub\":\"" + username + "\",\"exp\":" + (System.currentTimeMillis() + 24 * 60 * 60 * 1000) + "}").getBytes()
+            );
+
+            return Map.of("success", true, "token", token);
         }
 
         // 记录失败的登录尝试
@@ -471,6 +918,292 @@ public class ApiController {
         return ResponseEntity.ok(Map.of("success", true, "message", "所有记录已清除"));
     }
 
+    // --- 性能剖析接口 ---
+
+    /**
+     * 获取 JFR 剖析状态和已有记录文件
+     *
+     * @return 持续记录、当前按需记录、上次按需记录和记录文件列表
+     */
+    @GetMapping("/admin/profiling")
+    public Map<String, Object> getProfilingStatus() throws IOException {
+        Map<String, Object> status = new LinkedHashMap<>(profilingService.getStatus());
+        status.put("recordings", profilingService.list());
+        return status;
+    }
+
+    /**
+     * 开始一次有时长上限的按需 JFR 记录，到时自动停止并写入文件
+     *
+     * @param seconds  记录时长（秒）
+     * @param settings JFR 配置：profile 或 default
+     * @return 记录状态，已有记录在进行中时返回 409
+     */
+    @PostMapping("/admin/profiling/start")
+    public ResponseEntity<?> startProfiling(@RequestParam(defaultValue = "60") long seconds,
+                                            @RequestParam(defaultValue = "profile") String settings) throws IOException {
+        try {
+            return ResponseEntity.ok(profilingService.start(seconds, settings));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    /**
+     * 提前停止当前的按需记录
+     *
+     * @return 记录文件信息，没有进行中的记录时返回 409
+     */
+    @PostMapping("/admin/profiling/stop")
+    public ResponseEntity<?> stopProfiling() throws IOException {
+        try {
+            return ResponseEntity.ok(profilingService.stop());
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    /**
+     * 把持续环形记录当前保留的数据转储到文件，用于事后分析
+     *
+     * @return 记录文件信息，持续记录未启用时返回 409
+     */
+    @PostMapping("/admin/profiling/dump")
+    public ResponseEntity<?> dumpProfiling() throws IOException {
+        try {
+            return ResponseEntity.ok(profilingService.dump());
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    /**
+     * 下载 JFR 记录文件，可用 JDK Mission Control 或 jfr 命令打开
+     *
+     * @param name 记录文件名
+     * @return .jfr 文件
+     */
+    @GetMapping("/admin/profiling/{name}")
+    public ResponseEntity<?> downloadProfile(@PathVariable String name) {
+        try {
+            Resource body = new FileSystemResource(profilingService.resolve(name));
+            return ResponseEntity.ok()
+                    .contentType(MediaType.APPLICATION_OCTET_STREAM)
+                    .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + name + "\"")
+                    .body(body);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        } catch (NoSuchFileException e) {
+            return ResponseEntity.notFound().build();
+        }
+    }
+
+    /**
+     * 在服务端汇总 JFR 记录：CPU 热点方法、分配热点、锁竞争和 GC 停顿
+     *
+     * @param name 记录文件名
+     * @param top  每项列出的条数
+     * @return 汇总结果
+     */
+    @GetMapping("/admin/profiling/{name}/summary")
+    public ResponseEntity<?> summarizeProfile(@PathVariable String name,
+                                              @RequestParam(defaultValue = "20") int top) throws IOException {
+        try {
+            return ResponseEntity.ok(profilingService.summarize(name, Math.max(1, Math.min(top, 100))));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        } catch (NoSuchFileException e) {
+            return ResponseEntity.notFound().build();
+        }
+    }
+
+    /**
+     * 获取全局并发限制状态：当前自适应上限、并发数、延迟基线和各优先级的接受与拒绝次数
+     *
+     * @return 并发限制状态
+     */
+    @GetMapping("/admin/concurrency/status")
+    public Map<String, Object> getConcurrencyStatus() {
+        return concurrencyLimitInterceptor.getStatus();
+    }
+
+    /**
+     * 获取相同 GET 请求合并统计：实际执行次数、复用结果次数、合并比例、等待超时和失效次数
+     *
+     * @return 请求合并统计
+     */
+    @GetMapping("/admin/coalescing/status")
+    public Map<String, Object> getCoalescingStatus() {
+        return requestCoalescingFilter.getStatus();
+    }
+
+    /**
+     * 获取日程索引状态：已索引的日程数、重复日程数和区间树高度
+     *
+     * @return 日程索引状态
+     */
+    @GetMapping("/admin/schedules/index")
+    public Map<String, Object> getScheduleIndexStatus() {
+        return scheduleIndexService.getStatus();
+    }
+
+    /**
+     * 获取主键状态：当前节点号，各表的行数、平均主键长度、仍为旧版 UUID 的主键数和磁盘占用（含索引）
+     *
+     * @return 主键状态
+     */
+    @GetMapping("/admin/ids/status")
+    public Map<String, Object> getIdStatus() {
+        return idMigrationService.getStatus();
+    }
+
+    // --- 数据源管理接口 ---
+
+    /**
+     * 获取读写分离路由状态，包括各副本延迟和路由次数
+     *
+     * @return 路由状态信息
+     */
+    @GetMapping("/admin/datasource/status")
+    public ResponseEntity<Map<String, Object>> getDataSourceStatus() {
+        if (replicaRoutingDataSource == null) {
+            return ResponseEntity.ok(Map.of("replicaEnabled", false));
+        }
+        Map<String, Object> status = new LinkedHashMap<>(replicaRoutingDataSource.getStatus());
+        status.put("replicaEnabled", true);
+        return ResponseEntity.ok(status);
+    }
+
+    /**
+     * 获取文章正文存储统计，包括压缩率、数据库文件大小和每篇文章加载时的堆分配量
+     *
+     * @param sample 抽样测量的文章数
+     * @return 统计信息
+     */
+    @GetMapping("/admin/content-store/stats")
+    public Map<String, Object> getContentStoreStats(@RequestParam(defaultValue = "500") int sample) {
+        return contentStore.stats(Math.max(1, Math.min(sample, 5000)));
+    }
+
+    /**
+     * 获取文章修订存储统计，包括存储占用和逐条还原的耗时
+     *
+     * @param postId 文章 ID
+     * @return 统计信息
+     */
+    @GetMapping("/admin/revisions/stats")
+    public Map<String, Object> getRevisionStats(@RequestParam String postId) {
+        return revisionService.stats(postId);
+    }
+
+    /**
+     * 以指定并行度全量重建相关文章索引，返回各阶段耗时
+     *
+     * @param parallelism 并行度，0 表示使用全部可用核心
+     * @return 重建统计
+     */
+    @PostMapping("/admin/related/rebuild")
+    public Map<String, Object> rebuildRelatedPosts(@RequestParam(defaultValue = "0") int parallelism) throws Exception {
+        return relatedPostsService.rebuild(Math.max(0, parallelism));
+    }
+
+    /**
+     * 获取上次全量重建相关文章索引的统计
+     *
+     * @return 重建统计
+     */
+    @GetMapping("/admin/related/stats")
+    public Map<String, Object> getRelatedPostsStats() {
+        return relatedPostsService.getLastRebuild();
+    }
+
+    /**
+     * 获取实时推送的订阅与发送统计
+     *
+     * @return 统计信息
+     */
+    @GetMapping("/admin/live/status")
+    public Map<String, Object> getLiveStatus() {
+        return liveUpdateService.getStatus();
+    }
+
+    /**
+     * 获取评论写入管道的队列深度、处理延迟等统计
+     *
+     * @return 统计信息
+     */
+    @GetMapping("/admin/comments/pipeline")
+    public Map<String, Object> getCommentPipelineMetrics() {
+        return commentPipeline.getMetrics();
+    }
+
+    /**
+     * 就绪检查：启动预热结束且应用处于接收流量状态时返回 200，否则返回 503，供 Nginx 或编排系统判断是否转发流量
+     *
+     * @return 是否就绪和预热报告
+     */
+    @GetMapping("/ready")
+    public ResponseEntity<Map<String, Object>> getReadiness() {
+        boolean ready = warmupService.isComplete()
+                && applicationAvailability.getReadinessState() == ReadinessState.ACCEPTING_TRAFFIC;
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("ready", ready);
+        body.put("warmup", warmupService.getReport());
+        return ResponseEntity.status(ready ? HttpStatus.OK : HttpStatus.SERVICE_UNAVAILABLE)
+                .cacheControl(CacheControl.noStore())
+                .body(body);
+    }
+
+    /**
+     * 获取启动报告：启动耗时、已加载类数、启动相关配置和创建最慢的 Bean
+     *
+     * @return 启动报告
+     */
+    @GetMapping("/admin/startup")
+    public Map<String, Object> getStartupReport() {
+        return startupReportService.getReport();
+    }
+
+    // --- 浏览统计接口 ---
+
+    /**
+     * 获取最近若干天的逐日浏览量和去重访客数
+     *
+     * @param days   天数，包含今天
+     * @param postId 文章 ID（可选，缺省为全站）
+     * @return 逐日统计
+     */
+    @GetMapping("/admin/analytics/views")
+    public Map<String, Object> getViewSeries(@RequestParam(defaultValue = "30") int days,
+                                             @RequestParam(required = false) String postId) {
+        return viewService.getSeries(postId, Math.max(1, Math.min(days, 366)));
+    }
+
+    /**
+     * 获取最近若干天浏览量最高的文章
+     *
+     * @param days  天数，包含今天
+     * @param limit 最多返回的篇数
+     * @return 文章浏览排行
+     */
+    @GetMapping("/admin/analytics/top")
+    public List<Map<String, Object>> getTopViewedPosts(@RequestParam(defaultValue = "7") int days,
+                                                       @RequestParam(defaultValue = "10") int limit) {
+        return viewService.getTopPosts(Math.max(1, Math.min(days, 366)), Math.max(1, Math.min(limit, 50)));
+    }
+
+    /**
+     * 获取浏览统计内存计数与批量写入的状态
+     *
+     * @return 状态信息
+     */
+    @GetMapping("/admin/analytics/status")
+    public Map<String, Object> getAnalyticsStatus() {
+        return viewService.getStatus();
+    }
+
     /**
      * 限流测试端点
      *
@@ -484,26 +1217,6 @@ public class ApiController {
         ));
     }
 
-    /**
-     * 简单的密码哈希方法
-     *
-     * @param password 明文密码
-     * @return 哈希后的密码
-     */
-    private String hashPassword(String password) {
-        try {
-            MessageDigest md = MessageDigest.getInstance("SHA-256");
-            byte[] hashedBytes = md.digest(password.getBytes());
-            StringBuilder sb = new StringBuilder();
-            for (byte b : hashedBytes) {
-                sb.append(String.format("%02x", b));
-            }
-            return sb.toString();
-        } catch (NoSuchAlgorithmException e) {
-            throw new RuntimeException("Error hashing password", e);
-        }
-    }
-
     /**
      * 获取客户端真实IP地址
      */
@@ -0,0 +1,164 @@
+/**
+ * 数据导入导出控制器
+ * 提供整站数据的 NDJSON 流式导出与导入接口，用于备份和迁移；以及数据库在线备份的管理接口
+ */
+package com.blogos.controller;
+
+import com.blogos.service.BackupService;
+import com.blogos.service.DataTransferService;
+import jakarta.servlet.http.HttpServletRequest;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.InputStream;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+// REST 控制器注解，标记这是一个 RESTful Web 服务控制器
+@RestController
+// 请求映射注解，指定所有接口的根路径为 "/api"
+@RequestMapping("/api")
+// 跨域注解，允许前端应用访问后端 API
+@CrossOrigin(origins = "*")
+public class DataTransferController {
+    private static final Logger logger = LoggerFactory.getLogger(DataTransferController.class);
+
+    private static final MediaType NDJSON = MediaType.parseMediaType("application/x-ndjson");
+
+    // 自动注入数据导入导出服务
+    @Autowired
+    private DataTransferService dataTransferService;
+
+    // 自动注入数据库备份服务
+    @Autowired
+    private BackupService backupService;
+
+    /**
+     * 导出整站数据，响应体边查询边写出
+     *
+     * @return NDJSON 流
+     */
+    @GetMapping("/admin/export")
+    public ResponseEntity<StreamingResponseBody> exportData() {
+        StreamingResponseBody body = dataTransferService::exportAll;
+        return ResponseEntity.ok()
+                .contentType(NDJSON)
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        "attachment; filename=\"blogos-" + LocalDate.now() + ".ndjson\"")
+                .body(body);
+    }
+
+    /**
+     * 导入 NDJSON 数据，请求体按行增量解析
+     *
+     * @param replace 是否覆盖已存在的记录，默认跳过
+     * @return 导入报告
+     */
+    @PostMapping("/admin/import")
+    public ResponseEntity<Map<String, Object>> importData(@RequestParam(defaultValue = "false") boolean replace,
+                                                          HttpServletRequest request) {
+        try (InputStream in = request.getInputStream()) {
+            return ResponseEntity.ok(dataTransferService.importAll(in, replace));
+        } catch (Exception e) {
+            logger.error("Error importing data", e);
+            throw new RuntimeException("导入数据失败: " + e.getMessage());
+        }
+    }
+
+    /**
+     * 列出数据库备份
+     *
+     * @return 按时间倒序的备份列表
+     */
+    @GetMapping("/admin/backups")
+    public List<BackupService.BackupInfo> listBackups() throws Exception {
+        return backupService.list();
+    }
+
+    /**
+     * 立即在线备份数据库，备份期间读写请求照常处理
+     *
+     * @return 备份信息
+     */
+    @PostMapping("/admin/backups")
+    public BackupService.BackupInfo createBackup() throws Exception {
+        return backupService.backup("manual");
+    }
+
+    /**
+     * 获取备份状态：定时备份配置、上次备份的大小和耗时、上次恢复
+     *
+     * @return 备份状态
+     */
+    @GetMapping("/admin/backups/status")
+    public Map<String, Object> getBackupStatus() {
+        return backupService.getStatus();
+    }
+
+    /**
+     * 下载备份文件
+     *
+     * @param name 备份文件名
+     * @return zip 文件
+     */
+    @GetMapping("/admin/backups/{name}")
+    public ResponseEntity<?> downloadBackup(@PathVariable String name) {
+        try {
+            Path archive = backupService.resolve(name);
+            Resource body = new FileSystemResource(archive);
+            return ResponseEntity.ok()
+                    .contentType(MediaType.parseMediaType("application/zip"))
+                    .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + name + "\"")
+                    .body(body);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        } catch (NoSuchFileException e) {
+            return ResponseEntity.notFound().build();
+        }
+    }
+
+    /**
+     * 重新计算备份的校验和并与记录的值比对
+     *
+     * @param name 备份文件名
+     * @return 校验结果
+     */
+    @PostMapping("/admin/backups/{name}/verify")
+    public ResponseEntity<?> verifyBackup(@PathVariable String name) throws Exception {
+        try {
+            return ResponseEntity.ok(Map.of("name", name, "valid", backupService.verify(name)));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        } catch (NoSuchFileException e) {
+            return ResponseEntity.notFound().build();
+        }
+    }
+
+    /**
+     * 从备份恢复数据库，恢复前自动另存一份当前数据
+     *
+     * @param name 备份文件名
+     * @return 恢复报告
+     */
+    @PostMapping("/admin/backups/{name}/restore")
+    public ResponseEntity<?> restoreBackup(@PathVariable String name) throws Exception {
+        try {
+            return ResponseEntity.ok(backupService.restore(name));
+        } catch (IllegalArgumentException | IllegalStateException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        } catch (NoSuchFileException e) {
+            return ResponseEntity.notFound().build();
+        }
+    }
+}
@@ -0,0 +1,78 @@
+/**
+ * 订阅源控制器
+ * 提供 RSS、Atom 订阅源和站点地图接口，返回预先编码并缓存的 XML
+ */
+package com.blogos.controller;
+
+import com.blogos.service.FeedService;
+import com.blogos.service.FeedService.FeedDocument;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.concurrent.TimeUnit;
+
+// REST 控制器注解，标记这是一个 RESTful Web 服务控制器
+@RestController
+// 请求映射注解，指定所有接口的根路径为 "/api"
+@RequestMapping("/api")
+// 跨域注解，允许前端应用访问后端 API
+@CrossOrigin(origins = "*")
+public class FeedController {
+
+    // 自动注入订阅源服务
+    @Autowired
+    private FeedService feedService;
+
+    /**
+     * RSS 2.0 订阅源
+     */
+    @GetMapping("/feed/rss.xml")
+    public ResponseEntity<byte[]> rss(@RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+                                      @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        return serve(feedService.getRss(), acceptEncoding, ifNoneMatch);
+    }
+
+    /**
+     * Atom 订阅源
+     */
+    @GetMapping("/feed/atom.xml")
+    public ResponseEntity<byte[]> atom(@RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+                                       @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        return serve(feedService.getAtom(), acceptEncoding, ifNoneMatch);
+    }
+
+    /**
+     * 站点地图入口（urlset 或 sitemapindex）
+     */
+    @GetMapping("/sitemap.xml")
+    public ResponseEntity<byte[]> sitemap(@RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+                                          @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        return serve(feedService.getSitemap(), acceptEncoding, ifNoneMatch);
+    }
+
+    /**
+     * 站点地图分片
+     *
+     * @param shard 分片序号
+     */
+    @GetMapping("/sitemap-{shard}.xml")
+    public ResponseEntity<byte[]> sitemapShard(@PathVariable int shard,
+                                               @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+                                               @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        FeedDocument doc = feedService.getSitemapShard(shard);
+        if (doc == null) {
+            return ResponseEntity.notFound().build();
+        }
+        return serve(doc, acceptEncoding, ifNoneMatch);
+    }
+
+    /**
+     * 输出缓存文档，支持 ETag 协商和 gzip 预压缩内容
+     */
+    private ResponseEntity<byte[]> serve(FeedDocument doc, String acceptEncoding, String ifNoneMatch) {
+        return doc.toResponse(acceptEncoding, ifNoneMatch, CacheControl.maxAge(5, TimeUnit.MINUTES).cachePublic());
+    }
+}
@@ -0,0 +1,172 @@
+/**
+ * 媒体文件控制器
+ * 提供图片上传和下载接口；下载优先使用 Tomcat sendfile 零拷贝发送，
+ * 不支持时通过 FileChannel.transferTo 直接写入响应通道，并支持 Range 请求和长期缓存
+ */
+package com.blogos.controller;
+
+import com.blogos.service.MediaStorageService;
+import com.blogos.service.MediaStorageService.MediaInfo;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Map;
+
+// REST 控制器注解，标记这是一个 RESTful Web 服务控制器
+@RestController
+// 请求映射注解，指定所有接口的根路径为 "/api"
+@RequestMapping("/api")
+// 跨域注解，允许前端应用访问后端 API
+@CrossOrigin(origins = "*")
+public class MediaController {
+    private static final Logger logger = LoggerFactory.getLogger(MediaController.class);
+
+    // Tomcat sendfile 相关请求属性
+    private static final String SENDFILE_SUPPORT = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
+    // 内容寻址的文件永不变化，可长期缓存
+    private static final String IMMUTABLE_CACHE = "public, max-age=31536000, immutable";
+
+    // 自动注入媒体存储服务
+    @Autowired
+    private MediaStorageService mediaStorageService;
+
+    /**
+     * 上传图片
+     * multipart 请求体由容器写入临时文件，这里只以流的方式读取，不会把整个文件读入堆内存
+     *
+     * @param file 上传的文件
+     * @return 媒体信息
+     */
+    @PostMapping("/media")
+    public ResponseEntity<?> upload(@RequestParam("file") MultipartFile file) {
+        if (file.isEmpty()) {
+            return ResponseEntity.badRequest().body(Map.of("success", false, "message", "文件不能为空"));
+        }
+        try (InputStream in = file.getInputStream()) {
+            MediaInfo info = mediaStorageService.store(in);
+            return ResponseEntity.ok(info);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("success", false, "message", e.getMessage()));
+        } catch (IOException e) {
+            logger.error("Error storing uploaded media", e);
+            throw new RuntimeException("上传文件失败: " + e.getMessage());
+        }
+    }
+
+    /**
+     * 下载图片，支持单段 Range 请求
+     *
+     * @param name 媒体文件名，例如 "<sha256>.jpg" 或 "<sha256>-thumb.webp"
+     */
+    @RequestMapping(value = "/media/{name:.+}", method = {RequestMethod.GET, RequestMethod.HEAD})
+    public void serve(@PathVariable String name, HttpServletRequest request, HttpServletResponse response) throws IOException {
+        Path file = mediaStorageService.resolve(name);
+        if (file == null) {
+            response.sendError(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+        String etag = "\"" + file.getFileName() + "\"";
+        response.setHeader(HttpHeaders.ETAG, etag);
+        response.setHeader(HttpHeaders.CACHE_CONTROL, file.getFileName().toString().equals(name)
+                ? IMMUTABLE_CACHE : "public, max-age=60");
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+        if (etag.equals(request.getHeader(HttpHeaders.IF_NONE_MATCH))) {
+            response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            return;
+        }
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long length = channel.size();
+            long start = 0;
+            long end = length - 1;
+            String range = request.getHeader(HttpHeaders.RANGE);
+            if (range != null && range.startsWith("bytes=") && !range.contains(",")) {
+                long[] parsed = parseRange(range.substring(6).trim(), length);
+                if (parsed == null) {
+                    response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + length);
+                    response.sendError(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+                    return;
+                }
+                start = parsed[0];
+                end = parsed[1];
+                response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+                response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + end + "/" + length);
+            }
+            long count = end - start + 1;
+            response.setContentType(MediaStorageService.contentType(file));
+            response.setContentLengthLong(count);
+            if ("HEAD".equals(request.getMethod()) || count <= 0) {
+                return;
+            }
+
+            if (Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT))) {
+                // 交给 Tomcat 在请求结束后通过 sendfile 发送，数据不经过用户态
+                request.setAttribute(SENDFILE_FILENAME, file.toAbsolutePath().toString());
+                request.setAttribute(SENDFILE_START, start);
+                request.setAttribute(SENDFILE_END, end + 1);
+                return;
+            }
+            WritableByteChannel out = Channels.newChannel(response.getOutputStream());
+            long position = start;
+            while (position <= end) {
+                long sent = channel.transferTo(position, end + 1 - position, out);
+                if (sent <= 0) {
+                    break;
+                }
+                position += sent;
+            }
+        }
+    }
+
+    /**
+     * 解析单段 Range，返回闭区间 [start, end]，不可满足时返回 null
+     */
+    private static long[] parseRange(String spec, long length) {
+        int dash = spec.indexOf('-');
+        if (dash < 0 || length == 0) {
+            return null;
+        }
+        try {
+            String from = spec.substring(0, dash).trim();
+            String to = spec.substring(dash + 1).trim();
+            long start;
+            long end;
+            if (from.isEmpty()) {
+                // 后缀范围，例如 "bytes=-500"
+                long suffix = Long.parseLong(to);
+                if (suffix <= 0) {
+                    return null;
+                }
+                start = Math.max(0, length - suffix);
+                end = length - 1;
+            } else {
+                start = Long.parseLong(from);
+                end = to.isEmpty() ? length - 1 : Math.min(Long.parseLong(to), length - 1);
+            }
+            if (start > end || start >= length) {
+                return null;
+            }
+            return new long[]{start, end};
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,65 @@
+/**
+ * 内容变更事件
+ * 在文章、评论、配置等数据发生变更时发布，供预渲染、缓存等组件在事务提交后增量更新
+ */
+package com.blogos.event;
+
+import lombok.Getter;
+
+// Lombok 注解，自动生成 getter 方法
+@Getter
+public class ContentChangedEvent {
+
+    /**
+     * 变更类型
+     */
+    public enum Type {
+        POST_SAVED,
+        POST_DELETED,
+        COMMENT_ADDED,
+        POST_LIKED,
+        CONFIG_SAVED,
+        MEMO_SAVED,
+        MEMO_DELETED,
+        SCHEDULES_CHANGED,
+        DATA_IMPORTED
+    }
+
+    private final Type type;
+
+    // 关联的文章 ID，随手记和日程变更、配置变更和批量导入时为 null
+    private final String postId;
+
+    // 变更内容的增量（新评论、点赞数、文章卡片等），供实时推送直接下发，不需要时为 null
+    private final Object payload;
+
+    public ContentChangedEvent(Type type, String postId) {
+        this(type, postId, null);
+    }
+
+    public ContentChangedEvent(Type type, String postId, Object payload) {
+        this.type = type;
+        this.postId = postId;
+        this.payload = payload;
+    }
+
+    public static ContentChangedEvent of(Type type, String postId) {
+        return new ContentChangedEvent(type, postId);
+    }
+
+    public static ContentChangedEvent of(Type type, String postId, Object payload) {
+        return new ContentChangedEvent(type, postId, payload);
+    }
+
+    public static ContentChangedEvent configSaved() {
+        return new ContentChangedEvent(Type.CONFIG_SAVED, null);
+    }
+
+    public static ContentChangedEvent memoChanged(Type type) {
+        return new ContentChangedEvent(type, null);
+    }
+
+    public static ContentChangedEvent dataImported() {
+        return new ContentChangedEvent(Type.DATA_IMPORTED, null);
+    }
+}
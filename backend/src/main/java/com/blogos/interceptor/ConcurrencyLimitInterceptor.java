@@ -0,0 +1,271 @@
+package com.blogos.interceptor;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.servlet.DispatcherType;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * 全局自适应并发限制
+ * 限制同时处理的 /api 请求数，上限根据观察到的延迟自动调整（梯度算法）：
+ * 短期平均延迟明显高于无排队时的延迟基线时说明请求开始排队，按比例降低上限；延迟恢复后逐步放大。
+ * 请求分为公开读取、写入、登录和管理四类，总数达到上限后每类仍保留一部分名额，
+ * 大量公开读取不会挤占登录和管理请求。超出的请求直接返回 503，不进入业务处理
+ */
+public class ConcurrencyLimitInterceptor implements AsyncHandlerInterceptor {
+
+    private static final Logger logger = LoggerFactory.getLogger(ConcurrencyLimitInterceptor.class);
+
+    // 请求属性名，记录请求占用的名额和开始时间
+    private static final String PERMIT_ATTRIBUTE = ConcurrencyLimitInterceptor.class.getName() + ".permit";
+
+    /**
+     * 请求优先级分类，reservedShare 为总数达到上限后该类仍可使用的名额比例
+     */
+    public enum Priority {
+        ADMIN(0.1),
+        LOGIN(0.1),
+        WRITE(0.3),
+        READ(0.5);
+
+        private final double reservedShare;
+
+        Priority(double reservedShare) {
+            this.reservedShare = reservedShare;
+        }
+    }
+
+    // 是否启用，关闭后只统计不拒绝
+    @Value("${blogos.concurrency.enabled:true}")
+    private boolean enabled;
+
+    // 初始并发上限
+    @Value("${blogos.concurrency.initial-limit:20}")
+    private int initialLimit;
+
+    // 并发上限的下限和上限
+    @Value("${blogos.concurrency.min-limit:4}")
+    private int minLimit;
+
+    @Value("${blogos.concurrency.max-limit:200}")
+    private int maxLimit;
+
+    // 短期延迟超过延迟基线该倍数以内视为正常波动，不降低上限
+    @Value("${blogos.concurrency.tolerance:1.5}")
+    private double tolerance;
+
+    // 每个统计窗口的最短时长和最少样本数，窗口结束时调整一次上限
+    @Value("${blogos.concurrency.window-ms:100}")
+    private long windowMs;
+
+    @Value("${blogos.concurrency.window-min-samples:10}")
+    private int windowMinSamples;
+
+    // 当前并发上限，保留小数以便平滑调整
+    private volatile double limit;
+
+    // 延迟基线（纳秒），近似无排队时的延迟
+    private volatile double longRttNanos;
+
+    // 最近一个窗口的平均延迟（纳秒）
+    private volatile long lastRttNanos;
+
+    private final AtomicInteger inflight = new AtomicInteger();
+    private final Map<Priority, ClassStats> classes = new LinkedHashMap<>();
+
+    // 当前窗口的延迟样本与窗口内的最大并发数
+    private final LongAdder windowRttSum = new LongAdder();
+    private final LongAdder windowSamples = new LongAdder();
+    private final AtomicInteger windowMaxInflight = new AtomicInteger();
+    private final AtomicLong windowStart = new AtomicLong(System.nanoTime());
+
+    public ConcurrencyLimitInterceptor() {
+        for (Priority priority : Priority.values()) {
+            classes.put(priority, new ClassStats());
+        }
+    }
+
+    @PostConstruct
+    public void init() {
+        limit = initialLimit;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) throws Exception {
+        // 异步请求完成后的再次分派不重复计数
+        if (request.getDispatcherType() != DispatcherType.REQUEST) {
+            return true;
+        }
+        Priority priority = classify(request);
+        ClassStats stats = classes.get(priority);
+        int currentLimit = (int) limit;
+        int total = inflight.incrementAndGet();
+        int inClass = stats.inflight.incrementAndGet();
+        if (enabled && total > currentLimit && inClass > Math.max(1, (int) (currentLimit * priority.reservedShare))) {
+            stats.inflight.decrementAndGet();
+            inflight.decrementAndGet();
+            stats.rejected.increment();
+            logger.debug("Concurrency limit {} reached, rejecting {} {}", currentLimit, priority, request.getRequestURI());
+            response.setStatus(HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+            response.setHeader("Retry-After", "1");
+            response.setContentType("application/json;charset=UTF-8");
+            response.getWriter().write("{\"error\":\"Server is busy. Please try again later.\"}");
+            return false;
+        }
+        stats.accepted.increment();
+        windowMaxInflight.accumulateAndGet(total, Math::max);
+        request.setAttribute(PERMIT_ATTRIBUTE, new Permit(priority, System.nanoTime()));
+        return true;
+    }
+
+    @Override
+    public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        // 长连接（如 SSE）在转入异步处理后即释放名额，不计入延迟
+        Permit permit = (Permit) request.getAttribute(PERMIT_ATTRIBUTE);
+        if (permit != null) {
+            request.removeAttribute(PERMIT_ATTRIBUTE);
+            release(permit);
+        }
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        Permit permit = (Permit) request.getAttribute(PERMIT_ATTRIBUTE);
+        if (permit == null) {
+            return;
+        }
+        request.removeAttribute(PERMIT_ATTRIBUTE);
+        release(permit);
+        sample(System.nanoTime() - permit.startNanos);
+    }
+
+    /**
+     * 获取限制状态（用于管理端点）
+     * @return 当前上限、并发数、延迟和各类请求的统计
+     */
+    public Map<String, Object> getStatus() {
+        Map<String, Object> status = new LinkedHashMap<>();
+        int currentLimit = (int) limit;
+        status.put("enabled", enabled);
+        status.put("limit", currentLimit);
+        status.put("minLimit", minLimit);
+        status.put("maxLimit", maxLimit);
+        status.put("inflight", inflight.get());
+        status.put("lastRttMs", lastRttNanos / 1e6);
+        status.put("baselineRttMs", longRttNanos / 1e6);
+        Map<String, Object> perClass = new LinkedHashMap<>();
+        classes.forEach((priority, stats) -> {
+            Map<String, Object> s = new LinkedHashMap<>();
+            s.put("inflight", stats.inflight.get());
+            s.put("reserved", Math.max(1, (int) (currentLimit * priority.reservedShare)));
+            s.put("accepted", stats.accepted.sum());
+            s.put("rejected", stats.rejected.sum());
+            perClass.put(priority.name().toLowerCase(), s);
+        });
+        status.put("classes", perClass);
+        return status;
+    }
+
+    /**
+     * 按路径和方法划分请求优先级
+     */
+    static Priority classify(HttpServletRequest request) {
+        String uri = request.getRequestURI();
+        if (uri.startsWith("/api/admin/")) {
+            return Priority.ADMIN;
+        }
+        if (uri.endsWith("/api/login")) {
+            return Priority.LOGIN;
+        }
+        String method = request.getMethod();
+        if ("GET".equals(method) || "HEAD".equals(method) || "OPTIONS".equals(method)) {
+            return Priority.READ;
+        }
+        return Priority.WRITE;
+    }
+
+    private void release(Permit permit) {
+        classes.get(permit.priority).inflight.decrementAndGet();
+        inflight.decrementAndGet();
+    }
+
+    /**
+     * 记录一个延迟样本，窗口结束时由恰好跨过窗口边界的请求线程调整上限
+     */
+    private void sample(long rttNanos) {
+        windowRttSum.add(rttNanos);
+        windowSamples.increment();
+        long start = windowStart.get();
+        long now = System.nanoTime();
+        if (now - start < TimeUnit.MILLISECONDS.toNanos(windowMs) || windowSamples.sum() < windowMinSamples
+                || !windowStart.compareAndSet(start, now)) {
+            return;
+        }
+        long samples = windowSamples.sumThenReset();
+        long sum = windowRttSum.sumThenReset();
+        int maxInflight = windowMaxInflight.getAndSet(inflight.get());
+        if (samples > 0) {
+            update(sum / samples, maxInflight);
+        }
+    }
+
+    /**
+     * 梯度算法：新上限 = 当前上限 × min(1, 容忍倍数 × 延迟基线 / 短期延迟) + 排队余量
+     */
+    private synchronized void update(long shortRtt, int maxInflight) {
+        lastRttNanos = shortRtt;
+        if (longRttNanos == 0) {
+            longRttNanos = shortRtt;
+            return;
+        }
+        // 基线取无排队时的延迟：出现更低的延迟立即采用，否则只缓慢上移（约 500 个窗口），
+        // 持续过载时基线不会被排队延迟带高，接口本身变慢时也能逐渐适应
+        if (shortRtt < longRttNanos) {
+            longRttNanos = shortRtt;
+        } else {
+            longRttNanos += (shortRtt - longRttNanos) * 0.002;
+        }
+        double current = limit;
+        double gradient = Math.max(0.5, Math.min(1.0, tolerance * longRttNanos / shortRtt));
+        // 排队余量让上限在延迟平稳时持续试探增长
+        double queueSize = Math.sqrt(current);
+        double estimate = current * gradient + queueSize;
+        if (estimate > current && maxInflight < current / 2) {
+            // 实际并发远低于上限时延迟信号不能说明容量，不继续放大
+            return;
+        }
+        double next = Math.max(minLimit, Math.min(maxLimit, current * 0.8 + estimate * 0.2));
+        if ((int) next != (int) current) {
+            logger.debug("Concurrency limit {} -> {} (rtt {} ms, baseline {} ms)", (int) current, (int) next,
+                    shortRtt / 1_000_000, (long) longRttNanos / 1_000_000);
+        }
+        limit = next;
+    }
+
+    /**
+     * 请求占用的名额
+     */
+    private record Permit(Priority priority, long startNanos) {
+    }
+
+    /**
+     * 单个优先级的统计
+     */
+    private static class ClassStats {
+        final AtomicInteger inflight = new AtomicInteger();
+        final LongAdder accepted = new LongAdder();
+        final LongAdder rejected = new LongAdder();
+    }
+}
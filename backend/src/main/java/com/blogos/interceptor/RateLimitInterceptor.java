@@ -5,6 +5,7 @@ import org.springframework.web.servlet.HandlerInterceptor;
 
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
@@ -30,9 +31,27 @@ public class RateLimitInterceptor implements HandlerInterceptor {
     
     // 对于登录接口，限制更严格，每分钟最多请求数（默认值）
     private static final int DEFAULT_MAX_LOGIN_REQUESTS_PER_MINUTE = 10;
+
+    // 请求已计数的标记，合并过滤器提前计数后，请求自行执行时拦截器不再重复计数
+    private static final String CHARGED_ATTRIBUTE = RateLimitInterceptor.class.getName() + ".CHARGED";
     
     @Override
     public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) throws Exception {
+        if (request.getAttribute(CHARGED_ATTRIBUTE) != null) {
+            return true;
+        }
+        return charge(request, response);
+    }
+
+    /**
+     * 为请求计入所属 IP 的限流计数，超过阈值时写出 429 响应
+     * 复用合并结果的请求不经过拦截器，由合并过滤器在等待前调用
+     * @param request 请求
+     * @param response 响应
+     * @return 未超过阈值时为 true
+     */
+    public boolean charge(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        request.setAttribute(CHARGED_ATTRIBUTE, Boolean.TRUE);
         String ip = getClientIpAddress(request);
         String uri = request.getRequestURI();
         
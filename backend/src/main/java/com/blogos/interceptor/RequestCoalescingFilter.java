@@ -0,0 +1,333 @@
+package com.blogos.interceptor;
+
+import com.blogos.event.ContentChangedEvent;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * 相同 GET 请求合并（single-flight）
+ * 同一时刻到达的相同只读请求（路径、参数、协商头和身份凭据都相同）只由第一个请求执行，
+ * 其余请求等待它完成后直接复用编码好的响应字节，不再重复查询和序列化。
+ * 只复用 200 和 304 响应；首个请求失败、超时或响应不可复用时，等待的请求各自正常执行。
+ * 复用结果的请求不经过拦截器，加入合并前先计入每 IP 限流，超过阈值时直接返回 429。
+ * 数据变更提交后（包括评论管道、自动保存等后台写入）立即清空正在进行的合并；
+ * 写请求的响应先缓冲，清空合并后才写出，客户端收到写入结果后发起的读请求不会拿到写入前的结果
+ */
+public class RequestCoalescingFilter extends OncePerRequestFilter {
+
+    private static final Logger logger = LoggerFactory.getLogger(RequestCoalescingFilter.class);
+
+    // 参与计算合并键的请求头，决定响应的编码、格式和缓存协商结果
+    private static final String[] KEY_HEADERS = {
+            HttpHeaders.ACCEPT, HttpHeaders.ACCEPT_ENCODING, HttpHeaders.IF_NONE_MATCH, HttpHeaders.ORIGIN
+    };
+
+    // 复用响应时不复制的头，由本次响应重新设置
+    private static final List<String> SKIPPED_HEADERS = List.of(HttpHeaders.CONTENT_LENGTH, HttpHeaders.CONTENT_TYPE,
+            HttpHeaders.TRANSFER_ENCODING, HttpHeaders.SET_COOKIE);
+
+    private final AntPathMatcher pathMatcher = new AntPathMatcher();
+
+    // 自动注入每 IP 限流拦截器，复用结果的请求不经过拦截器，在加入合并前计数
+    @Autowired
+    private RateLimitInterceptor rateLimitInterceptor;
+
+    // 是否启用，关闭后所有请求直接执行
+    @Value("${blogos.coalescing.enabled:true}")
+    private boolean enabled;
+
+    // 等待首个请求的默认超时，超时后自行执行
+    @Value("${blogos.coalescing.timeout-ms:3000}")
+    private long timeoutMs;
+
+    // 按路径单独设置的等待超时，格式为 路径模式=毫秒
+    @Value("${blogos.coalescing.route-timeouts:}")
+    private List<String> routeTimeoutSpecs;
+
+    // 不参与合并的路径：管理接口需要实时数据，SSE 和媒体文件是流式响应，不能整体缓冲
+    @Value("${blogos.coalescing.exclude:/api/admin/**,/api/live,/api/posts/*/live,/api/media/**,/api/test/**,/api/ready}")
+    private List<String> excludePatterns;
+
+    // 完成后不清空合并的写请求：浏览计数、登录和日程冲突检查不改变任何读接口的结果
+    @Value("${blogos.coalescing.non-invalidating:/api/posts/*/view,/api/login,/api/schedules/conflicts}")
+    private List<String> nonInvalidatingPatterns;
+
+    // 合并键到正在执行的请求
+    private final Map<String, Flight> flights = new ConcurrentHashMap<>();
+
+    // 解析后的路径超时，按配置顺序匹配
+    private final Map<String, Long> routeTimeouts = new LinkedHashMap<>();
+
+    private final LongAdder leaders = new LongAdder();
+    private final LongAdder coalesced = new LongAdder();
+    private final LongAdder timeouts = new LongAdder();
+    private final LongAdder notShared = new LongAdder();
+    private final LongAdder invalidations = new LongAdder();
+
+    @PostConstruct
+    public void init() {
+        for (String spec : routeTimeoutSpecs) {
+            int eq = spec.lastIndexOf('=');
+            if (eq <= 0) {
+                logger.warn("Ignoring malformed coalescing route timeout: {}", spec);
+                continue;
+            }
+            try {
+                routeTimeouts.put(spec.substring(0, eq).trim(), Long.parseLong(spec.substring(eq + 1).trim()));
+            } catch (NumberFormatException e) {
+                logger.warn("Ignoring malformed coalescing route timeout: {}", spec);
+            }
+        }
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        if (!enabled) {
+            return true;
+        }
+        return matchesAny(excludePatterns, request.getRequestURI());
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String method = request.getMethod();
+        if ("HEAD".equals(method) || "OPTIONS".equals(method)) {
+            chain.doFilter(request, response);
+            return;
+        }
+        if (!"GET".equals(method)) {
+            if (matchesAny(nonInvalidatingPatterns, request.getRequestURI())) {
+                chain.doFilter(request, response);
+                return;
+            }
+            // 没有发布变更事件的写入（待办、日程等）在这里清空，响应提交前完成
+            ContentCachingResponseWrapper wrapper = new ContentCachingResponseWrapper(response);
+            try {
+                chain.doFilter(request, wrapper);
+            } finally {
+                invalidate();
+            }
+            wrapper.copyBodyToResponse();
+            return;
+        }
+        String accept = request.getHeader(HttpHeaders.ACCEPT);
+        if (accept != null && accept.contains(MediaType.TEXT_EVENT_STREAM_VALUE)) {
+            chain.doFilter(request, response);
+            return;
+        }
+
+        String key = keyOf(request);
+        Flight flight = new Flight();
+        Flight existing = flights.putIfAbsent(key, flight);
+        if (existing == null) {
+            lead(key, flight, request, response, chain);
+        } else if (rateLimitInterceptor.charge(request, response)) {
+            follow(existing, request, response, chain);
+        }
+    }
+
+    /**
+     * 数据变更提交后清空正在进行的合并
+     * 在写入线程中同步执行，早于写请求的响应；后台线程的写入没有对应的请求，只能由事件触发
+     * @param event 内容变更事件
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onContentChanged(ContentChangedEvent event) {
+        invalidate();
+    }
+
+    /**
+     * 获取合并统计（用于管理端点）
+     * @return 执行次数、复用次数、合并比例和当前进行中的键数
+     */
+    public Map<String, Object> getStatus() {
+        long led = leaders.sum();
+        long joined = coalesced.sum();
+        Map<String, Object> status = new LinkedHashMap<>();
+        status.put("enabled", enabled);
+        status.put("timeoutMs", timeoutMs);
+        status.put("routeTimeouts", routeTimeouts);
+        status.put("inFlight", flights.size());
+        status.put("executed", led);
+        status.put("coalesced", joined);
+        status.put("coalescingRatio", led + joined == 0 ? 0.0 : (double) joined / (led + joined));
+        status.put("timeouts", timeouts.sum());
+        status.put("notShared", notShared.sum());
+        status.put("invalidations", invalidations.sum());
+        return status;
+    }
+
+    /**
+     * 首个请求：正常执行并缓冲响应，完成后把结果交给等待的请求
+     */
+    private void lead(String key, Flight flight, HttpServletRequest request, HttpServletResponse response,
+                      FilterChain chain) throws ServletException, IOException {
+        leaders.increment();
+        ContentCachingResponseWrapper wrapper = new ContentCachingResponseWrapper(response);
+        SharedResponse shared = null;
+        try {
+            chain.doFilter(request, wrapper);
+            if (request.isAsyncStarted()) {
+                logger.warn("Asynchronous response on coalesced path {}, add it to blogos.coalescing.exclude",
+                        request.getRequestURI());
+            } else {
+                shared = capture(wrapper);
+            }
+        } finally {
+            flights.remove(key, flight);
+            flight.result.complete(shared);
+        }
+        wrapper.copyBodyToResponse();
+    }
+
+    /**
+     * 等待首个请求的结果并原样写出；拿不到可复用结果时自行执行
+     */
+    private void follow(Flight flight, HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        SharedResponse shared;
+        try {
+            shared = flight.result.get(timeoutFor(request.getRequestURI()), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            timeouts.increment();
+            chain.doFilter(request, response);
+            return;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ServletException("Interrupted while waiting for coalesced request", e);
+        } catch (ExecutionException e) {
+            shared = null;
+        }
+        if (shared == null) {
+            notShared.increment();
+            chain.doFilter(request, response);
+            return;
+        }
+        coalesced.increment();
+        response.setStatus(shared.status);
+        shared.headers.forEach((name, values) -> values.forEach(value -> response.addHeader(name, value)));
+        if (shared.contentType != null) {
+            response.setContentType(shared.contentType);
+        }
+        response.setContentLength(shared.body.length);
+        if (shared.body.length > 0) {
+            response.getOutputStream().write(shared.body);
+        }
+    }
+
+    /**
+     * 复制可复用的响应；带 Set-Cookie 的响应属于单个客户端，不复用
+     */
+    private SharedResponse capture(ContentCachingResponseWrapper wrapper) {
+        int status = wrapper.getStatus();
+        if ((status != HttpServletResponse.SC_OK && status != HttpServletResponse.SC_NOT_MODIFIED)
+                || wrapper.containsHeader(HttpHeaders.SET_COOKIE)) {
+            return null;
+        }
+        Map<String, List<String>> headers = new LinkedHashMap<>();
+        for (String name : wrapper.getHeaderNames()) {
+            if (SKIPPED_HEADERS.stream().noneMatch(name::equalsIgnoreCase)) {
+                headers.put(name, new ArrayList<>(wrapper.getHeaders(name)));
+            }
+        }
+        return new SharedResponse(status, wrapper.getContentType(), headers, wrapper.getContentAsByteArray());
+    }
+
+    private void invalidate() {
+        if (!flights.isEmpty()) {
+            flights.clear();
+            invalidations.increment();
+        }
+    }
+
+    private boolean matchesAny(List<String> patterns, String uri) {
+        for (String pattern : patterns) {
+            if (pathMatcher.match(pattern.trim(), uri)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private long timeoutFor(String uri) {
+        for (Map.Entry<String, Long> entry : routeTimeouts.entrySet()) {
+            if (pathMatcher.match(entry.getKey(), uri)) {
+                return entry.getValue();
+            }
+        }
+        return timeoutMs;
+    }
+
+    /**
+     * 合并键：路径和参数、影响响应内容的协商头，以及身份凭据的摘要（不同身份的请求不会共享结果）
+     */
+    private static String keyOf(HttpServletRequest request) {
+        StringBuilder key = new StringBuilder(request.getRequestURI());
+        if (request.getQueryString() != null) {
+            key.append('?').append(request.getQueryString());
+        }
+        for (String header : KEY_HEADERS) {
+            String value = request.getHeader(header);
+            key.append('\n').append(value == null ? "" : value);
+        }
+        String authorization = request.getHeader(HttpHeaders.AUTHORIZATION);
+        String cookie = request.getHeader(HttpHeaders.COOKIE);
+        if (authorization != null || cookie != null) {
+            key.append('\n').append(digest(authorization + '\n' + cookie));
+        }
+        return key.toString();
+    }
+
+    private static String digest(String credentials) {
+        try {
+            MessageDigest md = MessageDigest.getInstance("SHA-256");
+            return Base64.getEncoder().encodeToString(md.digest(credentials.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * 一次正在执行的请求，完成时给出可复用的响应（不可复用时为 null）
+     */
+    private static class Flight {
+        final CompletableFuture<SharedResponse> result = new CompletableFuture<>();
+    }
+
+    /**
+     * 已编码的响应
+     */
+    private record SharedResponse(int status, String contentType, Map<String, List<String>> headers, byte[] body) {
+    }
+}
@@ -0,0 +1,35 @@
+/**
+ * 配置分区实体类
+ * 映射数据库中的 config_sections 表，站点配置按分区（站点信息、个人资料、友链、SEO、单点登录、账户）分别存储，
+ * 每个分区独立维护版本号，读写某一分区时不需要读取或改写其他分区
+ */
+package com.blogos.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+// Lombok 注解，自动生成 getter、setter、toString 等方法
+@Data
+// JPA 实体注解，标记这是一个实体类
+@Entity
+// 表注解，指定映射的数据库表名
+@Table(name = "config_sections")
+public class ConfigSection {
+    // 分区名，如 site、profile、accounts
+    @Id
+    @Column(length = 32)
+    private String section;
+
+    // 分区的 JSON 文档，只包含该分区拥有的顶层字段
+    @Lob
+    @Column(columnDefinition = "TEXT", nullable = false)
+    private String body;
+
+    // 版本号，每次写入加一，用作 ETag 和 If-Match 条件更新的依据
+    @Version
+    @Column(nullable = false)
+    private long version;
+
+    // 最后修改时间（ISO-8601）
+    private String updatedAt;
+}
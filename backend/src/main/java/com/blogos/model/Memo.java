@@ -12,8 +12,8 @@ import java.util.List;
 @Data
 // JPA 实体注解，标记这是一个实体类
 @Entity
-// 表注解，指定映射的数据库表名
-@Table(name = "memos")
+// 表注解，指定映射的数据库表名；时间线按日期和 ID 倒序翻页，索引与排序方向一致
+@Table(name = "memos", indexes = @Index(name = "idx_memos_date_id", columnList = "date DESC, id DESC"))
 public class Memo {
     // 主键注解，标记这是主键字段
     @Id
@@ -0,0 +1,29 @@
+/**
+ * 个人计划计数器实体类
+ * 映射数据库中的 planner_counters 表，保存按优先级和完成状态的待办事项数、日程总数等计数，
+ * 与待办事项和日程的写入在同一事务中增减，仪表板只需读取这几行
+ */
+package com.blogos.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.Data;
+
+// Lombok 注解，自动生成 getter、setter、toString 等方法
+@Data
+// JPA 实体注解，标记这是一个实体类
+@Entity
+// 表注解，指定映射的数据库表名
+@Table(name = "planner_counters")
+public class PlannerCounter {
+    // 计数键，如 todo.open.high、schedule.total
+    @Id
+    @Column(name = "counter_key", length = 64)
+    private String key;
+
+    // 计数值；value 是 H2 的保留字，列名使用 counter_value
+    @Column(name = "counter_value", nullable = false)
+    private long value;
+}
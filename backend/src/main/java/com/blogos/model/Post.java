@@ -6,6 +6,7 @@ package com.blogos.model;
 
 import jakarta.persistence.*;
 import lombok.Data;
+import org.hibernate.annotations.DynamicUpdate;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -13,8 +14,10 @@ import java.util.List;
 @Data
 // JPA 实体注解，标记这是一个实体类
 @Entity
-// 表注解，指定映射的数据库表名
-@Table(name = "posts")
+// 动态更新注解，UPDATE 语句只包含发生变化的列
+@DynamicUpdate
+// 表注解，指定映射的数据库表名，精选标志建立索引以便只更新当前的精选文章
+@Table(name = "posts", indexes = @Index(name = "idx_posts_featured", columnList = "featured"))
 public class Post {
     // 主键注解，标记这是主键字段
     @Id
@@ -26,10 +29,9 @@ public class Post {
     @Column(length = 1000)
     private String excerpt;
 
-    // Lob 注解，标记这是大对象字段
-    // 列注解，指定列定义为 TEXT 类型
-    @Lob
-    @Column(columnDefinition = "TEXT")
+    // 正文单独存放在 post_contents 表中，不随列表元数据加载
+    // 仅在详情、编辑和导出时由 PostContentStore 填充
+    @Transient
     private String content;
 
     private String coverImage;
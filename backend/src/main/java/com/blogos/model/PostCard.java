@@ -0,0 +1,14 @@
+/**
+ * 文章卡片
+ * 首页展示文章所需的元数据，不含正文、标签和评论，通过 JPQL 构造表达式直接查询
+ */
+package com.blogos.model;
+
+public record PostCard(String id, String title, String excerpt, String coverImage, String date,
+                       String category, String author, boolean featured) {
+
+    public static PostCard of(Post post) {
+        return new PostCard(post.getId(), post.getTitle(), post.getExcerpt(), post.getCoverImage(), post.getDate(),
+                post.getCategory(), post.getAuthor(), post.isFeatured());
+    }
+}
@@ -0,0 +1,37 @@
+/**
+ * 文章正文实体类
+ * 映射数据库中的 post_contents 表，与文章元数据分表存储，只在需要正文时按文章 ID 加载
+ */
+package com.blogos.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+// Lombok 注解，自动生成 getter、setter、toString 等方法
+@Data
+// JPA 实体注解，标记这是一个实体类
+@Entity
+// 表注解，指定映射的数据库表名
+@Table(name = "post_contents")
+public class PostContent {
+    // 正文编码：原样存储
+    public static final String CODEC_RAW = "raw";
+    // 正文编码：Deflate 压缩
+    public static final String CODEC_DEFLATE = "deflate";
+
+    // 主键注解，与文章 ID 一一对应
+    @Id
+    @Column(name = "post_id")
+    private String postId;
+
+    // 列注解，记录正文的存储编码
+    @Column(length = 16, nullable = false)
+    private String codec;
+
+    // 正文 UTF-8 编码后的原始字节数
+    private int rawLength;
+
+    // 列注解，存储编码后的正文字节
+    @Column(columnDefinition = "VARBINARY(104857600)")
+    private byte[] data;
+}
@@ -0,0 +1,48 @@
+/**
+ * 文章局部更新请求
+ * 只包含需要修改的字段，值为 null 的字段保持不变；正文既可以整体替换，也可以用文本区间编辑描述
+ */
+package com.blogos.model;
+
+import lombok.Data;
+
+import java.util.List;
+
+// Lombok 注解，自动生成 getter、setter、toString 等方法
+@Data
+public class PostPatch {
+    private String title;
+    private String excerpt;
+    private String coverImage;
+    private String date;
+    private String category;
+    private String author;
+    private Boolean featured;
+    private List<String> tags;
+
+    // 整体替换的正文，与 contentEdits 同时出现时以此为准
+    private String content;
+
+    // 编辑所基于的正文长度，与服务端当前正文不一致时拒绝本次编辑
+    private Integer baseLength;
+
+    // 相对基准正文的文本区间编辑，区间互不重叠
+    private List<TextEdit> contentEdits;
+
+    /**
+     * 文本区间编辑：将基准正文 [start, end) 区间替换为 text，偏移量按 UTF-16 字符计算
+     */
+    @Data
+    public static class TextEdit {
+        private int start;
+        private int end;
+        private String text;
+    }
+
+    /**
+     * 是否修改了正文
+     */
+    public boolean hasContentChange() {
+        return content != null || (contentEdits != null && !contentEdits.isEmpty());
+    }
+}
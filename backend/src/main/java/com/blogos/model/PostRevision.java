@@ -0,0 +1,50 @@
+/**
+ * 文章修订实体类
+ * 映射数据库中的 post_revisions 表，每次保存正文产生一条修订；
+ * 关键帧保存完整正文，其余修订只保存相对上一修订的二进制差异
+ */
+package com.blogos.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+// Lombok 注解，自动生成 getter、setter、toString 等方法
+@Data
+// JPA 实体注解，标记这是一个实体类
+@Entity
+// 表注解，指定映射的数据库表名和 (post_id, revision) 唯一约束
+@Table(name = "post_revisions",
+        uniqueConstraints = @UniqueConstraint(name = "uk_post_revision", columnNames = {"post_id", "revision"}))
+public class PostRevision {
+    // 主键注解，标记这是主键字段
+    @Id
+    private String id;
+
+    // 所属文章 ID
+    @Column(name = "post_id", nullable = false)
+    private String postId;
+
+    // 修订号，从 1 开始递增
+    @Column(nullable = false)
+    private int revision;
+
+    // 是否为关键帧（保存完整正文）
+    private boolean keyframe;
+
+    // 列注解，记录数据的存储编码，取值同 PostContent
+    @Column(length = 16, nullable = false)
+    private String codec;
+
+    // 该修订正文 UTF-8 编码后的字节数
+    private int contentLength;
+
+    // 该修订实际占用的存储字节数
+    private int storedLength;
+
+    // 保存时间
+    private String date;
+
+    // 列注解，关键帧为编码后的完整正文，否则为二进制差异
+    @Column(columnDefinition = "VARBINARY(104857600)")
+    private byte[] data;
+}
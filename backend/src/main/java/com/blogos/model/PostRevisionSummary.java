@@ -0,0 +1,17 @@
+/**
+ * 文章修订摘要投影
+ * 只包含修订元数据，不加载正文或差异数据，用于修订列表
+ */
+package com.blogos.model;
+
+public interface PostRevisionSummary {
+    int getRevision();
+
+    boolean isKeyframe();
+
+    int getContentLength();
+
+    int getStoredLength();
+
+    String getDate();
+}
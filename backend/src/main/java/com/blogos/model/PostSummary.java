@@ -0,0 +1,19 @@
+/**
+ * 文章摘要投影
+ * 只包含列表元数据，不加载正文、标签和评论，用于订阅源和站点地图等批量场景
+ */
+package com.blogos.model;
+
+public interface PostSummary {
+    String getId();
+
+    String getTitle();
+
+    String getExcerpt();
+
+    String getDate();
+
+    String getCategory();
+
+    String getAuthor();
+}
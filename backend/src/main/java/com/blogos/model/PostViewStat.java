@@ -0,0 +1,44 @@
+/**
+ * 文章浏览统计实体类
+ * 映射数据库中的 post_view_stats 表，按 (文章, 天) 分桶保存浏览量和去重访客的 HyperLogLog 草图；
+ * 文章 ID 为 SITE 的行保存全站汇总
+ */
+package com.blogos.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+// Lombok 注解，自动生成 getter、setter、toString 等方法
+@Data
+// JPA 实体注解，标记这是一个实体类
+@Entity
+// 表注解，指定映射的数据库表名、(post_id, stat_date) 唯一约束和按天查询的索引
+@Table(name = "post_view_stats",
+        uniqueConstraints = @UniqueConstraint(name = "uk_post_view_day", columnNames = {"post_id", "stat_date"}),
+        indexes = @Index(name = "idx_post_view_day", columnList = "stat_date"))
+public class PostViewStat {
+    // 全站汇总行使用的文章 ID
+    public static final String SITE = "*";
+
+    // 主键注解，标记这是主键字段
+    @Id
+    private String id;
+
+    // 所属文章 ID，全站汇总为 SITE
+    @Column(name = "post_id", nullable = false)
+    private String postId;
+
+    // 日期，格式 yyyy-MM-dd；day 是 H2 的保留字，列名使用 stat_date
+    @Column(name = "stat_date", length = 10, nullable = false)
+    private String day;
+
+    // 浏览次数
+    private long views;
+
+    // 当天去重访客数的估计值，由草图计算后随草图一起保存
+    private long uniques;
+
+    // 列注解，Deflate 压缩后的 HyperLogLog 寄存器，访客较少时大部分寄存器为 0，压缩后只有几十字节
+    @Column(columnDefinition = "VARBINARY(8192)")
+    private byte[] sketch;
+}
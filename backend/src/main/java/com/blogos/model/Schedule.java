@@ -1,11 +1,14 @@
 /**
  * 日程安排实体类
- * 映射数据库中的 schedules 表，包含日程安排的基本信息
+ * 映射数据库中的 schedules 表，包含日程安排的基本信息和可选的重复规则；
+ * 重复日程只存一行，具体的发生时间由日程索引按查询的时间窗口展开
  */
 package com.blogos.model;
 
+import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.Table;
 import lombok.Data;
 
@@ -13,14 +16,31 @@ import lombok.Data;
 @Data
 // JPA 实体注解，标记这是一个实体类
 @Entity
-// 表注解，指定映射的数据库表名
-@Table(name = "schedules")
+// 表注解，指定映射的数据库表名；当天和即将到来的日程按日期和时间顺序查询
+@Table(name = "schedules", indexes = @Index(name = "idx_schedules_date_time", columnList = "date, time"))
 public class Schedule {
     // 主键注解，标记这是主键字段
     @Id
     private String id;
     private String title;
+    // 开始时间（HH:mm），为空时视为全天
     private String time;
+    // 日期（yyyy-MM-dd），重复日程为首次发生的日期
     private String date;
     private String description;
-}
\ No newline at end of file
+    // 持续分钟数，为空时使用默认时长（全天日程为一整天）
+    private Integer duration;
+    // 重复规则：daily、weekly、monthly，为空表示不重复
+    @Column(length = 16)
+    private String recurrence;
+    // 重复间隔，每 N 天/周/月一次，为空时为 1
+    private Integer recurrenceInterval;
+    // 每周重复的星期几，逗号分隔的 MO、TU、WE、TH、FR、SA、SU，为空时取首次日期的星期
+    @Column(length = 32)
+    private String recurrenceDays;
+    // 最后一次可发生的日期（yyyy-MM-dd，含），为空表示一直重复
+    private String recurrenceUntil;
+    // 跳过的日期，逗号分隔的 yyyy-MM-dd
+    @Column(length = 4000)
+    private String exceptionDates;
+}
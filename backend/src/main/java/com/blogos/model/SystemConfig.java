@@ -1,6 +1,7 @@
 /**
  * 系统配置实体类
- * 映射数据库中的 system_config 表，存储站点的完整配置信息
+ * 映射数据库中的 system_config 表，旧版以单个 JSON 存储站点的完整配置；现已按分区存储（见 ConfigSection），
+ * 启动时由 ConfigService 拆分并删除其中的记录
  */
 package com.blogos.model;
 
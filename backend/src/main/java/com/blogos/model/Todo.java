@@ -6,6 +6,7 @@ package com.blogos.model;
 
 import jakarta.persistence.Entity;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.Table;
 import lombok.Data;
 
@@ -13,8 +14,8 @@ import lombok.Data;
 @Data
 // JPA 实体注解，标记这是一个实体类
 @Entity
-// 表注解，指定映射的数据库表名
-@Table(name = "todos")
+// 表注解，指定映射的数据库表名和按日期查询的索引
+@Table(name = "todos", indexes = @Index(name = "idx_todos_date", columnList = "date"))
 public class Todo {
     // 主键注解，标记这是主键字段
     @Id
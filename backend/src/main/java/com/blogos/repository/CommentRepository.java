@@ -0,0 +1,30 @@
+/**
+ * 评论仓库接口
+ * 提供评论数据访问接口，继承自 JpaRepository
+ */
+package com.blogos.repository;
+
+import com.blogos.model.Comment;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+// 仓库注解，标记这是一个数据访问仓库
+@Repository
+public interface CommentRepository extends JpaRepository<Comment, String> {
+
+    /**
+     * 查询给定评论所属的文章，每行为 [评论 ID, 文章 ID]，不存在的评论不返回
+     * 回复只关联父评论，沿 parent_id 向上找到关联文章的顶层评论
+     */
+    @Query(value = "WITH RECURSIVE chain (start_id, post_id, parent_id) AS ("
+            + "SELECT id, post_id, parent_id FROM comments WHERE id IN (:ids) "
+            + "UNION ALL SELECT chain.start_id, c.post_id, c.parent_id FROM comments c "
+            + "JOIN chain ON c.id = chain.parent_id WHERE chain.post_id IS NULL) "
+            + "SELECT start_id, post_id FROM chain WHERE post_id IS NOT NULL", nativeQuery = true)
+    List<Object[]> findPostIds(@Param("ids") Collection<String> ids);
+}
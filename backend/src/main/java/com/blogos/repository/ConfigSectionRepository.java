@@ -0,0 +1,14 @@
+/**
+ * 配置分区仓库接口
+ * 提供配置分区数据访问接口，继承自 JpaRepository
+ */
+package com.blogos.repository;
+
+import com.blogos.model.ConfigSection;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+// 仓库注解，标记这是一个数据访问仓库
+@Repository
+public interface ConfigSectionRepository extends JpaRepository<ConfigSection, String> {
+}
@@ -0,0 +1,14 @@
+/**
+ * 文章正文仓库接口
+ * 提供文章正文数据访问接口，继承自 JpaRepository
+ */
+package com.blogos.repository;
+
+import com.blogos.model.PostContent;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+// 仓库注解，标记这是一个数据访问仓库
+@Repository
+public interface PostContentRepository extends JpaRepository<PostContent, String> {
+}
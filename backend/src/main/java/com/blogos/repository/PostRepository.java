@@ -5,21 +5,79 @@
 package com.blogos.repository;
 
 import com.blogos.model.Post;
+import com.blogos.model.PostCard;
+import com.blogos.model.PostSummary;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.HibernateHints.HINT_READ_ONLY;
+
 // 仓库注解，标记这是一个数据访问仓库
 @Repository
 public interface PostRepository extends JpaRepository<Post, String> {
     
     /**
-     * 清除所有精选文章的精选状态
+     * 清除除指定文章外其他精选文章的精选状态
      * 使用 @Modifying 注解标记这是一个修改操作
-     * 使用 @Query 注解定义 JPQL 查询语句
+     * 使用 @Query 注解定义 JPQL 查询语句；featured 列有索引，只会触及当前的精选文章
      */
     @Modifying
-    @Query("UPDATE Post p SET p.featured = false WHERE p.featured = true")
-    void clearAllFeatured();
-}
\ No newline at end of file
+    @Query("UPDATE Post p SET p.featured = false WHERE p.featured = true AND p.id <> :id")
+    void clearFeaturedExcept(String id);
+
+    /**
+     * 查询单篇文章的首页卡片
+     */
+    @Query("SELECT new com.blogos.model.PostCard(p.id, p.title, p.excerpt, p.coverImage, p.date, p.category, "
+            + "p.author, p.featured) FROM Post p WHERE p.id = :id")
+    Optional<PostCard> findCard(String id);
+
+    /**
+     * 按日期降序查询最新的文章卡片
+     */
+    @Query("SELECT new com.blogos.model.PostCard(p.id, p.title, p.excerpt, p.coverImage, p.date, p.category, "
+            + "p.author, p.featured) FROM Post p ORDER BY p.date DESC, p.id")
+    List<PostCard> findLatestCards(Pageable pageable);
+
+    /**
+     * 以游标方式流式读取所有文章卡片，调用方需在只读事务中使用并及时关闭流
+     */
+    @QueryHints({@QueryHint(name = HINT_FETCH_SIZE, value = "500"), @QueryHint(name = HINT_READ_ONLY, value = "true")})
+    @Query("SELECT new com.blogos.model.PostCard(p.id, p.title, p.excerpt, p.coverImage, p.date, p.category, "
+            + "p.author, p.featured) FROM Post p")
+    Stream<PostCard> streamCards();
+
+    /**
+     * 查询一批 ID 中实际存在的文章 ID
+     */
+    @Query("SELECT p.id FROM Post p WHERE p.id IN :ids")
+    List<String> findExistingIds(Collection<String> ids);
+
+    /**
+     * 以游标方式流式读取所有文章的标签，每行为 [文章 ID, 标签]
+     */
+    @QueryHints({@QueryHint(name = HINT_FETCH_SIZE, value = "500"), @QueryHint(name = HINT_READ_ONLY, value = "true")})
+    @Query("SELECT p.id, t FROM Post p JOIN p.tags t")
+    Stream<Object[]> streamTags();
+
+    /**
+     * 以游标方式按日期降序流式读取一段文章摘要，偏移和条数由数据库处理，不读取范围外的行
+     * 只查询列表所需的列，调用方需在只读事务中使用并及时关闭流
+     */
+    @QueryHints({@QueryHint(name = HINT_FETCH_SIZE, value = "500"), @QueryHint(name = HINT_READ_ONLY, value = "true")})
+    @Query("SELECT p.id AS id, p.title AS title, p.excerpt AS excerpt, p.date AS date, "
+            + "p.category AS category, p.author AS author FROM Post p ORDER BY p.date DESC, p.id "
+            + "LIMIT :limit OFFSET :offset")
+    Stream<PostSummary> streamSummaries(long offset, int limit);
+}
@@ -0,0 +1,56 @@
+/**
+ * 文章修订仓库接口
+ * 提供文章修订数据访问接口，继承自 JpaRepository
+ */
+package com.blogos.repository;
+
+import com.blogos.model.PostRevision;
+import com.blogos.model.PostRevisionSummary;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+
+// 仓库注解，标记这是一个数据访问仓库
+@Repository
+public interface PostRevisionRepository extends JpaRepository<PostRevision, String> {
+
+    /**
+     * 按修订号降序列出文章的修订，不加载修订数据
+     */
+    @Query("SELECT r.revision AS revision, r.keyframe AS keyframe, r.contentLength AS contentLength, "
+            + "r.storedLength AS storedLength, r.date AS date "
+            + "FROM PostRevision r WHERE r.postId = :postId ORDER BY r.revision DESC")
+    List<PostRevisionSummary> findSummaries(String postId);
+
+    /**
+     * 锁定文章行直到当前事务结束，同一篇文章的修订按提交顺序编号
+     */
+    @Query(value = "SELECT id FROM posts WHERE id = :postId FOR UPDATE", nativeQuery = true)
+    Optional<String> lockPost(String postId);
+
+    /**
+     * 查找文章的最新修订
+     */
+    Optional<PostRevision> findFirstByPostIdOrderByRevisionDesc(String postId);
+
+    /**
+     * 查找指定修订号之前（含）最近的关键帧
+     */
+    Optional<PostRevision> findFirstByPostIdAndRevisionLessThanEqualAndKeyframeTrueOrderByRevisionDesc(String postId, int revision);
+
+    /**
+     * 按修订号升序查找区间内的修订
+     */
+    List<PostRevision> findByPostIdAndRevisionBetweenOrderByRevisionAsc(String postId, int from, int to);
+
+    /**
+     * 删除文章的全部修订
+     */
+    @Modifying
+    @Query("DELETE FROM PostRevision r WHERE r.postId = :postId")
+    void deleteByPostId(String postId);
+}
@@ -0,0 +1,44 @@
+/**
+ * 文章浏览统计仓库接口
+ * 提供文章浏览统计数据访问接口，继承自 JpaRepository
+ */
+package com.blogos.repository;
+
+import com.blogos.model.PostViewStat;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+// 仓库注解，标记这是一个数据访问仓库
+@Repository
+public interface PostViewStatRepository extends JpaRepository<PostViewStat, String> {
+
+    /**
+     * 查询某天一批文章的统计行，用于批量写入时合并
+     */
+    List<PostViewStat> findByDayAndPostIdIn(String day, Collection<String> postIds);
+
+    /**
+     * 按日期升序查询文章在日期区间内的统计行
+     */
+    List<PostViewStat> findByPostIdAndDayBetweenOrderByDayAsc(String postId, String from, String to);
+
+    /**
+     * 按日期区间内的浏览量降序汇总文章，每行为 [文章 ID, 浏览量]，不含全站汇总行
+     */
+    @Query("SELECT s.postId, SUM(s.views) FROM PostViewStat s WHERE s.day BETWEEN :from AND :to "
+            + "AND s.postId <> '" + PostViewStat.SITE + "' GROUP BY s.postId ORDER BY SUM(s.views) DESC")
+    List<Object[]> findTopPosts(String from, String to, Pageable pageable);
+
+    /**
+     * 删除文章的全部统计
+     */
+    @Modifying
+    @Query("DELETE FROM PostViewStat s WHERE s.postId = :postId")
+    void deleteByPostId(String postId);
+}
@@ -6,9 +6,47 @@ package com.blogos.repository;
 
 import com.blogos.model.Schedule;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
 // 仓库注解，标记这是一个数据访问仓库
 @Repository
 public interface ScheduleRepository extends JpaRepository<Schedule, String> {
+
+    /**
+     * 查询给定 ID 中实际存在的 ID
+     */
+    @Query("SELECT s.id FROM Schedule s WHERE s.id IN :ids")
+    List<String> findExistingIds(@Param("ids") Collection<String> ids);
+
+    /**
+     * 查询并锁定日程直到当前事务结束，保存前判断是新增还是修改
+     */
+    @Query(value = "SELECT id FROM schedules WHERE id = :id FOR UPDATE", nativeQuery = true)
+    Optional<String> lockId(@Param("id") String id);
+
+    /**
+     * 查询并锁定给定 ID 中实际存在的日程，批量删除前调用
+     */
+    @Query(value = "SELECT id FROM schedules WHERE id IN (:ids) FOR UPDATE", nativeQuery = true)
+    List<String> lockExistingIds(@Param("ids") Collection<String> ids);
+
+    /**
+     * 查询并锁定日期早于指定日期的日程 ID
+     */
+    @Query(value = "SELECT id FROM schedules WHERE date < :date FOR UPDATE", nativeQuery = true)
+    List<String> lockIdsBefore(@Param("date") String date);
+
+    /**
+     * 按 ID 集合批量删除
+     */
+    @Modifying
+    @Query("DELETE FROM Schedule s WHERE s.id IN :ids")
+    int deleteByIdIn(@Param("ids") Collection<String> ids);
 }
\ No newline at end of file
@@ -5,10 +5,71 @@
 package com.blogos.repository;
 
 import com.blogos.model.Todo;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
 // 仓库注解，标记这是一个数据访问仓库
 @Repository
 public interface TodoRepository extends JpaRepository<Todo, String> {
+
+    /**
+     * 查询给定 ID 中实际存在的 ID
+     */
+    @Query("SELECT t.id FROM Todo t WHERE t.id IN :ids")
+    List<String> findExistingIds(@Param("ids") Collection<String> ids);
+
+    /**
+     * 查询并锁定待办事项直到当前事务结束，修改前读取的状态用于计算计数变化
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT t FROM Todo t WHERE t.id = :id")
+    Optional<Todo> findByIdForUpdate(@Param("id") String id);
+
+    /**
+     * 查询并锁定给定 ID 中实际存在的待办事项，批量修改前调用
+     */
+    @Query(value = "SELECT id FROM todos WHERE id IN (:ids) FOR UPDATE", nativeQuery = true)
+    List<String> lockExistingIds(@Param("ids") Collection<String> ids);
+
+    /**
+     * 查询并锁定指定完成状态的所有待办事项 ID
+     */
+    @Query(value = "SELECT id FROM todos WHERE completed = :completed FOR UPDATE", nativeQuery = true)
+    List<String> lockIdsByCompleted(@Param("completed") boolean completed);
+
+    /**
+     * 按优先级和完成状态统计给定 ID 中的待办事项数，用于批量修改前计算计数变化
+     */
+    @Query("SELECT t.priority, t.completed, COUNT(t) FROM Todo t WHERE t.id IN :ids GROUP BY t.priority, t.completed")
+    List<Object[]> countByStateIn(@Param("ids") Collection<String> ids);
+
+    /**
+     * 批量切换完成状态
+     */
+    @Modifying
+    @Query("UPDATE Todo t SET t.completed = CASE WHEN t.completed = true THEN false ELSE true END WHERE t.id IN :ids")
+    int toggleCompleted(@Param("ids") Collection<String> ids);
+
+    /**
+     * 批量设置完成状态
+     */
+    @Modifying
+    @Query("UPDATE Todo t SET t.completed = :completed WHERE t.id IN :ids")
+    int setCompleted(@Param("ids") Collection<String> ids, @Param("completed") boolean completed);
+
+    /**
+     * 按 ID 集合批量删除
+     */
+    @Modifying
+    @Query("DELETE FROM Todo t WHERE t.id IN :ids")
+    int deleteByIdIn(@Param("ids") Collection<String> ids);
 }
\ No newline at end of file
@@ -0,0 +1,428 @@
+/**
+ * 数据库在线备份服务
+ * 定期使用 H2 的 BACKUP TO 在线备份主库：H2 在复制期间暂停存储空间复用，新写入追加到文件末尾，
+ * 读写请求不需要停止；备份为 zip 压缩包，附带 sha256sum 格式的校验文件，只保留最近若干份。
+ * 恢复时先校验并另存一份当前数据，再把备份中的数据库导出为脚本，在独占模式下替换主库内容
+ */
+package com.blogos.service;
+
+import com.blogos.event.ContentChangedEvent;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.*;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+// 服务注解，标记这是一个业务服务类
+@Service
+// 懒加载配置下也在启动时创建，定时备份需要启动
+@Lazy(false)
+public class BackupService {
+    private static final Logger logger = LoggerFactory.getLogger(BackupService.class);
+
+    // 备份文件名：blogos-时间戳-原因.zip，同时用于校验下载和恢复请求中的文件名
+    private static final Pattern ARCHIVE_NAME = Pattern.compile("blogos-\\d{8}-\\d{9}-[a-z-]+\\.zip");
+
+    private static final DateTimeFormatter STAMP = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmssSSS");
+
+    private static final String CHECKSUM_SUFFIX = ".sha256";
+
+    // 恢复前等待内存中待写入数据落盘的最长时间
+    private static final long FLUSH_TIMEOUT_MS = 10000;
+
+    // 是否启用定时备份，关闭后仍可手动备份
+    @Value("${blogos.backup.enabled:true}")
+    private boolean enabled;
+
+    // 备份目录
+    @Value("${blogos.backup.dir:./data/backups}")
+    private String backupDir;
+
+    // 定时备份间隔
+    @Value("${blogos.backup.interval-ms:21600000}")
+    private long intervalMs;
+
+    // 保留的备份份数
+    @Value("${blogos.backup.retain:7}")
+    private int retain;
+
+    // 主库连接信息，恢复时用同样的凭据打开备份中的数据库
+    @Value("${spring.datasource.username}")
+    private String username;
+
+    @Value("${spring.datasource.password}")
+    private String password;
+
+    // 自动注入 JdbcTemplate，事务之外的连接路由到主库
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    // 自动注入事件发布器，恢复后通知各缓存重建
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    // 自动注入评论写入管道，恢复前等待排队的评论写完
+    @Autowired
+    private CommentPipelineService commentPipeline;
+
+    // 自动注入文章自动保存服务，恢复前写入、恢复后丢弃暂存的修改
+    @Autowired
+    private PostAutosaveService autosaveService;
+
+    // 自动注入文章浏览统计服务，恢复前写入内存中的计数
+    @Autowired
+    private PostViewService postViewService;
+
+    private Path dir;
+    private ScheduledExecutorService scheduler;
+
+    // 以下状态由 this 锁保护，同一时间只执行一次备份或恢复
+    private Map<String, Object> lastBackup = Map.of();
+    private Map<String, Object> lastRestore = Map.of();
+    private String lastError;
+    private long backupsTaken;
+
+    @PostConstruct
+    public void init() throws IOException {
+        dir = Paths.get(backupDir).toAbsolutePath().normalize();
+        Files.createDirectories(dir);
+        if (!enabled) {
+            logger.info("Scheduled database backups are disabled, backups go to {}", dir);
+            return;
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "db-backup");
+            t.setDaemon(true);
+            return t;
+        });
+        scheduler.scheduleWithFixedDelay(this::scheduledBackup, intervalMs, intervalMs, TimeUnit.MILLISECONDS);
+        logger.info("Backing up database to {} every {} ms, keeping {}", dir, intervalMs, retain);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+    }
+
+    /**
+     * 立即备份一次
+     *
+     * @param reason 备份原因，写入文件名（scheduled、manual、pre-restore）
+     * @return 备份信息
+     */
+    public synchronized BackupInfo backup(String reason) throws IOException {
+        return backup(reason, null);
+    }
+
+    /**
+     * 备份一次，保留清理时不删除指定的备份
+     *
+     * @param reason 备份原因
+     * @param keep   清理时保留的备份，为 null 时按数量清理
+     */
+    private BackupInfo backup(String reason, Path keep) throws IOException {
+        String name = "blogos-" + LocalDateTime.now().format(STAMP) + "-" + reason + ".zip";
+        Path archive = dir.resolve(name);
+        Path partial = dir.resolve(name + ".partial");
+        long start = System.currentTimeMillis();
+        try {
+            jdbcTemplate.update("BACKUP TO ?", partial.toString());
+            String sha256 = sha256(partial);
+            Files.writeString(dir.resolve(name + CHECKSUM_SUFFIX), sha256 + "  " + name + "\n", StandardCharsets.UTF_8);
+            Files.move(partial, archive, StandardCopyOption.ATOMIC_MOVE);
+            long elapsed = System.currentTimeMillis() - start;
+            BackupInfo info = new BackupInfo(name, Files.size(archive), Instant.now(), sha256);
+
+            Map<String, Object> stats = new LinkedHashMap<>();
+            stats.put("name", name);
+            stats.put("sizeBytes", info.sizeBytes());
+            stats.put("durationMs", elapsed);
+            stats.put("at", info.createdAt());
+            lastBackup = stats;
+            lastError = null;
+            backupsTaken++;
+            logger.info("Backed up database to {} ({} bytes) in {} ms", name, info.sizeBytes(), elapsed);
+            prune(keep);
+            return info;
+        } catch (RuntimeException | IOException e) {
+            Files.deleteIfExists(partial);
+            lastError = e.getMessage();
+            throw e;
+        }
+    }
+
+    /**
+     * 列出已有备份，按时间倒序
+     */
+    public List<BackupInfo> list() throws IOException {
+        List<BackupInfo> backups = new ArrayList<>();
+        for (Path archive : archives()) {
+            String name = archive.getFileName().toString();
+            Path checksum = dir.resolve(name + CHECKSUM_SUFFIX);
+            String sha256 = Files.exists(checksum) ? Files.readString(checksum).split("\\s+", 2)[0] : null;
+            backups.add(new BackupInfo(name, Files.size(archive), Files.getLastModifiedTime(archive).toInstant(), sha256));
+        }
+        return backups;
+    }
+
+    /**
+     * 获取备份文件路径
+     *
+     * @throws IllegalArgumentException 文件名不合法
+     * @throws NoSuchFileException      备份不存在
+     */
+    public Path resolve(String name) throws NoSuchFileException {
+        if (name == null || !ARCHIVE_NAME.matcher(name).matches()) {
+            throw new IllegalArgumentException("无效的备份文件名");
+        }
+        Path archive = dir.resolve(name);
+        if (!Files.exists(archive)) {
+            throw new NoSuchFileException(name);
+        }
+        return archive;
+    }
+
+    /**
+     * 重新计算备份的校验和并与校验文件比对
+     *
+     * @return 是否一致
+     */
+    public boolean verify(String name) throws IOException {
+        Path archive = resolve(name);
+        Path checksum = dir.resolve(name + CHECKSUM_SUFFIX);
+        if (!Files.exists(checksum)) {
+            return false;
+        }
+        return Files.readString(checksum).split("\\s+", 2)[0].equals(sha256(archive));
+    }
+
+    /**
+     * 从备份恢复主库；恢复前先校验备份并另存一份当前数据
+     *
+     * @param name 备份文件名
+     * @return 恢复报告，包括恢复前另存的备份名
+     */
+    public synchronized Map<String, Object> restore(String name) throws IOException, SQLException {
+        Path archive = resolve(name);
+        if (!verify(name)) {
+            throw new IllegalStateException("备份校验失败：" + name);
+        }
+        long start = System.currentTimeMillis();
+        Path work = Files.createTempDirectory(dir, ".restore-");
+        BackupInfo safety;
+        try {
+            // 先导出待恢复的数据，另存当前数据时的保留清理不会影响它
+            Path script = work.resolve("restore.sql.gz");
+            exportScript(archive, Files.createDirectory(work.resolve("restore")), script);
+            // 内存中尚未落盘的自动保存、浏览计数和排队的评论先写入，另存的当前数据包含它们，恢复后不会写进新数据
+            flushPendingWrites();
+            // 待恢复的备份可能是最旧的一份，另存当前数据时不能被保留清理删除
+            safety = backup("pre-restore", archive);
+            // 恢复脚本执行失败时主库已经清空，提前准备好回到恢复前数据的脚本
+            Path rollback = work.resolve("rollback.sql.gz");
+            exportScript(dir.resolve(safety.name()), Files.createDirectory(work.resolve("rollback")), rollback);
+            jdbcTemplate.execute((Connection connection) -> {
+                try (Statement st = connection.createStatement()) {
+                    // 独占模式下其他连接的语句暂停执行，直到恢复完成
+                    st.execute("SET EXCLUSIVE 1");
+                    try {
+                        st.execute("DROP ALL OBJECTS");
+                        runScript(connection, script);
+                    } catch (SQLException e) {
+                        logger.error("Restore from {} failed, rolling back to {}", name, safety.name(), e);
+                        try {
+                            st.execute("DROP ALL OBJECTS");
+                            runScript(connection, rollback);
+                        } catch (SQLException rollbackError) {
+                            logger.error("Rollback to {} failed, restore it manually", safety.name(), rollbackError);
+                            e.addSuppressed(rollbackError);
+                        }
+                        throw e;
+                    } finally {
+                        st.execute("SET EXCLUSIVE 0");
+                    }
+                }
+                return null;
+            });
+        } catch (RuntimeException | IOException | SQLException e) {
+            lastError = e.getMessage();
+            throw e;
+        } finally {
+            deleteRecursively(work);
+        }
+        // 恢复期间暂存的自动保存基于恢复前的正文，写入会覆盖恢复的数据
+        autosaveService.discardAll();
+        eventPublisher.publishEvent(ContentChangedEvent.dataImported());
+
+        long elapsed = System.currentTimeMillis() - start;
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("restored", name);
+        report.put("preRestoreBackup", safety.name());
+        report.put("durationMs", elapsed);
+        report.put("at", Instant.now());
+        lastRestore = report;
+        logger.warn("Restored database from {} in {} ms (previous data saved as {})", name, elapsed, safety.name());
+        return report;
+    }
+
+    /**
+     * 获取备份状态（用于管理端点）
+     */
+    public synchronized Map<String, Object> getStatus() {
+        Map<String, Object> status = new LinkedHashMap<>();
+        status.put("enabled", enabled);
+        status.put("dir", dir.toString());
+        status.put("intervalMs", intervalMs);
+        status.put("retain", retain);
+        status.put("backupsTaken", backupsTaken);
+        status.put("lastBackup", lastBackup);
+        status.put("lastRestore", lastRestore);
+        status.put("lastError", lastError);
+        return status;
+    }
+
+    private void scheduledBackup() {
+        try {
+            backup("scheduled");
+        } catch (Exception e) {
+            logger.error("Scheduled database backup failed", e);
+        }
+    }
+
+    /**
+     * 写入内存中尚未落盘的数据：排队的评论、暂存的自动保存和浏览计数
+     */
+    private void flushPendingWrites() {
+        try {
+            if (!commentPipeline.awaitIdle(FLUSH_TIMEOUT_MS)) {
+                logger.warn("Comment queue did not drain within {} ms before restore", FLUSH_TIMEOUT_MS);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("恢复被中断");
+        }
+        int failed = autosaveService.flushAll();
+        if (failed > 0) {
+            logger.warn("{} autosaves could not be written before restore and will be discarded", failed);
+        }
+        postViewService.flush();
+    }
+
+    private static void runScript(Connection connection, Path script) throws SQLException {
+        try (PreparedStatement run = connection.prepareStatement("RUNSCRIPT FROM ? COMPRESSION GZIP")) {
+            run.setString(1, script.toString());
+            run.execute();
+        }
+    }
+
+    /**
+     * 把备份中的数据库解压到工作目录，以只读方式打开并导出为压缩脚本
+     */
+    private void exportScript(Path archive, Path work, Path script) throws IOException, SQLException {
+        String database = null;
+        try (ZipInputStream zip = new ZipInputStream(Files.newInputStream(archive))) {
+            for (ZipEntry entry; (entry = zip.getNextEntry()) != null; ) {
+                String file = Paths.get(entry.getName()).getFileName().toString();
+                if (file.endsWith(".mv.db")) {
+                    Files.copy(zip, work.resolve(file));
+                    database = file.substring(0, file.length() - ".mv.db".length());
+                }
+            }
+        }
+        if (database == null) {
+            throw new IllegalStateException("备份中没有数据库文件：" + archive.getFileName());
+        }
+        String url = "jdbc:h2:file:" + work.resolve(database) + ";ACCESS_MODE_DATA=r";
+        try (Connection connection = DriverManager.getConnection(url, username, password);
+             PreparedStatement export = connection.prepareStatement("SCRIPT TO ? COMPRESSION GZIP")) {
+            export.setString(1, script.toString());
+            export.execute();
+        }
+    }
+
+    /**
+     * 删除超出保留份数的旧备份
+     */
+    private void prune(Path keep) throws IOException {
+        List<Path> archives = new ArrayList<>(archives());
+        if (keep != null) {
+            archives.removeIf(path -> path.getFileName().equals(keep.getFileName()));
+        }
+        for (Path old : archives.subList(Math.min(retain, archives.size()), archives.size())) {
+            Files.deleteIfExists(old);
+            Files.deleteIfExists(dir.resolve(old.getFileName() + CHECKSUM_SUFFIX));
+            logger.info("Pruned old backup {}", old.getFileName());
+        }
+    }
+
+    /**
+     * 已完成的备份，文件名含时间戳，按文件名倒序即按时间倒序
+     */
+    private List<Path> archives() throws IOException {
+        try (Stream<Path> files = Files.list(dir)) {
+            return files.filter(p -> ARCHIVE_NAME.matcher(p.getFileName().toString()).matches())
+                    .sorted(Comparator.comparing((Path p) -> p.getFileName().toString()).reversed())
+                    .toList();
+        }
+    }
+
+    private static String sha256(Path file) throws IOException {
+        try {
+            MessageDigest md = MessageDigest.getInstance("SHA-256");
+            try (InputStream in = new DigestInputStream(Files.newInputStream(file), md)) {
+                in.transferTo(OutputStream.nullOutputStream());
+            }
+            return HexFormat.of().formatHex(md.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static void deleteRecursively(Path root) throws IOException {
+        try (Stream<Path> files = Files.walk(root)) {
+            for (Path path : files.sorted(Comparator.reverseOrder()).toList()) {
+                Files.deleteIfExists(path);
+            }
+        }
+    }
+
+    /**
+     * 备份文件信息
+     *
+     * @param sha256 校验文件中记录的 SHA-256，缺少校验文件时为 null
+     */
+    public record BackupInfo(String name, long sizeBytes, Instant createdAt, String sha256) {
+    }
+}
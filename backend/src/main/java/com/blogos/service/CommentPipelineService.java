@@ -0,0 +1,493 @@
+/**
+ * 评论写入管道服务类
+ * 评论提交后只做基本校验和清理就放入有界内存队列并立即返回 ID，由单个后台写入线程批量取出，
+ * 依次经过各处理阶段（反垃圾等审核），再按文章分组批量插入数据库，提交后发布评论事件。
+ * 队列写满时直接拒绝新评论，由调用方返回 503；队列深度、处理延迟等指标可供后台查看
+ */
+package com.blogos.service;
+
+import com.blogos.event.ContentChangedEvent;
+import com.blogos.model.Comment;
+import com.blogos.repository.CommentRepository;
+import com.blogos.repository.PostRepository;
+import com.blogos.util.InputValidator;
+import com.blogos.util.TimeOrderedId;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.Getter;
+import org.hibernate.type.descriptor.DateTimeUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.StringUtils;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.*;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+// 服务注解，标记这是一个业务服务类
+@Service
+public class CommentPipelineService {
+    private static final Logger logger = LoggerFactory.getLogger(CommentPipelineService.class);
+
+    private static final DateTimeFormatter DATE_FORMAT = DateTimeFormatter.ofPattern(DateTimeUtils.FORMAT_STRING_TIMESTAMP);
+
+    // 评论内容长度上限，与 comments.content 列一致
+    private static final int MAX_CONTENT_LENGTH = 2000;
+
+    // 作者名和头像地址长度上限，与 comments.author、comments.avatar 列一致
+    private static final int MAX_FIELD_LENGTH = 255;
+
+    // 保留处理结果的最近评论数
+    private static final int MAX_TRACKED_STATUSES = 10000;
+
+    public static final String QUEUED = "queued";
+    public static final String PUBLISHED = "published";
+    public static final String REJECTED = "rejected";
+    public static final String FAILED = "failed";
+
+    // 队列容量，写满后拒绝新评论
+    @Value("${blogos.comments.queue-capacity:1000}")
+    private int queueCapacity;
+
+    // 每批最多写入的评论数
+    @Value("${blogos.comments.batch-size:100}")
+    private int batchSize;
+
+    // 取到第一条评论后最多再等待该时间凑批
+    @Value("${blogos.comments.linger-ms:50}")
+    private long lingerMs;
+
+    // 自动注入文章仓库
+    @Autowired
+    private PostRepository postRepository;
+
+    // 自动注入评论仓库
+    @Autowired
+    private CommentRepository commentRepository;
+
+    // 自动注入 JdbcTemplate，用于批量插入
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    // 自动注入事务管理器，后台写入需要在事务中执行
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    // 自动注入事件发布器，用于通知内容变更
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    // 自动注入所有评论处理阶段，按 @Order 排序
+    @Autowired
+    private List<CommentStage> stages;
+
+    private BlockingQueue<Submission> queue;
+
+    // 评论 ID 到处理结果，只保留最近的部分
+    private final Map<String, CommentStatus> statuses = Collections.synchronizedMap(
+            new LinkedHashMap<>(256, 0.75f, false) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, CommentStatus> eldest) {
+                    return size() > MAX_TRACKED_STATUSES;
+                }
+            });
+
+    private final LongAdder accepted = new LongAdder();
+    private final LongAdder shed = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LongAdder persisted = new LongAdder();
+    private final LongAdder batches = new LongAdder();
+    // 入队到提交的延迟，只由写入线程更新
+    private final LongAdder totalLagMs = new LongAdder();
+    private final AtomicLong lastLagMs = new AtomicLong();
+    private final AtomicLong maxLagMs = new AtomicLong();
+    // 已入队但尚未处理完的评论数，包括写入线程正在处理的一批
+    private final AtomicInteger outstanding = new AtomicInteger();
+
+    private TransactionTemplate tx;
+    private Thread writer;
+    private volatile boolean running = true;
+
+    @PostConstruct
+    public void init() {
+        queue = new ArrayBlockingQueue<>(queueCapacity);
+        tx = new TransactionTemplate(transactionManager);
+        writer = new Thread(this::run, "comment-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    /**
+     * 停止接收新评论，等待写入线程处理完队列中剩余的评论
+     */
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        running = false;
+        writer.join(10000);
+        if (!queue.isEmpty()) {
+            logger.warn("Dropped {} queued comments on shutdown", queue.size());
+        }
+    }
+
+    /**
+     * 提交评论，只做基本校验，审核与写入在后台完成
+     *
+     * @param postId   文章 ID
+     * @param comment  评论对象
+     * @param parentId 父评论 ID（可选）
+     * @return 已入队的评论（含 ID 和日期），队列已满时返回 null
+     * @throws IllegalArgumentException 评论内容为空或过长，作者名或头像地址过长
+     */
+    public Comment submit(String postId, Comment comment, String parentId) {
+        if (comment.getContent() == null || comment.getContent().trim().isEmpty()) {
+            throw new IllegalArgumentException("评论内容不能为空");
+        }
+        // 按转义后的长度校验，保证写入时不会超出列长度
+        String content = InputValidator.sanitizeHtml(comment.getContent());
+        if (content.length() > MAX_CONTENT_LENGTH) {
+            throw new IllegalArgumentException("评论内容不能超过 " + MAX_CONTENT_LENGTH + " 个字符");
+        }
+        // 超长的作者名或头像地址会让整批插入失败，连带同一篇文章下的其他评论，入队前拒绝
+        String author = comment.getAuthor() == null ? "" : comment.getAuthor().trim();
+        author = author.isEmpty() ? "匿名用户" : InputValidator.sanitizeHtml(author);
+        if (author.length() > MAX_FIELD_LENGTH) {
+            throw new IllegalArgumentException("作者名不能超过 " + MAX_FIELD_LENGTH + " 个字符");
+        }
+        if (comment.getAvatar() != null && comment.getAvatar().length() > MAX_FIELD_LENGTH) {
+            throw new IllegalArgumentException("头像地址不能超过 " + MAX_FIELD_LENGTH + " 个字符");
+        }
+        if (!running) {
+            shed.increment();
+            return null;
+        }
+        comment.setId(TimeOrderedId.next());
+        comment.setDate(LocalDateTime.now().format(DATE_FORMAT));
+        comment.setContent(content);
+        comment.setAuthor(author);
+        comment.setReplies(new ArrayList<>());
+        // 处理阶段可能修改评论，交给写入线程一份副本，返回给调用方的对象保持不变
+        Comment copy = new Comment();
+        copy.setId(comment.getId());
+        copy.setAuthor(comment.getAuthor());
+        copy.setContent(comment.getContent());
+        copy.setDate(comment.getDate());
+        copy.setAvatar(comment.getAvatar());
+        Submission submission = new Submission(postId, StringUtils.hasText(parentId) ? parentId : null, copy);
+        // 先记录状态再入队，避免写入线程先写入结果后又被覆盖为排队中
+        statuses.put(comment.getId(), new CommentStatus(comment.getId(), QUEUED, null));
+        outstanding.incrementAndGet();
+        if (!queue.offer(submission)) {
+            outstanding.decrementAndGet();
+            statuses.remove(comment.getId());
+            shed.increment();
+            return null;
+        }
+        accepted.increment();
+        return comment;
+    }
+
+    /**
+     * 等待已入队的评论全部处理完，恢复数据库等需要内存中没有待写入数据的操作前调用
+     *
+     * @param timeoutMs 最长等待时间
+     * @return 是否在超时前处理完
+     */
+    public boolean awaitIdle(long timeoutMs) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + timeoutMs;
+        while (outstanding.get() > 0) {
+            if (System.currentTimeMillis() >= deadline) {
+                return false;
+            }
+            Thread.sleep(10);
+        }
+        return true;
+    }
+
+    /**
+     * 获取评论的处理结果
+     *
+     * @param id 评论 ID
+     * @return 处理结果，未知或已过期时返回 null
+     */
+    public CommentStatus getStatus(String id) {
+        return statuses.get(id);
+    }
+
+    /**
+     * 获取管道统计
+     *
+     * @return 统计信息
+     */
+    public Map<String, Object> getMetrics() {
+        Submission oldest = queue.peek();
+        long persistedCount = persisted.sum();
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("queueDepth", queue.size());
+        metrics.put("queueCapacity", queueCapacity);
+        metrics.put("oldestQueuedMs", oldest == null ? 0 : System.currentTimeMillis() - oldest.getEnqueuedAt());
+        metrics.put("accepted", accepted.sum());
+        metrics.put("shed", shed.sum());
+        metrics.put("rejected", rejected.sum());
+        metrics.put("failed", failed.sum());
+        metrics.put("persisted", persistedCount);
+        metrics.put("batches", batches.sum());
+        metrics.put("lastLagMs", lastLagMs.get());
+        metrics.put("maxLagMs", maxLagMs.get());
+        metrics.put("avgLagMs", persistedCount == 0 ? 0 : totalLagMs.sum() / persistedCount);
+        metrics.put("stages", stages.stream().map(s -> s.getClass().getSimpleName()).toList());
+        return metrics;
+    }
+
+    /**
+     * 写入线程主循环：取到一条后在 lingerMs 内尽量凑满一批再处理；停止后处理完剩余评论再退出
+     */
+    private void run() {
+        List<Submission> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                Submission first = queue.poll(200, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(lingerMs);
+                while (batch.size() < batchSize) {
+                    queue.drainTo(batch, batchSize - batch.size());
+                    long remaining = deadline - System.nanoTime();
+                    if (batch.size() >= batchSize || remaining <= 0 || !running) {
+                        break;
+                    }
+                    Submission next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+                process(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (Exception e) {
+                logger.error("Unexpected error in comment writer", e);
+                // 已写入的评论在 persisted 中已经处理过，这里只释放未完成的
+                batch.forEach(submission -> notifyStages(submission, false));
+            } finally {
+                outstanding.addAndGet(-batch.size());
+                batch.clear();
+            }
+        }
+    }
+
+    /**
+     * 处理一批评论：执行处理阶段，校验文章与父评论，按文章分组写入
+     */
+    private void process(List<Submission> batch) {
+        List<Submission> reviewed = new ArrayList<>(batch.size());
+        for (Submission submission : batch) {
+            String reason = review(submission);
+            if (reason != null) {
+                reject(submission, reason);
+            } else {
+                reviewed.add(submission);
+            }
+        }
+        if (reviewed.isEmpty()) {
+            return;
+        }
+
+        Set<String> postIds = new HashSet<>();
+        Set<String> parentIds = new HashSet<>();
+        for (Submission submission : reviewed) {
+            postIds.add(submission.getPostId());
+            if (submission.getParentId() != null) {
+                parentIds.add(submission.getParentId());
+            }
+        }
+        Set<String> existingPosts = new HashSet<>(postRepository.findExistingIds(postIds));
+        // 父评论 ID 到所属文章，回复只能挂在同一篇文章的评论下
+        Map<String, String> commentPosts = new HashMap<>();
+        if (!parentIds.isEmpty()) {
+            for (Object[] row : commentRepository.findPostIds(parentIds)) {
+                commentPosts.put((String) row[0], (String) row[1]);
+            }
+        }
+
+        // 同一批中可以回复排在前面的评论，分组保持原有顺序，父评论总是先插入
+        Map<String, List<Submission>> byPost = new LinkedHashMap<>();
+        for (Submission submission : reviewed) {
+            if (!existingPosts.contains(submission.getPostId())) {
+                reject(submission, "文章不存在");
+            } else if (submission.getParentId() != null && !commentPosts.containsKey(submission.getParentId())) {
+                reject(submission, "回复的评论不存在");
+            } else if (submission.getParentId() != null
+                    && !commentPosts.get(submission.getParentId()).equals(submission.getPostId())) {
+                reject(submission, "回复的评论不属于该文章");
+            } else {
+                commentPosts.put(submission.getComment().getId(), submission.getPostId());
+                byPost.computeIfAbsent(submission.getPostId(), k -> new ArrayList<>()).add(submission);
+            }
+        }
+        if (byPost.isEmpty()) {
+            return;
+        }
+
+        List<List<Submission>> written = new ArrayList<>(byPost.size());
+        try {
+            tx.executeWithoutResult(status -> byPost.values().forEach(this::insert));
+            written.addAll(byPost.values());
+        } catch (Exception e) {
+            // 整批失败时逐篇文章重试，只让出错的分组失败
+            logger.warn("Comment batch of {} failed, retrying per post", reviewed.size(), e);
+            for (List<Submission> group : byPost.values()) {
+                try {
+                    tx.executeWithoutResult(status -> insert(group));
+                    written.add(group);
+                } catch (Exception groupError) {
+                    logger.error("Failed to persist {} comments for post {}", group.size(), group.get(0).getPostId(), groupError);
+                    for (Submission submission : group) {
+                        failed.increment();
+                        statuses.put(submission.getComment().getId(),
+                                new CommentStatus(submission.getComment().getId(), FAILED, "写入失败"));
+                        notifyStages(submission, false);
+                    }
+                }
+            }
+        }
+        written.forEach(this::published);
+        batches.increment();
+    }
+
+    private String review(Submission submission) {
+        for (CommentStage stage : stages) {
+            try {
+                String reason = stage.review(submission);
+                if (reason != null) {
+                    return reason;
+                }
+            } catch (Exception e) {
+                logger.error("Comment stage {} failed", stage.getClass().getSimpleName(), e);
+                return "审核失败";
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 插入同一篇文章下的一组评论：顶层评论关联文章，回复只关联父评论
+     */
+    private void insert(List<Submission> group) {
+        jdbcTemplate.batchUpdate("INSERT INTO comments (id, author, content, date, avatar, post_id, parent_id) VALUES (?, ?, ?, ?, ?, ?, ?)",
+                group, group.size(), (ps, s) -> {
+                    Comment c = s.getComment();
+                    ps.setString(1, c.getId());
+                    ps.setString(2, c.getAuthor());
+                    ps.setString(3, c.getContent());
+                    ps.setString(4, c.getDate());
+                    ps.setString(5, c.getAvatar());
+                    ps.setString(6, s.getParentId() == null ? s.getPostId() : null);
+                    ps.setString(7, s.getParentId());
+                });
+    }
+
+    /**
+     * 记录写入结果并发布评论事件，在事务提交后调用
+     */
+    private void published(List<Submission> group) {
+        long now = System.currentTimeMillis();
+        for (Submission submission : group) {
+            long lag = now - submission.getEnqueuedAt();
+            lastLagMs.set(lag);
+            maxLagMs.accumulateAndGet(lag, Math::max);
+            totalLagMs.add(lag);
+            persisted.increment();
+            notifyStages(submission, true);
+            Comment comment = submission.getComment();
+            statuses.put(comment.getId(), new CommentStatus(comment.getId(), PUBLISHED, null));
+            if (!running) {
+                // 关闭过程中只负责写完剩余评论，监听方可能已经销毁
+                continue;
+            }
+            try {
+                eventPublisher.publishEvent(ContentChangedEvent.of(ContentChangedEvent.Type.COMMENT_ADDED,
+                        submission.getPostId(), new CommentAdded(submission.getParentId(), comment)));
+            } catch (Exception e) {
+                // 评论已经写入，监听器出错不影响结果
+                logger.warn("Failed to publish comment event for post {}: {}", submission.getPostId(), e.toString());
+            }
+        }
+    }
+
+    /**
+     * 把写入结果告知各处理阶段
+     */
+    private void notifyStages(Submission submission, boolean persisted) {
+        for (CommentStage stage : stages) {
+            try {
+                if (persisted) {
+                    stage.persisted(submission);
+                } else {
+                    stage.discarded(submission);
+                }
+            } catch (Exception e) {
+                logger.error("Comment stage {} failed", stage.getClass().getSimpleName(), e);
+            }
+        }
+    }
+
+    private void reject(Submission submission, String reason) {
+        notifyStages(submission, false);
+        rejected.increment();
+        String id = submission.getComment().getId();
+        statuses.put(id, new CommentStatus(id, REJECTED, reason));
+    }
+
+    /**
+     * 队列中的一条待处理评论，处理阶段可以修改其中的评论内容
+     */
+    @Getter
+    public static class Submission {
+        private final String postId;
+        private final String parentId;
+        private final Comment comment;
+        private final long enqueuedAt = System.currentTimeMillis();
+
+        private Submission(String postId, String parentId, Comment comment) {
+            this.postId = postId;
+            this.parentId = parentId;
+            this.comment = comment;
+        }
+    }
+
+    /**
+     * 评论的处理结果
+     *
+     * @param id     评论 ID
+     * @param status 状态：queued、published、rejected 或 failed
+     * @param reason 拒绝或失败原因
+     */
+    public record CommentStatus(String id, String status, String reason) {
+    }
+
+    /**
+     * 新增评论事件的增量
+     *
+     * @param parentId 父评论 ID，顶层评论为 null
+     * @param comment  新评论
+     */
+    public record CommentAdded(String parentId, Comment comment) {
+    }
+}
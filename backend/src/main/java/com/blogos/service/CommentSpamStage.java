@@ -0,0 +1,88 @@
+/**
+ * 评论反垃圾阶段
+ * 拒绝链接过多、包含屏蔽词，或短时间内在同一篇文章下重复提交相同内容的评论
+ */
+package com.blogos.service;
+
+import com.blogos.model.Comment;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+
+// 组件注解，作为评论处理阶段注册
+@Component
+// 处理阶段按顺序执行，数字越小越先执行
+@Order(0)
+public class CommentSpamStage implements CommentStage {
+
+    // 记住的最近评论指纹数，超出后淘汰最早的
+    private static final int MAX_FINGERPRINTS = 10000;
+
+    // 单条评论允许的最多链接数
+    @Value("${blogos.comments.max-links:2}")
+    private int maxLinks;
+
+    // 同一篇文章下相同内容的重复提交判定窗口
+    @Value("${blogos.comments.duplicate-window-ms:600000}")
+    private long duplicateWindowMs;
+
+    // 屏蔽词，逗号分隔，不区分大小写
+    @Value("${blogos.comments.blocked-words:}")
+    private List<String> blockedWords;
+
+    // 已通过审核、尚未写入的评论及其指纹；同一批中的重复评论也要拒绝，写入失败时释放
+    private final Map<CommentPipelineService.Submission, String> pending = new IdentityHashMap<>();
+
+    // 文章 ID 与评论内容的指纹到最近一次写入成功的时间，只在写入线程中访问
+    private final Map<String, Long> recent = new LinkedHashMap<>(256, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Long> eldest) {
+            return size() > MAX_FINGERPRINTS;
+        }
+    };
+
+    @Override
+    public String review(CommentPipelineService.Submission submission) {
+        Comment comment = submission.getComment();
+        String content = comment.getContent().toLowerCase(Locale.ROOT);
+        if (countLinks(content) > maxLinks) {
+            return "评论包含过多链接";
+        }
+        for (String word : blockedWords) {
+            if (!word.isBlank() && content.contains(word.trim().toLowerCase(Locale.ROOT))) {
+                return "评论包含屏蔽词";
+            }
+        }
+        String fingerprint = submission.getPostId() + '\n' + content.strip();
+        Long last = recent.get(fingerprint);
+        if (last != null && System.currentTimeMillis() - last < duplicateWindowMs || pending.containsValue(fingerprint)) {
+            return "重复的评论";
+        }
+        // 写入成功后才记入指纹，写入失败的评论可以立即重新提交
+        pending.put(submission, fingerprint);
+        return null;
+    }
+
+    @Override
+    public void persisted(CommentPipelineService.Submission submission) {
+        String fingerprint = pending.remove(submission);
+        if (fingerprint != null) {
+            recent.put(fingerprint, System.currentTimeMillis());
+        }
+    }
+
+    @Override
+    public void discarded(CommentPipelineService.Submission submission) {
+        pending.remove(submission);
+    }
+
+    private static int countLinks(String content) {
+        int count = 0;
+        for (int i = content.indexOf("http"); i >= 0; i = content.indexOf("http", i + 4)) {
+            count++;
+        }
+        return count;
+    }
+}
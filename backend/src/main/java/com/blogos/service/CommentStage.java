@@ -0,0 +1,33 @@
+/**
+ * 评论处理阶段接口
+ * 评论入队后由后台写入线程依次交给各阶段审核（按 @Order 排序），任一阶段拒绝即丢弃该评论；
+ * 阶段拿到的是清理后的评论副本，可以就地修改。所有阶段只在单个写入线程中调用，实现无需考虑并发
+ */
+package com.blogos.service;
+
+public interface CommentStage {
+
+    /**
+     * 审核一条评论
+     *
+     * @param submission 待处理的评论
+     * @return 拒绝原因，接受时返回 null
+     */
+    String review(CommentPipelineService.Submission submission);
+
+    /**
+     * 评论已写入数据库（事务已提交）
+     *
+     * @param submission 已写入的评论
+     */
+    default void persisted(CommentPipelineService.Submission submission) {
+    }
+
+    /**
+     * 评论被某一阶段拒绝或写入失败，未写入数据库
+     *
+     * @param submission 被丢弃的评论
+     */
+    default void discarded(CommentPipelineService.Submission submission) {
+    }
+}
@@ -0,0 +1,524 @@
+/**
+ * 站点配置服务类
+ * 站点配置按分区存储：站点信息、个人资料、友链、SEO、单点登录为公开分区，账户为私有分区，每个分区独立维护版本号；
+ * 公开分区拼装成的配置文档编码后缓存，每次页面加载读取的 /api/config 不再携带账户信息；
+ * 单个分区以 JSON Merge Patch 更新，只改写该分区一行，账户密码只在新设置时哈希，未改动的账户保留原有哈希
+ */
+package com.blogos.service;
+
+import com.blogos.event.ContentChangedEvent;
+import com.blogos.model.ConfigSection;
+import com.blogos.model.SystemConfig;
+import com.blogos.repository.ConfigSectionRepository;
+import com.blogos.repository.SystemConfigRepository;
+import com.blogos.util.InputValidator;
+import com.blogos.util.JsonMergePatch;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.DigestUtils;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.*;
+import java.util.zip.GZIPOutputStream;
+
+// 服务注解，标记这是一个业务服务类
+@Service
+// 懒加载配置下也在启动时创建，旧版整体配置必须在接收请求前拆分为分区
+@Lazy(false)
+public class ConfigService {
+    private static final Logger logger = LoggerFactory.getLogger(ConfigService.class);
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private static final String CONTENT_TYPE = "application/json;charset=UTF-8";
+
+    // 未归属任何分区的顶层字段放入站点信息分区
+    private static final String DEFAULT_SECTION = "site";
+
+    /**
+     * 配置分区定义
+     *
+     * @param name          分区名
+     * @param publicSection 是否包含在公开配置中
+     * @param fields        分区拥有的顶层字段
+     */
+    public record Section(String name, boolean publicSection, Set<String> fields) {
+    }
+
+    /**
+     * 分区内容
+     *
+     * @param section 分区名
+     * @param version 版本号
+     * @param body    分区文档，账户分区不含密码哈希
+     */
+    public record SectionView(String section, long version, JsonNode body) {
+        public String etag() {
+            return "\"" + section + "-" + version + "\"";
+        }
+    }
+
+    // 所有分区，公开配置按此顺序拼装
+    public static final List<Section> SECTIONS = List.of(
+            new Section("site", true, Set.of("siteName", "heroTitle", "heroSubtitle", "heroImage", "logoUrl", "icpNumber", "themeColor")),
+            new Section("profile", true, Set.of("profile")),
+            new Section("friends", true, Set.of("friendLinks", "friendsMessage")),
+            new Section("seo", true, Set.of("seo")),
+            new Section("sso", true, Set.of("sso")),
+            new Section("accounts", false, Set.of("accounts")));
+
+    // 自动注入配置分区仓库
+    @Autowired
+    private ConfigSectionRepository sectionRepo;
+
+    // 自动注入旧版系统配置仓库，只在启动拆分时读取
+    @Autowired
+    private SystemConfigRepository legacyRepo;
+
+    // 自动注入事件发布器，分区写入后通知首页、订阅源和预渲染页面
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    // 自动注入事务管理器，启动拆分在一个事务中完成
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    // 公开配置树与编码结果的缓存，配置写入或数据导入后清空，下次读取时重建
+    private volatile ObjectNode publicTree;
+    private volatile FeedService.FeedDocument publicDocument;
+
+    // 缓存代数，每次清空加一；重建期间发生写入时丢弃重建结果，避免把旧配置放回缓存
+    private long generation;
+
+    /**
+     * 启动时补齐缺失的分区；存在旧版整体配置时按字段拆分到各分区后删除旧记录，中断后重新启动可以安全重跑
+     */
+    @PostConstruct
+    public void initSections() {
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            Map<String, ConfigSection> existing = new HashMap<>();
+            sectionRepo.findAll().forEach(row -> existing.put(row.getSection(), row));
+            Optional<SystemConfig> legacy = legacyRepo.findById("default");
+            Map<String, ObjectNode> split = legacy.map(config -> split(parse(config.getConfigJson()))).orElse(Map.of());
+            int created = 0;
+            for (Section section : SECTIONS) {
+                if (!existing.containsKey(section.name())) {
+                    ConfigSection row = new ConfigSection();
+                    row.setSection(section.name());
+                    write(row, split.getOrDefault(section.name(), MAPPER.createObjectNode()));
+                    created++;
+                }
+            }
+            if (legacy.isPresent()) {
+                legacyRepo.delete(legacy.get());
+                logger.info("Split legacy site config into {} sections", created);
+            }
+        });
+    }
+
+    /**
+     * 获取公开配置的编码结果，只包含公开分区，客户端通过 ETag 协商
+     *
+     * @return 公开配置文档
+     */
+    public FeedService.FeedDocument getPublicDocument() {
+        FeedService.FeedDocument doc = publicDocument;
+        if (doc == null) {
+            long gen = currentGeneration();
+            doc = encode(getConfigTree());
+            synchronized (this) {
+                if (gen == generation) {
+                    publicDocument = doc;
+                }
+            }
+        }
+        return doc;
+    }
+
+    /**
+     * 获取公开配置树，供首页、订阅源和预渲染页面使用，调用方不应修改返回值
+     *
+     * @return 公开分区拼装成的配置树
+     */
+    public JsonNode getConfigTree() {
+        ObjectNode tree = publicTree;
+        if (tree == null) {
+            long gen = currentGeneration();
+            tree = assemble(true);
+            synchronized (this) {
+                if (gen == generation) {
+                    publicTree = tree;
+                }
+            }
+        }
+        return tree;
+    }
+
+    /**
+     * 获取包含私有分区的完整配置树，账户保留密码哈希，只用于数据导出
+     *
+     * @return 完整配置树
+     */
+    @Transactional(readOnly = true)
+    public ObjectNode exportConfigTree() {
+        return assemble(false);
+    }
+
+    /**
+     * 按名称查找分区定义
+     *
+     * @param name 分区名
+     * @return 分区定义，不存在时为空
+     */
+    public static Optional<Section> findSection(String name) {
+        return SECTIONS.stream().filter(s -> s.name().equals(name)).findFirst();
+    }
+
+    /**
+     * 读取单个分区
+     *
+     * @param name 分区名
+     * @return 分区内容，分区不存在时为空
+     */
+    @Transactional(readOnly = true)
+    public Optional<SectionView> getSection(String name) {
+        return findSection(name).map(section -> view(section, load(section)));
+    }
+
+    /**
+     * 以 JSON Merge Patch 更新单个分区
+     *
+     * @param name            分区名
+     * @param patch           合并补丁，只能包含该分区拥有的字段
+     * @param expectedVersion 期望的当前版本号，为 null 时不检查
+     * @return 更新后的分区内容
+     * @throws IllegalArgumentException 分区不存在、补丁不是对象、字段不属于该分区或账户校验失败
+     * @throws IllegalStateException    分区版本与期望版本不一致
+     */
+    @Transactional
+    public SectionView patchSection(String name, JsonNode patch, Long expectedVersion) {
+        Section section = findSection(name).orElseThrow(() -> new IllegalArgumentException("未知的配置分区: " + name));
+        if (patch == null || !patch.isObject()) {
+            throw new IllegalArgumentException("补丁必须是 JSON 对象");
+        }
+        patch.fieldNames().forEachRemaining(field -> {
+            String owner = ownerOf(field);
+            if (!owner.equals(section.name())) {
+                throw new IllegalArgumentException("字段 " + field + " 属于分区 " + owner);
+            }
+        });
+        ConfigSection row = load(section);
+        if (expectedVersion != null && expectedVersion != row.getVersion()) {
+            throw new IllegalStateException("配置分区 " + name + " 已被修改，当前版本 " + row.getVersion());
+        }
+        ObjectNode previous = parse(row.getBody());
+        ObjectNode body = (ObjectNode) JsonMergePatch.apply(previous.deepCopy(), patch);
+        if (patch.has("accounts")) {
+            hashNewPasswords(body, previous);
+        }
+        if (store(row, body)) {
+            eventPublisher.publishEvent(ContentChangedEvent.configSaved());
+        }
+        return view(section, row);
+    }
+
+    /**
+     * 以整体配置覆盖各分区，兼容旧版整体保存接口：只改写内容有变化的分区，
+     * 配置中完全没有出现的私有分区保持不变，账户条目中提供的密码视为新密码并哈希
+     *
+     * @param config 完整配置
+     */
+    @Transactional
+    public void saveConfig(JsonNode config) {
+        if (replace(config, true)) {
+            eventPublisher.publishEvent(ContentChangedEvent.configSaved());
+        }
+    }
+
+    /**
+     * 导入备份中的配置，账户的密码哈希原样写入；由导入完成后的数据导入事件统一刷新缓存
+     *
+     * @param config 完整配置
+     */
+    @Transactional
+    public void importConfig(JsonNode config) {
+        replace(config, false);
+    }
+
+    /**
+     * 校验账户凭证
+     *
+     * @param username       用户名
+     * @param hashedPassword 密码哈希
+     * @return 是否存在匹配的账户
+     */
+    @Transactional(readOnly = true)
+    public boolean checkAccount(String username, String hashedPassword) {
+        JsonNode accounts = parse(load(findSection("accounts").orElseThrow()).getBody()).path("accounts");
+        byte[] expected = hashedPassword.getBytes(StandardCharsets.UTF_8);
+        for (JsonNode account : accounts) {
+            if (username.equals(account.path("username").asText())
+                    && MessageDigest.isEqual(expected, account.path("password").asText().getBytes(StandardCharsets.UTF_8))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 配置写入或数据导入后清空公开配置缓存；排在其他监听器之前，首页等缓存刷新时读到的是新配置
+     *
+     * @param event 内容变更事件
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    public void onContentChanged(ContentChangedEvent event) {
+        if (event.getType() == ContentChangedEvent.Type.CONFIG_SAVED
+                || event.getType() == ContentChangedEvent.Type.DATA_IMPORTED) {
+            synchronized (this) {
+                generation++;
+                publicTree = null;
+                publicDocument = null;
+            }
+        }
+    }
+
+    /**
+     * 简单的密码哈希方法
+     *
+     * @param password 明文密码
+     * @return 哈希后的密码
+     */
+    public static String hashPassword(String password) {
+        try {
+            MessageDigest md = MessageDigest.getInstance("SHA-256");
+            byte[] hashedBytes = md.digest(password.getBytes());
+            StringBuilder sb = new StringBuilder();
+            for (byte b : hashedBytes) {
+                sb.append(String.format("%02x", b));
+            }
+            return sb.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new RuntimeException("Error hashing password", e);
+        }
+    }
+
+    /**
+     * 读取配置中的文本字段，支持以 "." 分隔的嵌套路径
+     *
+     * @param config       配置树
+     * @param path         字段路径，例如 "seo.siteTitle"
+     * @param defaultValue 字段缺失或为空时的默认值
+     * @return 字段值
+     */
+    public static String text(JsonNode config, String path, String defaultValue) {
+        JsonNode node = config;
+        for (String part : path.split("\\.")) {
+            if (node == null) {
+                break;
+            }
+            node = node.get(part);
+        }
+        if (node == null || node.isNull() || node.asText().isEmpty()) {
+            return defaultValue;
+        }
+        return node.asText();
+    }
+
+    private synchronized long currentGeneration() {
+        return generation;
+    }
+
+    private boolean replace(JsonNode config, boolean hashPasswords) {
+        if (config == null || !config.isObject()) {
+            throw new IllegalArgumentException("配置必须是 JSON 对象");
+        }
+        Map<String, ObjectNode> split = split((ObjectNode) config);
+        boolean changed = false;
+        for (Section section : SECTIONS) {
+            ObjectNode body = split.get(section.name());
+            if (body == null && !section.publicSection()) {
+                continue;
+            }
+            if (body == null) {
+                body = MAPPER.createObjectNode();
+            }
+            ConfigSection row = load(section);
+            if (hashPasswords && body.has("accounts")) {
+                hashNewPasswords(body, parse(row.getBody()));
+            }
+            changed |= store(row, body);
+        }
+        return changed;
+    }
+
+    /**
+     * 校验账户列表，提供了密码的条目视为设置新密码并哈希，未提供密码的条目沿用同名账户原有的哈希
+     */
+    private static void hashNewPasswords(ObjectNode body, ObjectNode previous) {
+        JsonNode accounts = body.get("accounts");
+        if (accounts == null) {
+            return;
+        }
+        if (!accounts.isArray()) {
+            throw new IllegalArgumentException("accounts 必须是数组");
+        }
+        Map<String, String> existing = new HashMap<>();
+        for (JsonNode account : previous.path("accounts")) {
+            existing.put(account.path("username").asText(), account.path("password").asText());
+        }
+        Set<String> seen = new HashSet<>();
+        for (JsonNode account : accounts) {
+            if (!account.isObject()) {
+                throw new IllegalArgumentException("账户条目必须是 JSON 对象");
+            }
+            String username = account.path("username").asText();
+            if (!InputValidator.isValidUsername(username)) {
+                throw new IllegalArgumentException("用户名格式不正确");
+            }
+            if (!seen.add(username)) {
+                throw new IllegalArgumentException("用户名重复: " + username);
+            }
+            String password = account.path("password").asText("");
+            if (!password.isEmpty()) {
+                if (!InputValidator.isValidPassword(password)) {
+                    throw new IllegalArgumentException("密码强度不足，必须至少8位且包含字母和数字");
+                }
+                ((ObjectNode) account).put("password", hashPassword(password));
+            } else if (existing.containsKey(username)) {
+                ((ObjectNode) account).put("password", existing.get(username));
+            } else {
+                throw new IllegalArgumentException("新账户 " + username + " 必须设置密码");
+            }
+        }
+    }
+
+    /**
+     * 写入分区，内容没有变化时不改写也不增加版本号
+     *
+     * @return 是否写入
+     */
+    private boolean store(ConfigSection row, ObjectNode body) {
+        if (body.has("siteName")) {
+            body.put("siteName", InputValidator.sanitizeHtml(body.get("siteName").asText()));
+        }
+        if (parse(row.getBody()).equals(body)) {
+            return false;
+        }
+        write(row, body);
+        return true;
+    }
+
+    private void write(ConfigSection row, ObjectNode body) {
+        try {
+            row.setBody(MAPPER.writeValueAsString(body));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        row.setUpdatedAt(Instant.now().toString());
+        sectionRepo.saveAndFlush(row);
+    }
+
+    /**
+     * 读取分区记录，启动时已补齐所有分区，缺失时按空分区处理
+     */
+    private ConfigSection load(Section section) {
+        return sectionRepo.findById(section.name()).orElseGet(() -> {
+            ConfigSection row = new ConfigSection();
+            row.setSection(section.name());
+            row.setBody("{}");
+            return row;
+        });
+    }
+
+    private static SectionView view(Section section, ConfigSection row) {
+        ObjectNode body = parse(row.getBody());
+        if (!section.publicSection()) {
+            // 密码哈希不离开服务端
+            for (JsonNode account : body.path("accounts")) {
+                if (account.isObject()) {
+                    ((ObjectNode) account).remove("password");
+                }
+            }
+        }
+        return new SectionView(section.name(), row.getVersion(), body);
+    }
+
+    private ObjectNode assemble(boolean publicOnly) {
+        Map<String, ConfigSection> rows = new HashMap<>();
+        sectionRepo.findAll().forEach(row -> rows.put(row.getSection(), row));
+        ObjectNode tree = MAPPER.createObjectNode();
+        for (Section section : SECTIONS) {
+            ConfigSection row = rows.get(section.name());
+            if (row != null && (section.publicSection() || !publicOnly)) {
+                tree.setAll(parse(row.getBody()));
+            }
+        }
+        return tree;
+    }
+
+    /**
+     * 按字段归属把完整配置拆分为各分区的文档，只返回至少出现一个字段的分区
+     */
+    private static Map<String, ObjectNode> split(ObjectNode config) {
+        Map<String, ObjectNode> sections = new HashMap<>();
+        config.fields().forEachRemaining(field -> sections
+                .computeIfAbsent(ownerOf(field.getKey()), k -> MAPPER.createObjectNode())
+                .set(field.getKey(), field.getValue().deepCopy()));
+        return sections;
+    }
+
+    private static String ownerOf(String field) {
+        for (Section section : SECTIONS) {
+            if (section.fields().contains(field)) {
+                return section.name();
+            }
+        }
+        return DEFAULT_SECTION;
+    }
+
+    private static ObjectNode parse(String json) {
+        try {
+            JsonNode node = json == null ? null : MAPPER.readTree(json);
+            return node != null && node.isObject() ? (ObjectNode) node : MAPPER.createObjectNode();
+        } catch (Exception e) {
+            logger.warn("Failed to parse site config JSON", e);
+            return MAPPER.createObjectNode();
+        }
+    }
+
+    private static FeedService.FeedDocument encode(JsonNode tree) {
+        try {
+            byte[] bytes = MAPPER.writeValueAsBytes(tree);
+            ByteArrayOutputStream gz = new ByteArrayOutputStream(bytes.length / 4 + 64);
+            try (OutputStream out = new GZIPOutputStream(gz)) {
+                out.write(bytes);
+            }
+            String etag = "\"" + DigestUtils.md5DigestAsHex(bytes) + "\"";
+            return new FeedService.FeedDocument(CONTENT_TYPE, bytes, gz.toByteArray(), etag);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,224 @@
+/**
+ * 个人仪表板服务类
+ * 维护按优先级和完成状态的待办事项计数与日程总数，计数与待办事项、日程的写入在同一事务中增减；
+ * 仪表板摘要只读取这几行计数，当天和即将到来的日程（含重复日程的展开）来自日程索引，响应大小和耗时与历史数据量无关
+ */
+package com.blogos.service;
+
+import com.blogos.event.ContentChangedEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.*;
+
+// 服务注解，标记这是一个业务服务类
+@Service
+// 懒加载配置下也在启动时创建，首次启动时需要补齐计数
+@Lazy(false)
+public class DashboardService {
+    private static final Logger logger = LoggerFactory.getLogger(DashboardService.class);
+
+    // 计数键
+    public static final String SCHEDULE_TOTAL = "schedule.total";
+    private static final String TODO_PREFIX = "todo.";
+
+    // 摘要中列出的即将到来的日程数和当天日程数上限
+    private static final int UPCOMING_LIMIT = 5;
+    private static final int TODAY_LIMIT = 50;
+
+    // 计数行并发创建时 MERGE 的最多尝试次数
+    private static final int MERGE_ATTEMPTS = 3;
+
+    // 自动注入 JdbcTemplate，计数增减与写入共用同一事务的连接
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    // 自动注入随手记服务，随手记条数来自其归档计数
+    @Autowired
+    private MemoService memoService;
+
+    // 自动注入日程索引服务，当天和即将到来的日程由其展开
+    @Autowired
+    private ScheduleIndexService scheduleIndex;
+
+    /**
+     * 待办事项在计数中的键
+     *
+     * @param priority  优先级，为空时记为 none
+     * @param completed 是否已完成
+     */
+    public static String todoKey(String priority, boolean completed) {
+        String p = priority == null || priority.isEmpty() ? "none" : priority;
+        return TODO_PREFIX + (completed ? "done." : "open.") + p;
+    }
+
+    /**
+     * 增减计数，必须在调用方的写事务中执行
+     *
+     * @param deltas 计数键到增量
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void adjust(Map<String, Long> deltas) {
+        for (Map.Entry<String, Long> delta : deltas.entrySet()) {
+            if (delta.getValue() != 0) {
+                merge(delta.getKey(), delta.getValue());
+            }
+        }
+    }
+
+    /**
+     * 用单条 MERGE 累加或创建计数行，先 UPDATE 再 INSERT 时两个事务可能同时插入同一个键
+     * H2 的 MERGE 在并发插入同一个新键时仍可能报主键冲突，此时计数行已由另一事务创建，重试一次即走累加分支；
+     * 失败的语句只回滚自身，不影响调用方事务
+     */
+    private void merge(String key, long delta) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                jdbcTemplate.update("MERGE INTO planner_counters c USING (VALUES (CAST(? AS VARCHAR), CAST(? AS BIGINT))) AS d(k, v) "
+                        + "ON c.counter_key = d.k "
+                        + "WHEN MATCHED THEN UPDATE SET counter_value = c.counter_value + d.v "
+                        + "WHEN NOT MATCHED THEN INSERT (counter_key, counter_value) VALUES (d.k, d.v)", key, delta);
+                return;
+            } catch (DuplicateKeyException e) {
+                if (attempt >= MERGE_ATTEMPTS) {
+                    throw e;
+                }
+            }
+        }
+    }
+
+    /**
+     * 增减单个计数
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void adjust(String key, long delta) {
+        adjust(Map.of(key, delta));
+    }
+
+    /**
+     * 获取仪表板摘要
+     *
+     * @param today 客户端的当天日期（yyyy-MM-dd），为 null 时使用服务器日期
+     * @return 待办事项计数、当天和即将到来的日程、随手记条数
+     */
+    @Transactional(readOnly = true)
+    public Map<String, Object> getSummary(String today) {
+        String day = today == null || today.isEmpty() ? LocalDate.now().toString() : parseDay(today);
+
+        Map<String, Map<String, Long>> byPriority = new TreeMap<>();
+        long open = 0;
+        long completed = 0;
+        long scheduleTotal = 0;
+        for (Map<String, Object> row : jdbcTemplate.queryForList("SELECT counter_key, counter_value FROM planner_counters")) {
+            String key = (String) row.get("counter_key");
+            long value = ((Number) row.get("counter_value")).longValue();
+            if (SCHEDULE_TOTAL.equals(key)) {
+                scheduleTotal = value;
+            } else if (key.startsWith(TODO_PREFIX) && value != 0) {
+                String[] parts = key.split("\\.", 3);
+                boolean done = "done".equals(parts[1]);
+                byPriority.computeIfAbsent(parts[2], p -> new LinkedHashMap<>(Map.of("open", 0L, "completed", 0L)))
+                        .merge(done ? "completed" : "open", value, Long::sum);
+                if (done) completed += value; else open += value;
+            }
+        }
+
+        Map<String, Long> dueToday = new LinkedHashMap<>(Map.of("open", 0L, "completed", 0L));
+        jdbcTemplate.query("SELECT completed, COUNT(*) FROM todos WHERE date = ? GROUP BY completed", rs -> {
+            dueToday.put(rs.getBoolean(1) ? "completed" : "open", rs.getLong(2));
+        }, day);
+
+        Map<String, Object> todos = new LinkedHashMap<>();
+        todos.put("open", open);
+        todos.put("completed", completed);
+        todos.put("byPriority", byPriority);
+        todos.put("dueToday", dueToday);
+
+        List<ScheduleIndexService.Occurrence> onDay = scheduleIndex.getOccurrences(day, day);
+        Map<String, Object> schedules = new LinkedHashMap<>();
+        schedules.put("total", scheduleTotal);
+        schedules.put("today", onDay.size() > TODAY_LIMIT ? onDay.subList(0, TODAY_LIMIT) : onDay);
+        schedules.put("upcoming", scheduleIndex.getUpcoming(LocalDate.parse(day).plusDays(1).toString(), UPCOMING_LIMIT));
+
+        long memoTotal = 0;
+        long memoThisMonth = 0;
+        for (MemoService.ArchiveMonth month : memoService.getArchive()) {
+            memoTotal += month.count();
+            if (day.startsWith(month.month())) {
+                memoThisMonth = month.count();
+            }
+        }
+        Map<String, Object> memos = new LinkedHashMap<>();
+        memos.put("total", memoTotal);
+        memos.put("thisMonth", memoThisMonth);
+
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("date", day);
+        summary.put("todos", todos);
+        summary.put("schedules", schedules);
+        summary.put("memos", memos);
+        return summary;
+    }
+
+    /**
+     * 启动时计数表为空（首次升级到带计数的版本）则全量统计一次
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional
+    public void initCounters() {
+        Integer rows = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM planner_counters", Integer.class);
+        if (rows == null || rows == 0) {
+            recount();
+        }
+    }
+
+    /**
+     * 批量导入绕过了计数维护，导入完成后重新统计
+     *
+     * @param event 内容变更事件
+     */
+    @TransactionalEventListener(fallbackExecution = true, condition = "#event.type.name() == 'DATA_IMPORTED'")
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public void onContentChanged(ContentChangedEvent event) {
+        recount();
+    }
+
+    /**
+     * 按当前数据重新统计所有计数
+     */
+    private void recount() {
+        long start = System.currentTimeMillis();
+        Map<String, Long> counts = new HashMap<>();
+        jdbcTemplate.query("SELECT priority, completed, COUNT(*) FROM todos GROUP BY priority, completed", rs -> {
+            counts.merge(todoKey(rs.getString(1), rs.getBoolean(2)), rs.getLong(3), Long::sum);
+        });
+        counts.put(SCHEDULE_TOTAL, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM schedules", Long.class));
+        jdbcTemplate.update("DELETE FROM planner_counters");
+        jdbcTemplate.batchUpdate("INSERT INTO planner_counters (counter_key, counter_value) VALUES (?, ?)",
+                new ArrayList<>(counts.entrySet()), counts.size(), (ps, entry) -> {
+                    ps.setString(1, entry.getKey());
+                    ps.setLong(2, entry.getValue());
+                });
+        logger.info("Recounted {} planner counters in {} ms", counts.size(), System.currentTimeMillis() - start);
+    }
+
+    private static String parseDay(String day) {
+        try {
+            return LocalDate.parse(day).toString();
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("日期格式不正确，应为 yyyy-MM-dd");
+        }
+    }
+}
@@ -0,0 +1,334 @@
+/**
+ * 数据导入导出服务类
+ * 以 NDJSON（每行一个 JSON 记录）格式流式导出和导入整站数据：
+ * 导出使用 JPA 结果流和 Jackson 流式生成器，导入增量解析并按批次持久化，内存占用与数据量无关
+ */
+package com.blogos.service;
+
+import com.blogos.event.ContentChangedEvent;
+import com.blogos.model.*;
+import com.blogos.util.TimeOrderedId;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.time.Instant;
+import java.util.*;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.HibernateHints.HINT_READ_ONLY;
+
+// 服务注解，标记这是一个业务服务类
+@Service
+public class DataTransferService {
+    private static final Logger logger = LoggerFactory.getLogger(DataTransferService.class);
+
+    // 导出格式版本
+    private static final int FORMAT_VERSION = 1;
+
+    // 导出时每读取多少个实体清理一次持久化上下文
+    private static final int EXPORT_CLEAR_INTERVAL = 200;
+
+    // 记录类型与实体类的对应关系，顺序即导出顺序
+    private static final Map<String, Class<?>> RECORD_TYPES = new LinkedHashMap<>();
+
+    static {
+        RECORD_TYPES.put("post", Post.class);
+        RECORD_TYPES.put("memo", Memo.class);
+        RECORD_TYPES.put("todo", Todo.class);
+        RECORD_TYPES.put("schedule", Schedule.class);
+    }
+
+    // 导入时每批持久化的记录数，应与 hibernate.jdbc.batch_size 成倍数
+    @Value("${blogos.transfer.import-batch-size:200}")
+    private int importBatchSize;
+
+    // 注入持久化上下文
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    // 自动注入 Jackson ObjectMapper
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    // 自动注入配置服务
+    @Autowired
+    private ConfigService configService;
+
+    // 自动注入文章正文存储
+    @Autowired
+    private PostContentStore contentStore;
+
+    // 自动注入事务管理器
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    // 自动注入事件发布器，导入完成后通知缓存整体刷新
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    private TransactionTemplate readOnlyTx;
+    private TransactionTemplate writeTx;
+
+    @PostConstruct
+    public void init() {
+        readOnlyTx = new TransactionTemplate(transactionManager);
+        readOnlyTx.setReadOnly(true);
+        writeTx = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * 导出整站数据
+     * 第一行为元信息，随后依次为配置、文章（含标签和评论树）、随手记、待办事项和日程安排
+     *
+     * @param out 输出流
+     */
+    public void exportAll(OutputStream out) {
+        long start = System.currentTimeMillis();
+        Map<String, Long> counts = new LinkedHashMap<>();
+        readOnlyTx.executeWithoutResult(status -> {
+            try (JsonGenerator gen = objectMapper.getFactory().createGenerator(out)) {
+                gen.setRootValueSeparator(null);
+
+                gen.writeStartObject();
+                gen.writeStringField("type", "meta");
+                gen.writeNumberField("version", FORMAT_VERSION);
+                gen.writeStringField("exportedAt", Instant.now().toString());
+                gen.writeEndObject();
+                gen.writeRaw('\n');
+
+                gen.writeStartObject();
+                gen.writeStringField("type", "config");
+                gen.writeFieldName("data");
+                gen.writeTree(configService.exportConfigTree());
+                gen.writeEndObject();
+                gen.writeRaw('\n');
+
+                for (Map.Entry<String, Class<?>> type : RECORD_TYPES.entrySet()) {
+                    counts.put(type.getKey(), exportEntities(gen, type.getKey(), type.getValue()));
+                }
+                gen.flush();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        logger.info("Exported {} in {} ms", counts, System.currentTimeMillis() - start);
+    }
+
+    private long exportEntities(JsonGenerator gen, String type, Class<?> entityClass) throws IOException {
+        long count = 0;
+        List<Object> chunk = new ArrayList<>(EXPORT_CLEAR_INTERVAL);
+        try (Stream<?> rows = entityManager
+                .createQuery("SELECT e FROM " + entityClass.getSimpleName() + " e", entityClass)
+                .setHint(HINT_FETCH_SIZE, 500)
+                .setHint(HINT_READ_ONLY, true)
+                .getResultStream()) {
+            for (Iterator<?> it = rows.iterator(); it.hasNext(); ) {
+                chunk.add(it.next());
+                if (chunk.size() == EXPORT_CLEAR_INTERVAL) {
+                    count += writeChunk(gen, type, chunk);
+                }
+            }
+        }
+        count += writeChunk(gen, type, chunk);
+        return count;
+    }
+
+    /**
+     * 写出一批实体，文章正文按批次一次查询填充，写完后释放实体及其懒加载集合，保持内存占用恒定
+     */
+    @SuppressWarnings("unchecked")
+    private int writeChunk(JsonGenerator gen, String type, List<Object> chunk) throws IOException {
+        if (!chunk.isEmpty() && chunk.get(0) instanceof Post) {
+            contentStore.fill((List<Post>) (List<?>) chunk);
+        }
+        for (Object entity : chunk) {
+            gen.writeStartObject();
+            gen.writeStringField("type", type);
+            gen.writeObjectField("data", entity);
+            gen.writeEndObject();
+            gen.writeRaw('\n');
+        }
+        int written = chunk.size();
+        chunk.clear();
+        gen.flush();
+        entityManager.clear();
+        return written;
+    }
+
+    /**
+     * 导入 NDJSON 数据
+     *
+     * @param in      输入流
+     * @param replace 为 true 时覆盖已存在的同 ID 记录，否则跳过
+     * @return 导入报告，包含各类型导入和跳过的数量、耗时和速率
+     */
+    public Map<String, Object> importAll(InputStream in, boolean replace) throws IOException {
+        long start = System.currentTimeMillis();
+        Map<String, Long> imported = new TreeMap<>();
+        Map<String, Long> skipped = new TreeMap<>();
+        List<Object> batch = new ArrayList<>(importBatchSize);
+        long lines = 0;
+
+        try (MappingIterator<JsonNode> records = objectMapper.readerFor(JsonNode.class).readValues(in)) {
+            while (records.hasNextValue()) {
+                JsonNode record = records.nextValue();
+                lines++;
+                String type = record.path("type").asText();
+                JsonNode data = record.get("data");
+                if ("config".equals(type) && data != null && data.isObject()) {
+                    configService.importConfig(data);
+                    imported.merge("config", 1L, Long::sum);
+                    continue;
+                }
+                Class<?> entityClass = RECORD_TYPES.get(type);
+                if (entityClass == null || data == null) {
+                    // 元信息行和未知类型直接跳过
+                    continue;
+                }
+                batch.add(objectMapper.treeToValue(data, entityClass));
+                if (batch.size() >= importBatchSize) {
+                    persistBatch(batch, replace, imported, skipped);
+                    batch.clear();
+                }
+            }
+        }
+        if (!batch.isEmpty()) {
+            persistBatch(batch, replace, imported, skipped);
+        }
+        eventPublisher.publishEvent(ContentChangedEvent.dataImported());
+
+        long elapsed = Math.max(1, System.currentTimeMillis() - start);
+        long total = imported.values().stream().mapToLong(Long::longValue).sum();
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("success", true);
+        report.put("lines", lines);
+        report.put("imported", imported);
+        report.put("skipped", skipped);
+        report.put("durationMs", elapsed);
+        report.put("recordsPerSecond", Math.round(total * 1000.0 / elapsed));
+        logger.info("Import finished: {}", report);
+        return report;
+    }
+
+    /**
+     * 在一个事务中持久化一批记录，结束后刷新并清空持久化上下文
+     * 插入语句由 Hibernate 按 hibernate.jdbc.batch_size 合并为 JDBC 批量执行
+     */
+    private void persistBatch(List<Object> batch, boolean replace, Map<String, Long> imported, Map<String, Long> skipped) {
+        writeTx.executeWithoutResult(status -> {
+            Map<Class<?>, List<Object>> byType = new LinkedHashMap<>();
+            for (Object entity : batch) {
+                byType.computeIfAbsent(entity.getClass(), k -> new ArrayList<>()).add(entity);
+            }
+            for (Map.Entry<Class<?>, List<Object>> group : byType.entrySet()) {
+                String type = typeName(group.getKey());
+                Function<Object, String> idOf = idAccessor(group.getKey());
+                List<Object> entities = group.getValue();
+                entities.forEach(e -> assignMissingIds(e));
+                Set<String> existing = existingIds(group.getKey(), entities.stream().map(idOf).toList());
+                for (Object entity : entities) {
+                    if (existing.contains(idOf.apply(entity))) {
+                        if (!replace) {
+                            skipped.merge(type, 1L, Long::sum);
+                            continue;
+                        }
+                        entityManager.merge(entity);
+                        if (entity instanceof Post post) {
+                            entityManager.merge(contentStore.encode(post.getId(), post.getContent()));
+                        }
+                    } else {
+                        entityManager.persist(entity);
+                        if (entity instanceof Post post) {
+                            entityManager.persist(contentStore.encode(post.getId(), post.getContent()));
+                        }
+                    }
+                    imported.merge(type, 1L, Long::sum);
+                }
+            }
+            entityManager.flush();
+            entityManager.clear();
+        });
+    }
+
+    private Set<String> existingIds(Class<?> entityClass, List<String> ids) {
+        if (ids.isEmpty()) {
+            return Set.of();
+        }
+        List<String> found = entityManager
+                .createQuery("SELECT e.id FROM " + entityClass.getSimpleName() + " e WHERE e.id IN :ids", String.class)
+                .setParameter("ids", ids)
+                .getResultList();
+        return new HashSet<>(found);
+    }
+
+    /**
+     * 为缺少 ID 的实体和评论生成 ID
+     */
+    private void assignMissingIds(Object entity) {
+        if (entity instanceof Post post) {
+            if (isBlank(post.getId())) post.setId(TimeOrderedId.next());
+            if (post.getTags() == null) post.setTags(new ArrayList<>());
+            if (post.getComments() == null) post.setComments(new ArrayList<>());
+            walkComments(post.getComments(), c -> {
+                if (isBlank(c.getId())) c.setId(TimeOrderedId.next());
+                if (c.getReplies() == null) c.setReplies(new ArrayList<>());
+            });
+        } else if (entity instanceof Memo memo) {
+            if (isBlank(memo.getId())) memo.setId(TimeOrderedId.next());
+        } else if (entity instanceof Todo todo) {
+            if (isBlank(todo.getId())) todo.setId(TimeOrderedId.next());
+        } else if (entity instanceof Schedule schedule) {
+            if (isBlank(schedule.getId())) schedule.setId(TimeOrderedId.next());
+        }
+    }
+
+    private static void walkComments(List<Comment> comments, Consumer<Comment> visitor) {
+        if (comments == null) {
+            return;
+        }
+        for (Comment c : comments) {
+            visitor.accept(c);
+            walkComments(c.getReplies(), visitor);
+        }
+    }
+
+    private static Function<Object, String> idAccessor(Class<?> entityClass) {
+        if (entityClass == Post.class) return e -> ((Post) e).getId();
+        if (entityClass == Memo.class) return e -> ((Memo) e).getId();
+        if (entityClass == Todo.class) return e -> ((Todo) e).getId();
+        return e -> ((Schedule) e).getId();
+    }
+
+    private static String typeName(Class<?> entityClass) {
+        for (Map.Entry<String, Class<?>> type : RECORD_TYPES.entrySet()) {
+            if (type.getValue() == entityClass) {
+                return type.getKey();
+            }
+        }
+        return entityClass.getSimpleName().toLowerCase();
+    }
+
+    private static boolean isBlank(String value) {
+        return value == null || value.isEmpty();
+    }
+}
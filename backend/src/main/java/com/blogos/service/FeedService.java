@@ -0,0 +1,451 @@
+/**
+ * 订阅源与站点地图服务类
+ * 以游标方式流式读取文章摘要，通过 StAX 流式写出 RSS、Atom 与 sitemap.xml，
+ * 编码结果（含 gzip 压缩版本）缓存在内存中，只在文章或配置变更后重新生成
+ */
+package com.blogos.service;
+
+import com.blogos.event.ContentChangedEvent;
+import com.blogos.model.PostSummary;
+import com.blogos.repository.PostRepository;
+import com.fasterxml.jackson.databind.JsonNode;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.DigestUtils;
+import org.springframework.web.util.HtmlUtils;
+
+import javax.xml.stream.XMLOutputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamWriter;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+import java.util.zip.GZIPOutputStream;
+
+// 服务注解，标记这是一个业务服务类
+@Service
+public class FeedService {
+    private static final Logger logger = LoggerFactory.getLogger(FeedService.class);
+
+    // 单个站点地图文件最多包含的 URL 数（sitemaps.org 协议上限）
+    public static final int SITEMAP_SHARD_SIZE = 50000;
+
+    // RSS / Atom 中包含的最新文章数
+    private static final int FEED_ITEM_LIMIT = 50;
+
+    // 站点地图中除文章外的固定页面：首页与归档
+    private static final int SITEMAP_STATIC_URLS = 2;
+
+    private static final String SITEMAP_NS = "http://www.sitemaps.org/schemas/sitemap/0.9";
+    private static final String ATOM_NS = "http://www.w3.org/2005/Atom";
+
+    private static final XMLOutputFactory XML_OUTPUT = XMLOutputFactory.newFactory();
+
+    // 站点对外访问的根地址，用于生成绝对链接
+    @Value("${blogos.site.base-url:http://localhost:8080}")
+    private String baseUrl;
+
+    // 自动注入文章仓库
+    @Autowired
+    private PostRepository postRepository;
+
+    // 自动注入配置服务
+    @Autowired
+    private ConfigService configService;
+
+    // 自动注入事务管理器，流式查询需要在事务内执行
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    // 已编码文档缓存，键为文档名称
+    private final Map<String, FeedDocument> cache = new ConcurrentHashMap<>();
+
+    // 每个文档的构建锁，保证同一文档同时只构建一次
+    private final Map<String, Object> buildLocks = new ConcurrentHashMap<>();
+
+    // 数据版本号，构建期间发生变更时不缓存过期结果
+    private final AtomicLong generation = new AtomicLong();
+
+    private TransactionTemplate readOnlyTx;
+
+    @PostConstruct
+    public void init() {
+        readOnlyTx = new TransactionTemplate(transactionManager);
+        readOnlyTx.setReadOnly(true);
+        baseUrl = baseUrl.endsWith("/") ? baseUrl.substring(0, baseUrl.length() - 1) : baseUrl;
+    }
+
+    /**
+     * 监听内容变更事件，文章或配置变更后使缓存失效
+     *
+     * @param event 内容变更事件
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onContentChanged(ContentChangedEvent event) {
+        switch (event.getType()) {
+            case POST_SAVED, POST_DELETED, CONFIG_SAVED, DATA_IMPORTED -> {
+                generation.incrementAndGet();
+                cache.clear();
+            }
+            default -> {
+                // 评论与点赞不影响订阅源内容
+            }
+        }
+    }
+
+    /**
+     * 获取 RSS 2.0 订阅源
+     */
+    public FeedDocument getRss() {
+        return cached("rss", "application/rss+xml;charset=UTF-8", this::writeRss);
+    }
+
+    /**
+     * 获取 Atom 订阅源
+     */
+    public FeedDocument getAtom() {
+        return cached("atom", "application/atom+xml;charset=UTF-8", this::writeAtom);
+    }
+
+    /**
+     * 获取站点地图入口
+     * URL 数不超过单文件上限时直接返回 urlset，否则返回指向各分片的 sitemapindex
+     */
+    public FeedDocument getSitemap() {
+        return cached("sitemap", "application/xml;charset=UTF-8", out -> {
+            long urlCount = postRepository.count() + SITEMAP_STATIC_URLS;
+            if (urlCount <= SITEMAP_SHARD_SIZE) {
+                writeSitemapShard(out, 0);
+            } else {
+                writeSitemapIndex(out, (int) ((urlCount + SITEMAP_SHARD_SIZE - 1) / SITEMAP_SHARD_SIZE));
+            }
+        });
+    }
+
+    /**
+     * 获取站点地图分片
+     *
+     * @param shard 分片序号，从 0 开始
+     * @return 分片文档，分片不存在时返回 null
+     */
+    public FeedDocument getSitemapShard(int shard) {
+        long urlCount = postRepository.count() + SITEMAP_STATIC_URLS;
+        if (shard < 0 || (long) shard * SITEMAP_SHARD_SIZE >= urlCount) {
+            return null;
+        }
+        return cached("sitemap-" + shard, "application/xml;charset=UTF-8", out -> writeSitemapShard(out, shard));
+    }
+
+    // --- 缓存与编码 ---
+
+    private FeedDocument cached(String key, String contentType, XmlBody body) {
+        FeedDocument doc = cache.get(key);
+        if (doc != null) {
+            return doc;
+        }
+        synchronized (buildLocks.computeIfAbsent(key, k -> new Object())) {
+            doc = cache.get(key);
+            if (doc != null) {
+                return doc;
+            }
+            long gen = generation.get();
+            long start = System.currentTimeMillis();
+            doc = readOnlyTx.execute(status -> encode(contentType, body));
+            if (generation.get() == gen) {
+                cache.put(key, doc);
+            }
+            logger.info("Built {} ({} bytes, {} gzipped) in {} ms", key, doc.getBody().length,
+                    doc.getGzipBody().length, System.currentTimeMillis() - start);
+            return doc;
+        }
+    }
+
+    private FeedDocument encode(String contentType, XmlBody body) {
+        try {
+            ByteArrayOutputStream raw = new ByteArrayOutputStream(8192);
+            XMLStreamWriter xml = XML_OUTPUT.createXMLStreamWriter(raw, "UTF-8");
+            xml.writeStartDocument("UTF-8", "1.0");
+            body.write(xml);
+            xml.writeEndDocument();
+            xml.close();
+            byte[] bytes = raw.toByteArray();
+
+            ByteArrayOutputStream gz = new ByteArrayOutputStream(bytes.length / 4 + 64);
+            try (OutputStream out = new GZIPOutputStream(gz)) {
+                out.write(bytes);
+            }
+            String etag = "\"" + DigestUtils.md5DigestAsHex(bytes) + "\"";
+            return new FeedDocument(contentType, bytes, gz.toByteArray(), etag);
+        } catch (XMLStreamException e) {
+            throw new IllegalStateException("生成 XML 失败", e);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // --- 文档写出 ---
+
+    private void writeRss(XMLStreamWriter xml) throws XMLStreamException {
+        JsonNode config = configService.getConfigTree();
+        xml.writeStartElement("rss");
+        xml.writeAttribute("version", "2.0");
+        xml.writeStartElement("channel");
+        element(xml, "title", siteTitle(config));
+        element(xml, "link", baseUrl + "/");
+        element(xml, "description", ConfigService.text(config, "seo.description", ""));
+        element(xml, "generator", "BlogOS");
+        try (Stream<PostSummary> posts = postRepository.streamSummaries(0, FEED_ITEM_LIMIT)) {
+            for (PostSummary post : (Iterable<PostSummary>) posts::iterator) {
+                xml.writeStartElement("item");
+                element(xml, "title", storedText(post.getTitle()));
+                element(xml, "link", postUrl(post.getId()));
+                xml.writeStartElement("guid");
+                xml.writeAttribute("isPermaLink", "true");
+                xml.writeCharacters(postUrl(post.getId()));
+                xml.writeEndElement();
+                element(xml, "description", storedText(post.getExcerpt()));
+                element(xml, "category", post.getCategory());
+                element(xml, "author", post.getAuthor());
+                ZonedDateTime date = parseDate(post.getDate());
+                if (date != null) {
+                    element(xml, "pubDate", DateTimeFormatter.RFC_1123_DATE_TIME.format(date));
+                }
+                xml.writeEndElement();
+            }
+        }
+        xml.writeEndElement();
+        xml.writeEndElement();
+    }
+
+    private void writeAtom(XMLStreamWriter xml) throws XMLStreamException {
+        JsonNode config = configService.getConfigTree();
+        xml.writeStartElement("feed");
+        xml.writeDefaultNamespace(ATOM_NS);
+        element(xml, "title", siteTitle(config));
+        element(xml, "subtitle", ConfigService.text(config, "seo.description", ""));
+        element(xml, "id", baseUrl + "/");
+        link(xml, baseUrl + "/", null);
+        link(xml, baseUrl + "/atom.xml", "self");
+        boolean first = true;
+        try (Stream<PostSummary> posts = postRepository.streamSummaries(0, FEED_ITEM_LIMIT)) {
+            for (PostSummary post : (Iterable<PostSummary>) posts::iterator) {
+                ZonedDateTime date = parseDate(post.getDate());
+                String updated = DateTimeFormatter.ISO_OFFSET_DATE_TIME.format(
+                        date != null ? date : ZonedDateTime.now(ZoneOffset.UTC));
+                if (first) {
+                    // 订阅源的更新时间取最新一篇文章的日期
+                    element(xml, "updated", updated);
+                    first = false;
+                }
+                xml.writeStartElement("entry");
+                element(xml, "title", storedText(post.getTitle()));
+                element(xml, "id", postUrl(post.getId()));
+                link(xml, postUrl(post.getId()), null);
+                element(xml, "updated", updated);
+                element(xml, "summary", storedText(post.getExcerpt()));
+                if (post.getAuthor() != null) {
+                    xml.writeStartElement("author");
+                    element(xml, "name", post.getAuthor());
+                    xml.writeEndElement();
+                }
+                if (post.getCategory() != null) {
+                    xml.writeEmptyElement("category");
+                    xml.writeAttribute("term", post.getCategory());
+                }
+                xml.writeEndElement();
+            }
+        }
+        if (first) {
+            element(xml, "updated", DateTimeFormatter.ISO_OFFSET_DATE_TIME.format(ZonedDateTime.now(ZoneOffset.UTC)));
+        }
+        xml.writeEndElement();
+    }
+
+    private void writeSitemapIndex(XMLStreamWriter xml, int shards) throws XMLStreamException {
+        xml.writeStartElement("sitemapindex");
+        xml.writeDefaultNamespace(SITEMAP_NS);
+        for (int i = 0; i < shards; i++) {
+            xml.writeStartElement("sitemap");
+            element(xml, "loc", baseUrl + "/sitemap-" + i + ".xml");
+            xml.writeEndElement();
+        }
+        xml.writeEndElement();
+    }
+
+    /**
+     * 写出一个站点地图分片，分片 0 额外包含首页与归档页
+     */
+    private void writeSitemapShard(XMLStreamWriter xml, int shard) throws XMLStreamException {
+        xml.writeStartElement("urlset");
+        xml.writeDefaultNamespace(SITEMAP_NS);
+        long skip = (long) shard * SITEMAP_SHARD_SIZE;
+        long limit = SITEMAP_SHARD_SIZE;
+        if (shard == 0) {
+            sitemapUrl(xml, baseUrl + "/", null);
+            sitemapUrl(xml, baseUrl + "/archive/", null);
+            limit -= SITEMAP_STATIC_URLS;
+        } else {
+            skip -= SITEMAP_STATIC_URLS;
+        }
+        // 偏移和条数交给数据库，分片 N 不再逐行读取并丢弃前 N 个分片的文章
+        try (Stream<PostSummary> posts = postRepository.streamSummaries(skip, (int) limit)) {
+            for (PostSummary post : (Iterable<PostSummary>) posts::iterator) {
+                ZonedDateTime date = parseDate(post.getDate());
+                sitemapUrl(xml, postUrl(post.getId()), date != null ? date.toLocalDate().toString() : null);
+            }
+        }
+        xml.writeEndElement();
+    }
+
+    private void sitemapUrl(XMLStreamWriter xml, String loc, String lastmod) throws XMLStreamException {
+        xml.writeStartElement("url");
+        element(xml, "loc", loc);
+        if (lastmod != null) {
+            element(xml, "lastmod", lastmod);
+        }
+        xml.writeEndElement();
+    }
+
+    private static void element(XMLStreamWriter xml, String name, String text) throws XMLStreamException {
+        if (text == null) {
+            return;
+        }
+        xml.writeStartElement(name);
+        xml.writeCharacters(text);
+        xml.writeEndElement();
+    }
+
+    private static void link(XMLStreamWriter xml, String href, String rel) throws XMLStreamException {
+        xml.writeEmptyElement("link");
+        if (rel != null) {
+            xml.writeAttribute("rel", rel);
+        }
+        xml.writeAttribute("href", href);
+    }
+
+    private String postUrl(String postId) {
+        return baseUrl + "/posts/" + URLEncoder.encode(postId, StandardCharsets.UTF_8) + "/";
+    }
+
+    /**
+     * 标题在入库时已做 HTML 转义，写入 XML 前先还原，避免二次转义
+     */
+    private static String storedText(String value) {
+        return value == null ? null : HtmlUtils.htmlUnescape(value);
+    }
+
+    private static String siteTitle(JsonNode config) {
+        return ConfigService.text(config, "seo.siteTitle", ConfigService.text(config, "siteName", "BlogOS"));
+    }
+
+    /**
+     * 解析文章日期，兼容 "yyyy-MM-dd" 和 ISO 时间戳前缀，无法解析时返回 null
+     */
+    private static ZonedDateTime parseDate(String date) {
+        if (date == null || date.length() < 10) {
+            return null;
+        }
+        try {
+            return LocalDate.parse(date.substring(0, 10)).atStartOfDay(ZoneOffset.UTC);
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
+    /**
+     * XML 文档主体写出函数
+     */
+    @FunctionalInterface
+    private interface XmlBody {
+        void write(XMLStreamWriter xml) throws XMLStreamException;
+    }
+
+    /**
+     * 已编码的订阅源文档，同时保存原始字节和 gzip 压缩字节
+     * 两种编码是不同的表示，各自使用独立的强 ETag（gzip 版本带 -gz 后缀），响应都带 Vary: Accept-Encoding
+     */
+    public static class FeedDocument {
+        private final String contentType;
+        private final byte[] body;
+        private final byte[] gzipBody;
+        private final String etag;
+        private final String gzipEtag;
+
+        FeedDocument(String contentType, byte[] body, byte[] gzipBody, String etag) {
+            this.contentType = contentType;
+            this.body = body;
+            this.gzipBody = gzipBody;
+            this.etag = etag;
+            this.gzipEtag = etag.endsWith("\"") ? etag.substring(0, etag.length() - 1) + "-gz\"" : etag + "-gz";
+        }
+
+        /**
+         * 按请求的编码和 ETag 协商生成响应
+         *
+         * @param acceptEncoding Accept-Encoding 请求头
+         * @param ifNoneMatch    If-None-Match 请求头
+         * @param cacheControl   缓存策略
+         * @return 200（原始或 gzip 内容）或 304
+         */
+        public ResponseEntity<byte[]> toResponse(String acceptEncoding, String ifNoneMatch, CacheControl cacheControl) {
+            boolean gzip = acceptEncoding != null && acceptEncoding.contains("gzip");
+            String tag = gzip ? gzipEtag : etag;
+            if (tag.equals(ifNoneMatch)) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                        .eTag(tag)
+                        .cacheControl(cacheControl)
+                        .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING)
+                        .build();
+            }
+            ResponseEntity.BodyBuilder builder = ResponseEntity.ok()
+                    .contentType(MediaType.parseMediaType(contentType))
+                    .cacheControl(cacheControl)
+                    .eTag(tag)
+                    .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+            if (gzip) {
+                builder.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+                return builder.body(gzipBody);
+            }
+            return builder.body(body);
+        }
+
+        public String getContentType() {
+            return contentType;
+        }
+
+        public byte[] getBody() {
+            return body;
+        }
+
+        public byte[] getGzipBody() {
+            return gzipBody;
+        }
+
+        public String getEtag() {
+            return etag;
+        }
+    }
+}
@@ -0,0 +1,251 @@
+/**
+ * 首页聚合服务类
+ * 在内存中维护首页所需的精选文章指针、按日期排序的最新 N 篇文章、分类计数、最新随手记和站点配置，
+ * 根据内容变更事件逐项增量更新，并缓存编码后的 JSON（含 gzip 版本），首页加载只需一次小请求
+ */
+package com.blogos.service;
+
+import com.blogos.event.ContentChangedEvent;
+import com.blogos.model.PostCard;
+import com.blogos.repository.PostRepository;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.DigestUtils;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.*;
+import java.util.stream.Stream;
+import java.util.zip.GZIPOutputStream;
+
+// 服务注解，标记这是一个业务服务类
+@Service
+public class HomeService {
+    private static final Logger logger = LoggerFactory.getLogger(HomeService.class);
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private static final String CONTENT_TYPE = "application/json;charset=UTF-8";
+
+    // 日期字符串按降序排列，空值排在最后，日期相同时按 ID 排序保证顺序稳定
+    private static final Comparator<PostCard> BY_DATE_DESC = Comparator
+            .comparing(PostCard::date, Comparator.nullsLast(Comparator.<String>reverseOrder()))
+            .thenComparing(PostCard::id);
+
+    // 首页保留的最新文章数
+    @Value("${blogos.home.latest-count:6}")
+    private int latestCount;
+
+    // 首页保留的最新随手记数
+    @Value("${blogos.home.memo-count:5}")
+    private int memoCount;
+
+    // 自动注入文章仓库
+    @Autowired
+    private PostRepository postRepository;
+
+    // 自动注入随手记服务
+    @Autowired
+    private MemoService memoService;
+
+    // 自动注入配置服务
+    @Autowired
+    private ConfigService configService;
+
+    // 自动注入事务管理器，后台加载需要在只读事务中执行
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    // 以下状态均由 this 锁保护
+
+    // 是否已完成首次全量构建
+    private boolean initialized;
+
+    // 当前精选文章，没有时为 null
+    private PostCard featured;
+
+    // 按日期降序的最新文章，最多 latestCount 篇
+    private final TreeSet<PostCard> latest = new TreeSet<>(BY_DATE_DESC);
+
+    // 每篇文章当前的分类，用于在分类变更或删除时调整计数
+    private final Map<String, String> postCategories = new HashMap<>();
+
+    // 分类名到文章数
+    private final Map<String, Integer> categoryCounts = new TreeMap<>();
+
+    // 最新随手记
+    private JsonNode memos;
+
+    // 站点配置
+    private JsonNode config;
+
+    // 编码后的首页数据，状态变化后置为 null，下次请求时重新编码
+    private volatile FeedService.FeedDocument document;
+
+    private TransactionTemplate readOnlyTx;
+
+    @PostConstruct
+    public void init() {
+        readOnlyTx = new TransactionTemplate(transactionManager);
+        readOnlyTx.setReadOnly(true);
+    }
+
+    /**
+     * 获取首页聚合数据
+     *
+     * @return 编码后的 JSON 文档
+     */
+    public FeedService.FeedDocument getHome() {
+        FeedService.FeedDocument doc = document;
+        if (doc != null) {
+            return doc;
+        }
+        synchronized (this) {
+            if (!initialized) {
+                rebuild();
+            }
+            if (document == null) {
+                document = encode();
+            }
+            return document;
+        }
+    }
+
+    /**
+     * 监听内容变更事件，在事务提交后只更新受影响的部分
+     *
+     * @param event 内容变更事件
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onContentChanged(ContentChangedEvent event) {
+        if (!initialized) {
+            return;
+        }
+        switch (event.getType()) {
+            case POST_SAVED -> readOnlyTx.execute(status -> postRepository.findCard(event.getPostId()))
+                    .ifPresentOrElse(this::upsert, () -> remove(event.getPostId()));
+            case POST_DELETED -> remove(event.getPostId());
+            case CONFIG_SAVED -> config = configService.getConfigTree();
+            case MEMO_SAVED, MEMO_DELETED -> memos = loadMemos();
+            case DATA_IMPORTED -> initialized = false;
+            default -> {
+                // 评论与点赞不影响首页数据
+                return;
+            }
+        }
+        document = null;
+    }
+
+    /**
+     * 全量构建首页状态，只在首次请求和批量导入后执行
+     */
+    private void rebuild() {
+        long start = System.currentTimeMillis();
+        featured = null;
+        latest.clear();
+        postCategories.clear();
+        categoryCounts.clear();
+        readOnlyTx.executeWithoutResult(status -> {
+            try (Stream<PostCard> cards = postRepository.streamCards()) {
+                cards.forEach(this::upsert);
+            }
+        });
+        memos = loadMemos();
+        config = configService.getConfigTree();
+        initialized = true;
+        logger.info("Built home aggregate over {} posts in {} ms", postCategories.size(), System.currentTimeMillis() - start);
+    }
+
+    /**
+     * 新增或更新一篇文章
+     */
+    private void upsert(PostCard card) {
+        String previousCategory = postCategories.put(card.id(), categoryKey(card));
+        if (previousCategory != null) {
+            decrementCategory(previousCategory);
+        }
+        categoryCounts.merge(categoryKey(card), 1, Integer::sum);
+
+        if (card.featured()) {
+            featured = card;
+        } else if (featured != null && featured.id().equals(card.id())) {
+            featured = null;
+        }
+
+        boolean wasLatest = latest.removeIf(c -> c.id().equals(card.id()));
+        latest.add(card);
+        if (latest.size() > latestCount) {
+            latest.pollLast();
+        } else if (wasLatest && latest.last() == card && postCategories.size() > latest.size()) {
+            // 原本在最新列表中的文章日期后移到了末尾，其后可能有更新的文章，重新查询
+            refillLatest();
+        }
+    }
+
+    /**
+     * 移除一篇文章
+     */
+    private void remove(String postId) {
+        String category = postCategories.remove(postId);
+        if (category != null) {
+            decrementCategory(category);
+        }
+        if (featured != null && featured.id().equals(postId)) {
+            featured = null;
+        }
+        if (latest.removeIf(c -> c.id().equals(postId)) && postCategories.size() > latest.size()) {
+            refillLatest();
+        }
+    }
+
+    private void refillLatest() {
+        latest.clear();
+        latest.addAll(readOnlyTx.execute(status -> postRepository.findLatestCards(PageRequest.of(0, latestCount))));
+    }
+
+    private void decrementCategory(String category) {
+        categoryCounts.computeIfPresent(category, (k, count) -> count > 1 ? count - 1 : null);
+    }
+
+    private JsonNode loadMemos() {
+        return MAPPER.valueToTree(memoService.getLatest(memoCount));
+    }
+
+    private static String categoryKey(PostCard card) {
+        return card.category() == null || card.category().isEmpty() ? "Uncategorized" : card.category();
+    }
+
+    private FeedService.FeedDocument encode() {
+        ObjectNode root = MAPPER.createObjectNode();
+        root.set("featured", MAPPER.valueToTree(featured));
+        root.set("latest", MAPPER.valueToTree(new ArrayList<>(latest)));
+        root.set("categories", MAPPER.valueToTree(categoryCounts));
+        root.put("totalPosts", postCategories.size());
+        root.set("memos", memos);
+        root.set("config", config);
+        try {
+            byte[] bytes = MAPPER.writeValueAsBytes(root);
+            ByteArrayOutputStream gz = new ByteArrayOutputStream(bytes.length / 4 + 64);
+            try (OutputStream out = new GZIPOutputStream(gz)) {
+                out.write(bytes);
+            }
+            String etag = "\"" + DigestUtils.md5DigestAsHex(bytes) + "\"";
+            return new FeedService.FeedDocument(CONTENT_TYPE, bytes, gz.toByteArray(), etag);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
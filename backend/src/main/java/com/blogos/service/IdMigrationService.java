@@ -0,0 +1,279 @@
+/**
+ * 主键迁移服务类
+ * 启动时把评论、随手记、待办事项、日程、文章修订和浏览统计中旧版随机 UUID 主键改写为按时间递增的紧凑 ID，
+ * 新 ID 的时间取各行自身的日期，引用这些主键的列（回复的 parent_id、随手记图片和标签的 memo_id）同步改写；
+ * 文章 ID 出现在公开链接中，保持不变。只处理 UUID 格式的主键，新 ID 跳过表中已存在的 ID，每张表一个事务，
+ * 整表失败时逐行改写，个别行失败只记录日志，不影响启动，下次启动时重试
+ */
+package com.blogos.service;
+
+import com.blogos.util.TimeOrderedId;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.DateTimeException;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.*;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+// 服务注解，标记这是一个业务服务类
+@Service
+// 懒加载配置下也在启动时创建，迁移必须在接收请求和构建缓存之前完成
+@Lazy(false)
+public class IdMigrationService {
+    private static final Logger logger = LoggerFactory.getLogger(IdMigrationService.class);
+
+    // 旧版随机 UUID 主键的 LIKE 模式
+    private static final String UUID_PATTERN = "________-____-____-____-____________";
+
+    // 写入映射表时每批的行数
+    private static final int BATCH_SIZE = 1000;
+
+    // 日期列的格式：yyyy-MM-dd，可带 T 或空格分隔的时分秒
+    private static final Pattern DATE_TIME = Pattern.compile(
+            "(\\d{4})-(\\d{2})-(\\d{2})(?:[T ](\\d{2}):(\\d{2})(?::(\\d{2}))?)?.*");
+
+    private record Reference(String table, String column) {
+    }
+
+    private record Target(String table, String dateColumn, List<Reference> references) {
+    }
+
+    // 需要迁移的表、用于生成新 ID 的日期列以及引用其主键的列
+    private static final List<Target> TARGETS = List.of(
+            new Target("comments", "date", List.of(new Reference("comments", "parent_id"))),
+            new Target("memos", "date", List.of(new Reference("memo_images", "memo_id"), new Reference("memo_tags", "memo_id"))),
+            new Target("todos", "date", List.of()),
+            new Target("schedules", "date", List.of()),
+            new Target("post_revisions", "date", List.of()),
+            new Target("post_view_stats", "stat_date", List.of()));
+
+    // 自动注入 JdbcTemplate，迁移在同一连接上完成
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    /**
+     * 启动时迁移仍使用随机 UUID 主键的行
+     */
+    @PostConstruct
+    public void migrateRandomIds() {
+        for (Target target : TARGETS) {
+            if (!tableExists(target.table())) {
+                continue;
+            }
+            Integer pending = jdbcTemplate.queryForObject(
+                    "SELECT COUNT(*) FROM " + target.table() + " WHERE id LIKE ?", Integer.class, UUID_PATTERN);
+            if (pending != null && pending > 0) {
+                try {
+                    long start = System.currentTimeMillis();
+                    List<String[]> mapping = plan(target);
+                    int migrated;
+                    try {
+                        migrated = migrate(target, mapping);
+                    } catch (Exception e) {
+                        // 整表改写失败时逐行重试，个别行失败只记录日志
+                        logger.warn("Bulk key rewrite failed for {}, retrying row by row", target.table(), e);
+                        migrated = migrateRows(target, mapping);
+                    }
+                    logger.info("Rewrote {} of {} random keys in {} to time-ordered ids in {} ms",
+                            migrated, mapping.size(), target.table(), System.currentTimeMillis() - start);
+                } catch (Exception e) {
+                    // 迁移失败不影响启动，旧主键仍可正常读写，下次启动时重试
+                    logger.error("Key migration failed for {}", target.table(), e);
+                }
+            }
+        }
+    }
+
+    /**
+     * 获取主键状态
+     *
+     * @return 当前节点号和各表的行数、平均主键长度、旧版 UUID 主键数、磁盘占用（含索引）
+     */
+    public Map<String, Object> getStatus() {
+        Map<String, Object> tables = new LinkedHashMap<>();
+        for (Target target : TARGETS) {
+            if (!tableExists(target.table())) {
+                continue;
+            }
+            Map<String, Object> table = new LinkedHashMap<>(jdbcTemplate.queryForMap(
+                    "SELECT COUNT(*) AS \"rows\", COALESCE(AVG(CHAR_LENGTH(id)), 0) AS \"avgKeyLength\", "
+                            + "COUNT(CASE WHEN id LIKE ? THEN 1 END) AS \"legacyKeys\" FROM " + target.table(), UUID_PATTERN));
+            table.put("diskBytes", jdbcTemplate.queryForObject("SELECT DISK_SPACE_USED(?)", Long.class,
+                    target.table().toUpperCase(Locale.ROOT)));
+            tables.put(target.table(), table);
+        }
+        Map<String, Object> status = new LinkedHashMap<>();
+        status.put("node", TimeOrderedId.node());
+        status.put("tables", tables);
+        return status;
+    }
+
+    private boolean tableExists(String table) {
+        Integer count = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM INFORMATION_SCHEMA.TABLES WHERE TABLE_NAME = ?", Integer.class,
+                table.toUpperCase(Locale.ROOT));
+        return count != null && count > 0;
+    }
+
+    /**
+     * 为旧主键分配新 ID：按日期排序，同一时刻按旧 ID 排序，新 ID 保持行之间原有的先后；
+     * 序列每次启动从零开始，之后新增的同日期旧数据（导入旧版备份或客户端提交的 UUID）会算出已被占用的 ID，
+     * 因此跳过表中已存在的 ID
+     *
+     * @return 旧 ID 与新 ID 的对应关系
+     */
+    private List<String[]> plan(Target target) {
+        List<String[]> rows = new ArrayList<>();
+        Set<String> taken = new HashSet<>();
+        jdbcTemplate.query("SELECT id, " + target.dateColumn() + " FROM " + target.table(), rs -> {
+            String id = rs.getString(1);
+            if (isUuid(id)) {
+                rows.add(new String[]{id, rs.getString(2)});
+            } else {
+                taken.add(id);
+            }
+        });
+        long now = System.currentTimeMillis();
+        List<Map.Entry<Long, String>> ordered = new ArrayList<>(rows.size());
+        for (String[] row : rows) {
+            ordered.add(Map.entry(parseMillis(row[1], now), row[0]));
+        }
+        ordered.sort(Map.Entry.<Long, String>comparingByKey().thenComparing(Map.Entry.comparingByValue()));
+        TimeOrderedId.Sequence sequence = new TimeOrderedId.Sequence(TimeOrderedId.MIGRATION_NODE);
+        List<String[]> mapping = new ArrayList<>(ordered.size());
+        for (Map.Entry<Long, String> row : ordered) {
+            String id = sequence.next(row.getKey());
+            while (!taken.add(id)) {
+                id = sequence.next(row.getKey());
+            }
+            mapping.add(new String[]{row.getValue(), id});
+        }
+        return mapping;
+    }
+
+    private int migrate(Target target, List<String[]> mapping) {
+        return jdbcTemplate.execute((ConnectionCallback<Integer>) con -> {
+            // 建表和关闭引用完整性检查会提交当前事务，先于数据改写执行
+            try (Statement st = con.createStatement()) {
+                st.execute("CREATE LOCAL TEMPORARY TABLE IF NOT EXISTS id_map "
+                        + "(old_id VARCHAR(255) PRIMARY KEY, new_id VARCHAR(" + TimeOrderedId.LENGTH + ") NOT NULL) TRANSACTIONAL");
+                st.execute("SET REFERENTIAL_INTEGRITY FALSE");
+            }
+            boolean autoCommit = con.getAutoCommit();
+            con.setAutoCommit(false);
+            try (Statement st = con.createStatement()) {
+                st.execute("DELETE FROM id_map");
+                try (PreparedStatement insert = con.prepareStatement("INSERT INTO id_map (old_id, new_id) VALUES (?, ?)")) {
+                    int pending = 0;
+                    for (String[] row : mapping) {
+                        insert.setString(1, row[0]);
+                        insert.setString(2, row[1]);
+                        insert.addBatch();
+                        if (++pending % BATCH_SIZE == 0) {
+                            insert.executeBatch();
+                        }
+                    }
+                    insert.executeBatch();
+                }
+                for (Reference ref : target.references()) {
+                    st.executeUpdate("UPDATE " + ref.table() + " r SET " + ref.column()
+                            + " = (SELECT new_id FROM id_map m WHERE m.old_id = r." + ref.column() + ") "
+                            + "WHERE " + ref.column() + " IN (SELECT old_id FROM id_map)");
+                }
+                int updated = st.executeUpdate("UPDATE " + target.table() + " t "
+                        + "SET id = (SELECT new_id FROM id_map m WHERE m.old_id = t.id) WHERE id IN (SELECT old_id FROM id_map)");
+                con.commit();
+                return updated;
+            } catch (Exception e) {
+                con.rollback();
+                throw e;
+            } finally {
+                con.setAutoCommit(autoCommit);
+                try (Statement st = con.createStatement()) {
+                    st.execute("SET REFERENTIAL_INTEGRITY TRUE");
+                    st.execute("DROP TABLE IF EXISTS id_map");
+                }
+            }
+        });
+    }
+
+    /**
+     * 逐行改写主键，每行及其引用在一个事务中提交，失败的行保留旧主键并记录日志，下次启动时重试
+     */
+    private int migrateRows(Target target, List<String[]> mapping) {
+        return jdbcTemplate.execute((ConnectionCallback<Integer>) con -> {
+            try (Statement st = con.createStatement()) {
+                st.execute("SET REFERENTIAL_INTEGRITY FALSE");
+            }
+            boolean autoCommit = con.getAutoCommit();
+            con.setAutoCommit(false);
+            int updated = 0;
+            try {
+                for (String[] row : mapping) {
+                    try {
+                        for (Reference ref : target.references()) {
+                            try (PreparedStatement ps = con.prepareStatement(
+                                    "UPDATE " + ref.table() + " SET " + ref.column() + " = ? WHERE " + ref.column() + " = ?")) {
+                                ps.setString(1, row[1]);
+                                ps.setString(2, row[0]);
+                                ps.executeUpdate();
+                            }
+                        }
+                        try (PreparedStatement ps = con.prepareStatement("UPDATE " + target.table() + " SET id = ? WHERE id = ?")) {
+                            ps.setString(1, row[1]);
+                            ps.setString(2, row[0]);
+                            updated += ps.executeUpdate();
+                        }
+                        con.commit();
+                    } catch (SQLException e) {
+                        con.rollback();
+                        logger.warn("Failed to rewrite key {} in {}: {}", row[0], target.table(), e.getMessage());
+                    }
+                }
+                return updated;
+            } finally {
+                con.setAutoCommit(autoCommit);
+                try (Statement st = con.createStatement()) {
+                    st.execute("SET REFERENTIAL_INTEGRITY TRUE");
+                }
+            }
+        });
+    }
+
+    private static boolean isUuid(String id) {
+        return id != null && id.length() == 36 && id.charAt(8) == '-' && id.charAt(13) == '-'
+                && id.charAt(18) == '-' && id.charAt(23) == '-';
+    }
+
+    /**
+     * 解析日期列，无法识别时使用当前时间
+     */
+    private static long parseMillis(String value, long fallback) {
+        Matcher m = value == null ? null : DATE_TIME.matcher(value);
+        if (m == null || !m.matches()) {
+            return fallback;
+        }
+        try {
+            LocalDateTime time = LocalDateTime.of(
+                    Integer.parseInt(m.group(1)), Integer.parseInt(m.group(2)), Integer.parseInt(m.group(3)),
+                    m.group(4) == null ? 0 : Integer.parseInt(m.group(4)),
+                    m.group(5) == null ? 0 : Integer.parseInt(m.group(5)),
+                    m.group(6) == null ? 0 : Integer.parseInt(m.group(6)));
+            return time.toInstant(ZoneOffset.UTC).toEpochMilli();
+        } catch (DateTimeException e) {
+            return fallback;
+        }
+    }
+}
@@ -0,0 +1,327 @@
+/**
+ * 实时推送服务类
+ * 通过 SSE 向订阅者推送新评论、点赞数和文章更新等增量，分为每篇文章一个频道和一个全站频道。
+ * 每个事件只编码一次，放入各订阅者的有界缓冲后立即返回，由少量发送线程异步写出；
+ * 缓冲写满的慢订阅者直接断开，由客户端重连后重新拉取。空闲连接不占用线程，只保留一个很小的缓冲
+ */
+package com.blogos.service;
+
+import com.blogos.event.ContentChangedEvent;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.converter.HttpMessageNotWritableException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter.DataWithMediaType;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+// 服务注解，标记这是一个业务服务类
+@Service
+public class LiveUpdateService {
+    private static final Logger logger = LoggerFactory.getLogger(LiveUpdateService.class);
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    // 心跳帧，保持代理连接并及时发现已断开的客户端
+    private static final Set<DataWithMediaType> HEARTBEAT = SseEmitter.event().comment("ping").build();
+
+    // 每个订阅者最多缓冲的待发送事件数，写满即视为慢订阅者并断开
+    @Value("${blogos.live.buffer-size:32}")
+    private int bufferSize;
+
+    // 同时保持的订阅连接上限，超出后拒绝新订阅
+    @Value("${blogos.live.max-subscribers:10000}")
+    private int maxSubscribers;
+
+    // 心跳间隔
+    @Value("${blogos.live.heartbeat-ms:25000}")
+    private long heartbeatMs;
+
+    // 单个连接的最长保持时间，到期后由客户端自动重连
+    @Value("${blogos.live.timeout-ms:1800000}")
+    private long timeoutMs;
+
+    // 发送线程数，所有订阅者共享
+    // 写满的连接会阻塞发送线程直到 Tomcat 写超时，线程数决定能同时容忍多少个这样的连接
+    @Value("${blogos.live.sender-threads:4}")
+    private int senderThreads;
+
+    // 全站频道的订阅者
+    private final Set<Subscriber> siteSubscribers = ConcurrentHashMap.newKeySet();
+
+    // 文章 ID 到该文章频道订阅者，频道没有订阅者时移除
+    private final Map<String, Set<Subscriber>> postSubscribers = new ConcurrentHashMap<>();
+
+    private final AtomicInteger subscriberCount = new AtomicInteger();
+    private final AtomicLong sequence = new AtomicLong();
+    private final LongAdder delivered = new LongAdder();
+    private final LongAdder evicted = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+
+    private ExecutorService sender;
+    private ScheduledExecutorService heartbeat;
+
+    @PostConstruct
+    public void init() {
+        AtomicInteger threadIndex = new AtomicInteger();
+        sender = Executors.newFixedThreadPool(senderThreads, r -> {
+            Thread t = new Thread(r, "live-sender-" + threadIndex.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+        heartbeat = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "live-heartbeat");
+            t.setDaemon(true);
+            return t;
+        });
+        heartbeat.scheduleWithFixedDelay(this::sendHeartbeats, heartbeatMs, heartbeatMs, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        heartbeat.shutdownNow();
+        sender.shutdownNow();
+        siteSubscribers.forEach(s -> s.emitter.complete());
+        postSubscribers.values().forEach(channel -> channel.forEach(s -> s.emitter.complete()));
+    }
+
+    /**
+     * 订阅频道
+     *
+     * @param postId 文章 ID，为 null 时订阅全站频道
+     * @return SSE 连接，订阅数达到上限时返回 null
+     */
+    public SseEmitter subscribe(String postId) {
+        if (subscriberCount.incrementAndGet() > maxSubscribers) {
+            subscriberCount.decrementAndGet();
+            rejected.increment();
+            return null;
+        }
+        SseEmitter emitter = new SseEmitter(timeoutMs);
+        Subscriber subscriber = new Subscriber(emitter, postId);
+        if (postId == null) {
+            siteSubscribers.add(subscriber);
+        } else {
+            postSubscribers.compute(postId, (key, channel) -> {
+                Set<Subscriber> subscribers = channel != null ? channel : ConcurrentHashMap.newKeySet();
+                subscribers.add(subscriber);
+                return subscribers;
+            });
+        }
+        emitter.onCompletion(() -> remove(subscriber));
+        emitter.onError(e -> remove(subscriber));
+        emitter.onTimeout(() -> {
+            remove(subscriber);
+            emitter.complete();
+        });
+        // 立即发送一帧，让响应头尽快写出，并告诉客户端断线后的重连间隔
+        subscriber.offer(SseEmitter.event().reconnectTime(5000).comment("connected").build());
+        return emitter;
+    }
+
+    /**
+     * 监听内容变更事件，在事务提交后把增量推送给相关频道
+     *
+     * @param event 内容变更事件
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onContentChanged(ContentChangedEvent event) {
+        String postId = event.getPostId();
+        switch (event.getType()) {
+            case COMMENT_ADDED -> {
+                // 文章频道推送完整评论，全站频道只通知哪篇文章有新评论
+                Map<String, Object> delta = new LinkedHashMap<>();
+                delta.put("postId", postId);
+                if (event.getPayload() instanceof CommentPipelineService.CommentAdded added) {
+                    delta.put("parentId", added.parentId());
+                    delta.put("comment", added.comment());
+                }
+                publish(postSubscribers.get(postId), "comment", delta);
+                publish(siteSubscribers, "comment", Map.of("postId", postId));
+            }
+            case POST_LIKED -> {
+                Map<String, Object> delta = new LinkedHashMap<>();
+                delta.put("postId", postId);
+                delta.put("likes", event.getPayload());
+                publish(postSubscribers.get(postId), "like", delta);
+                publish(siteSubscribers, "like", delta);
+            }
+            case POST_SAVED -> {
+                Map<String, Object> delta = new LinkedHashMap<>();
+                delta.put("postId", postId);
+                delta.put("post", event.getPayload());
+                publish(postSubscribers.get(postId), "post", delta);
+                publish(siteSubscribers, "post", delta);
+            }
+            case POST_DELETED -> {
+                Map<String, Object> delta = Map.of("postId", postId);
+                publish(postSubscribers.get(postId), "post-deleted", delta);
+                publish(siteSubscribers, "post-deleted", delta);
+            }
+            default -> publish(siteSubscribers, "site", Map.of("type", event.getType().name()));
+        }
+    }
+
+    /**
+     * 获取订阅与推送统计
+     *
+     * @return 统计信息
+     */
+    public Map<String, Object> getStatus() {
+        int postChannelSubscribers = 0;
+        for (Set<Subscriber> channel : postSubscribers.values()) {
+            postChannelSubscribers += channel.size();
+        }
+        Map<String, Object> status = new LinkedHashMap<>();
+        status.put("subscribers", subscriberCount.get());
+        status.put("maxSubscribers", maxSubscribers);
+        status.put("siteSubscribers", siteSubscribers.size());
+        status.put("postChannels", postSubscribers.size());
+        status.put("postSubscribers", postChannelSubscribers);
+        status.put("bufferSize", bufferSize);
+        status.put("eventsPublished", sequence.get());
+        status.put("framesDelivered", delivered.sum());
+        status.put("slowConsumersEvicted", evicted.sum());
+        status.put("subscriptionsRejected", rejected.sum());
+        return status;
+    }
+
+    /**
+     * 把事件编码一次，放入频道内每个订阅者的缓冲
+     */
+    private void publish(Set<Subscriber> channel, String name, Object data) {
+        if (channel == null || channel.isEmpty()) {
+            return;
+        }
+        String json;
+        try {
+            json = MAPPER.writeValueAsString(data);
+        } catch (JsonProcessingException e) {
+            logger.error("Failed to encode live event {}", name, e);
+            return;
+        }
+        Set<DataWithMediaType> frame = SseEmitter.event()
+                .id(Long.toString(sequence.incrementAndGet()))
+                .name(name)
+                .data(json)
+                .build();
+        for (Subscriber subscriber : channel) {
+            subscriber.offer(frame);
+        }
+    }
+
+    private void sendHeartbeats() {
+        siteSubscribers.forEach(s -> s.offer(HEARTBEAT));
+        postSubscribers.values().forEach(channel -> channel.forEach(s -> s.offer(HEARTBEAT)));
+    }
+
+    /**
+     * 从频道中移除订阅者，只在第一次调用时生效
+     *
+     * @return 本次调用是否移除了订阅者
+     */
+    private boolean remove(Subscriber subscriber) {
+        if (!subscriber.closed.compareAndSet(false, true)) {
+            return false;
+        }
+        subscriberCount.decrementAndGet();
+        if (subscriber.postId == null) {
+            siteSubscribers.remove(subscriber);
+        } else {
+            postSubscribers.computeIfPresent(subscriber.postId, (key, channel) -> {
+                channel.remove(subscriber);
+                return channel.isEmpty() ? null : channel;
+            });
+        }
+        return true;
+    }
+
+    /**
+     * 一个订阅连接及其待发送缓冲
+     */
+    private class Subscriber {
+        private final SseEmitter emitter;
+        private final String postId;
+        private final BlockingQueue<Set<DataWithMediaType>> queue = new ArrayBlockingQueue<>(bufferSize);
+        // 是否已有发送任务在处理该订阅者，保证同一连接同时只有一个线程写出
+        private final AtomicBoolean scheduled = new AtomicBoolean();
+        private final AtomicBoolean closed = new AtomicBoolean();
+        // 是否因缓冲写满被服务端断开，需要由发送任务结束连接
+        private volatile boolean evictedByServer;
+
+        private Subscriber(SseEmitter emitter, String postId) {
+            this.emitter = emitter;
+            this.postId = postId;
+        }
+
+        /**
+         * 放入一帧，不阻塞调用线程
+         */
+        private void offer(Set<DataWithMediaType> frame) {
+            if (closed.get()) {
+                return;
+            }
+            if (!queue.offer(frame)) {
+                // 客户端读取跟不上推送速度，断开后由客户端重连并重新拉取最新数据
+                evictedByServer = true;
+                if (remove(this)) {
+                    evicted.increment();
+                    schedule();
+                }
+                return;
+            }
+            schedule();
+        }
+
+        /**
+         * 提交发送任务；SseEmitter 的方法互斥，结束连接也交给发送任务，
+         * 否则其他发送线程会被阻塞在一个写不动的连接上
+         */
+        private void schedule() {
+            if (scheduled.compareAndSet(false, true)) {
+                sender.execute(this::drain);
+            }
+        }
+
+        private void drain() {
+            do {
+                Set<DataWithMediaType> frame;
+                while ((frame = queue.poll()) != null || closed.get()) {
+                    if (closed.get()) {
+                        if (evictedByServer) {
+                            emitter.complete();
+                        }
+                        return;
+                    }
+                    try {
+                        emitter.send(frame);
+                        delivered.increment();
+                    } catch (Exception e) {
+                        // 连接已断开或已结束，容器会回调 onError/onCompletion，这里只需停止发送
+                        if (!(e instanceof IOException || e instanceof IllegalStateException
+                                || e instanceof HttpMessageNotWritableException)) {
+                            logger.warn("Unexpected error sending live event", e);
+                        }
+                        remove(this);
+                        return;
+                    }
+                }
+                scheduled.set(false);
+                // 释放标记后可能有新帧入队但没能提交发送任务，重新检查一次
+            } while (!queue.isEmpty() && scheduled.compareAndSet(false, true));
+        }
+    }
+}
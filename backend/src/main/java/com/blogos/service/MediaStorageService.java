@@ -0,0 +1,387 @@
+/**
+ * 媒体文件存储服务类
+ * 上传内容以流的方式写入磁盘并同时计算 SHA-256，按内容哈希命名实现去重；
+ * 缩略图等派生版本由有界线程池在后台生成
+ */
+package com.blogos.service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.*;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.*;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+// 服务注解，标记这是一个业务服务类
+@Service
+public class MediaStorageService {
+    private static final Logger logger = LoggerFactory.getLogger(MediaStorageService.class);
+
+    // 文件名格式：<sha256>[-<variant>].<ext>
+    private static final Pattern MEDIA_NAME = Pattern.compile("^([0-9a-f]{64})(?:-(thumb|medium))?\\.(jpg|png|gif|webp)$");
+
+    // 派生版本及其最大边长
+    private static final Map<String, Integer> VARIANTS = Map.of("thumb", 320, "medium", 1280);
+
+    // 流式复制缓冲区大小
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    // 媒体文件存储目录
+    @Value("${blogos.media.dir:./data/media}")
+    private String mediaDir;
+
+    // 派生版本生成线程数
+    @Value("${blogos.media.worker-threads:2}")
+    private int workerThreads;
+
+    // 派生版本生成任务队列长度，队列满时丢弃任务，访问时回退到原图
+    @Value("${blogos.media.worker-queue:100}")
+    private int workerQueue;
+
+    private Path root;
+    private ThreadPoolExecutor variantPool;
+    private boolean webpSupported;
+
+    @PostConstruct
+    public void init() throws IOException {
+        root = Paths.get(mediaDir).toAbsolutePath().normalize();
+        Files.createDirectories(root.resolve("tmp"));
+        AtomicInteger seq = new AtomicInteger();
+        variantPool = new ThreadPoolExecutor(workerThreads, workerThreads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(workerQueue), r -> {
+            Thread t = new Thread(r, "media-variant-" + seq.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        }, new ThreadPoolExecutor.AbortPolicy());
+        // JDK 自带 ImageIO 没有 WebP 编码器，只有在类路径中存在 WebP 插件时才生成 WebP 版本
+        webpSupported = ImageIO.getImageWritersByFormatName("webp").hasNext();
+        logger.info("Media storage at {} (webp variants {})", root, webpSupported ? "enabled" : "unavailable");
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        variantPool.shutdownNow();
+    }
+
+    /**
+     * 保存上传的媒体文件
+     *
+     * @param in 上传内容输入流
+     * @return 媒体信息
+     */
+    public MediaInfo store(InputStream in) throws IOException {
+        Path tmp = Files.createTempFile(root.resolve("tmp"), "upload-", ".part");
+        try {
+            MessageDigest digest = sha256();
+            byte[] head = new byte[12];
+            int headLen = 0;
+            long size = 0;
+            try (DigestInputStream din = new DigestInputStream(in, digest);
+                 OutputStream out = Files.newOutputStream(tmp)) {
+                byte[] buffer = new byte[BUFFER_SIZE];
+                int n;
+                while ((n = din.read(buffer)) != -1) {
+                    if (headLen < head.length) {
+                        int copy = Math.min(n, head.length - headLen);
+                        System.arraycopy(buffer, 0, head, headLen, copy);
+                        headLen += copy;
+                    }
+                    out.write(buffer, 0, n);
+                    size += n;
+                }
+            }
+            String ext = detectExtension(head, headLen);
+            if (ext == null) {
+                throw new IllegalArgumentException("仅支持 JPEG、PNG、GIF 和 WebP 图片");
+            }
+            String hash = HexFormat.of().formatHex(digest.digest());
+            String name = hash + "." + ext;
+            Path target = pathFor(name);
+            boolean deduplicated = Files.exists(target);
+            if (!deduplicated) {
+                Files.createDirectories(target.getParent());
+                // 重命名在 Linux 上会直接覆盖已有文件，改用硬链接：目标已存在时原子地失败
+                try {
+                    linkOrMove(tmp, target);
+                } catch (FileAlreadyExistsException e) {
+                    // 并发上传了相同内容，保留已有文件
+                    deduplicated = true;
+                }
+                if (!deduplicated) {
+                    scheduleVariants(hash, ext, target);
+                }
+            }
+            logger.info("Stored media {} ({} bytes{})", name, size, deduplicated ? ", deduplicated" : "");
+            return new MediaInfo(hash, name, ext, size, deduplicated, variantNames(hash, ext));
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+    }
+
+    /**
+     * 解析媒体文件名对应的磁盘文件
+     * 派生版本尚未生成（或生成失败）时回退到原图
+     *
+     * @param name 媒体文件名
+     * @return 文件路径，文件不存在时返回 null
+     */
+    public Path resolve(String name) {
+        Matcher m = MEDIA_NAME.matcher(name);
+        if (!m.matches()) {
+            return null;
+        }
+        Path path = pathFor(name);
+        if (Files.isRegularFile(path)) {
+            return path;
+        }
+        if (m.group(2) != null) {
+            for (String ext : List.of("jpg", "png", "gif", "webp")) {
+                Path original = pathFor(m.group(1) + "." + ext);
+                if (Files.isRegularFile(original)) {
+                    return original;
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 根据扩展名推断内容类型
+     */
+    public static String contentType(Path path) {
+        String name = path.getFileName().toString();
+        if (name.endsWith(".png")) return "image/png";
+        if (name.endsWith(".gif")) return "image/gif";
+        if (name.endsWith(".webp")) return "image/webp";
+        return "image/jpeg";
+    }
+
+    /**
+     * 按哈希前缀分两级目录存放，避免单个目录文件过多
+     */
+    private Path pathFor(String name) {
+        return root.resolve(name.substring(0, 2)).resolve(name.substring(2, 4)).resolve(name);
+    }
+
+    private List<String> variantNames(String hash, String ext) {
+        List<String> names = new ArrayList<>();
+        if ("gif".equals(ext)) {
+            // GIF 可能是动图，不生成派生版本
+            return names;
+        }
+        for (String variant : VARIANTS.keySet()) {
+            names.add(hash + "-" + variant + "." + variantExtension(ext));
+            if (webpSupported) {
+                names.add(hash + "-" + variant + ".webp");
+            }
+        }
+        Collections.sort(names);
+        return names;
+    }
+
+    private void scheduleVariants(String hash, String ext, Path original) {
+        if ("gif".equals(ext)) {
+            return;
+        }
+        try {
+            variantPool.execute(() -> generateVariants(hash, ext, original));
+        } catch (RejectedExecutionException e) {
+            logger.warn("Variant queue full, skipping variants for {}", hash);
+        }
+    }
+
+    private void generateVariants(String hash, String ext, Path original) {
+        for (Map.Entry<String, Integer> variant : VARIANTS.entrySet()) {
+            try {
+                BufferedImage image = readScaled(original, variant.getValue());
+                if (image == null) {
+                    return;
+                }
+                BufferedImage resized = resize(image, variant.getValue());
+                String format = variantExtension(ext);
+                writeAtomically(resized, format, pathFor(hash + "-" + variant.getKey() + "." + format));
+                if (webpSupported) {
+                    writeAtomically(resized, "webp", pathFor(hash + "-" + variant.getKey() + ".webp"));
+                }
+            } catch (Exception e) {
+                logger.warn("Failed to generate {} variant for {}", variant.getKey(), hash, e);
+            }
+        }
+    }
+
+    /**
+     * 读取图片，对远大于目标尺寸的原图使用子采样解码，避免整幅大图进入堆内存
+     */
+    private BufferedImage readScaled(Path file, int maxEdge) throws IOException {
+        try (ImageInputStream iis = ImageIO.createImageInputStream(file.toFile())) {
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(iis);
+            if (!readers.hasNext()) {
+                return null;
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(iis, true, true);
+                int longest = Math.max(reader.getWidth(0), reader.getHeight(0));
+                ImageReadParam param = reader.getDefaultReadParam();
+                int step = Math.max(1, longest / (maxEdge * 2));
+                param.setSourceSubsampling(step, step, 0, 0);
+                return reader.read(0, param);
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    private BufferedImage resize(BufferedImage source, int maxEdge) {
+        int width = source.getWidth();
+        int height = source.getHeight();
+        double scale = Math.min(1.0, (double) maxEdge / Math.max(width, height));
+        int w = Math.max(1, (int) Math.round(width * scale));
+        int h = Math.max(1, (int) Math.round(height * scale));
+        int type = source.getColorModel().hasAlpha() ? BufferedImage.TYPE_INT_ARGB : BufferedImage.TYPE_INT_RGB;
+        BufferedImage target = new BufferedImage(w, h, type);
+        Graphics2D g = target.createGraphics();
+        try {
+            g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            g.drawImage(source, 0, 0, w, h, null);
+        } finally {
+            g.dispose();
+        }
+        return target;
+    }
+
+    private void writeAtomically(BufferedImage image, String format, Path target) throws IOException {
+        Files.createDirectories(target.getParent());
+        Path tmp = Files.createTempFile(root.resolve("tmp"), "variant-", ".part");
+        try {
+            if (!ImageIO.write(image, format, tmp.toFile())) {
+                throw new IOException("No ImageIO writer for " + format);
+            }
+            Files.move(tmp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+    }
+
+    /**
+     * 把临时文件发布为目标文件，目标已存在时抛出 FileAlreadyExistsException 且不覆盖
+     * 文件系统不支持硬链接时退回不覆盖的移动
+     */
+    private static void linkOrMove(Path tmp, Path target) throws IOException {
+        try {
+            Files.createLink(target, tmp);
+        } catch (FileAlreadyExistsException e) {
+            throw e;
+        } catch (UnsupportedOperationException | FileSystemException e) {
+            Files.move(tmp, target);
+        }
+    }
+
+    /**
+     * 派生版本格式：PNG 保留透明通道，其余统一为 JPEG
+     */
+    private static String variantExtension(String ext) {
+        return "png".equals(ext) ? "png" : "jpg";
+    }
+
+    /**
+     * 根据文件头魔数识别图片格式，不信任客户端提供的文件名和 Content-Type
+     */
+    private static String detectExtension(byte[] head, int len) {
+        if (len >= 3 && (head[0] & 0xFF) == 0xFF && (head[1] & 0xFF) == 0xD8 && (head[2] & 0xFF) == 0xFF) {
+            return "jpg";
+        }
+        if (len >= 8 && (head[0] & 0xFF) == 0x89 && head[1] == 'P' && head[2] == 'N' && head[3] == 'G') {
+            return "png";
+        }
+        if (len >= 6 && head[0] == 'G' && head[1] == 'I' && head[2] == 'F' && head[3] == '8') {
+            return "gif";
+        }
+        if (len >= 12 && head[0] == 'R' && head[1] == 'I' && head[2] == 'F' && head[3] == 'F'
+                && head[8] == 'W' && head[9] == 'E' && head[10] == 'B' && head[11] == 'P') {
+            return "webp";
+        }
+        return null;
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * 上传结果
+     */
+    public static class MediaInfo {
+        private final String hash;
+        private final String name;
+        private final String format;
+        private final long size;
+        private final boolean deduplicated;
+        private final List<String> variants;
+
+        MediaInfo(String hash, String name, String format, long size, boolean deduplicated, List<String> variants) {
+            this.hash = hash;
+            this.name = name;
+            this.format = format;
+            this.size = size;
+            this.deduplicated = deduplicated;
+            this.variants = variants;
+        }
+
+        public String getHash() {
+            return hash;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public String getUrl() {
+            return "/api/media/" + name;
+        }
+
+        public String getFormat() {
+            return format;
+        }
+
+        public long getSize() {
+            return size;
+        }
+
+        public boolean isDeduplicated() {
+            return deduplicated;
+        }
+
+        public List<String> getVariants() {
+            return variants;
+        }
+    }
+}
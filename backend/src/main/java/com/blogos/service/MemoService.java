@@ -0,0 +1,304 @@
+/**
+ * 随手记服务类
+ * 提供按日期倒序的随手记时间线：使用 (日期, ID) 键集游标翻页，每页的图片和标签各用一次批量查询取回，
+ * 不再逐条加载集合；按月份的归档计数维护在内存中，随保存和删除增量调整，批量导入后重新统计
+ */
+package com.blogos.service;
+
+import com.blogos.event.ContentChangedEvent;
+import com.blogos.model.Memo;
+import com.blogos.repository.MemoRepository;
+import com.blogos.util.TimeOrderedId;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Instant;
+import java.time.YearMonth;
+import java.time.format.DateTimeParseException;
+import java.util.*;
+
+// 服务注解，标记这是一个业务服务类
+@Service
+public class MemoService {
+    private static final Logger logger = LoggerFactory.getLogger(MemoService.class);
+
+    // 单页最多返回的随手记数
+    public static final int MAX_PAGE_SIZE = 100;
+
+    private static final String SELECT_MEMOS = "SELECT id, content, date FROM memos ";
+
+    private static final String ORDER_BY = " ORDER BY date DESC, id DESC LIMIT ?";
+
+    // 自动注入随手记仓库
+    @Autowired
+    private MemoRepository memoRepo;
+
+    // 自动注入 JdbcTemplate，用于键集翻页和集合的批量查询
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    // 自动注入事件发布器，通知首页和归档计数
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    // 自动注入事务管理器，归档统计需要在只读事务中执行
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    // 以下状态均由 this 锁保护
+
+    // 是否已完成首次统计
+    private boolean archiveInitialized;
+
+    // 月份（yyyy-MM）到随手记数，按月份倒序
+    private final TreeMap<String, Integer> monthCounts = new TreeMap<>(Comparator.reverseOrder());
+
+    private TransactionTemplate readOnlyTx;
+
+    @PostConstruct
+    public void init() {
+        readOnlyTx = new TransactionTemplate(transactionManager);
+        readOnlyTx.setReadOnly(true);
+    }
+
+    /**
+     * 获取一页时间线
+     *
+     * @param cursor 上一页返回的游标，为 null 时从最新开始
+     * @param month  从该月（yyyy-MM）的最后一条开始，用于从归档跳转；有游标时忽略
+     * @param limit  每页条数
+     * @return 本页随手记和下一页游标，没有更多时游标为 null
+     */
+    @Transactional(readOnly = true)
+    public TimelinePage getTimeline(String cursor, String month, int limit) {
+        int size = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        List<Memo> memos;
+        if (cursor != null && !cursor.isEmpty()) {
+            String[] key = decodeCursor(cursor);
+            // 前一个条件走索引范围扫描，后一个条件排除同一时刻已返回的记录
+            memos = jdbcTemplate.query(SELECT_MEMOS + "WHERE date <= ? AND (date < ? OR id < ?)" + ORDER_BY,
+                    this::mapMemo, key[0], key[0], key[1], size + 1);
+        } else if (month != null && !month.isEmpty()) {
+            memos = jdbcTemplate.query(SELECT_MEMOS + "WHERE date < ?" + ORDER_BY,
+                    this::mapMemo, nextMonth(month), size + 1);
+        } else {
+            memos = jdbcTemplate.query(SELECT_MEMOS + "WHERE date IS NOT NULL" + ORDER_BY, this::mapMemo, size + 1);
+        }
+        String nextCursor = null;
+        if (memos.size() > size) {
+            memos = new ArrayList<>(memos.subList(0, size));
+            Memo last = memos.get(size - 1);
+            nextCursor = encodeCursor(last.getDate(), last.getId());
+        }
+        fillCollections(memos, false);
+        return new TimelinePage(memos, nextCursor);
+    }
+
+    /**
+     * 获取最新的若干条随手记
+     */
+    @Transactional(readOnly = true)
+    public List<Memo> getLatest(int count) {
+        return getTimeline(null, null, count).memos();
+    }
+
+    /**
+     * 获取全部随手记，按日期倒序；图片和标签各用一次整表查询取回
+     */
+    public List<Memo> getAll() {
+        List<Memo> memos = jdbcTemplate.query(SELECT_MEMOS + "ORDER BY date DESC NULLS LAST, id DESC", this::mapMemo);
+        fillCollections(memos, true);
+        return memos;
+    }
+
+    /**
+     * 获取按月份的归档计数
+     *
+     * @return 按月份倒序的月份和条数
+     */
+    public synchronized List<ArchiveMonth> getArchive() {
+        if (!archiveInitialized) {
+            rebuildArchive();
+        }
+        List<ArchiveMonth> archive = new ArrayList<>(monthCounts.size());
+        monthCounts.forEach((month, count) -> archive.add(new ArchiveMonth(month, count)));
+        return archive;
+    }
+
+    /**
+     * 保存随手记，缺少日期时使用当前时间
+     */
+    @Transactional
+    public Memo save(Memo memo) {
+        if (memo.getId() == null) memo.setId(TimeOrderedId.next());
+        if (memo.getDate() == null || memo.getDate().isEmpty()) memo.setDate(Instant.now().toString());
+        String previousMonth = memoRepo.findById(memo.getId()).map(m -> monthOf(m.getDate())).orElse(null);
+        Memo saved = memoRepo.save(memo);
+        eventPublisher.publishEvent(ContentChangedEvent.of(ContentChangedEvent.Type.MEMO_SAVED, null,
+                new MonthChange(previousMonth, monthOf(saved.getDate()))));
+        return saved;
+    }
+
+    /**
+     * 删除随手记
+     */
+    @Transactional
+    public void delete(String id) {
+        memoRepo.findById(id).ifPresent(memo -> {
+            memoRepo.delete(memo);
+            eventPublisher.publishEvent(ContentChangedEvent.of(ContentChangedEvent.Type.MEMO_DELETED, null,
+                    new MonthChange(monthOf(memo.getDate()), null)));
+        });
+    }
+
+    /**
+     * 监听内容变更事件，在事务提交后调整归档计数
+     *
+     * @param event 内容变更事件
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onContentChanged(ContentChangedEvent event) {
+        if (!archiveInitialized) {
+            return;
+        }
+        switch (event.getType()) {
+            case MEMO_SAVED, MEMO_DELETED -> {
+                if (event.getPayload() instanceof MonthChange change) {
+                    adjust(change.removedFrom(), -1);
+                    adjust(change.addedTo(), 1);
+                } else {
+                    archiveInitialized = false;
+                }
+            }
+            case DATA_IMPORTED -> archiveInitialized = false;
+            default -> {
+                // 其他变更不影响随手记
+            }
+        }
+    }
+
+    /**
+     * 全量统计各月条数，只在首次请求和批量导入后执行；统计走日期索引，不读取正文
+     */
+    private void rebuildArchive() {
+        long start = System.currentTimeMillis();
+        monthCounts.clear();
+        readOnlyTx.executeWithoutResult(status -> jdbcTemplate.query(
+                "SELECT LEFT(date, 7) AS ym, COUNT(*) AS total FROM memos WHERE date IS NOT NULL GROUP BY LEFT(date, 7)",
+                rs -> {
+                    monthCounts.put(rs.getString("ym"), rs.getInt("total"));
+                }));
+        archiveInitialized = true;
+        logger.info("Built memo archive over {} months in {} ms", monthCounts.size(), System.currentTimeMillis() - start);
+    }
+
+    private void adjust(String month, int delta) {
+        if (month == null) {
+            return;
+        }
+        int count = monthCounts.getOrDefault(month, 0) + delta;
+        if (count > 0) {
+            monthCounts.put(month, count);
+        } else {
+            monthCounts.remove(month);
+        }
+    }
+
+    /**
+     * 为一页随手记批量填充图片和标签
+     *
+     * @param all 为 true 时直接读取整张集合表，否则按本页 ID 查询
+     */
+    private void fillCollections(List<Memo> memos, boolean all) {
+        Map<String, Memo> byId = new HashMap<>();
+        for (Memo memo : memos) {
+            memo.setImages(new ArrayList<>());
+            memo.setTags(new ArrayList<>());
+            byId.put(memo.getId(), memo);
+        }
+        if (byId.isEmpty()) {
+            return;
+        }
+        String where = "";
+        Object[] args = new Object[0];
+        if (!all) {
+            where = " WHERE memo_id IN (" + String.join(", ", Collections.nCopies(byId.size(), "?")) + ")";
+            args = byId.keySet().toArray();
+        }
+        jdbcTemplate.query("SELECT memo_id, image_url FROM memo_images" + where, rs -> {
+            Memo memo = byId.get(rs.getString(1));
+            if (memo != null) memo.getImages().add(rs.getString(2));
+        }, args);
+        jdbcTemplate.query("SELECT memo_id, tag FROM memo_tags" + where, rs -> {
+            Memo memo = byId.get(rs.getString(1));
+            if (memo != null) memo.getTags().add(rs.getString(2));
+        }, args);
+    }
+
+    private Memo mapMemo(ResultSet rs, int rowNum) throws SQLException {
+        Memo memo = new Memo();
+        memo.setId(rs.getString("id"));
+        memo.setContent(rs.getString("content"));
+        memo.setDate(rs.getString("date"));
+        return memo;
+    }
+
+    private static String monthOf(String date) {
+        return date == null || date.length() < 7 ? null : date.substring(0, 7);
+    }
+
+    private static String nextMonth(String month) {
+        try {
+            return YearMonth.parse(month).plusMonths(1).toString();
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("月份格式不正确，应为 yyyy-MM");
+        }
+    }
+
+    private static String encodeCursor(String date, String id) {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString((date + "\n" + id).getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String[] decodeCursor(String cursor) {
+        try {
+            String[] key = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split("\n", 2);
+            if (key.length == 2) {
+                return key;
+            }
+        } catch (IllegalArgumentException e) {
+            // 按格式错误处理
+        }
+        throw new IllegalArgumentException("无效的游标");
+    }
+
+    /**
+     * 时间线的一页
+     */
+    public record TimelinePage(List<Memo> memos, String nextCursor) {
+    }
+
+    /**
+     * 一个月份的归档条目
+     */
+    public record ArchiveMonth(String month, int count) {
+    }
+
+    /**
+     * 随手记保存或删除引起的月份变化，用于增量调整归档计数
+     */
+    public record MonthChange(String removedFrom, String addedTo) {
+    }
+}
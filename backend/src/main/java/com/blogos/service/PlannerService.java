@@ -0,0 +1,433 @@
+/**
+ * 个人计划服务类
+ * 提供待办事项和日程安排的业务逻辑，包括单条操作和在单个事务内执行的批量操作；
+ * 日程变更在事务提交后通知日程索引增量更新
+ */
+package com.blogos.service;
+
+import com.blogos.event.ContentChangedEvent;
+import com.blogos.model.Schedule;
+import com.blogos.model.Todo;
+import com.blogos.repository.ScheduleRepository;
+import com.blogos.repository.TodoRepository;
+import com.blogos.util.TimeOrderedId;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.*;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+// 服务注解，标记这是一个业务服务类
+@Service
+public class PlannerService {
+
+    // IN 子句和 JDBC 批量的分片大小
+    private static final int CHUNK_SIZE = 500;
+
+    // 单次批量请求允许的最大条目数
+    public static final int MAX_BULK_ITEMS = 5000;
+
+    // 自动注入待办事项仓库
+    @Autowired
+    private TodoRepository todoRepo;
+
+    // 自动注入日程安排仓库
+    @Autowired
+    private ScheduleRepository scheduleRepo;
+
+    // 自动注入 JdbcTemplate，用于批量插入
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    // 自动注入仪表板服务，计数与写入在同一事务中维护
+    @Autowired
+    private DashboardService dashboardService;
+
+    // 自动注入日程索引服务，用于校验日程的时间和重复规则
+    @Autowired
+    private ScheduleIndexService scheduleIndex;
+
+    // 自动注入事件发布器，通知日程索引
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    // --- 待办事项 ---
+
+    /**
+     * 获取所有待办事项
+     */
+    public List<Todo> getTodos() {
+        return todoRepo.findAll();
+    }
+
+    /**
+     * 保存待办事项
+     */
+    @Transactional
+    public Todo saveTodo(Todo todo) {
+        if (todo.getId() == null) todo.setId(TimeOrderedId.next());
+        Map<String, Long> deltas = new HashMap<>();
+        // 锁定旧记录，并发修改同一条待办事项时按顺序计算计数变化
+        todoRepo.findByIdForUpdate(todo.getId()).ifPresent(old -> countTodo(deltas, old.getPriority(), old.isCompleted(), -1));
+        Todo saved = todoRepo.save(todo);
+        countTodo(deltas, saved.getPriority(), saved.isCompleted(), 1);
+        dashboardService.adjust(deltas);
+        return saved;
+    }
+
+    /**
+     * 切换待办事项完成状态
+     */
+    @Transactional
+    public void toggleTodo(String id) {
+        todoRepo.findByIdForUpdate(id).ifPresent(todo -> {
+            Map<String, Long> deltas = new HashMap<>();
+            countTodo(deltas, todo.getPriority(), todo.isCompleted(), -1);
+            todo.setCompleted(!todo.isCompleted());
+            countTodo(deltas, todo.getPriority(), todo.isCompleted(), 1);
+            dashboardService.adjust(deltas);
+        });
+    }
+
+    /**
+     * 删除待办事项
+     */
+    @Transactional
+    public void deleteTodo(String id) {
+        todoRepo.findByIdForUpdate(id).ifPresent(todo -> {
+            todoRepo.delete(todo);
+            dashboardService.adjust(DashboardService.todoKey(todo.getPriority(), todo.isCompleted()), -1);
+        });
+    }
+
+    /**
+     * 批量创建待办事项，使用 JDBC 批量插入
+     * 已存在的 ID 不会被覆盖
+     *
+     * @param todos 待办事项列表
+     * @return 每项的处理结果
+     */
+    @Transactional
+    public BulkResult createTodos(List<Todo> todos) {
+        BulkResult result = new BulkResult();
+        List<Todo> toInsert = prepareInserts(todos, Todo::getId, Todo::setId, todoRepo::findExistingIds, result);
+        for (List<Todo> chunk : chunks(toInsert)) {
+            jdbcTemplate.batchUpdate("INSERT INTO todos (id, text, completed, priority, date) VALUES (?, ?, ?, ?, ?)",
+                    chunk, chunk.size(), (ps, t) -> {
+                        ps.setString(1, t.getId());
+                        ps.setString(2, t.getText());
+                        ps.setBoolean(3, t.isCompleted());
+                        ps.setString(4, t.getPriority());
+                        ps.setString(5, t.getDate());
+                    });
+        }
+        Map<String, Long> deltas = new HashMap<>();
+        toInsert.forEach(t -> countTodo(deltas, t.getPriority(), t.isCompleted(), 1));
+        dashboardService.adjust(deltas);
+        toInsert.forEach(t -> result.add(t.getId(), BulkResult.CREATED));
+        return result;
+    }
+
+    /**
+     * 批量切换或设置完成状态，使用单条集合 UPDATE 语句
+     *
+     * @param ids       待办事项 ID 集合
+     * @param completed 目标完成状态，为 null 时切换当前状态
+     * @return 每项的处理结果
+     */
+    @Transactional
+    public BulkResult updateTodosCompleted(Collection<String> ids, Boolean completed) {
+        BulkResult result = new BulkResult();
+        // 锁定涉及的待办事项，统计与修改之间状态不会被其他事务改变
+        Set<String> existing = existing(ids, todoRepo::lockExistingIds);
+        Map<String, Long> deltas = new HashMap<>();
+        for (List<String> chunk : chunks(new ArrayList<>(existing))) {
+            // 修改前按状态分组统计，算出每组移到的新状态
+            for (Object[] row : todoRepo.countByStateIn(chunk)) {
+                boolean was = (Boolean) row[1];
+                boolean now = completed == null ? !was : completed;
+                if (was != now) {
+                    countTodo(deltas, (String) row[0], was, -((Number) row[2]).longValue());
+                    countTodo(deltas, (String) row[0], now, ((Number) row[2]).longValue());
+                }
+            }
+            if (completed == null) {
+                todoRepo.toggleCompleted(chunk);
+            } else {
+                todoRepo.setCompleted(chunk, completed);
+            }
+        }
+        dashboardService.adjust(deltas);
+        for (String id : new LinkedHashSet<>(ids)) {
+            result.add(id, existing.contains(id) ? BulkResult.UPDATED : BulkResult.NOT_FOUND);
+        }
+        return result;
+    }
+
+    /**
+     * 批量删除待办事项，按 ID 集合或按完成状态删除
+     *
+     * @param ids       待删除 ID 集合，为 null 时使用 completed 条件
+     * @param completed 按完成状态删除的条件
+     * @return 每项的处理结果
+     */
+    @Transactional
+    public BulkResult deleteTodos(Collection<String> ids, Boolean completed) {
+        BulkResult result = new BulkResult();
+        if (ids != null) {
+            Set<String> existing = existing(ids, todoRepo::lockExistingIds);
+            Map<String, Long> deltas = new HashMap<>();
+            for (List<String> chunk : chunks(new ArrayList<>(existing))) {
+                for (Object[] row : todoRepo.countByStateIn(chunk)) {
+                    countTodo(deltas, (String) row[0], (Boolean) row[1], -((Number) row[2]).longValue());
+                }
+                todoRepo.deleteByIdIn(chunk);
+            }
+            dashboardService.adjust(deltas);
+            for (String id : new LinkedHashSet<>(ids)) {
+                result.add(id, existing.contains(id) ? BulkResult.DELETED : BulkResult.NOT_FOUND);
+            }
+        } else if (completed != null) {
+            // 只删除锁定的这些待办事项，统计之后才变为该状态的不会被删除而漏算
+            List<String> matched = todoRepo.lockIdsByCompleted(completed);
+            Map<String, Long> deltas = new HashMap<>();
+            for (List<String> chunk : chunks(matched)) {
+                for (Object[] row : todoRepo.countByStateIn(chunk)) {
+                    countTodo(deltas, (String) row[0], (Boolean) row[1], -((Number) row[2]).longValue());
+                }
+                todoRepo.deleteByIdIn(chunk);
+            }
+            dashboardService.adjust(deltas);
+            matched.forEach(id -> result.add(id, BulkResult.DELETED));
+        }
+        return result;
+    }
+
+    // --- 日程安排 ---
+
+    /**
+     * 获取所有日程安排
+     */
+    public List<Schedule> getSchedules() {
+        return scheduleRepo.findAll();
+    }
+
+    /**
+     * 保存日程安排
+     */
+    @Transactional
+    public Schedule saveSchedule(Schedule schedule) {
+        scheduleIndex.validate(schedule);
+        if (schedule.getId() == null) schedule.setId(TimeOrderedId.next());
+        // 锁定已有记录，并发保存同一条日程时按顺序判断是否为新增；同时新增同一 ID 时后提交的违反主键约束回滚
+        boolean isNew = scheduleRepo.lockId(schedule.getId()).isEmpty();
+        Schedule saved = scheduleRepo.save(schedule);
+        if (isNew) {
+            dashboardService.adjust(DashboardService.SCHEDULE_TOTAL, 1);
+        }
+        publishScheduleChange(ScheduleIndexService.ScheduleChange.saved(List.of(saved)));
+        return saved;
+    }
+
+    /**
+     * 跳过重复日程的某一次发生
+     *
+     * @param id   日程 ID
+     * @param date 要跳过的日期（yyyy-MM-dd）
+     * @return 更新后的日程，不存在时为空
+     */
+    @Transactional
+    public Optional<Schedule> skipOccurrence(String id, String date) {
+        return scheduleRepo.findById(id).map(schedule -> {
+            Set<String> dates = new TreeSet<>();
+            if (schedule.getExceptionDates() != null && !schedule.getExceptionDates().isBlank()) {
+                dates.addAll(Arrays.asList(schedule.getExceptionDates().split(",")));
+            }
+            dates.add(date);
+            schedule.setExceptionDates(String.join(",", dates));
+            return saveSchedule(schedule);
+        });
+    }
+
+    /**
+     * 删除日程安排
+     */
+    @Transactional
+    public void deleteSchedule(String id) {
+        // 按实际删除的行数调整计数，并发删除同一条日程时只有一个事务删除成功
+        if (scheduleRepo.deleteByIdIn(List.of(id)) > 0) {
+            dashboardService.adjust(DashboardService.SCHEDULE_TOTAL, -1);
+            publishScheduleChange(ScheduleIndexService.ScheduleChange.removed(List.of(id)));
+        }
+    }
+
+    /**
+     * 批量创建日程安排，使用 JDBC 批量插入
+     *
+     * @param schedules 日程安排列表
+     * @return 每项的处理结果
+     */
+    @Transactional
+    public BulkResult createSchedules(List<Schedule> schedules) {
+        BulkResult result = new BulkResult();
+        List<Schedule> toInsert = prepareInserts(schedules, Schedule::getId, Schedule::setId,
+                scheduleRepo::findExistingIds, result);
+        toInsert.forEach(scheduleIndex::validate);
+        for (List<Schedule> chunk : chunks(toInsert)) {
+            jdbcTemplate.batchUpdate("INSERT INTO schedules (id, title, time, date, description, duration, recurrence, "
+                            + "recurrence_interval, recurrence_days, recurrence_until, exception_dates) "
+                            + "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)",
+                    chunk, chunk.size(), (ps, s) -> {
+                        ps.setString(1, s.getId());
+                        ps.setString(2, s.getTitle());
+                        ps.setString(3, s.getTime());
+                        ps.setString(4, s.getDate());
+                        ps.setString(5, s.getDescription());
+                        ps.setObject(6, s.getDuration());
+                        ps.setString(7, s.getRecurrence());
+                        ps.setObject(8, s.getRecurrenceInterval());
+                        ps.setString(9, s.getRecurrenceDays());
+                        ps.setString(10, s.getRecurrenceUntil());
+                        ps.setString(11, s.getExceptionDates());
+                    });
+        }
+        dashboardService.adjust(DashboardService.SCHEDULE_TOTAL, toInsert.size());
+        publishScheduleChange(ScheduleIndexService.ScheduleChange.saved(toInsert));
+        toInsert.forEach(s -> result.add(s.getId(), BulkResult.CREATED));
+        return result;
+    }
+
+    /**
+     * 批量删除日程安排，按 ID 集合或删除早于指定日期的日程
+     *
+     * @param ids    待删除 ID 集合，为 null 时使用 before 条件
+     * @param before 日期条件（yyyy-MM-dd），删除该日期之前的日程
+     * @return 每项的处理结果
+     */
+    @Transactional
+    public BulkResult deleteSchedules(Collection<String> ids, String before) {
+        BulkResult result = new BulkResult();
+        if (ids != null) {
+            Set<String> existing = existing(ids, scheduleRepo::lockExistingIds);
+            int deleted = 0;
+            for (List<String> chunk : chunks(new ArrayList<>(existing))) {
+                deleted += scheduleRepo.deleteByIdIn(chunk);
+            }
+            dashboardService.adjust(DashboardService.SCHEDULE_TOTAL, -deleted);
+            publishScheduleChange(ScheduleIndexService.ScheduleChange.removed(existing));
+            for (String id : new LinkedHashSet<>(ids)) {
+                result.add(id, existing.contains(id) ? BulkResult.DELETED : BulkResult.NOT_FOUND);
+            }
+        } else if (before != null && !before.isEmpty()) {
+            // 与待办事项相同，只删除锁定的这些日程，按实际删除的行数调整计数
+            List<String> matched = scheduleRepo.lockIdsBefore(before);
+            int deleted = 0;
+            for (List<String> chunk : chunks(matched)) {
+                deleted += scheduleRepo.deleteByIdIn(chunk);
+            }
+            dashboardService.adjust(DashboardService.SCHEDULE_TOTAL, -deleted);
+            publishScheduleChange(ScheduleIndexService.ScheduleChange.removed(matched));
+            matched.forEach(id -> result.add(id, BulkResult.DELETED));
+        }
+        return result;
+    }
+
+    // --- 内部工具方法 ---
+
+    /**
+     * 为新条目分配 ID，并剔除请求内重复或数据库中已存在的条目
+     */
+    private <T> List<T> prepareInserts(List<T> items, Function<T, String> getId, BiConsumer<T, String> setId,
+                                       Function<Collection<String>, List<String>> findExisting, BulkResult result) {
+        if (items.size() > MAX_BULK_ITEMS) {
+            throw new IllegalArgumentException("单次批量操作最多 " + MAX_BULK_ITEMS + " 条");
+        }
+        Map<String, T> unique = new LinkedHashMap<>();
+        for (T item : items) {
+            if (getId.apply(item) == null || getId.apply(item).isEmpty()) {
+                setId.accept(item, TimeOrderedId.next());
+            }
+            if (unique.putIfAbsent(getId.apply(item), item) != null) {
+                result.add(getId.apply(item), BulkResult.DUPLICATE);
+            }
+        }
+        Set<String> existing = existing(unique.keySet(), findExisting);
+        List<T> toInsert = new ArrayList<>();
+        for (Map.Entry<String, T> entry : unique.entrySet()) {
+            if (existing.contains(entry.getKey())) {
+                result.add(entry.getKey(), BulkResult.EXISTS);
+            } else {
+                toInsert.add(entry.getValue());
+            }
+        }
+        return toInsert;
+    }
+
+    private void publishScheduleChange(ScheduleIndexService.ScheduleChange change) {
+        eventPublisher.publishEvent(ContentChangedEvent.of(ContentChangedEvent.Type.SCHEDULES_CHANGED, null, change));
+    }
+
+    private static void countTodo(Map<String, Long> deltas, String priority, boolean completed, long delta) {
+        deltas.merge(DashboardService.todoKey(priority, completed), delta, Long::sum);
+    }
+
+    private Set<String> existing(Collection<String> ids, Function<Collection<String>, List<String>> findExisting) {
+        if (ids.size() > MAX_BULK_ITEMS) {
+            throw new IllegalArgumentException("单次批量操作最多 " + MAX_BULK_ITEMS + " 条");
+        }
+        Set<String> found = new HashSet<>();
+        for (List<String> chunk : chunks(new ArrayList<>(new LinkedHashSet<>(ids)))) {
+            found.addAll(findExisting.apply(chunk));
+        }
+        return found;
+    }
+
+    private static <T> List<List<T>> chunks(List<T> items) {
+        List<List<T>> chunks = new ArrayList<>();
+        for (int i = 0; i < items.size(); i += CHUNK_SIZE) {
+            chunks.add(items.subList(i, Math.min(items.size(), i + CHUNK_SIZE)));
+        }
+        return chunks;
+    }
+
+    /**
+     * 批量操作结果，每项只包含 ID 和状态
+     */
+    public static class BulkResult {
+        public static final String CREATED = "created";
+        public static final String UPDATED = "updated";
+        public static final String DELETED = "deleted";
+        public static final String EXISTS = "exists";
+        public static final String DUPLICATE = "duplicate";
+        public static final String NOT_FOUND = "not_found";
+
+        private final List<Map<String, String>> items = new ArrayList<>();
+        private int succeeded;
+        private int failed;
+
+        void add(String id, String status) {
+            items.add(Map.of("id", id, "status", status));
+            if (CREATED.equals(status) || UPDATED.equals(status) || DELETED.equals(status)) {
+                succeeded++;
+            } else {
+                failed++;
+            }
+        }
+
+        public int getSucceeded() {
+            return succeeded;
+        }
+
+        public int getFailed() {
+            return failed;
+        }
+
+        public List<Map<String, String>> getItems() {
+            return items;
+        }
+    }
+}
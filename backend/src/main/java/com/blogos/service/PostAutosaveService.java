@@ -0,0 +1,282 @@
+/**
+ * 文章自动保存服务类
+ * 编辑器的自动保存请求先在内存中按文章合并，文章停止编辑一段时间或累计等待超过上限后才写入数据库，
+ * 把连续的多次自动保存合并为一次更新和一条修订
+ */
+package com.blogos.service;
+
+import com.blogos.model.Post;
+import com.blogos.model.PostPatch;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+// 服务注解，标记这是一个业务服务类
+@Service
+public class PostAutosaveService {
+    private static final Logger logger = LoggerFactory.getLogger(PostAutosaveService.class);
+
+    // 写入失败后的最长重试间隔
+    private static final long MAX_RETRY_DELAY_MS = 5 * 60 * 1000;
+
+    // 文章停止编辑超过该时间后写入数据库
+    @Value("${blogos.autosave.quiet-ms:3000}")
+    private long quietMs;
+
+    // 首次自动保存后最多等待该时间就写入数据库，避免持续编辑时一直不落盘
+    @Value("${blogos.autosave.max-delay-ms:15000}")
+    private long maxDelayMs;
+
+    // 自动注入文章服务
+    @Autowired
+    private PostService postService;
+
+    // 自动注入文章正文存储
+    @Autowired
+    private PostContentStore contentStore;
+
+    // 每篇文章尚未写入的自动保存
+    private final Map<String, PendingAutosave> pending = new ConcurrentHashMap<>();
+
+    private ScheduledExecutorService worker;
+
+    @PostConstruct
+    public void init() {
+        worker = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "autosave-worker");
+            t.setDaemon(true);
+            return t;
+        });
+        long tick = Math.max(100, Math.min(quietMs, maxDelayMs) / 2);
+        worker.scheduleWithFixedDelay(this::flushDue, tick, tick, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (worker != null) {
+            worker.shutdownNow();
+        }
+        // 关闭前写入所有未保存的修改
+        flushAll();
+    }
+
+    /**
+     * 合并一次自动保存
+     * 正文编辑立即应用到暂存的正文上，字段修改覆盖之前暂存的同名字段
+     *
+     * @param id    文章 ID
+     * @param patch 局部更新请求
+     * @throws IllegalStateException    基准正文长度与暂存正文不一致
+     * @throws IllegalArgumentException 编辑区间越界或相互重叠
+     */
+    public void autosave(String id, PostPatch patch) {
+        // 暂存中没有正文时需要从数据库读取基准正文，读取放在 compute 之外，不在持有分段锁时访问数据库
+        String base = null;
+        boolean baseLoaded = false;
+        while (true) {
+            String loaded = base;
+            boolean hasBase = baseLoaded;
+            boolean[] needsBase = {false};
+            pending.compute(id, (key, existing) -> {
+                PendingAutosave entry = existing != null ? existing : new PendingAutosave(System.currentTimeMillis());
+                if (patch.hasContentChange()) {
+                    if (entry.patch.getContent() == null && !hasBase) {
+                        needsBase[0] = true;
+                        return existing;
+                    }
+                    String current = entry.patch.getContent() != null ? entry.patch.getContent() : loaded;
+                    entry.patch.setContent(PostService.applyContentPatch(current, patch));
+                }
+                if (patch.getTitle() != null) entry.patch.setTitle(patch.getTitle());
+                if (patch.getExcerpt() != null) entry.patch.setExcerpt(patch.getExcerpt());
+                if (patch.getCoverImage() != null) entry.patch.setCoverImage(patch.getCoverImage());
+                if (patch.getDate() != null) entry.patch.setDate(patch.getDate());
+                if (patch.getCategory() != null) entry.patch.setCategory(patch.getCategory());
+                if (patch.getAuthor() != null) entry.patch.setAuthor(patch.getAuthor());
+                if (patch.getFeatured() != null) entry.patch.setFeatured(patch.getFeatured());
+                if (patch.getTags() != null) entry.patch.setTags(patch.getTags());
+                entry.lastAt = System.currentTimeMillis();
+                entry.version++;
+                return entry;
+            });
+            if (!needsBase[0]) {
+                return;
+            }
+            base = contentStore.load(id);
+            baseLoaded = true;
+        }
+    }
+
+    /**
+     * 把暂存的自动保存叠加到文章上返回，不写入数据库，读取文章时调用
+     * 没有暂存时原样返回；有暂存时返回新的对象，不修改传入的实体
+     *
+     * @param post 数据库中的文章（含正文）
+     * @return 叠加暂存修改后的文章
+     */
+    public Post overlay(Post post) {
+        if (post == null || !pending.containsKey(post.getId())) {
+            return post;
+        }
+        PostPatch snapshot = new PostPatch();
+        boolean[] found = {false};
+        pending.computeIfPresent(post.getId(), (key, current) -> {
+            current.copyTo(snapshot);
+            found[0] = true;
+            return current;
+        });
+        if (!found[0]) {
+            return post;
+        }
+        Post view = new Post();
+        view.setId(post.getId());
+        view.setTitle(snapshot.getTitle() != null ? snapshot.getTitle() : post.getTitle());
+        view.setExcerpt(snapshot.getExcerpt() != null ? snapshot.getExcerpt() : post.getExcerpt());
+        view.setContent(snapshot.getContent() != null ? snapshot.getContent() : post.getContent());
+        view.setCoverImage(snapshot.getCoverImage() != null ? snapshot.getCoverImage() : post.getCoverImage());
+        view.setDate(snapshot.getDate() != null ? snapshot.getDate() : post.getDate());
+        view.setCategory(snapshot.getCategory() != null ? snapshot.getCategory() : post.getCategory());
+        view.setAuthor(snapshot.getAuthor() != null ? snapshot.getAuthor() : post.getAuthor());
+        view.setFeatured(snapshot.getFeatured() != null ? snapshot.getFeatured() : post.isFeatured());
+        view.setLikes(post.getLikes());
+        view.setTags(new ArrayList<>(snapshot.getTags() != null ? snapshot.getTags() : post.getTags()));
+        view.setComments(new ArrayList<>(post.getComments()));
+        return view;
+    }
+
+    /**
+     * 立即写入文章暂存的自动保存，显式保存文章前调用
+     * 暂存在提交成功前一直保留，写入期间到达的自动保存继续基于暂存的正文合并；
+     * 写入失败时保留暂存，稍后由后台线程重试
+     *
+     * @param id 文章 ID
+     */
+    public void flush(String id) {
+        PendingAutosave entry = pending.get(id);
+        if (entry == null) {
+            return;
+        }
+        // 后台线程和请求线程可能同时写入同一篇文章，按暂存对象串行
+        synchronized (entry) {
+            PostPatch snapshot = new PostPatch();
+            long[] version = {0};
+            if (pending.computeIfPresent(id, (key, current) -> {
+                if (current == entry) {
+                    entry.copyTo(snapshot);
+                    version[0] = entry.version;
+                }
+                return current;
+            }) != entry) {
+                // 已被其他线程写入或丢弃
+                return;
+            }
+            try {
+                if (postService.patchPost(id, snapshot) == null) {
+                    // 文章已不存在，重试没有意义
+                    logger.warn("Dropping autosave for missing post {}", id);
+                    pending.remove(id, entry);
+                    return;
+                }
+            } catch (Exception e) {
+                entry.failures++;
+                long backoff = Math.min(maxDelayMs << Math.min(entry.failures - 1, 5), MAX_RETRY_DELAY_MS);
+                entry.retryAt = System.currentTimeMillis() + backoff;
+                logger.error("Failed to flush autosave for post {} (attempt {}), retrying in {} ms", id, entry.failures, backoff, e);
+                return;
+            }
+            entry.failures = 0;
+            entry.retryAt = 0;
+            // 提交成功后才移除；写入期间有新的自动保存时保留暂存，下一轮连同新修改一起写入，
+            // 最长等待时间从本次提交重新计算，否则持续编辑时每一轮都会写入
+            entry.firstAt = System.currentTimeMillis();
+            pending.computeIfPresent(id, (key, current) -> current == entry && entry.version == version[0] ? null : current);
+        }
+    }
+
+    /**
+     * 丢弃文章暂存的自动保存，整篇保存或删除文章时调用
+     * 与 flush 按暂存对象串行：正在写入的暂存提交后才返回，之后的显式保存覆盖它，不会被旧的暂存覆盖
+     *
+     * @param id 文章 ID
+     */
+    public void discard(String id) {
+        PendingAutosave entry = pending.get(id);
+        if (entry == null) {
+            return;
+        }
+        synchronized (entry) {
+            pending.remove(id, entry);
+        }
+    }
+
+    /**
+     * 立即写入所有暂存的自动保存
+     *
+     * @return 写入失败仍在暂存中的文章数
+     */
+    public int flushAll() {
+        new ArrayList<>(pending.keySet()).forEach(this::flush);
+        return pending.size();
+    }
+
+    /**
+     * 丢弃所有暂存的自动保存，恢复数据库后调用，暂存的正文基于恢复前的数据
+     */
+    public void discardAll() {
+        pending.clear();
+    }
+
+    private void flushDue() {
+        long now = System.currentTimeMillis();
+        pending.forEach((id, entry) -> {
+            if (now < entry.retryAt) {
+                return;
+            }
+            if (entry.failures > 0 || now - entry.lastAt >= quietMs || now - entry.firstAt >= maxDelayMs) {
+                flush(id);
+            }
+        });
+    }
+
+    /**
+     * 一篇文章合并后的自动保存
+     */
+    private static class PendingAutosave {
+        private final PostPatch patch = new PostPatch();
+        // 首次合并或上次提交成功的时间，用于计算最长等待
+        private volatile long firstAt;
+        private volatile long lastAt;
+        // 每次合并自动保存加一，只在 compute 中修改
+        private long version;
+        // 连续写入失败次数和下次重试时间，只在写入线程中修改
+        private volatile int failures;
+        private volatile long retryAt;
+
+        private PendingAutosave(long firstAt) {
+            this.firstAt = firstAt;
+            this.lastAt = firstAt;
+        }
+
+        private void copyTo(PostPatch target) {
+            target.setTitle(patch.getTitle());
+            target.setExcerpt(patch.getExcerpt());
+            target.setCoverImage(patch.getCoverImage());
+            target.setDate(patch.getDate());
+            target.setCategory(patch.getCategory());
+            target.setAuthor(patch.getAuthor());
+            target.setFeatured(patch.getFeatured());
+            target.setTags(patch.getTags() == null ? null : new ArrayList<>(patch.getTags()));
+            target.setContent(patch.getContent());
+        }
+    }
+}
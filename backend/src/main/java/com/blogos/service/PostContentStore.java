@@ -0,0 +1,338 @@
+/**
+ * 文章正文存储服务类
+ * 文章正文与列表元数据分表存放：超过阈值的正文以 Deflate（BEST_SPEED）压缩后写入 post_contents 表，
+ * 只有详情、编辑、预渲染和导出等确实需要正文的路径才按文章 ID 加载并解压
+ */
+package com.blogos.service;
+
+import com.blogos.model.Post;
+import com.blogos.model.PostContent;
+import com.blogos.repository.PostContentRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.ByteArrayOutputStream;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.sql.PreparedStatement;
+import java.util.*;
+import java.util.function.BiConsumer;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+// 服务注解，标记这是一个业务服务类
+@Service
+public class PostContentStore {
+    private static final Logger logger = LoggerFactory.getLogger(PostContentStore.class);
+
+    // 迁移旧版 posts.content 列时每批处理的文章数
+    private static final int MIGRATION_BATCH_SIZE = 200;
+
+    // 小于该字节数的正文原样存储，压缩收益不足以抵消解压开销
+    @Value("${blogos.content.compress-threshold:1024}")
+    private int compressThreshold;
+
+    // 自动注入文章正文仓库
+    @Autowired
+    private PostContentRepository contentRepository;
+
+    // 注入持久化上下文
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    // 自动注入 JdbcTemplate，用于迁移旧版正文列
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    // 自动注入事务管理器
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    /**
+     * 启动时将旧版 posts.content 列中的正文迁移到 post_contents 表，迁移完成后删除该列
+     */
+    @PostConstruct
+    public void migrateLegacyColumn() {
+        Integer legacy = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM INFORMATION_SCHEMA.COLUMNS WHERE TABLE_NAME = 'POSTS' AND COLUMN_NAME = 'CONTENT'",
+                Integer.class);
+        if (legacy == null || legacy == 0) {
+            return;
+        }
+        long start = System.currentTimeMillis();
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        int migrated = 0;
+        String lastId = "";
+        while (true) {
+            // 按主键分页，每批一个事务；MERGE 保证中断后重新启动时可以安全重跑
+            String cursor = lastId;
+            List<Object[]> rows = tx.execute(status -> {
+                List<Object[]> batch = new ArrayList<>();
+                jdbcTemplate.query("SELECT id, content FROM posts WHERE id > ? ORDER BY id LIMIT " + MIGRATION_BATCH_SIZE,
+                        rs -> {
+                            PostContent content = encode(rs.getString(1), rs.getString(2));
+                            batch.add(new Object[]{content.getPostId(), content.getCodec(), content.getRawLength(), content.getData()});
+                        }, cursor);
+                if (!batch.isEmpty()) {
+                    jdbcTemplate.batchUpdate("MERGE INTO post_contents (post_id, codec, raw_length, data) KEY (post_id) "
+                            + "VALUES (?, ?, ?, ?)", batch);
+                }
+                return batch;
+            });
+            if (rows == null || rows.isEmpty()) {
+                break;
+            }
+            migrated += rows.size();
+            lastId = (String) rows.get(rows.size() - 1)[0];
+        }
+        jdbcTemplate.execute("ALTER TABLE posts DROP COLUMN content");
+        logger.info("Migrated {} post bodies into post_contents in {} ms", migrated, System.currentTimeMillis() - start);
+    }
+
+    /**
+     * 加载单篇文章的正文
+     *
+     * @param postId 文章 ID
+     * @return 正文，不存在时返回空字符串
+     */
+    @Transactional(readOnly = true)
+    public String load(String postId) {
+        return contentRepository.findById(postId).map(content -> {
+            // 正文只在本次调用中使用，不留在持久化上下文里
+            entityManager.detach(content);
+            return decode(content);
+        }).orElse("");
+    }
+
+    /**
+     * 用一次 IN 查询为一批文章填充正文
+     *
+     * @param posts 文章列表
+     */
+    @Transactional(readOnly = true)
+    public void fill(List<Post> posts) {
+        if (posts.isEmpty()) {
+            return;
+        }
+        Map<String, String> bodies = new HashMap<>();
+        for (PostContent content : contentRepository.findAllById(posts.stream().map(Post::getId).toList())) {
+            bodies.put(content.getPostId(), decode(content));
+            entityManager.detach(content);
+        }
+        posts.forEach(post -> post.setContent(bodies.getOrDefault(post.getId(), "")));
+    }
+
+    /**
+     * 以游标方式逐篇读取并解压全部正文，不在持久化上下文中保留实体，供全量索引等批处理使用
+     *
+     * @param consumer 接收文章 ID 和正文
+     */
+    @Transactional(readOnly = true)
+    public void forEachContent(BiConsumer<String, String> consumer) {
+        jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement("SELECT post_id, codec, raw_length, data FROM post_contents");
+            ps.setFetchSize(200);
+            return ps;
+        }, rs -> {
+            PostContent content = new PostContent();
+            content.setPostId(rs.getString(1));
+            content.setCodec(rs.getString(2));
+            content.setRawLength(rs.getInt(3));
+            content.setData(rs.getBytes(4));
+            consumer.accept(content.getPostId(), decode(content));
+        });
+    }
+
+    /**
+     * 保存文章正文，已存在时覆盖
+     *
+     * @param postId  文章 ID
+     * @param content 正文
+     */
+    @Transactional
+    public void save(String postId, String content) {
+        contentRepository.save(encode(postId, content));
+    }
+
+    /**
+     * 删除文章正文
+     *
+     * @param postId 文章 ID
+     */
+    @Transactional
+    public void delete(String postId) {
+        if (contentRepository.existsById(postId)) {
+            contentRepository.deleteById(postId);
+        }
+    }
+
+    /**
+     * 将正文编码为待存储的实体，超过阈值且压缩后更小时使用 Deflate
+     *
+     * @param postId  文章 ID
+     * @param content 正文
+     * @return 正文实体
+     */
+    public PostContent encode(String postId, String content) {
+        byte[] raw = (content == null ? "" : content).getBytes(StandardCharsets.UTF_8);
+        PostContent entity = new PostContent();
+        entity.setPostId(postId);
+        entity.setRawLength(raw.length);
+        entity.setCodec(PostContent.CODEC_RAW);
+        entity.setData(raw);
+        if (raw.length >= compressThreshold) {
+            byte[] compressed = deflate(raw);
+            if (compressed.length < raw.length) {
+                entity.setCodec(PostContent.CODEC_DEFLATE);
+                entity.setData(compressed);
+            }
+        }
+        return entity;
+    }
+
+    /**
+     * 解码正文实体
+     *
+     * @param content 正文实体
+     * @return 正文字符串
+     */
+    public static String decode(PostContent content) {
+        byte[] data = content.getData() == null ? new byte[0] : content.getData();
+        if (PostContent.CODEC_DEFLATE.equals(content.getCodec())) {
+            data = inflate(data, content.getRawLength());
+        }
+        return new String(data, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * 统计正文存储情况，并抽样测量加载文章时每篇分配的堆内存
+     *
+     * @param sampleSize 抽样文章数
+     * @return 统计结果
+     */
+    @Transactional(readOnly = true)
+    public Map<String, Object> stats(int sampleSize) {
+        Map<String, Object> totals = jdbcTemplate.queryForMap("SELECT COUNT(*) AS ROW_COUNT, "
+                + "COALESCE(SUM(CASE WHEN codec = 'deflate' THEN 1 ELSE 0 END), 0) AS COMPRESSED, "
+                + "COALESCE(SUM(raw_length), 0) AS RAW_BYTES, COALESCE(SUM(OCTET_LENGTH(data)), 0) AS STORED_BYTES "
+                + "FROM post_contents");
+        long rawBytes = ((Number) totals.get("RAW_BYTES")).longValue();
+        long storedBytes = ((Number) totals.get("STORED_BYTES")).longValue();
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("posts", entityManager.createQuery("SELECT COUNT(p) FROM Post p", Long.class).getSingleResult());
+        result.put("contentRows", ((Number) totals.get("ROW_COUNT")).longValue());
+        result.put("compressedRows", ((Number) totals.get("COMPRESSED")).longValue());
+        result.put("compressThreshold", compressThreshold);
+        result.put("rawBytes", rawBytes);
+        result.put("storedBytes", storedBytes);
+        result.put("compressionRatio", storedBytes == 0 ? 1.0 : Math.round(rawBytes * 100.0 / storedBytes) / 100.0);
+        result.put("dbFileBytes", databaseFileSize());
+        result.put("heapPerPost", measureHeapPerPost(sampleSize));
+        return result;
+    }
+
+    /**
+     * 分别测量只加载文章元数据、以及再加载并解压正文时每篇文章的堆分配量
+     * 后者即为正文与元数据同表、每次加载实体都带出正文时的开销
+     */
+    private Map<String, Object> measureHeapPerPost(int sampleSize) {
+        List<String> ids = entityManager.createQuery("SELECT p.id FROM Post p ORDER BY p.id", String.class)
+                .setMaxResults(sampleSize)
+                .getResultList();
+        Map<String, Object> heap = new LinkedHashMap<>();
+        heap.put("sampleSize", ids.size());
+        if (ids.isEmpty() || !(ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean threads)) {
+            return heap;
+        }
+        long threadId = Thread.currentThread().getId();
+
+        entityManager.clear();
+        long before = threads.getThreadAllocatedBytes(threadId);
+        for (String id : ids) {
+            entityManager.find(Post.class, id);
+        }
+        long metadataOnly = threads.getThreadAllocatedBytes(threadId) - before;
+
+        entityManager.clear();
+        before = threads.getThreadAllocatedBytes(threadId);
+        for (String id : ids) {
+            Post post = entityManager.find(Post.class, id);
+            post.setContent(contentRepository.findById(id).map(PostContentStore::decode).orElse(""));
+        }
+        long withContent = threads.getThreadAllocatedBytes(threadId) - before;
+        entityManager.clear();
+
+        heap.put("metadataOnlyBytesPerPost", metadataOnly / ids.size());
+        heap.put("withContentBytesPerPost", withContent / ids.size());
+        return heap;
+    }
+
+    private long databaseFileSize() {
+        try {
+            String path = jdbcTemplate.queryForObject("SELECT DATABASE_PATH()", String.class);
+            if (path == null) {
+                return -1;
+            }
+            Path file = Paths.get(path + ".mv.db");
+            return Files.exists(file) ? Files.size(file) : -1;
+        } catch (Exception e) {
+            logger.debug("Unable to determine database file size", e);
+            return -1;
+        }
+    }
+
+    static byte[] deflate(byte[] raw) {
+        Deflater deflater = new Deflater(Deflater.BEST_SPEED, true);
+        try {
+            deflater.setInput(raw);
+            deflater.finish();
+            ByteArrayOutputStream out = new ByteArrayOutputStream(raw.length / 2 + 64);
+            byte[] buffer = new byte[8192];
+            while (!deflater.finished()) {
+                out.write(buffer, 0, deflater.deflate(buffer));
+            }
+            return out.toByteArray();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    static byte[] inflate(byte[] data, int rawLength) {
+        Inflater inflater = new Inflater(true);
+        try {
+            inflater.setInput(data);
+            byte[] raw = new byte[rawLength];
+            int offset = 0;
+            while (offset < rawLength && !inflater.finished()) {
+                int n = inflater.inflate(raw, offset, rawLength - offset);
+                if (n == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    break;
+                }
+                offset += n;
+            }
+            if (offset != rawLength) {
+                throw new IllegalStateException("Corrupted post content: expected " + rawLength + " bytes, got " + offset);
+            }
+            return raw;
+        } catch (DataFormatException e) {
+            throw new IllegalStateException("Corrupted post content", e);
+        } finally {
+            inflater.end();
+        }
+    }
+}
@@ -0,0 +1,202 @@
+/**
+ * 文章修订服务类
+ * 每次保存正文时记录一条修订：每隔固定数量的修订保存一个完整关键帧，其余修订只保存相对上一修订的二进制差异，
+ * 存储增长与编辑量成正比；还原任意修订最多只需读取一个关键帧并应用有限条差异
+ */
+package com.blogos.service;
+
+import com.blogos.model.PostContent;
+import com.blogos.model.PostRevision;
+import com.blogos.model.PostRevisionSummary;
+import com.blogos.repository.PostRevisionRepository;
+import com.blogos.util.BinaryDelta;
+import com.blogos.util.TimeOrderedId;
+import org.hibernate.type.descriptor.DateTimeUtils;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.*;
+
+// 服务注解，标记这是一个业务服务类
+@Service
+public class PostRevisionService {
+
+    // 每隔多少条修订保存一个完整关键帧，决定还原一条修订最多需要应用的差异数
+    @Value("${blogos.revision.keyframe-interval:20}")
+    private int keyframeInterval;
+
+    // 自动注入文章修订仓库
+    @Autowired
+    private PostRevisionRepository revisionRepository;
+
+    // 自动注入文章正文存储，用于编码关键帧和读取启用修订前的正文
+    @Autowired
+    private PostContentStore contentStore;
+
+    /**
+     * 为即将保存的正文记录一条修订，正文未变化时不记录
+     * 必须在新正文写入正文存储之前调用
+     *
+     * @param postId  文章 ID
+     * @param content 新正文
+     */
+    @Transactional
+    public void record(String postId, String content) {
+        // 并发保存同一篇文章时都会读到同一个最新修订号，插入时在 uk_post_revision 上冲突；
+        // 先锁定文章行，后到的保存等前一个事务提交后再读取最新修订
+        revisionRepository.lockPost(postId);
+        byte[] target = content.getBytes(StandardCharsets.UTF_8);
+        Optional<PostRevision> latest = revisionRepository.findFirstByPostIdOrderByRevisionDesc(postId);
+        byte[] previous;
+        int revision;
+        if (latest.isPresent()) {
+            revision = latest.get().getRevision();
+            previous = reconstruct(postId, revision);
+        } else {
+            // 启用修订前已有的正文作为第一条修订保留下来
+            previous = contentStore.load(postId).getBytes(StandardCharsets.UTF_8);
+            revision = 0;
+            if (previous.length > 0 && !Arrays.equals(previous, target)) {
+                revisionRepository.save(keyframe(postId, ++revision, previous));
+            }
+        }
+        if (revision > 0 && Arrays.equals(previous, target)) {
+            return;
+        }
+
+        int next = revision + 1;
+        PostRevision entity = keyframe(postId, next, target);
+        // 上一修订无法还原（差异链缺失或损坏）时保存完整关键帧，后续修订从这里重新开始
+        if (previous != null && (next - 1) % keyframeInterval != 0) {
+            byte[] delta = BinaryDelta.diff(previous, target);
+            if (delta.length < entity.getStoredLength()) {
+                entity.setKeyframe(false);
+                entity.setCodec(PostContent.CODEC_RAW);
+                entity.setData(delta);
+                entity.setStoredLength(delta.length);
+            }
+        }
+        revisionRepository.save(entity);
+    }
+
+    /**
+     * 按修订号降序列出文章的修订
+     *
+     * @param postId 文章 ID
+     * @return 修订摘要列表
+     */
+    @Transactional(readOnly = true)
+    public List<PostRevisionSummary> list(String postId) {
+        return revisionRepository.findSummaries(postId);
+    }
+
+    /**
+     * 还原指定修订的正文
+     *
+     * @param postId   文章 ID
+     * @param revision 修订号
+     * @return 正文，修订不存在时返回 null
+     */
+    @Transactional(readOnly = true)
+    public String load(String postId, int revision) {
+        byte[] content = reconstruct(postId, revision);
+        return content == null ? null : new String(content, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * 删除文章的全部修订
+     *
+     * @param postId 文章 ID
+     */
+    @Transactional
+    public void deleteAll(String postId) {
+        revisionRepository.deleteByPostId(postId);
+    }
+
+    /**
+     * 统计文章修订的存储占用，并逐条还原以测量还原耗时
+     *
+     * @param postId 文章 ID
+     * @return 统计结果
+     */
+    @Transactional(readOnly = true)
+    public Map<String, Object> stats(String postId) {
+        List<PostRevisionSummary> revisions = revisionRepository.findSummaries(postId);
+        long storedBytes = 0;
+        long fullCopyBytes = 0;
+        int keyframes = 0;
+        for (PostRevisionSummary summary : revisions) {
+            storedBytes += summary.getStoredLength();
+            fullCopyBytes += summary.getContentLength();
+            keyframes += summary.isKeyframe() ? 1 : 0;
+        }
+
+        long totalNanos = 0;
+        long maxNanos = 0;
+        for (PostRevisionSummary summary : revisions) {
+            long start = System.nanoTime();
+            reconstruct(postId, summary.getRevision());
+            long elapsed = System.nanoTime() - start;
+            totalNanos += elapsed;
+            maxNanos = Math.max(maxNanos, elapsed);
+        }
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("revisions", revisions.size());
+        result.put("keyframes", keyframes);
+        result.put("keyframeInterval", keyframeInterval);
+        result.put("latestContentBytes", revisions.isEmpty() ? 0 : revisions.get(0).getContentLength());
+        result.put("storedBytes", storedBytes);
+        result.put("fullCopyBytes", fullCopyBytes);
+        result.put("avgReconstructMs", revisions.isEmpty() ? 0.0 : totalNanos / revisions.size() / 1_000_000.0);
+        result.put("maxReconstructMs", maxNanos / 1_000_000.0);
+        return result;
+    }
+
+    /**
+     * 从最近的关键帧开始依次应用差异，还原指定修订的正文字节
+     */
+    private byte[] reconstruct(String postId, int revision) {
+        Optional<PostRevision> keyframe = revisionRepository
+                .findFirstByPostIdAndRevisionLessThanEqualAndKeyframeTrueOrderByRevisionDesc(postId, revision);
+        if (keyframe.isEmpty()) {
+            return null;
+        }
+        PostRevision base = keyframe.get();
+        byte[] content = PostContent.CODEC_DEFLATE.equals(base.getCodec())
+                ? PostContentStore.inflate(base.getData(), base.getContentLength())
+                : base.getData();
+        if (base.getRevision() == revision) {
+            return content;
+        }
+        List<PostRevision> deltas = revisionRepository
+                .findByPostIdAndRevisionBetweenOrderByRevisionAsc(postId, base.getRevision() + 1, revision);
+        if (deltas.isEmpty() || deltas.get(deltas.size() - 1).getRevision() != revision) {
+            return null;
+        }
+        for (PostRevision delta : deltas) {
+            content = BinaryDelta.apply(content, delta.getData());
+        }
+        return content;
+    }
+
+    private PostRevision keyframe(String postId, int revision, byte[] content) {
+        PostContent encoded = contentStore.encode(postId, new String(content, StandardCharsets.UTF_8));
+        PostRevision entity = new PostRevision();
+        entity.setId(TimeOrderedId.next());
+        entity.setPostId(postId);
+        entity.setRevision(revision);
+        entity.setKeyframe(true);
+        entity.setCodec(encoded.getCodec());
+        entity.setContentLength(content.length);
+        entity.setStoredLength(encoded.getData().length);
+        entity.setData(encoded.getData());
+        entity.setDate(LocalDateTime.now().format(DateTimeFormatter.ofPattern(DateTimeUtils.FORMAT_STRING_TIMESTAMP)));
+        return entity;
+    }
+}
@@ -1,23 +1,21 @@
 /**
  * 文章服务类
- * 提供文章相关的业务逻辑处理，包括保存、删除、评论和点赞功能
+ * 提供文章相关的业务逻辑处理，包括保存、删除和点赞功能，评论由 CommentPipelineService 异步写入
  */
 package com.blogos.service;
 
-import com.blogos.model.Comment;
+import com.blogos.event.ContentChangedEvent;
 import com.blogos.model.Post;
+import com.blogos.model.PostCard;
+import com.blogos.model.PostPatch;
 import com.blogos.repository.PostRepository;
-import org.hibernate.type.descriptor.DateTimeUtils;
+import com.blogos.util.TimeOrderedId;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
-import org.springframework.util.StringUtils;
 
-import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
-import java.util.List;
-import java.util.Optional;
-import java.util.UUID;
+import java.util.*;
 
 // 服务注解，标记这是一个业务服务类
 @Service
@@ -27,94 +25,170 @@ public class PostService {
     @Autowired
     private PostRepository postRepository;
 
+    // 自动注入文章正文存储
+    @Autowired
+    private PostContentStore contentStore;
+
+    // 自动注入文章修订服务
+    @Autowired
+    private PostRevisionService revisionService;
+
+    // 自动注入文章浏览统计服务
+    @Autowired
+    private PostViewService viewService;
+
+    // 自动注入事件发布器，用于通知内容变更
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
     /**
      * 保存文章
+     * 正文为 null 时只更新元数据，保留已存储的正文；正文有变化时记录一条修订
      *
      * @param post 文章对象
      * @return 保存后的文章
      */
     @Transactional
     public Post savePost(Post post) {
-        // 如果文章 ID 为空，则生成新的 UUID
+        // 如果文章 ID 为空，则生成按时间递增的新 ID
         if (post.getId() == null || post.getId().isEmpty()) {
-            post.setId(UUID.randomUUID().toString());
+            post.setId(TimeOrderedId.next());
         }
 
         // 业务逻辑：互斥的精选文章
         // 如果当前文章设为精选，则清除其他所有精选文章的精选状态
         if (post.isFeatured()) {
-            postRepository.clearAllFeatured();
+            postRepository.clearFeaturedExcept(post.getId());
+        }
+
+        String content = post.getContent();
+        Post saved = postRepository.save(post);
+        if (content != null) {
+            revisionService.record(saved.getId(), content);
+            contentStore.save(saved.getId(), content);
+        }
+        saved.setContent(content);
+        eventPublisher.publishEvent(ContentChangedEvent.of(ContentChangedEvent.Type.POST_SAVED, saved.getId(), PostCard.of(saved)));
+        return saved;
+    }
+
+    /**
+     * 局部更新文章
+     * 只修改请求中出现的字段，不触碰评论和点赞数；借助 @DynamicUpdate，UPDATE 语句只包含变化的列
+     *
+     * @param id    文章 ID
+     * @param patch 局部更新请求
+     * @return 更新后的文章（不含正文），文章不存在时返回 null
+     */
+    @Transactional
+    public Post patchPost(String id, PostPatch patch) {
+        Optional<Post> postOpt = postRepository.findById(id);
+        if (postOpt.isEmpty()) {
+            return null;
+        }
+        Post post = postOpt.get();
+        if (patch.getTitle() != null) post.setTitle(patch.getTitle());
+        if (patch.getExcerpt() != null) post.setExcerpt(patch.getExcerpt());
+        if (patch.getCoverImage() != null) post.setCoverImage(patch.getCoverImage());
+        if (patch.getDate() != null) post.setDate(patch.getDate());
+        if (patch.getCategory() != null) post.setCategory(patch.getCategory());
+        if (patch.getAuthor() != null) post.setAuthor(patch.getAuthor());
+        if (patch.getFeatured() != null && patch.getFeatured() != post.isFeatured()) {
+            // 与 savePost 相同，精选文章互斥
+            if (patch.getFeatured()) {
+                postRepository.clearFeaturedExcept(id);
+            }
+            post.setFeatured(patch.getFeatured());
+        }
+        if (patch.getTags() != null && !patch.getTags().equals(post.getTags())) {
+            post.getTags().clear();
+            post.getTags().addAll(patch.getTags());
         }
 
-        return postRepository.save(post);
+        if (patch.hasContentChange()) {
+            String current = contentStore.load(id);
+            String content = applyContentPatch(current, patch);
+            if (!content.equals(current)) {
+                revisionService.record(id, content);
+                contentStore.save(id, content);
+            }
+        }
+        eventPublisher.publishEvent(ContentChangedEvent.of(ContentChangedEvent.Type.POST_SAVED, id, PostCard.of(post)));
+        return post;
     }
 
     /**
-     * 获取所有文章
+     * 将局部更新中的正文修改应用到基准正文上
+     *
+     * @param base  基准正文
+     * @param patch 局部更新请求
+     * @return 修改后的正文
+     * @throws IllegalStateException    基准正文长度与请求不一致
+     * @throws IllegalArgumentException 编辑区间越界或相互重叠
+     */
+    public static String applyContentPatch(String base, PostPatch patch) {
+        if (patch.getContent() != null) {
+            return patch.getContent();
+        }
+        if (patch.getContentEdits() == null || patch.getContentEdits().isEmpty()) {
+            return base;
+        }
+        if (patch.getBaseLength() != null && patch.getBaseLength() != base.length()) {
+            throw new IllegalStateException("正文已被修改，请重新加载后再编辑");
+        }
+        List<PostPatch.TextEdit> edits = new ArrayList<>(patch.getContentEdits());
+        edits.sort(Comparator.comparingInt(PostPatch.TextEdit::getStart));
+        StringBuilder result = new StringBuilder(base.length() + 256);
+        int cursor = 0;
+        for (PostPatch.TextEdit edit : edits) {
+            if (edit.getStart() < cursor || edit.getEnd() < edit.getStart() || edit.getEnd() > base.length()) {
+                throw new IllegalArgumentException("无效的正文编辑区间: [" + edit.getStart() + ", " + edit.getEnd() + ")");
+            }
+            result.append(base, cursor, edit.getStart());
+            if (edit.getText() != null) {
+                result.append(edit.getText());
+            }
+            cursor = edit.getEnd();
+        }
+        return result.append(base, cursor, base.length()).toString();
+    }
+
+    /**
+     * 获取所有文章（不含正文）
      *
      * @return 文章列表
      */
+    @Transactional(readOnly = true)
     public List<Post> getAllPosts() {
         // 按日期降序排序（简单逻辑）
         return postRepository.findAll();
     }
 
     /**
-     * 删除文章
+     * 获取单篇文章（含正文）
      *
      * @param id 文章 ID
+     * @return 文章，不存在时返回 null
      */
-    public void deletePost(String id) {
-        postRepository.deleteById(id);
+    @Transactional(readOnly = true)
+    public Post getPost(String id) {
+        Optional<Post> post = postRepository.findById(id);
+        post.ifPresent(p -> p.setContent(contentStore.load(id)));
+        return post.orElse(null);
     }
 
     /**
-     * 添加评论
+     * 删除文章
      *
-     * @param postId   文章 ID
-     * @param comment  评论对象
-     * @param parentId 父评论 ID
-     * @return 添加评论后的文章
+     * @param id 文章 ID
      */
     @Transactional
-    public Post addComment(String postId, Comment comment, String parentId) {
-        Optional<Post> postOpt = postRepository.findById(postId);
-        if (postOpt.isPresent()) {
-            Post post = postOpt.get();
-            // 如果评论 ID 为空，则生成新的 UUID
-            if (comment.getId() == null) comment.setId(UUID.randomUUID().toString());
-            comment.setDate(LocalDateTime.now().format(DateTimeFormatter.ofPattern(DateTimeUtils.FORMAT_STRING_TIMESTAMP)));
-            if (!StringUtils.hasText(parentId)) {
-                // 如果没有父评论 ID，则直接添加到文章的评论列表
-                post.getComments().add(comment);
-            } else {
-                // 如果有父评论 ID，则递归查找并添加回复
-                addReplyRecursively(post.getComments(), comment, parentId);
-            }
-            return postRepository.save(post);
-        }
-        return null;
-    }
-
-    /**
-     * 递归添加回复评论
-     *
-     * @param comments 评论列表
-     * @param newReply 新回复评论
-     * @param parentId 父评论 ID
-     * @return 是否添加成功
-     */
-    private boolean addReplyRecursively(List<Comment> comments, Comment newReply, String parentId) {
-        for (Comment c : comments) {
-            if (c.getId().equals(parentId)) {
-                c.getReplies().add(newReply);
-                return true;
-            }
-            if (addReplyRecursively(c.getReplies(), newReply, parentId)) {
-                return true;
-            }
-        }
-        return false;
+    public void deletePost(String id) {
+        revisionService.deleteAll(id);
+        viewService.deleteAll(id);
+        contentStore.delete(id);
+        postRepository.deleteById(id);
+        eventPublisher.publishEvent(ContentChangedEvent.of(ContentChangedEvent.Type.POST_DELETED, id));
     }
 
     /**
@@ -129,8 +203,10 @@ public class PostService {
         if (p.isPresent()) {
             Post post = p.get();
             post.setLikes(post.getLikes() + 1);
-            return postRepository.save(post);
+            Post saved = postRepository.save(post);
+            eventPublisher.publishEvent(ContentChangedEvent.of(ContentChangedEvent.Type.POST_LIKED, id, saved.getLikes()));
+            return saved;
         }
         return null;
     }
-}
\ No newline at end of file
+}
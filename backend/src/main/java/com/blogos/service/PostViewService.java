@@ -0,0 +1,432 @@
+/**
+ * 文章浏览统计服务类
+ * 浏览记录只写入内存：浏览量累加到分段计数器，访客哈希加入每篇文章每天一个的 HyperLogLog 草图，
+ * 记录一次浏览不加锁、不访问数据库；后台线程定期把变化的计数和草图批量合并到按天分桶的统计表
+ */
+package com.blogos.service;
+
+import com.blogos.model.PostCard;
+import com.blogos.model.PostViewStat;
+import com.blogos.repository.PostRepository;
+import com.blogos.repository.PostViewStatRepository;
+import com.blogos.util.HyperLogLog;
+import com.blogos.util.TimeOrderedId;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+// 服务注解，标记这是一个业务服务类
+@Service
+public class PostViewService {
+    private static final Logger logger = LoggerFactory.getLogger(PostViewService.class);
+
+    // 批量写入时每条 IN 查询携带的文章 ID 数
+    private static final int FLUSH_CHUNK_SIZE = 500;
+
+    // 统计按服务器时区划分日期
+    private static final ZoneId ZONE = ZoneId.systemDefault();
+
+    // 内存计数写入数据库的间隔
+    @Value("${blogos.analytics.flush-ms:10000}")
+    private long flushMs;
+
+    // 每天最多在内存中跟踪的文章数，超出后新文章的浏览被丢弃并计数，防止伪造 ID 撑爆内存
+    @Value("${blogos.analytics.max-tracked-posts:10000}")
+    private int maxTrackedPosts;
+
+    // 自动注入文章浏览统计仓库
+    @Autowired
+    private PostViewStatRepository statRepository;
+
+    // 自动注入文章仓库
+    @Autowired
+    private PostRepository postRepository;
+
+    // 自动注入事务管理器，后台写入需要手动开启事务
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    // 当天的计数桶
+    private volatile DayBucket current;
+
+    // 跨天后退役、等待最后写入的计数桶
+    private final Queue<DayBucket> retired = new ConcurrentLinkedQueue<>();
+
+    // 因跟踪文章数达到上限而丢弃的浏览次数
+    private final LongAdder dropped = new LongAdder();
+
+    // 保证同一时间只有一个线程在写入统计表
+    private final Object flushLock = new Object();
+
+    private volatile long lastFlushAt;
+    private volatile double lastFlushMs;
+    private volatile int lastFlushRows;
+
+    private TransactionTemplate tx;
+    private TransactionTemplate readOnlyTx;
+    private ScheduledExecutorService worker;
+
+    @PostConstruct
+    public void init() {
+        tx = new TransactionTemplate(transactionManager);
+        readOnlyTx = new TransactionTemplate(transactionManager);
+        readOnlyTx.setReadOnly(true);
+        current = new DayBucket(System.currentTimeMillis());
+        worker = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "view-stats-flusher");
+            t.setDaemon(true);
+            return t;
+        });
+        worker.scheduleWithFixedDelay(() -> {
+            try {
+                flush();
+            } catch (Exception e) {
+                logger.error("Failed to flush view statistics", e);
+            }
+        }, flushMs, flushMs, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (worker != null) {
+            worker.shutdownNow();
+        }
+        // 关闭前写入所有未保存的计数
+        flush();
+    }
+
+    /**
+     * 记录一次文章浏览，只更新内存计数
+     *
+     * @param postId  文章 ID
+     * @param visitor 访客标识，用于估计去重访客数
+     */
+    public void record(String postId, String visitor) {
+        long now = System.currentTimeMillis();
+        DayBucket bucket = current;
+        if (now >= bucket.endMillis) {
+            bucket = rollOver(now);
+        }
+        ViewCounter counter = bucket.counters.get(postId);
+        if (counter == null) {
+            if (bucket.counters.size() >= maxTrackedPosts) {
+                dropped.increment();
+                return;
+            }
+            counter = bucket.counters.computeIfAbsent(postId, k -> new ViewCounter());
+        }
+        long hash = HyperLogLog.hash(visitor);
+        counter.record(hash);
+        bucket.site.record(hash);
+    }
+
+    /**
+     * 把内存中变化的计数和草图批量写入统计表，写入失败时计数放回内存，下次重试
+     */
+    public void flush() {
+        synchronized (flushLock) {
+            long start = System.nanoTime();
+            int rows = 0;
+            for (Iterator<DayBucket> it = retired.iterator(); it.hasNext(); ) {
+                DayBucket bucket = it.next();
+                rows += flush(bucket);
+                // 退役后经过一轮写入，切换前读到旧桶的线程早已完成写入，再写一次即可丢弃
+                if (bucket.drained) {
+                    it.remove();
+                }
+                bucket.drained = true;
+            }
+            rows += flush(current);
+            lastFlushAt = System.currentTimeMillis();
+            lastFlushMs = (System.nanoTime() - start) / 1_000_000.0;
+            lastFlushRows = rows;
+        }
+    }
+
+    /**
+     * 删除文章的全部浏览统计，包括尚未写入的内存计数
+     *
+     * @param postId 文章 ID
+     */
+    @Transactional
+    public void deleteAll(String postId) {
+        synchronized (flushLock) {
+            current.counters.remove(postId);
+            retired.forEach(bucket -> bucket.counters.remove(postId));
+            statRepository.deleteByPostId(postId);
+        }
+    }
+
+    /**
+     * 查询最近若干天的逐日浏览量和去重访客数
+     *
+     * @param postId 文章 ID，为 null 时查询全站
+     * @param days   天数，包含今天
+     * @return 逐日数据以及整个区间的总浏览量和去重访客数
+     */
+    public Map<String, Object> getSeries(String postId, int days) {
+        flush();
+        LocalDate to = LocalDate.now(ZONE);
+        LocalDate from = to.minusDays(days - 1);
+        String key = postId == null ? PostViewStat.SITE : postId;
+        List<PostViewStat> rows = readOnlyTx.execute(status ->
+                statRepository.findByPostIdAndDayBetweenOrderByDayAsc(key, from.toString(), to.toString()));
+
+        Map<String, PostViewStat> byDay = new HashMap<>();
+        HyperLogLog range = new HyperLogLog();
+        long totalViews = 0;
+        for (PostViewStat row : rows) {
+            byDay.put(row.getDay(), row);
+            totalViews += row.getViews();
+            range.merge(sketch(row));
+        }
+        List<Map<String, Object>> series = new ArrayList<>(days);
+        for (LocalDate day = from; !day.isAfter(to); day = day.plusDays(1)) {
+            PostViewStat row = byDay.get(day.toString());
+            Map<String, Object> point = new LinkedHashMap<>();
+            point.put("date", day.toString());
+            point.put("views", row == null ? 0 : row.getViews());
+            point.put("uniques", row == null ? 0 : row.getUniques());
+            series.add(point);
+        }
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("postId", postId);
+        result.put("from", from.toString());
+        result.put("to", to.toString());
+        result.put("totalViews", totalViews);
+        // 跨天合并草图得到的是区间内的去重访客，而不是逐日去重数之和
+        result.put("uniqueVisitors", range.estimate());
+        result.put("series", series);
+        return result;
+    }
+
+    /**
+     * 查询最近若干天浏览量最高的文章
+     *
+     * @param days  天数，包含今天
+     * @param limit 最多返回的篇数
+     * @return 文章 ID、标题、浏览量和区间内去重访客数
+     */
+    public List<Map<String, Object>> getTopPosts(int days, int limit) {
+        flush();
+        LocalDate to = LocalDate.now(ZONE);
+        LocalDate from = to.minusDays(days - 1);
+        return readOnlyTx.execute(status -> {
+            List<Map<String, Object>> result = new ArrayList<>();
+            for (Object[] row : statRepository.findTopPosts(from.toString(), to.toString(), PageRequest.of(0, limit))) {
+                String postId = (String) row[0];
+                HyperLogLog range = new HyperLogLog();
+                statRepository.findByPostIdAndDayBetweenOrderByDayAsc(postId, from.toString(), to.toString())
+                        .forEach(stat -> range.merge(sketch(stat)));
+                Map<String, Object> item = new LinkedHashMap<>();
+                item.put("postId", postId);
+                item.put("title", postRepository.findCard(postId).map(PostCard::title).orElse(null));
+                item.put("views", ((Number) row[1]).longValue());
+                item.put("uniques", range.estimate());
+                result.add(item);
+            }
+            return result;
+        });
+    }
+
+    /**
+     * 获取内存计数与批量写入的运行状态
+     *
+     * @return 状态信息
+     */
+    public Map<String, Object> getStatus() {
+        DayBucket bucket = current;
+        long pendingViews = bucket.site.views.sum();
+        for (DayBucket old : retired) {
+            pendingViews += old.site.views.sum();
+        }
+        Map<String, Object> status = new LinkedHashMap<>();
+        status.put("day", bucket.day);
+        status.put("trackedPosts", bucket.counters.size());
+        status.put("maxTrackedPosts", maxTrackedPosts);
+        status.put("sketchBytes", (bucket.counters.size() + 1L) * HyperLogLog.REGISTERS);
+        status.put("pendingViews", pendingViews);
+        status.put("droppedViews", dropped.sum());
+        status.put("flushIntervalMs", flushMs);
+        status.put("lastFlushAt", lastFlushAt);
+        status.put("lastFlushMs", lastFlushMs);
+        status.put("lastFlushRows", lastFlushRows);
+        return status;
+    }
+
+    private synchronized DayBucket rollOver(long now) {
+        DayBucket bucket = current;
+        if (now >= bucket.endMillis) {
+            retired.add(bucket);
+            bucket = new DayBucket(now);
+            current = bucket;
+        }
+        return bucket;
+    }
+
+    /**
+     * 写入一个计数桶中有变化的计数，返回写入的行数
+     */
+    private int flush(DayBucket bucket) {
+        List<PendingStat> batch = new ArrayList<>();
+        bucket.counters.forEach((postId, counter) -> {
+            PendingStat pending = counter.drain(postId);
+            if (pending != null) {
+                batch.add(pending);
+            }
+        });
+        PendingStat site = bucket.site.drain(PostViewStat.SITE);
+        if (site != null) {
+            batch.add(site);
+        }
+        if (batch.isEmpty()) {
+            return 0;
+        }
+        try {
+            for (int i = 0; i < batch.size(); i += FLUSH_CHUNK_SIZE) {
+                List<PendingStat> chunk = batch.subList(i, Math.min(batch.size(), i + FLUSH_CHUNK_SIZE));
+                tx.executeWithoutResult(status -> write(bucket, chunk));
+                chunk.forEach(p -> p.written = true);
+            }
+        } catch (RuntimeException e) {
+            // 已提交的分块重复合并草图不影响结果，浏览量只放回尚未写入的部分
+            batch.stream().filter(p -> !p.written).forEach(PendingStat::restore);
+            throw e;
+        }
+        return batch.size();
+    }
+
+    private void write(DayBucket bucket, List<PendingStat> chunk) {
+        Set<String> postIds = new HashSet<>();
+        chunk.forEach(p -> postIds.add(p.postId));
+        Set<String> existing = new HashSet<>(postRepository.findExistingIds(postIds));
+        existing.add(PostViewStat.SITE);
+
+        Map<String, PostViewStat> rows = new HashMap<>();
+        statRepository.findByDayAndPostIdIn(bucket.day, postIds).forEach(row -> rows.put(row.getPostId(), row));
+        List<PostViewStat> updated = new ArrayList<>(chunk.size());
+        for (PendingStat pending : chunk) {
+            if (!existing.contains(pending.postId)) {
+                // 文章不存在或已删除，不再跟踪
+                bucket.counters.remove(pending.postId);
+                continue;
+            }
+            PostViewStat row = rows.get(pending.postId);
+            if (row == null) {
+                row = new PostViewStat();
+                row.setId(TimeOrderedId.next());
+                row.setPostId(pending.postId);
+                row.setDay(bucket.day);
+            }
+            row.setViews(row.getViews() + pending.views);
+            if (pending.sketch != null) {
+                HyperLogLog merged = HyperLogLog.fromBytes(pending.sketch);
+                merged.merge(sketch(row));
+                byte[] registers = merged.toBytes();
+                row.setSketch(PostContentStore.deflate(registers));
+                row.setUniques(merged.estimate());
+            }
+            updated.add(row);
+        }
+        statRepository.saveAll(updated);
+    }
+
+    private static HyperLogLog sketch(PostViewStat row) {
+        return row.getSketch() == null
+                ? new HyperLogLog()
+                : HyperLogLog.fromBytes(PostContentStore.inflate(row.getSketch(), HyperLogLog.REGISTERS));
+    }
+
+    /**
+     * 一天的内存计数
+     */
+    private static class DayBucket {
+        private final String day;
+        private final long endMillis;
+        private final Map<String, ViewCounter> counters = new ConcurrentHashMap<>();
+        private final ViewCounter site = new ViewCounter();
+        private boolean drained;
+
+        private DayBucket(long now) {
+            LocalDate date = Instant.ofEpochMilli(now).atZone(ZONE).toLocalDate();
+            this.day = date.toString();
+            this.endMillis = date.plusDays(1).atStartOfDay(ZONE).toInstant().toEpochMilli();
+        }
+    }
+
+    /**
+     * 一篇文章一天的浏览计数和访客草图
+     */
+    private static class ViewCounter {
+        // 分段计数，多线程并发累加时不争用同一缓存行
+        private final LongAdder views = new LongAdder();
+        private final HyperLogLog visitors = new HyperLogLog();
+        // 草图自上次写入后是否有寄存器变化，同一访客重复浏览不会改变草图
+        private volatile boolean dirty;
+
+        private void record(long hash) {
+            views.increment();
+            if (visitors.offer(hash)) {
+                dirty = true;
+            }
+        }
+
+        private PendingStat drain(String postId) {
+            // sumThenReset 的求和与清零不是原子的，两步之间的累加会被清掉；只减去读到的值，期间的新增留到下一轮
+            long count = views.sum();
+            views.add(-count);
+            byte[] sketch = null;
+            if (dirty) {
+                // 先清除标记再复制草图，复制期间的新变化会在下一轮写入
+                dirty = false;
+                sketch = visitors.toBytes();
+            }
+            return count > 0 || sketch != null ? new PendingStat(postId, this, count, sketch) : null;
+        }
+    }
+
+    /**
+     * 一条待写入的计数
+     */
+    private static class PendingStat {
+        private final String postId;
+        private final ViewCounter counter;
+        private final long views;
+        private final byte[] sketch;
+        private boolean written;
+
+        private PendingStat(String postId, ViewCounter counter, long views, byte[] sketch) {
+            this.postId = postId;
+            this.counter = counter;
+            this.views = views;
+            this.sketch = sketch;
+        }
+
+        private void restore() {
+            counter.views.add(views);
+            if (sketch != null) {
+                counter.dirty = true;
+            }
+        }
+    }
+}
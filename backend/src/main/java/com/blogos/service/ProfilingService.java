@@ -0,0 +1,572 @@
+/**
+ * JFR 性能剖析服务
+ * 启动时开启一个低开销（default 配置）的持续环形记录，只保留最近一段时间的事件，出现问题后可随时转储；
+ * 另可按需开启一次有时长和大小上限的 profile 配置记录，降低锁竞争事件的阈值以捕获短暂的监视器等待。
+ * 记录文件写入剖析目录，可下载后用 JDK Mission Control 打开，也可在服务端汇总 CPU 热点方法、分配热点、锁竞争和 GC 停顿
+ */
+package com.blogos.service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jdk.jfr.Configuration;
+import jdk.jfr.FlightRecorder;
+import jdk.jfr.Recording;
+import jdk.jfr.RecordingState;
+import jdk.jfr.consumer.RecordedClass;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordedStackTrace;
+import jdk.jfr.consumer.RecordingFile;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.file.*;
+import java.text.ParseException;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.*;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+// 服务注解，标记这是一个业务服务类
+@Service
+// 懒加载配置下也在启动时创建，持续记录需要启动
+@Lazy(false)
+public class ProfilingService {
+    private static final Logger logger = LoggerFactory.getLogger(ProfilingService.class);
+
+    // 记录文件名：blogos-时间戳-类型.jfr，同时用于校验下载和汇总请求中的文件名
+    private static final Pattern RECORDING_NAME = Pattern.compile("blogos-\\d{8}-\\d{9}-[a-z]+\\.jfr");
+
+    private static final DateTimeFormatter STAMP = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmssSSS");
+
+    // 本应用代码的包前缀，汇总时单独列出最靠近栈顶的应用帧
+    private static final String APP_PACKAGE = "com.blogos.";
+
+    // 是否启动持续环形记录
+    @Value("${blogos.profiling.continuous.enabled:true}")
+    private boolean continuousEnabled;
+
+    // 持续记录保留的时长（分钟）和大小上限（MB），超出后丢弃最旧的数据块
+    @Value("${blogos.profiling.continuous.max-age-minutes:30}")
+    private long continuousMaxAgeMinutes;
+
+    @Value("${blogos.profiling.continuous.max-size-mb:64}")
+    private long continuousMaxSizeMb;
+
+    // 记录文件目录
+    @Value("${blogos.profiling.dir:./data/profiles}")
+    private String profileDir;
+
+    // 按需记录的最长时长（秒）和大小上限（MB）
+    @Value("${blogos.profiling.max-duration-seconds:600}")
+    private long maxDurationSeconds;
+
+    @Value("${blogos.profiling.max-size-mb:200}")
+    private long maxSizeMb;
+
+    // 按需记录中监视器进入和线程挂起事件的阈值（毫秒），低于 profile 配置默认的 10 毫秒以捕获短暂的锁竞争
+    @Value("${blogos.profiling.lock-threshold-ms:1}")
+    private long lockThresholdMs;
+
+    // 保留的记录文件数
+    @Value("${blogos.profiling.retain:10}")
+    private int retain;
+
+    private Path dir;
+    private ScheduledExecutorService scheduler;
+    private Recording continuous;
+
+    // 以下状态由 this 锁保护，同一时间只有一次按需记录
+    private Recording session;
+    private String sessionName;
+    private Instant sessionStartedAt;
+    private Instant sessionEndsAt;
+    private ScheduledFuture<?> sessionTimer;
+    private Map<String, Object> lastSession = Map.of();
+
+    @PostConstruct
+    public void init() throws IOException {
+        dir = Paths.get(profileDir).toAbsolutePath().normalize();
+        Files.createDirectories(dir);
+        if (!FlightRecorder.isAvailable()) {
+            logger.warn("Java Flight Recorder is not available in this JVM, profiling endpoints are disabled");
+            return;
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "jfr-session");
+            t.setDaemon(true);
+            return t;
+        });
+        if (continuousEnabled) {
+            try {
+                continuous = new Recording(Configuration.getConfiguration("default"));
+                continuous.setName("blogos-continuous");
+                continuous.setToDisk(true);
+                continuous.setMaxAge(Duration.ofMinutes(continuousMaxAgeMinutes));
+                continuous.setMaxSize(continuousMaxSizeMb * 1024 * 1024);
+                continuous.start();
+                logger.info("Continuous JFR recording started, keeping the last {} minutes (at most {} MB)",
+                        continuousMaxAgeMinutes, continuousMaxSizeMb);
+            } catch (ParseException | RuntimeException e) {
+                logger.warn("Could not start continuous JFR recording", e);
+                continuous = null;
+            }
+        }
+    }
+
+    @PreDestroy
+    public synchronized void shutdown() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+        if (session != null) {
+            session.close();
+            session = null;
+        }
+        if (continuous != null) {
+            continuous.close();
+        }
+    }
+
+    /**
+     * 开始一次按需记录，到时自动停止并写入文件
+     *
+     * @param seconds  记录时长（秒）
+     * @param settings JFR 配置名：profile（默认，开销约 2%）或 default（约 1%）
+     * @return 记录状态
+     * @throws IllegalArgumentException 参数不合法
+     * @throws IllegalStateException    JFR 不可用或已有记录在进行中
+     */
+    public synchronized Map<String, Object> start(long seconds, String settings) throws IOException {
+        requireAvailable();
+        if (seconds < 1 || seconds > maxDurationSeconds) {
+            throw new IllegalArgumentException("记录时长应在 1 到 " + maxDurationSeconds + " 秒之间");
+        }
+        if (!"profile".equals(settings) && !"default".equals(settings)) {
+            throw new IllegalArgumentException("配置只能是 profile 或 default");
+        }
+        if (session != null) {
+            throw new IllegalStateException("已有记录在进行中：" + sessionName);
+        }
+        Map<String, String> values;
+        try {
+            values = new HashMap<>(Configuration.getConfiguration(settings).getSettings());
+        } catch (ParseException e) {
+            throw new IOException(e);
+        }
+        values.put("jdk.JavaMonitorEnter#threshold", lockThresholdMs + " ms");
+        values.put("jdk.ThreadPark#threshold", lockThresholdMs + " ms");
+
+        String name = "blogos-" + LocalDateTime.now().format(STAMP) + "-session.jfr";
+        Recording recording = new Recording(values);
+        recording.setName(name);
+        recording.setToDisk(true);
+        recording.setMaxSize(maxSizeMb * 1024 * 1024);
+        recording.setDestination(dir.resolve(name));
+        recording.start();
+        session = recording;
+        sessionName = name;
+        sessionStartedAt = Instant.now();
+        sessionEndsAt = sessionStartedAt.plusSeconds(seconds);
+        sessionTimer = scheduler.schedule(() -> {
+            try {
+                finishSession(recording);
+            } catch (Exception e) {
+                logger.warn("Failed to finish JFR recording {}", name, e);
+            }
+        }, seconds, TimeUnit.SECONDS);
+        logger.info("Started JFR recording {} for {} s ({} settings)", name, seconds, settings);
+        return getSessionStatus();
+    }
+
+    /**
+     * 提前停止当前的按需记录
+     *
+     * @return 写入的记录文件信息
+     * @throws IllegalStateException 没有进行中的记录
+     */
+    public synchronized RecordingInfo stop() throws IOException {
+        if (session == null) {
+            throw new IllegalStateException("没有进行中的记录");
+        }
+        return finishSession(session);
+    }
+
+    /**
+     * 把持续记录当前保留的数据转储到文件
+     *
+     * @return 记录文件信息
+     * @throws IllegalStateException 持续记录未启用
+     */
+    public synchronized RecordingInfo dump() throws IOException {
+        requireAvailable();
+        if (continuous == null || continuous.getState() != RecordingState.RUNNING) {
+            throw new IllegalStateException("持续记录未启用");
+        }
+        String name = "blogos-" + LocalDateTime.now().format(STAMP) + "-dump.jfr";
+        Path file = dir.resolve(name);
+        long start = System.currentTimeMillis();
+        continuous.dump(file);
+        logger.info("Dumped continuous JFR recording to {} ({} bytes) in {} ms",
+                name, Files.size(file), System.currentTimeMillis() - start);
+        prune();
+        return info(file);
+    }
+
+    /**
+     * 列出已有记录文件，按时间倒序
+     */
+    public List<RecordingInfo> list() throws IOException {
+        List<RecordingInfo> recordings = new ArrayList<>();
+        for (Path file : recordingFiles()) {
+            recordings.add(info(file));
+        }
+        return recordings;
+    }
+
+    /**
+     * 获取记录文件路径
+     *
+     * @throws IllegalArgumentException 文件名不合法
+     * @throws NoSuchFileException      记录不存在或尚未写完
+     */
+    public Path resolve(String name) throws NoSuchFileException {
+        if (name == null || !RECORDING_NAME.matcher(name).matches()) {
+            throw new IllegalArgumentException("无效的记录文件名");
+        }
+        synchronized (this) {
+            if (name.equals(sessionName)) {
+                throw new NoSuchFileException(name);
+            }
+        }
+        Path file = dir.resolve(name);
+        if (!Files.exists(file)) {
+            throw new NoSuchFileException(name);
+        }
+        return file;
+    }
+
+    /**
+     * 获取剖析状态：持续记录、当前按需记录和上次按需记录
+     */
+    public synchronized Map<String, Object> getStatus() {
+        Map<String, Object> status = new LinkedHashMap<>();
+        status.put("available", FlightRecorder.isAvailable());
+        Map<String, Object> ring = new LinkedHashMap<>();
+        ring.put("running", continuous != null && continuous.getState() == RecordingState.RUNNING);
+        ring.put("maxAgeMinutes", continuousMaxAgeMinutes);
+        ring.put("maxSizeMb", continuousMaxSizeMb);
+        if (continuous != null && continuous.getStartTime() != null) {
+            ring.put("startedAt", continuous.getStartTime());
+        }
+        status.put("continuous", ring);
+        status.put("session", getSessionStatus());
+        status.put("lastSession", lastSession);
+        status.put("maxDurationSeconds", maxDurationSeconds);
+        status.put("lockThresholdMs", lockThresholdMs);
+        status.put("dir", dir.toString());
+        return status;
+    }
+
+    /**
+     * 汇总记录文件：CPU 采样最多的栈顶方法和应用方法、分配最多的类型和位置、锁竞争、GC 停顿
+     *
+     * @param name 记录文件名
+     * @param top  每项列出的条数
+     * @return 汇总结果
+     */
+    public Map<String, Object> summarize(String name, int top) throws IOException {
+        Path file = resolve(name);
+        long start = System.currentTimeMillis();
+        Map<String, Long> eventCounts = new TreeMap<>();
+        Counter cpuFrames = new Counter();
+        Counter cpuAppFrames = new Counter();
+        long cpuSamples = 0;
+        Counter allocClasses = new Counter();
+        Counter allocSites = new Counter();
+        long allocBytes = 0;
+        Map<String, long[]> locks = new HashMap<>();
+        Map<String, long[]> gcByName = new TreeMap<>();
+        List<Map<String, Object>> longestPauses = new ArrayList<>();
+        Instant first = null;
+        Instant last = null;
+
+        try (RecordingFile recording = new RecordingFile(file)) {
+            while (recording.hasMoreEvents()) {
+                RecordedEvent event = recording.readEvent();
+                String type = event.getEventType().getName();
+                eventCounts.merge(type, 1L, Long::sum);
+                Instant at = event.getEndTime();
+                if (first == null || at.isBefore(first)) first = at;
+                if (last == null || at.isAfter(last)) last = at;
+                switch (type) {
+                    case "jdk.ExecutionSample" -> {
+                        cpuSamples++;
+                        cpuFrames.add(frame(event.getStackTrace(), false), 1);
+                        cpuAppFrames.add(frame(event.getStackTrace(), true), 1);
+                    }
+                    case "jdk.ObjectAllocationSample" -> {
+                        long weight = event.getLong("weight");
+                        allocBytes += weight;
+                        allocClasses.add(className(event.getClass("objectClass")), weight);
+                        allocSites.add(frame(event.getStackTrace(), true), weight);
+                    }
+                    case "jdk.JavaMonitorEnter", "jdk.ThreadPark" -> {
+                        boolean monitor = type.equals("jdk.JavaMonitorEnter");
+                        RecordedClass target = event.getClass(monitor ? "monitorClass" : "parkedClass");
+                        if (!monitor && !isLock(target)) {
+                            continue;
+                        }
+                        String key = (monitor ? "monitor " : "park ") + className(target)
+                                + " @ " + frame(event.getStackTrace(), true);
+                        long nanos = event.getDuration().toNanos();
+                        long[] stats = locks.computeIfAbsent(key, k -> new long[3]);
+                        stats[0]++;
+                        stats[1] += nanos;
+                        stats[2] = Math.max(stats[2], nanos);
+                    }
+                    case "jdk.GarbageCollection" -> {
+                        long pause = event.getDuration("sumOfPauses").toNanos();
+                        long longest = event.getDuration("longestPause").toNanos();
+                        long[] stats = gcByName.computeIfAbsent(event.getString("name"), k -> new long[3]);
+                        stats[0]++;
+                        stats[1] += pause;
+                        stats[2] = Math.max(stats[2], longest);
+                        Map<String, Object> gc = new LinkedHashMap<>();
+                        gc.put("at", at);
+                        gc.put("name", event.getString("name"));
+                        gc.put("cause", event.getString("cause"));
+                        gc.put("pauseMs", millis(pause));
+                        longestPauses.add(gc);
+                    }
+                    default -> {
+                    }
+                }
+            }
+        }
+
+        Map<String, Object> cpu = new LinkedHashMap<>();
+        cpu.put("samples", cpuSamples);
+        cpu.put("topFrames", cpuFrames.top(top, cpuSamples, "samples"));
+        cpu.put("topApplicationFrames", cpuAppFrames.top(top, cpuSamples, "samples"));
+
+        Map<String, Object> allocation = new LinkedHashMap<>();
+        allocation.put("sampledBytes", allocBytes);
+        allocation.put("topClasses", allocClasses.top(top, allocBytes, "bytes"));
+        allocation.put("topSites", allocSites.top(top, allocBytes, "bytes"));
+
+        List<Map<String, Object>> contention = new ArrayList<>();
+        locks.entrySet().stream()
+                .sorted(Comparator.comparingLong((Map.Entry<String, long[]> e) -> e.getValue()[1]).reversed())
+                .limit(top)
+                .forEach(e -> {
+                    Map<String, Object> item = new LinkedHashMap<>();
+                    item.put("lock", e.getKey());
+                    item.put("events", e.getValue()[0]);
+                    item.put("totalMs", millis(e.getValue()[1]));
+                    item.put("maxMs", millis(e.getValue()[2]));
+                    contention.add(item);
+                });
+
+        Map<String, Object> gc = new LinkedHashMap<>();
+        Map<String, Object> collectors = new LinkedHashMap<>();
+        long gcCount = 0;
+        long gcPause = 0;
+        long gcMax = 0;
+        for (Map.Entry<String, long[]> e : gcByName.entrySet()) {
+            long[] s = e.getValue();
+            collectors.put(e.getKey(), Map.of("count", s[0], "totalPauseMs", millis(s[1]), "maxPauseMs", millis(s[2])));
+            gcCount += s[0];
+            gcPause += s[1];
+            gcMax = Math.max(gcMax, s[2]);
+        }
+        gc.put("count", gcCount);
+        gc.put("totalPauseMs", millis(gcPause));
+        gc.put("maxPauseMs", millis(gcMax));
+        gc.put("collectors", collectors);
+        longestPauses.sort(Comparator.comparingDouble((Map<String, Object> p) -> (Double) p.get("pauseMs")).reversed());
+        gc.put("longestPauses", longestPauses.subList(0, Math.min(top, longestPauses.size())));
+
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("name", name);
+        summary.put("sizeBytes", Files.size(file));
+        summary.put("from", first);
+        summary.put("to", last);
+        summary.put("durationSeconds", first == null ? 0 : Duration.between(first, last).toSeconds());
+        summary.put("cpu", cpu);
+        summary.put("allocation", allocation);
+        summary.put("lockContention", contention);
+        summary.put("gc", gc);
+        summary.put("eventCounts", eventCounts);
+        summary.put("parseMs", System.currentTimeMillis() - start);
+        return summary;
+    }
+
+    private RecordingInfo finishSession(Recording recording) throws IOException {
+        synchronized (this) {
+            if (recording != session) {
+                return null;
+            }
+            if (sessionTimer != null) {
+                sessionTimer.cancel(false);
+            }
+            String name = sessionName;
+            Instant startedAt = sessionStartedAt;
+            session = null;
+            sessionName = null;
+            sessionTimer = null;
+            try {
+                if (recording.getState() == RecordingState.RUNNING) {
+                    recording.stop();
+                }
+            } finally {
+                recording.close();
+            }
+            Path file = dir.resolve(name);
+            RecordingInfo info = info(file);
+            Map<String, Object> stats = new LinkedHashMap<>();
+            stats.put("name", name);
+            stats.put("sizeBytes", info.sizeBytes());
+            stats.put("startedAt", startedAt);
+            stats.put("durationSeconds", Duration.between(startedAt, Instant.now()).toSeconds());
+            lastSession = stats;
+            logger.info("Finished JFR recording {} ({} bytes)", name, info.sizeBytes());
+            prune();
+            return info;
+        }
+    }
+
+    private Map<String, Object> getSessionStatus() {
+        if (session == null) {
+            return Map.of("running", false);
+        }
+        Map<String, Object> status = new LinkedHashMap<>();
+        status.put("running", true);
+        status.put("name", sessionName);
+        status.put("startedAt", sessionStartedAt);
+        status.put("endsAt", sessionEndsAt);
+        return status;
+    }
+
+    private void requireAvailable() {
+        if (scheduler == null) {
+            throw new IllegalStateException("当前 JVM 不支持 Java Flight Recorder");
+        }
+    }
+
+    private void prune() throws IOException {
+        List<Path> files = recordingFiles();
+        for (Path old : files.subList(Math.min(retain, files.size()), files.size())) {
+            Files.deleteIfExists(old);
+            logger.info("Pruned old JFR recording {}", old.getFileName());
+        }
+    }
+
+    /**
+     * 已写完的记录文件，文件名含时间戳，按文件名倒序即按时间倒序
+     */
+    private List<Path> recordingFiles() throws IOException {
+        try (Stream<Path> files = Files.list(dir)) {
+            return files.filter(p -> RECORDING_NAME.matcher(p.getFileName().toString()).matches())
+                    .filter(p -> !p.getFileName().toString().equals(sessionName))
+                    .sorted(Comparator.comparing((Path p) -> p.getFileName().toString()).reversed())
+                    .toList();
+        }
+    }
+
+    private static RecordingInfo info(Path file) throws IOException {
+        return new RecordingInfo(file.getFileName().toString(), Files.size(file),
+                Files.getLastModifiedTime(file).toInstant());
+    }
+
+    /**
+     * 栈顶方法；appOnly 时取最靠近栈顶的应用方法，栈中没有应用方法时取锁和挂起实现之外的第一个方法
+     */
+    private static String frame(RecordedStackTrace stack, boolean appOnly) {
+        if (stack == null || stack.getFrames().isEmpty()) {
+            return "(no stack)";
+        }
+        List<RecordedFrame> frames = stack.getFrames();
+        if (appOnly) {
+            for (RecordedFrame frame : frames) {
+                if (frame.isJavaFrame() && frame.getMethod().getType().getName().startsWith(APP_PACKAGE)) {
+                    return method(frame);
+                }
+            }
+            // 没有应用方法时跳过锁和挂起的实现细节，取调用方
+            for (RecordedFrame frame : frames) {
+                String type = frame.getMethod().getType().getName();
+                if (!type.startsWith("java.util.concurrent.") && !type.startsWith("jdk.internal.")) {
+                    return method(frame);
+                }
+            }
+        }
+        return method(frames.get(0));
+    }
+
+    /**
+     * 线程挂起在锁的同步器上才算锁竞争；在条件变量或 Future 上挂起是线程池空闲或等待结果，不计入
+     */
+    private static boolean isLock(RecordedClass parked) {
+        if (parked == null) {
+            return false;
+        }
+        String name = parked.getName();
+        return name.endsWith("Sync") || name.endsWith("StampedLock");
+    }
+
+    private static String method(RecordedFrame frame) {
+        return frame.getMethod().getType().getName() + "." + frame.getMethod().getName();
+    }
+
+    private static String className(RecordedClass type) {
+        return type == null ? "(unknown)" : type.getName();
+    }
+
+    private static double millis(long nanos) {
+        return Math.round(nanos / 10_000.0) / 100.0;
+    }
+
+    /**
+     * 按键累加权重，取权重最大的若干项
+     */
+    private static final class Counter {
+        private final Map<String, Long> weights = new HashMap<>();
+
+        void add(String key, long weight) {
+            weights.merge(key, weight, Long::sum);
+        }
+
+        List<Map<String, Object>> top(int limit, long total, String unit) {
+            List<Map<String, Object>> result = new ArrayList<>();
+            weights.entrySet().stream()
+                    .sorted(Map.Entry.<String, Long>comparingByValue().reversed())
+                    .limit(limit)
+                    .forEach(e -> {
+                        Map<String, Object> item = new LinkedHashMap<>();
+                        item.put("frame", e.getKey());
+                        item.put(unit, e.getValue());
+                        item.put("percent", total == 0 ? 0.0 : Math.round(e.getValue() * 1000.0 / total) / 10.0);
+                        result.add(item);
+                    });
+            return result;
+        }
+    }
+
+    /**
+     * 记录文件信息
+     */
+    public record RecordingInfo(String name, long sizeBytes, Instant createdAt) {
+    }
+}
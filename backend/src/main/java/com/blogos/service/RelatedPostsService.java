@@ -0,0 +1,725 @@
+/**
+ * 相关文章服务类
+ * 为每篇文章计算标题、摘要和正文的 TF-IDF 向量与标签集合，相似度为向量余弦与标签 Jaccard 系数的加权和；
+ * 借助倒排索引只与共享词项或标签的文章比较，全量重建时在 ForkJoinPool 中并行计算每篇文章的 Top-K 邻居，
+ * 单篇文章变更后只更新它自己以及受影响文章的邻居列表，查询直接从内存返回
+ */
+package com.blogos.service;
+
+import com.blogos.event.ContentChangedEvent;
+import com.blogos.model.Post;
+import com.blogos.model.PostCard;
+import com.blogos.repository.PostRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+// 服务注解，标记这是一个业务服务类
+@Service
+// 懒加载配置下也在启动时创建，启动后即在后台构建索引
+@Lazy(false)
+public class RelatedPostsService {
+    private static final Logger logger = LoggerFactory.getLogger(RelatedPostsService.class);
+
+    // 汉字序列按二元组切分，其余按字母数字单词切分
+    private static final Pattern TOKEN = Pattern.compile("\\p{IsHan}+|[\\p{L}\\p{N}]{2,}");
+    private static final Pattern URL = Pattern.compile("https?://\\S+");
+
+    private static final Set<String> STOP_WORDS = Set.of(
+            "the", "and", "for", "are", "but", "not", "you", "all", "any", "can", "was", "our", "out", "has",
+            "his", "how", "its", "may", "new", "now", "see", "who", "did", "get", "use", "this", "that", "with",
+            "from", "have", "will", "your", "they", "been", "into", "than", "then", "them", "what", "when",
+            "which", "there", "their", "would", "about", "https", "http", "www", "com");
+
+    // 标题、摘要、正文中词项的权重倍数
+    private static final int TITLE_WEIGHT = 3;
+    private static final int EXCERPT_WEIGHT = 2;
+    private static final int CONTENT_WEIGHT = 1;
+
+    // 计算 IDF 前每篇文章保留的高频词项数
+    private static final int MAX_TF_TERMS = 64;
+
+    // 每篇文章向量保留的最高权重词项数
+    private static final int MAX_VECTOR_TERMS = 32;
+
+    // 相似度中文本余弦与标签 Jaccard 的权重
+    private static final float TEXT_WEIGHT = 0.7f;
+    private static final float TAG_WEIGHT = 0.3f;
+
+    // 每篇文章保留的邻居数
+    @Value("${blogos.related.top-k:10}")
+    private int topK;
+
+    // 倒排列表超过该长度的词项或标签区分度太低，不参与候选生成
+    @Value("${blogos.related.max-postings:2000}")
+    private int maxPostings;
+
+    // 全量重建的并行度，0 表示使用全部可用核心
+    @Value("${blogos.related.parallelism:0}")
+    private int defaultParallelism;
+
+    // 自动注入文章仓库
+    @Autowired
+    private PostRepository postRepository;
+
+    // 自动注入文章正文存储
+    @Autowired
+    private PostContentStore contentStore;
+
+    // 自动注入事务管理器，后台线程在只读事务中读取文章
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    // 每篇文章的邻居列表，查询线程直接读取，列表本身不可变
+    private final Map<String, List<Neighbor>> neighbors = new ConcurrentHashMap<>();
+
+    // 每篇文章的卡片，用于返回相关文章的元数据
+    private final Map<String, PostCard> cards = new ConcurrentHashMap<>();
+
+    // 以下索引只由 worker 线程修改（全量重建时在 worker 线程内并行读取）
+    private Index index = new Index(Map.of(), 0);
+
+    // 反向邻居：文章 ID -> 把它列为邻居的文章
+    private final Map<String, Set<String>> reverse = new HashMap<>();
+
+    // 上次全量重建后的增量更新次数，超过阈值时重新计算 IDF
+    private int updatesSinceRebuild;
+
+    // 上次全量重建的统计
+    private volatile Map<String, Object> lastRebuild = Map.of();
+
+    private ExecutorService worker;
+    private TransactionTemplate readOnlyTx;
+
+    @PostConstruct
+    public void init() {
+        readOnlyTx = new TransactionTemplate(transactionManager);
+        readOnlyTx.setReadOnly(true);
+        worker = Executors.newSingleThreadExecutor(r -> {
+            Thread t = new Thread(r, "related-posts-worker");
+            t.setDaemon(true);
+            return t;
+        });
+        // 启动时在后台全量构建一次
+        worker.submit(() -> rebuildSafely(defaultParallelism));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (worker != null) {
+            worker.shutdownNow();
+        }
+    }
+
+    /**
+     * 获取文章的相关文章
+     *
+     * @param postId 文章 ID
+     * @param limit  最多返回的篇数
+     * @return 按相似度降序排列的相关文章
+     */
+    public List<RelatedPost> getRelated(String postId, int limit) {
+        List<RelatedPost> result = new ArrayList<>();
+        for (Neighbor neighbor : neighbors.getOrDefault(postId, List.of())) {
+            PostCard card = cards.get(neighbor.postId());
+            if (card != null) {
+                result.add(new RelatedPost(card, Math.round(neighbor.score() * 1000) / 1000.0));
+            }
+            if (result.size() >= limit) {
+                break;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 以指定并行度全量重建索引并等待完成
+     *
+     * @param parallelism 并行度，0 表示使用全部可用核心
+     * @return 重建统计，包括各阶段耗时
+     */
+    public Map<String, Object> rebuild(int parallelism) throws InterruptedException, ExecutionException {
+        return worker.submit(() -> rebuildSafely(parallelism)).get();
+    }
+
+    /**
+     * 获取上次全量重建的统计
+     */
+    public Map<String, Object> getLastRebuild() {
+        return lastRebuild;
+    }
+
+    /**
+     * 监听内容变更事件，在事务提交后交给 worker 线程增量更新
+     *
+     * @param event 内容变更事件
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onContentChanged(ContentChangedEvent event) {
+        switch (event.getType()) {
+            case POST_SAVED -> worker.submit(() -> guarded(() -> update(event.getPostId())));
+            case POST_DELETED -> worker.submit(() -> guarded(() -> remove(event.getPostId())));
+            case DATA_IMPORTED -> worker.submit(() -> rebuildSafely(defaultParallelism));
+            default -> {
+                // 评论、点赞和配置不影响相关文章
+            }
+        }
+    }
+
+    // --- 全量重建 ---
+
+    private Map<String, Object> rebuildSafely(int parallelism) {
+        try {
+            return rebuildNow(parallelism);
+        } catch (Exception e) {
+            logger.error("Failed to rebuild related posts index", e);
+            return Map.of("error", String.valueOf(e.getMessage()));
+        }
+    }
+
+    private Map<String, Object> rebuildNow(int parallelism) throws InterruptedException, ExecutionException {
+        // 管理端点传入的并行度不超过可用核心数，避免一次请求创建大量线程
+        int cores = Runtime.getRuntime().availableProcessors();
+        int threads = parallelism > 0 ? Math.min(parallelism, cores) : cores;
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        try {
+            long start = System.currentTimeMillis();
+
+            // 1. 流式读取文章卡片、标签和正文，分批并行分词，统计文档频率
+            Map<String, PostCard> newCards = new HashMap<>();
+            Map<String, List<String>> tags = new HashMap<>();
+            readOnlyTx.executeWithoutResult(status -> {
+                try (Stream<PostCard> stream = postRepository.streamCards()) {
+                    stream.forEach(card -> newCards.put(card.id(), card));
+                }
+                try (Stream<Object[]> stream = postRepository.streamTags()) {
+                    stream.forEach(row -> tags.computeIfAbsent((String) row[0], k -> new ArrayList<>())
+                            .add(((String) row[1]).toLowerCase(Locale.ROOT)));
+                }
+            });
+            Map<String, TermCounts> termFrequencies = new HashMap<>();
+            Map<String, TermStat> documentFrequency = new HashMap<>();
+            List<String[]> batch = new ArrayList<>();
+            Set<String> withContent = new HashSet<>();
+            contentStore.forEachContent((postId, content) -> {
+                if (newCards.containsKey(postId) && withContent.add(postId)) {
+                    batch.add(new String[]{postId, content});
+                    if (batch.size() == 500) {
+                        tokenizeBatch(pool, batch, newCards, termFrequencies, documentFrequency);
+                    }
+                }
+            });
+            // 没有正文的文章只按标题和摘要分词
+            newCards.keySet().stream().filter(id -> !withContent.contains(id)).forEach(id -> batch.add(new String[]{id, ""}));
+            tokenizeBatch(pool, batch, newCards, termFrequencies, documentFrequency);
+            long tokenized = System.currentTimeMillis();
+
+            // 2. 并行计算 TF-IDF 向量并建立倒排索引
+            int total = newCards.size();
+            Map<String, Float> idf = new HashMap<>(documentFrequency.size() * 2);
+            documentFrequency.forEach((term, stat) -> idf.put(term, (float) Math.log(1.0 + (double) total / stat.df)));
+            documentFrequency.clear();
+            Index newIndex = new Index(idf, total);
+            List<Doc> docs = pool.submit(() -> termFrequencies.entrySet().parallelStream()
+                    .map(e -> newIndex.vectorize(e.getKey(), e.getValue(), tags.getOrDefault(e.getKey(), List.of())))
+                    .toList()).get();
+            docs.forEach(newIndex::add);
+            long indexed = System.currentTimeMillis();
+
+            // 3. 并行计算每篇文章的 Top-K 邻居
+            Map<String, List<Neighbor>> newNeighbors = new ConcurrentHashMap<>();
+            pool.submit(() -> docs.parallelStream()
+                    .forEach(doc -> newNeighbors.put(doc.postId, newIndex.topK(doc, topK, null)))).get();
+            long ranked = System.currentTimeMillis();
+
+            index = newIndex;
+            reverse.clear();
+            newNeighbors.forEach((id, list) -> list.forEach(n -> reverse.computeIfAbsent(n.postId(), k -> new HashSet<>()).add(id)));
+            cards.keySet().retainAll(newCards.keySet());
+            cards.putAll(newCards);
+            neighbors.keySet().retainAll(newNeighbors.keySet());
+            neighbors.putAll(newNeighbors);
+            updatesSinceRebuild = 0;
+
+            Map<String, Object> stats = new LinkedHashMap<>();
+            stats.put("posts", total);
+            stats.put("terms", idf.size());
+            stats.put("parallelism", threads);
+            stats.put("tokenizeMs", tokenized - start);
+            stats.put("vectorizeMs", indexed - tokenized);
+            stats.put("rankMs", ranked - indexed);
+            stats.put("totalMs", ranked - start);
+            lastRebuild = stats;
+            logger.info("Rebuilt related posts index: {}", stats);
+            return stats;
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    private void tokenizeBatch(ForkJoinPool pool, List<String[]> batch, Map<String, PostCard> cardsById,
+                               Map<String, TermCounts> termFrequencies, Map<String, TermStat> documentFrequency) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        try {
+            List<Map.Entry<String, Map<String, Integer>>> results = pool.submit(() -> batch.parallelStream()
+                    .map(row -> Map.entry(row[0], termFrequency(cardsById.get(row[0]), row[1])))
+                    .toList()).get();
+            for (Map.Entry<String, Map<String, Integer>> result : results) {
+                for (String term : result.getValue().keySet()) {
+                    documentFrequency.computeIfAbsent(term, TermStat::new).df++;
+                }
+                // 保留的词项改用词典中的同一个字符串实例，避免每篇文章各持一份副本
+                TermCounts pruned = prune(result.getValue());
+                for (int i = 0; i < pruned.terms().length; i++) {
+                    pruned.terms()[i] = documentFrequency.get(pruned.terms()[i]).term;
+                }
+                termFrequencies.put(result.getKey(), pruned);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException(e.getCause());
+        }
+        batch.clear();
+    }
+
+    // --- 增量更新 ---
+
+    private void update(String postId) {
+        Optional<Object[]> loaded = Optional.ofNullable(readOnlyTx.execute(status -> postRepository.findCard(postId)
+                .map(card -> {
+                    List<String> postTags = postRepository.findById(postId).map(Post::getTags).orElse(List.of())
+                            .stream().map(tag -> tag.toLowerCase(Locale.ROOT)).toList();
+                    return new Object[]{card, postTags};
+                }).orElse(null)));
+        if (loaded.isEmpty()) {
+            remove(postId);
+            return;
+        }
+        PostCard card = (PostCard) loaded.get()[0];
+        @SuppressWarnings("unchecked")
+        List<String> postTags = (List<String>) loaded.get()[1];
+        Doc doc = index.vectorize(postId, prune(termFrequency(card, contentStore.load(postId))), postTags);
+
+        Set<String> previousReferrers = detach(postId);
+        cards.put(postId, card);
+        index.add(doc);
+
+        // 相似度是对称的：一次查询同时得到本文的邻居，以及本文在其他文章列表中应得的分数
+        Map<String, Float> scores = new HashMap<>();
+        setNeighbors(postId, index.topK(doc, topK, scores));
+        scores.forEach((otherId, score) -> {
+            List<Neighbor> list = neighbors.getOrDefault(otherId, List.of());
+            if (list.size() < topK || score > list.get(list.size() - 1).score()) {
+                List<Neighbor> updated = new ArrayList<>(list);
+                updated.add(new Neighbor(postId, score));
+                updated.sort(Neighbor.BY_SCORE_DESC);
+                setNeighbors(otherId, List.copyOf(updated.subList(0, Math.min(topK, updated.size()))));
+            }
+        });
+        // 原先引用本文但这次没有重新收录它的文章，空出的位置需要重新计算
+        previousReferrers.stream()
+                .filter(id -> !reverse.getOrDefault(postId, Set.of()).contains(id))
+                .forEach(this::recompute);
+        maybeScheduleRebuild();
+    }
+
+    private void remove(String postId) {
+        cards.remove(postId);
+        detach(postId).forEach(this::recompute);
+        maybeScheduleRebuild();
+    }
+
+    /**
+     * 从索引中移除文章及其邻居列表，并从引用它的文章列表中删除它
+     *
+     * @return 原先把该文章列为邻居的文章
+     */
+    private Set<String> detach(String postId) {
+        index.remove(postId);
+        setNeighbors(postId, List.of());
+        neighbors.remove(postId);
+        Set<String> referrers = reverse.remove(postId);
+        if (referrers == null) {
+            return Set.of();
+        }
+        for (String referrer : referrers) {
+            List<Neighbor> list = neighbors.get(referrer);
+            if (list != null) {
+                neighbors.put(referrer, list.stream().filter(n -> !n.postId().equals(postId)).toList());
+            }
+        }
+        return referrers;
+    }
+
+    private void recompute(String postId) {
+        Doc doc = index.get(postId);
+        if (doc != null) {
+            setNeighbors(postId, index.topK(doc, topK, null));
+        }
+    }
+
+    private void setNeighbors(String postId, List<Neighbor> list) {
+        for (Neighbor old : neighbors.getOrDefault(postId, List.of())) {
+            Set<String> referrers = reverse.get(old.postId());
+            if (referrers != null) {
+                referrers.remove(postId);
+            }
+        }
+        for (Neighbor neighbor : list) {
+            reverse.computeIfAbsent(neighbor.postId(), k -> new HashSet<>()).add(postId);
+        }
+        neighbors.put(postId, list);
+    }
+
+    private void maybeScheduleRebuild() {
+        // 增量更新沿用上次重建时的 IDF，累计变更较多时重新计算
+        if (++updatesSinceRebuild > Math.max(100, index.corpusSize / 10)) {
+            updatesSinceRebuild = 0;
+            worker.submit(() -> rebuildSafely(defaultParallelism));
+        }
+    }
+
+    private void guarded(Runnable task) {
+        try {
+            task.run();
+        } catch (Exception e) {
+            logger.error("Failed to update related posts index", e);
+        }
+    }
+
+    // --- 分词与向量 ---
+
+    private static Map<String, Integer> termFrequency(PostCard card, String content) {
+        Map<String, Integer> tf = new HashMap<>();
+        tokenize(card.title(), TITLE_WEIGHT, tf);
+        tokenize(card.excerpt(), EXCERPT_WEIGHT, tf);
+        tokenize(content, CONTENT_WEIGHT, tf);
+        return tf;
+    }
+
+    private static void tokenize(String text, int weight, Map<String, Integer> tf) {
+        if (text == null || text.isEmpty()) {
+            return;
+        }
+        Matcher matcher = TOKEN.matcher(URL.matcher(text).replaceAll(" "));
+        while (matcher.find()) {
+            String token = matcher.group();
+            if (Character.UnicodeScript.of(token.codePointAt(0)) == Character.UnicodeScript.HAN) {
+                if (token.length() == 1) {
+                    tf.merge(token, weight, Integer::sum);
+                }
+                for (int i = 0; i + 1 < token.length(); i++) {
+                    tf.merge(token.substring(i, i + 2), weight, Integer::sum);
+                }
+            } else {
+                String word = token.toLowerCase(Locale.ROOT);
+                if (!STOP_WORDS.contains(word)) {
+                    tf.merge(word, weight, Integer::sum);
+                }
+            }
+        }
+    }
+
+    private static TermCounts prune(Map<String, Integer> tf) {
+        List<Map.Entry<String, Integer>> entries = tf.entrySet().stream()
+                .sorted(Map.Entry.<String, Integer>comparingByValue().reversed())
+                .limit(MAX_TF_TERMS)
+                .toList();
+        String[] terms = new String[entries.size()];
+        int[] counts = new int[entries.size()];
+        for (int i = 0; i < terms.length; i++) {
+            terms[i] = entries.get(i).getKey();
+            counts[i] = entries.get(i).getValue();
+        }
+        return new TermCounts(terms, counts);
+    }
+
+    /**
+     * 一篇文章保留的词项及其加权词频
+     */
+    private record TermCounts(String[] terms, int[] counts) {
+    }
+
+    /**
+     * 词典项：全量重建时统计的文档频率
+     */
+    private static final class TermStat {
+        private final String term;
+        private int df;
+
+        private TermStat(String term) {
+            this.term = term;
+        }
+    }
+
+    /**
+     * 文章向量：按权重保留的词项及 L2 归一化后的权重，以及标签集合
+     */
+    private static final class Doc {
+        private final String postId;
+        private final String[] terms;
+        private final float[] weights;
+        private final String[] tags;
+
+        private Doc(String postId, String[] terms, float[] weights, String[] tags) {
+            this.postId = postId;
+            this.terms = terms;
+            this.weights = weights;
+            this.tags = tags;
+        }
+    }
+
+    /**
+     * 倒排索引：词项和标签到文章槽位的倒排列表；删除或更新文章时同时从倒排中剔除旧槽位，空出的槽位留给后续新增的文章
+     */
+    private final class Index {
+        private final Map<String, Float> idf;
+        private final int corpusSize;
+        private final float unseenIdf;
+        private final List<Doc> slots = new ArrayList<>();
+        private final Map<String, Integer> slotById = new HashMap<>();
+        private final Map<String, Postings> termPostings = new HashMap<>();
+        private final Map<String, Postings> tagPostings = new HashMap<>();
+        // 已删除文章空出的槽位
+        private final Deque<Integer> freeSlots = new ArrayDeque<>();
+
+        // 每个线程复用的得分累加器，全量重建时各 ForkJoin 工作线程各持一份
+        private final ThreadLocal<Accumulator> accumulators = ThreadLocal.withInitial(Accumulator::new);
+
+        private Index(Map<String, Float> idf, int corpusSize) {
+            this.idf = idf;
+            this.corpusSize = corpusSize;
+            this.unseenIdf = (float) Math.log(1.0 + Math.max(1, corpusSize));
+        }
+
+        private Doc vectorize(String postId, TermCounts tf, List<String> tags) {
+            List<Map.Entry<String, Float>> weighted = new ArrayList<>(tf.terms().length);
+            for (int i = 0; i < tf.terms().length; i++) {
+                weighted.add(Map.entry(tf.terms()[i],
+                        (float) (1 + Math.log(tf.counts()[i])) * idf.getOrDefault(tf.terms()[i], unseenIdf)));
+            }
+            weighted.sort(Map.Entry.<String, Float>comparingByValue().reversed());
+            int n = Math.min(MAX_VECTOR_TERMS, weighted.size());
+            String[] terms = new String[n];
+            float[] weights = new float[n];
+            double norm = 0;
+            for (int i = 0; i < n; i++) {
+                terms[i] = weighted.get(i).getKey();
+                weights[i] = weighted.get(i).getValue();
+                norm += weights[i] * weights[i];
+            }
+            float scale = norm == 0 ? 0 : (float) (1 / Math.sqrt(norm));
+            for (int i = 0; i < n; i++) {
+                weights[i] *= scale;
+            }
+            return new Doc(postId, terms, weights, new LinkedHashSet<>(tags).toArray(String[]::new));
+        }
+
+        private void add(Doc doc) {
+            Integer free = freeSlots.poll();
+            int slot;
+            if (free != null) {
+                slot = free;
+                slots.set(slot, doc);
+            } else {
+                slot = slots.size();
+                slots.add(doc);
+            }
+            slotById.put(doc.postId, slot);
+            for (int i = 0; i < doc.terms.length; i++) {
+                termPostings.computeIfAbsent(doc.terms[i], k -> new Postings()).add(slot, doc.weights[i]);
+            }
+            for (String tag : doc.tags) {
+                tagPostings.computeIfAbsent(tag, k -> new Postings()).add(slot, 1f);
+            }
+        }
+
+        private void remove(String postId) {
+            Integer slot = slotById.remove(postId);
+            if (slot == null) {
+                return;
+            }
+            // 只清空槽位的话，反复编辑同一篇文章会让倒排列表不断积累失效项，查询变慢，也更容易超过 maxPostings 被跳过
+            Doc doc = slots.set(slot, null);
+            for (String term : doc.terms) {
+                prune(termPostings, term, slot);
+            }
+            for (String tag : doc.tags) {
+                prune(tagPostings, tag, slot);
+            }
+            freeSlots.push(slot);
+        }
+
+        private void prune(Map<String, Postings> postingsByKey, String key, int slot) {
+            Postings postings = postingsByKey.get(key);
+            if (postings != null && postings.remove(slot) && postings.size == 0) {
+                postingsByKey.remove(key);
+            }
+        }
+
+        private Doc get(String postId) {
+            Integer slot = slotById.get(postId);
+            return slot == null ? null : slots.get(slot);
+        }
+
+        /**
+         * 通过倒排列表累加候选文章的相似度，返回得分最高的 k 篇
+         *
+         * @param scores 非 null 时收集所有正分候选的得分
+         */
+        private List<Neighbor> topK(Doc doc, int k, Map<String, Float> scores) {
+            Accumulator acc = accumulators.get();
+            acc.reset(slots.size());
+            for (int i = 0; i < doc.terms.length; i++) {
+                Postings postings = termPostings.get(doc.terms[i]);
+                if (postings == null || postings.size > maxPostings) {
+                    continue;
+                }
+                float w = doc.weights[i];
+                for (int j = 0; j < postings.size; j++) {
+                    acc.text[acc.touch(postings.slots[j])] += w * postings.weights[j];
+                }
+            }
+            for (String tag : doc.tags) {
+                Postings postings = tagPostings.get(tag);
+                if (postings == null || postings.size > maxPostings) {
+                    continue;
+                }
+                for (int j = 0; j < postings.size; j++) {
+                    acc.tags[acc.touch(postings.slots[j])] += 1;
+                }
+            }
+
+            PriorityQueue<Neighbor> heap = new PriorityQueue<>(k + 1, Neighbor.BY_SCORE_DESC.reversed());
+            for (int t = 0; t < acc.touchedCount; t++) {
+                int slot = acc.touched[t];
+                Doc other = slots.get(slot);
+                if (other == null || other == doc) {
+                    continue;
+                }
+                float shared = acc.tags[slot];
+                float jaccard = shared == 0 ? 0 : shared / (doc.tags.length + other.tags.length - shared);
+                float score = TEXT_WEIGHT * Math.min(1f, acc.text[slot]) + TAG_WEIGHT * jaccard;
+                if (score <= 0) {
+                    continue;
+                }
+                if (scores != null) {
+                    scores.put(other.postId, score);
+                }
+                heap.add(new Neighbor(other.postId, score));
+                if (heap.size() > k) {
+                    heap.poll();
+                }
+            }
+            List<Neighbor> result = new ArrayList<>(heap);
+            result.sort(Neighbor.BY_SCORE_DESC);
+            return List.copyOf(result);
+        }
+    }
+
+    /**
+     * 得分累加器：按槽位存放文本与标签得分，只清理本次触及的槽位
+     */
+    private static final class Accumulator {
+        private float[] text = new float[0];
+        private float[] tags = new float[0];
+        private boolean[] seen = new boolean[0];
+        private int[] touched = new int[64];
+        private int touchedCount;
+
+        private void reset(int capacity) {
+            for (int i = 0; i < touchedCount; i++) {
+                int slot = touched[i];
+                text[slot] = 0;
+                tags[slot] = 0;
+                seen[slot] = false;
+            }
+            touchedCount = 0;
+            if (text.length < capacity) {
+                int size = Math.max(capacity, text.length * 2);
+                text = Arrays.copyOf(text, size);
+                tags = Arrays.copyOf(tags, size);
+                seen = Arrays.copyOf(seen, size);
+            }
+        }
+
+        private int touch(int slot) {
+            if (!seen[slot]) {
+                seen[slot] = true;
+                if (touchedCount == touched.length) {
+                    touched = Arrays.copyOf(touched, touchedCount * 2);
+                }
+                touched[touchedCount++] = slot;
+            }
+            return slot;
+        }
+    }
+
+    /**
+     * 倒排列表：可增长的槽位与权重数组
+     */
+    private static final class Postings {
+        private int[] slots = new int[4];
+        private float[] weights = new float[4];
+        private int size;
+
+        private void add(int slot, float weight) {
+            if (size == slots.length) {
+                slots = Arrays.copyOf(slots, size * 2);
+                weights = Arrays.copyOf(weights, size * 2);
+            }
+            slots[size] = slot;
+            weights[size] = weight;
+            size++;
+        }
+
+        /**
+         * 删除槽位，用最后一项填补空位，得分累加与顺序无关
+         *
+         * @return 是否找到并删除
+         */
+        private boolean remove(int slot) {
+            for (int i = 0; i < size; i++) {
+                if (slots[i] == slot) {
+                    size--;
+                    slots[i] = slots[size];
+                    weights[i] = weights[size];
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    /**
+     * 邻居：文章 ID 与相似度
+     */
+    public record Neighbor(String postId, float score) {
+        static final Comparator<Neighbor> BY_SCORE_DESC = Comparator.comparingDouble(Neighbor::score).reversed()
+                .thenComparing(Neighbor::postId);
+    }
+
+    /**
+     * 相关文章：文章卡片与相似度
+     */
+    public record RelatedPost(PostCard post, double score) {
+    }
+}
@@ -0,0 +1,643 @@
+/**
+ * 日程索引服务
+ * 每个日程（重复日程为整个系列）按 [首次开始, 最后一次结束) 的时间区间放入内存中的区间树：按开始时间排序的 treap，
+ * 每个节点记录子树内最大的结束时间。范围和冲突查询先在 O(log n + k) 内找出与窗口相交的系列，再只在窗口内展开具体的发生时间，
+ * 不再下载和遍历全部日程；日程保存和删除后在事务提交时增量更新索引，批量导入后重建
+ */
+package com.blogos.service;
+
+import com.blogos.event.ContentChangedEvent;
+import com.blogos.model.Schedule;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.BeanPropertyRowMapper;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.YearMonth;
+import java.time.format.DateTimeParseException;
+import java.util.*;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Consumer;
+import java.util.function.LongConsumer;
+
+// 服务注解，标记这是一个业务服务类
+@Service
+public class ScheduleIndexService {
+    private static final Logger logger = LoggerFactory.getLogger(ScheduleIndexService.class);
+
+    // 冲突查询最多返回的条数
+    public static final int MAX_CONFLICTS = 200;
+
+    // 即将到来的日程依次尝试的查询窗口（天）
+    private static final int[] UPCOMING_WINDOWS = {7, 31, 366};
+
+    private static final int MINUTES_PER_DAY = 1440;
+
+    private static final List<String> WEEKDAYS = List.of("MO", "TU", "WE", "TH", "FR", "SA", "SU");
+
+    private static final Comparator<Occurrence> ORDER = Comparator.comparing(Occurrence::date)
+            .thenComparing(o -> o.time() == null ? "" : o.time())
+            .thenComparing(Occurrence::scheduleId);
+
+    private static final String SELECT_SCHEDULES = "SELECT id, title, time, date, description, duration, recurrence, "
+            + "recurrence_interval, recurrence_days, recurrence_until, exception_dates FROM schedules";
+
+    /**
+     * 重复规则
+     */
+    private enum Rule {
+        NONE, DAILY, WEEKLY, MONTHLY
+    }
+
+    // 未设置时长的日程的默认分钟数
+    @Value("${blogos.schedules.default-duration-minutes:60}")
+    private int defaultDuration;
+
+    // 单次范围查询最多跨越的天数
+    @Value("${blogos.schedules.max-window-days:366}")
+    private int maxWindowDays;
+
+    // 自动注入 JdbcTemplate，用于首次构建时读取全部日程
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    // 自动注入事务管理器，构建需要在只读事务中执行
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    // 以下状态均由 this 锁保护
+
+    // 是否已完成首次构建
+    private boolean initialized;
+
+    // 日程 ID 到已索引的系列，用于增量更新时找到旧区间
+    private final Map<String, Series> byId = new HashMap<>();
+
+    private final IntervalTree tree = new IntervalTree();
+
+    private TransactionTemplate readOnlyTx;
+
+    @PostConstruct
+    public void init() {
+        readOnlyTx = new TransactionTemplate(transactionManager);
+        readOnlyTx.setReadOnly(true);
+    }
+
+    /**
+     * 校验日程的日期、时间、时长和重复规则
+     *
+     * @throws IllegalArgumentException 任一字段格式不正确
+     */
+    public void validate(Schedule schedule) {
+        parse(schedule);
+    }
+
+    /**
+     * 获取日期范围内发生的日程，重复日程按规则展开为各次发生
+     *
+     * @param from 起始日期（yyyy-MM-dd，含）
+     * @param to   结束日期（yyyy-MM-dd，含）
+     * @return 按日期和时间排序的各次发生
+     */
+    public List<Occurrence> getOccurrences(String from, String to) {
+        long fromDay = parseDay(from);
+        long toDay = parseDay(to);
+        if (toDay < fromDay) {
+            throw new IllegalArgumentException("结束日期不能早于起始日期");
+        }
+        if (toDay - fromDay + 1 > maxWindowDays) {
+            throw new IllegalArgumentException("查询范围最多 " + maxWindowDays + " 天");
+        }
+        return occurrences(fromDay * MINUTES_PER_DAY, (toDay + 1) * MINUTES_PER_DAY);
+    }
+
+    /**
+     * 获取从指定日期起最近的若干次发生，依次放大查询窗口直到取够或超过一年
+     *
+     * @param fromDay 起始日期（yyyy-MM-dd，含）
+     * @param count   条数
+     */
+    public List<Occurrence> getUpcoming(String fromDay, int count) {
+        long day = parseDay(fromDay);
+        List<Occurrence> found = List.of();
+        for (int days : UPCOMING_WINDOWS) {
+            found = occurrences(day * MINUTES_PER_DAY, (day + days) * MINUTES_PER_DAY);
+            if (found.size() >= count) {
+                break;
+            }
+        }
+        return found.size() > count ? new ArrayList<>(found.subList(0, count)) : found;
+    }
+
+    /**
+     * 查找与给定日程时间重叠的已有日程；给定日程是重复日程时检查其在 horizonDays 天内的每次发生
+     *
+     * @param candidate   待检查的日程，ID 与已有日程相同时（编辑）不与自身比较
+     * @param horizonDays 从首次日期起检查的天数
+     * @return 给定日程的发生与之重叠的已有日程的发生，最多 MAX_CONFLICTS 条
+     */
+    public List<Conflict> findConflicts(Schedule candidate, int horizonDays) {
+        Series series = parse(candidate);
+        int days = Math.max(1, Math.min(horizonDays, maxWindowDays));
+        List<Long> starts = new ArrayList<>();
+        expand(series, series.startDay * MINUTES_PER_DAY, (series.startDay + days) * MINUTES_PER_DAY, starts::add);
+
+        List<Conflict> conflicts = new ArrayList<>();
+        synchronized (this) {
+            ensureInitialized();
+            for (long start : starts) {
+                long end = start + series.duration;
+                Occurrence occurrence = series.occurrence(start);
+                tree.query(start, end, other -> {
+                    if (!other.id.equals(series.id)) {
+                        expand(other, start, end, otherStart -> {
+                            if (conflicts.size() < MAX_CONFLICTS) {
+                                conflicts.add(new Conflict(occurrence, other.occurrence(otherStart)));
+                            }
+                        });
+                    }
+                });
+                if (conflicts.size() >= MAX_CONFLICTS) {
+                    break;
+                }
+            }
+        }
+        return conflicts;
+    }
+
+    /**
+     * 获取索引状态（用于管理端点）
+     */
+    public synchronized Map<String, Object> getStatus() {
+        Map<String, Object> status = new LinkedHashMap<>();
+        status.put("initialized", initialized);
+        status.put("series", byId.size());
+        status.put("recurring", byId.values().stream().filter(s -> s.rule != Rule.NONE).count());
+        status.put("treeHeight", tree.height());
+        return status;
+    }
+
+    /**
+     * 监听内容变更事件，在事务提交后增量更新索引
+     *
+     * @param event 内容变更事件
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onContentChanged(ContentChangedEvent event) {
+        if (!initialized) {
+            return;
+        }
+        switch (event.getType()) {
+            case SCHEDULES_CHANGED -> {
+                if (event.getPayload() instanceof ScheduleChange change) {
+                    change.removedIds().forEach(this::remove);
+                    change.saved().forEach(this::put);
+                } else {
+                    initialized = false;
+                }
+            }
+            case DATA_IMPORTED -> initialized = false;
+            default -> {
+                // 其他变更不影响日程
+            }
+        }
+    }
+
+    private List<Occurrence> occurrences(long lo, long hi) {
+        List<Occurrence> result = new ArrayList<>();
+        synchronized (this) {
+            ensureInitialized();
+            tree.query(lo, hi, series -> expand(series, lo, hi, start -> result.add(series.occurrence(start))));
+        }
+        result.sort(ORDER);
+        return result;
+    }
+
+    private void ensureInitialized() {
+        if (initialized) {
+            return;
+        }
+        long start = System.currentTimeMillis();
+        byId.clear();
+        tree.clear();
+        BeanPropertyRowMapper<Schedule> mapper = new BeanPropertyRowMapper<>(Schedule.class);
+        readOnlyTx.executeWithoutResult(status -> jdbcTemplate.query(SELECT_SCHEDULES,
+                rs -> {
+                    put(mapper.mapRow(rs, rs.getRow()));
+                }));
+        initialized = true;
+        logger.info("Built schedule index over {} series in {} ms (height {})", byId.size(),
+                System.currentTimeMillis() - start, tree.height());
+    }
+
+    private void put(Schedule schedule) {
+        remove(schedule.getId());
+        Series series;
+        try {
+            series = parse(schedule);
+        } catch (IllegalArgumentException e) {
+            logger.warn("Skipping schedule {} in index: {}", schedule.getId(), e.getMessage());
+            return;
+        }
+        byId.put(series.id, series);
+        tree.insert(series);
+    }
+
+    private void remove(String id) {
+        Series previous = byId.remove(id);
+        if (previous != null) {
+            tree.remove(previous);
+        }
+    }
+
+    /**
+     * 解析日程为可展开的系列
+     */
+    private Series parse(Schedule schedule) {
+        long startDay = parseDay(schedule.getDate());
+        String time = null;
+        int minute = 0;
+        if (schedule.getTime() != null && !schedule.getTime().isBlank()) {
+            try {
+                LocalTime parsed = LocalTime.parse(schedule.getTime().trim());
+                time = parsed.toString();
+                minute = parsed.getHour() * 60 + parsed.getMinute();
+            } catch (DateTimeParseException e) {
+                throw new IllegalArgumentException("时间格式不正确，应为 HH:mm");
+            }
+        }
+        int duration = time == null ? MINUTES_PER_DAY : defaultDuration;
+        if (schedule.getDuration() != null) {
+            if (schedule.getDuration() <= 0 || schedule.getDuration() > 7 * MINUTES_PER_DAY) {
+                throw new IllegalArgumentException("时长应在 1 到 " + 7 * MINUTES_PER_DAY + " 分钟之间");
+            }
+            duration = schedule.getDuration();
+        }
+
+        Rule rule = Rule.NONE;
+        String recurrence = schedule.getRecurrence();
+        if (recurrence != null && !recurrence.isBlank() && !"none".equalsIgnoreCase(recurrence.trim())) {
+            try {
+                rule = Rule.valueOf(recurrence.trim().toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("不支持的重复规则：" + recurrence);
+            }
+        }
+        int interval = schedule.getRecurrenceInterval() == null ? 1 : schedule.getRecurrenceInterval();
+        if (interval < 1 || interval > 1000) {
+            throw new IllegalArgumentException("重复间隔应在 1 到 1000 之间");
+        }
+
+        int weekdays = 0;
+        if (rule == Rule.WEEKLY) {
+            String days = schedule.getRecurrenceDays();
+            if (days == null || days.isBlank()) {
+                weekdays = 1 << dayOfWeek(startDay);
+            } else {
+                for (String day : days.split(",")) {
+                    int index = WEEKDAYS.indexOf(day.trim().toUpperCase(Locale.ROOT));
+                    if (index < 0) {
+                        throw new IllegalArgumentException("星期应为 MO、TU、WE、TH、FR、SA、SU，以逗号分隔");
+                    }
+                    weekdays |= 1 << index;
+                }
+            }
+        }
+
+        long untilDay = startDay;
+        if (rule != Rule.NONE) {
+            untilDay = Long.MAX_VALUE;
+            if (schedule.getRecurrenceUntil() != null && !schedule.getRecurrenceUntil().isBlank()) {
+                untilDay = parseDay(schedule.getRecurrenceUntil());
+                if (untilDay < startDay) {
+                    throw new IllegalArgumentException("重复截止日期不能早于首次日期");
+                }
+            }
+        }
+
+        Set<Long> exceptions = new HashSet<>();
+        if (schedule.getExceptionDates() != null) {
+            for (String date : schedule.getExceptionDates().split(",")) {
+                if (!date.isBlank()) {
+                    exceptions.add(parseDay(date.trim()));
+                }
+            }
+        }
+
+        return new Series(schedule.getId(), schedule.getTitle(), schedule.getDescription(), time, startDay, minute,
+                duration, rule, interval, weekdays, untilDay, exceptions);
+    }
+
+    /**
+     * 在 [lo, hi) 分钟窗口内展开系列，按时间顺序给出与窗口相交的每次发生的开始分钟
+     */
+    private static void expand(Series s, long lo, long hi, LongConsumer emit) {
+        // 与窗口相交的发生所在日期的范围
+        long first = Math.max(s.startDay, Math.floorDiv(lo - s.minute - s.duration, MINUTES_PER_DAY) + 1);
+        long last = Math.min(s.untilDay, Math.floorDiv(hi - s.minute - 1, MINUTES_PER_DAY));
+        if (first > last) {
+            return;
+        }
+        switch (s.rule) {
+            case NONE, DAILY -> {
+                for (long day = s.startDay + ceilDiv(first - s.startDay, s.interval) * s.interval; day <= last;
+                     day += s.interval) {
+                    emitDay(s, day, emit);
+                }
+            }
+            case WEEKLY -> {
+                long startMonday = s.startDay - dayOfWeek(s.startDay);
+                long week = ceilDiv(Math.floorDiv(first - startMonday, 7), s.interval) * s.interval;
+                for (long monday = startMonday + week * 7; monday <= last; monday += 7L * s.interval) {
+                    for (int dow = 0; dow < 7; dow++) {
+                        long day = monday + dow;
+                        if ((s.weekdays & (1 << dow)) != 0 && day >= first && day <= last) {
+                            emitDay(s, day, emit);
+                        }
+                    }
+                }
+            }
+            case MONTHLY -> {
+                LocalDate start = LocalDate.ofEpochDay(s.startDay);
+                LocalDate from = LocalDate.ofEpochDay(first);
+                long startMonth = start.getYear() * 12L + start.getMonthValue() - 1;
+                long offset = from.getYear() * 12L + from.getMonthValue() - 1 - startMonth;
+                for (long month = startMonth + ceilDiv(offset, s.interval) * s.interval; ; month += s.interval) {
+                    YearMonth yearMonth = YearMonth.of((int) Math.floorDiv(month, 12), (int) Math.floorMod(month, 12) + 1);
+                    if (yearMonth.atDay(1).toEpochDay() > last) {
+                        break;
+                    }
+                    // 没有该日的月份（如 31 日）跳过
+                    if (start.getDayOfMonth() <= yearMonth.lengthOfMonth()) {
+                        long day = yearMonth.atDay(start.getDayOfMonth()).toEpochDay();
+                        if (day >= first && day <= last) {
+                            emitDay(s, day, emit);
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    private static void emitDay(Series s, long day, LongConsumer emit) {
+        if (!s.exceptions.contains(day)) {
+            emit.accept(day * MINUTES_PER_DAY + s.minute);
+        }
+    }
+
+    private static long ceilDiv(long x, long y) {
+        return -Math.floorDiv(-x, y);
+    }
+
+    /**
+     * 星期几，周一为 0（1970-01-01 是周四）
+     */
+    private static int dayOfWeek(long epochDay) {
+        return (int) Math.floorMod(epochDay + 3, 7);
+    }
+
+    private static long parseDay(String day) {
+        if (day == null || day.isBlank()) {
+            throw new IllegalArgumentException("日期不能为空");
+        }
+        try {
+            return LocalDate.parse(day.trim()).toEpochDay();
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("日期格式不正确，应为 yyyy-MM-dd");
+        }
+    }
+
+    /**
+     * 一次具体的发生
+     *
+     * @param scheduleId 所属日程 ID
+     * @param date       发生日期（yyyy-MM-dd）
+     * @param time       开始时间（HH:mm），全天日程为 null
+     * @param duration   持续分钟数
+     * @param recurring  是否属于重复日程
+     */
+    public record Occurrence(String scheduleId, String title, String date, String time, int duration,
+                             String description, boolean recurring) {
+    }
+
+    /**
+     * 一处时间冲突：待检查日程的一次发生与已有日程的一次发生重叠
+     */
+    public record Conflict(Occurrence occurrence, Occurrence conflictsWith) {
+    }
+
+    /**
+     * 日程的增量变更，随 SCHEDULES_CHANGED 事件发布
+     *
+     * @param saved      新建或更新后的日程
+     * @param removedIds 已删除的日程 ID
+     */
+    public record ScheduleChange(List<Schedule> saved, Collection<String> removedIds) {
+
+        public static ScheduleChange saved(List<Schedule> schedules) {
+            return new ScheduleChange(schedules, List.of());
+        }
+
+        public static ScheduleChange removed(Collection<String> ids) {
+            return new ScheduleChange(List.of(), ids);
+        }
+    }
+
+    /**
+     * 已解析的日程系列，日期以纪元日、时间以分钟表示
+     */
+    private static final class Series {
+        final String id;
+        final String title;
+        final String description;
+        final String time;
+        final long startDay;
+        final int minute;
+        final int duration;
+        final Rule rule;
+        final int interval;
+        // 每周重复的星期位图，周一为第 0 位
+        final int weekdays;
+        // 最后一次可发生的日期，一直重复时为 Long.MAX_VALUE
+        final long untilDay;
+        final Set<Long> exceptions;
+        // 整个系列占用的分钟区间 [lo, hi)
+        final long lo;
+        final long hi;
+
+        Series(String id, String title, String description, String time, long startDay, int minute, int duration,
+               Rule rule, int interval, int weekdays, long untilDay, Set<Long> exceptions) {
+            this.id = id;
+            this.title = title;
+            this.description = description;
+            this.time = time;
+            this.startDay = startDay;
+            this.minute = minute;
+            this.duration = duration;
+            this.rule = rule;
+            this.interval = interval;
+            this.weekdays = weekdays;
+            this.untilDay = untilDay;
+            this.exceptions = exceptions;
+            this.lo = startDay * MINUTES_PER_DAY + minute;
+            this.hi = untilDay == Long.MAX_VALUE ? Long.MAX_VALUE : untilDay * MINUTES_PER_DAY + minute + duration;
+        }
+
+        Occurrence occurrence(long start) {
+            String date = LocalDate.ofEpochDay(Math.floorDiv(start, MINUTES_PER_DAY)).toString();
+            return new Occurrence(id, title, date, time, duration, description, rule != Rule.NONE);
+        }
+    }
+
+    /**
+     * 区间树：以 (开始分钟, ID) 为键的 treap，节点记录子树内最大的结束分钟，
+     * 查询时跳过最大结束不超过窗口起点的子树和开始不早于窗口终点的右侧部分
+     */
+    private static final class IntervalTree {
+        private Node root;
+
+        void clear() {
+            root = null;
+        }
+
+        void insert(Series series) {
+            root = insert(root, new Node(series));
+        }
+
+        void remove(Series series) {
+            root = remove(root, series);
+        }
+
+        /**
+         * 遍历与 [lo, hi) 相交的所有系列，按开始时间顺序
+         */
+        void query(long lo, long hi, Consumer<Series> visitor) {
+            query(root, lo, hi, visitor);
+        }
+
+        int height() {
+            return height(root);
+        }
+
+        private static Node insert(Node node, Node added) {
+            if (node == null) {
+                return added;
+            }
+            if (added.priority > node.priority) {
+                Node[] parts = split(node, added.series);
+                added.left = parts[0];
+                added.right = parts[1];
+                return update(added);
+            }
+            if (compare(added.series, node.series) < 0) {
+                node.left = insert(node.left, added);
+            } else {
+                node.right = insert(node.right, added);
+            }
+            return update(node);
+        }
+
+        private static Node remove(Node node, Series series) {
+            if (node == null) {
+                return null;
+            }
+            int cmp = compare(series, node.series);
+            if (cmp == 0) {
+                return merge(node.left, node.right);
+            }
+            if (cmp < 0) {
+                node.left = remove(node.left, series);
+            } else {
+                node.right = remove(node.right, series);
+            }
+            return update(node);
+        }
+
+        /**
+         * 按键拆分为小于 key 和不小于 key 的两棵树
+         */
+        private static Node[] split(Node node, Series key) {
+            if (node == null) {
+                return new Node[2];
+            }
+            if (compare(node.series, key) < 0) {
+                Node[] parts = split(node.right, key);
+                node.right = parts[0];
+                parts[0] = update(node);
+                return parts;
+            }
+            Node[] parts = split(node.left, key);
+            node.left = parts[1];
+            parts[1] = update(node);
+            return parts;
+        }
+
+        private static Node merge(Node left, Node right) {
+            if (left == null) {
+                return right;
+            }
+            if (right == null) {
+                return left;
+            }
+            if (left.priority > right.priority) {
+                left.right = merge(left.right, right);
+                return update(left);
+            }
+            right.left = merge(left, right.left);
+            return update(right);
+        }
+
+        private static void query(Node node, long lo, long hi, Consumer<Series> visitor) {
+            if (node == null || node.maxHi <= lo) {
+                return;
+            }
+            query(node.left, lo, hi, visitor);
+            if (node.series.lo >= hi) {
+                return;
+            }
+            if (node.series.hi > lo) {
+                visitor.accept(node.series);
+            }
+            query(node.right, lo, hi, visitor);
+        }
+
+        private static int height(Node node) {
+            return node == null ? 0 : 1 + Math.max(height(node.left), height(node.right));
+        }
+
+        private static Node update(Node node) {
+            long maxHi = node.series.hi;
+            if (node.left != null) maxHi = Math.max(maxHi, node.left.maxHi);
+            if (node.right != null) maxHi = Math.max(maxHi, node.right.maxHi);
+            node.maxHi = maxHi;
+            return node;
+        }
+
+        private static int compare(Series a, Series b) {
+            int cmp = Long.compare(a.lo, b.lo);
+            return cmp != 0 ? cmp : a.id.compareTo(b.id);
+        }
+
+        private static final class Node {
+            final Series series;
+            final int priority = ThreadLocalRandom.current().nextInt();
+            long maxHi;
+            Node left;
+            Node right;
+
+            Node(Series series) {
+                this.series = series;
+                this.maxHi = series.hi;
+            }
+        }
+    }
+}
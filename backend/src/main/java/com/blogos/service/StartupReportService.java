@@ -0,0 +1,118 @@
+/**
+ * 启动报告服务类
+ * 应用就绪时汇总 JVM 启动到就绪的耗时、上下文刷新耗时、已加载类数、CDS 归档与懒加载等启动相关配置，
+ * 以及创建最慢的 Bean，写入日志并通过管理接口提供，用于对比不同启动配置的效果
+ */
+package com.blogos.service;
+
+import com.sun.management.HotSpotDiagnosticMXBean;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.boot.context.metrics.buffering.BufferingApplicationStartup;
+import org.springframework.boot.context.metrics.buffering.StartupTimeline;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.env.Environment;
+import org.springframework.core.metrics.StartupStep;
+import org.springframework.stereotype.Service;
+
+import java.lang.management.ManagementFactory;
+import java.util.*;
+
+// 服务注解，标记这是一个业务服务类
+@Service
+public class StartupReportService {
+    private static final Logger logger = LoggerFactory.getLogger(StartupReportService.class);
+
+    // 报告中列出的最慢 Bean 数
+    private static final int SLOWEST_BEANS = 15;
+
+    private volatile Map<String, Object> report = Map.of();
+
+    /**
+     * 应用就绪后生成启动报告
+     *
+     * @param event 应用就绪事件
+     */
+    @EventListener
+    public void onReady(ApplicationReadyEvent event) {
+        long uptimeMs = ManagementFactory.getRuntimeMXBean().getUptime();
+        ConfigurableApplicationContext context = event.getApplicationContext();
+        Environment env = context.getEnvironment();
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("jvmToReadyMs", uptimeMs);
+        result.put("applicationReadyMs", event.getTimeTaken() == null ? null : event.getTimeTaken().toMillis());
+        result.put("profiles", List.of(env.getActiveProfiles()));
+        result.put("lazyInitialization", env.getProperty("spring.main.lazy-initialization", Boolean.class, false));
+        result.put("ddlAuto", env.getProperty("spring.jpa.hibernate.ddl-auto"));
+        result.put("flyway", env.getProperty("spring.flyway.enabled", Boolean.class, true));
+        result.put("cdsArchive", sharedArchiveFile());
+        result.put("classSharing", vmOption("UseSharedSpaces"));
+        result.put("classesLoaded", ManagementFactory.getClassLoadingMXBean().getLoadedClassCount());
+        result.put("beanDefinitions", context.getBeanDefinitionCount());
+        result.put("singletonsCreated", context.getBeanFactory().getSingletonCount());
+
+        if (context.getApplicationStartup() instanceof BufferingApplicationStartup startup) {
+            // 取出后缓冲区清空，之后懒加载创建的 Bean 不再计入报告
+            StartupTimeline timeline = startup.drainBufferedTimeline();
+            long refreshMs = 0;
+            List<Map<String, Object>> beans = new ArrayList<>();
+            for (StartupTimeline.TimelineEvent step : timeline.getEvents()) {
+                String name = step.getStartupStep().getName();
+                if ("spring.context.refresh".equals(name)) {
+                    refreshMs = step.getDuration().toMillis();
+                } else if ("spring.beans.instantiate".equals(name)) {
+                    String bean = tag(step.getStartupStep(), "beanName");
+                    if (bean != null) {
+                        beans.add(Map.of("bean", bean, "ms", step.getDuration().toMillis()));
+                    }
+                }
+            }
+            // Bean 的耗时包含其依赖的创建时间
+            beans.sort(Comparator.comparingLong((Map<String, Object> b) -> (Long) b.get("ms")).reversed());
+            result.put("contextRefreshMs", refreshMs);
+            result.put("slowestBeans", beans.subList(0, Math.min(SLOWEST_BEANS, beans.size())));
+        }
+        report = Collections.unmodifiableMap(result);
+        logger.info("Startup: ready {} ms after JVM start (refresh {} ms, {} classes loaded, {} of {} beans created, lazy={}, cds={})",
+                uptimeMs, result.get("contextRefreshMs"), result.get("classesLoaded"), result.get("singletonsCreated"),
+                result.get("beanDefinitions"), result.get("lazyInitialization"), result.get("cdsArchive"));
+    }
+
+    /**
+     * 获取启动报告
+     *
+     * @return 启动报告，应用就绪前为空
+     */
+    public Map<String, Object> getReport() {
+        return report;
+    }
+
+    private static String tag(StartupStep step, String key) {
+        for (StartupStep.Tag tag : step.getTags()) {
+            if (key.equals(tag.getKey())) {
+                return tag.getValue();
+            }
+        }
+        return null;
+    }
+
+    private static String sharedArchiveFile() {
+        for (String arg : ManagementFactory.getRuntimeMXBean().getInputArguments()) {
+            if (arg.startsWith("-XX:SharedArchiveFile=")) {
+                return arg.substring("-XX:SharedArchiveFile=".length());
+            }
+        }
+        return null;
+    }
+
+    private static String vmOption(String name) {
+        try {
+            return ManagementFactory.getPlatformMXBean(HotSpotDiagnosticMXBean.class).getVMOption(name).getValue();
+        } catch (RuntimeException e) {
+            return null;
+        }
+    }
+}
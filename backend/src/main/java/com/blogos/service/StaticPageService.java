@@ -0,0 +1,620 @@
+/**
+ * 静态页面预渲染服务类
+ * 将首页、文章详情、分类和归档页面渲染为完整的静态 HTML，供 nginx 通过 try_files 直接返回；
+ * 数据变更后由防抖的后台线程只重新生成受影响的页面，并通过原子替换写入文件
+ */
+package com.blogos.service;
+
+import com.blogos.event.ContentChangedEvent;
+import com.blogos.model.Comment;
+import com.blogos.model.Post;
+import com.blogos.repository.PostRepository;
+import com.fasterxml.jackson.databind.JsonNode;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.commonmark.parser.Parser;
+import org.commonmark.renderer.html.HtmlRenderer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.util.HtmlUtils;
+import org.springframework.web.util.UriUtils;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+// 服务注解，标记这是一个业务服务类
+@Service
+// 懒加载配置下也在启动时创建，启动后即在后台生成静态页面
+@Lazy(false)
+public class StaticPageService {
+    private static final Logger logger = LoggerFactory.getLogger(StaticPageService.class);
+
+    // 页面键：全量重建、首页、归档、文章前缀
+    private static final String PAGE_ALL = "all";
+    private static final String PAGE_HOME = "home";
+    private static final String PAGE_ARCHIVE = "archive";
+    private static final String PAGE_POST_PREFIX = "post:";
+
+    // 首页展示的最新文章数
+    private static final int HOME_LATEST_COUNT = 10;
+
+    // 渲染失败后的最长重试间隔
+    private static final long MAX_RETRY_DELAY_MS = 5 * 60 * 1000;
+
+    // 全量生成时每批填充正文的文章数，一次 IN 查询读取一批正文，渲染后即释放
+    private static final int CONTENT_BATCH_SIZE = 100;
+
+    // 日期字符串按降序排列，空值排在最后
+    private static final Comparator<Post> BY_DATE_DESC = Comparator.comparing(
+            Post::getDate, Comparator.nullsLast(Comparator.<String>reverseOrder()));
+
+    // 是否启用预渲染
+    @Value("${blogos.prerender.enabled:true}")
+    private boolean enabled;
+
+    // 预渲染输出目录，nginx 以该目录作为 root
+    @Value("${blogos.prerender.dir:./data/prerender}")
+    private String outputDir;
+
+    // 前端 SPA 的 index.html，首页会将预渲染内容注入其中；为空或不存在时使用内置模板
+    @Value("${blogos.prerender.shell:}")
+    private String shellPath;
+
+    // 防抖间隔，合并短时间内的多次变更
+    @Value("${blogos.prerender.debounce-ms:2000}")
+    private long debounceMs;
+
+    // 自动注入文章仓库
+    @Autowired
+    private PostRepository postRepository;
+
+    // 自动注入文章正文存储
+    @Autowired
+    private PostContentStore contentStore;
+
+    // 自动注入配置服务
+    @Autowired
+    private ConfigService configService;
+
+    // 自动注入事务管理器，后台线程在只读事务中加载懒加载的评论
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    // 待重新生成的页面集合
+    private final Set<String> dirtyPages = ConcurrentHashMap.newKeySet();
+
+    // 上次渲染时每篇文章所属的分类，用于在分类变更或删除后刷新旧分类页
+    private final Map<String, String> renderedCategories = new ConcurrentHashMap<>();
+
+    // 是否已安排一次刷新
+    private final AtomicBoolean flushScheduled = new AtomicBoolean(false);
+
+    // 连续渲染失败次数，决定重试间隔，只在渲染线程中访问
+    private int consecutiveFailures;
+
+    private final Parser markdownParser = Parser.builder().build();
+    private final HtmlRenderer htmlRenderer = HtmlRenderer.builder().escapeHtml(true).build();
+
+    private ScheduledExecutorService worker;
+    private TransactionTemplate readOnlyTx;
+    private Path root;
+
+    @PostConstruct
+    public void init() {
+        if (!enabled) {
+            logger.info("Static pre-rendering is disabled");
+            return;
+        }
+        root = Paths.get(outputDir).toAbsolutePath().normalize();
+        readOnlyTx = new TransactionTemplate(transactionManager);
+        readOnlyTx.setReadOnly(true);
+        worker = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "prerender-worker");
+            t.setDaemon(true);
+            return t;
+        });
+        // 启动时全量生成一次
+        markDirty(PAGE_ALL);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (worker != null) {
+            worker.shutdownNow();
+        }
+    }
+
+    /**
+     * 监听内容变更事件，在事务提交后标记受影响的页面
+     *
+     * @param event 内容变更事件
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onContentChanged(ContentChangedEvent event) {
+        if (!enabled) {
+            return;
+        }
+        switch (event.getType()) {
+            case POST_SAVED, POST_DELETED -> {
+                markDirty(PAGE_POST_PREFIX + event.getPostId());
+                markDirty(PAGE_HOME);
+                markDirty(PAGE_ARCHIVE);
+            }
+            case COMMENT_ADDED -> markDirty(PAGE_POST_PREFIX + event.getPostId());
+            case CONFIG_SAVED, DATA_IMPORTED -> markDirty(PAGE_ALL);
+            default -> {
+                // 点赞数不在静态页面中展示，无需重新生成
+            }
+        }
+    }
+
+    /**
+     * 请求全量重新生成所有静态页面
+     */
+    public void rebuildAll() {
+        if (enabled) {
+            markDirty(PAGE_ALL);
+        }
+    }
+
+    /**
+     * 标记页面待生成，并在防抖间隔后安排一次刷新
+     */
+    private void markDirty(String page) {
+        dirtyPages.add(page);
+        if (flushScheduled.compareAndSet(false, true)) {
+            worker.schedule(this::flush, debounceMs, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * 取出当前所有待生成页面并渲染
+     */
+    private void flush() {
+        flushScheduled.set(false);
+        Set<String> pages = new HashSet<>();
+        for (Iterator<String> it = dirtyPages.iterator(); it.hasNext(); ) {
+            pages.add(it.next());
+            it.remove();
+        }
+        if (pages.isEmpty()) {
+            return;
+        }
+        long start = System.currentTimeMillis();
+        try {
+            Integer written = readOnlyTx.execute(status -> {
+                try {
+                    return render(pages);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            logger.info("Pre-rendered {} static pages in {} ms", written, System.currentTimeMillis() - start);
+            consecutiveFailures = 0;
+        } catch (Exception e) {
+            // 失败后重新排队，按指数退避安排重试，不依赖下一次内容变更
+            dirtyPages.addAll(pages);
+            consecutiveFailures++;
+            long delay = Math.min(debounceMs << Math.min(consecutiveFailures, 10), MAX_RETRY_DELAY_MS);
+            logger.error("Static pre-rendering failed (attempt {}), retrying in {} ms", consecutiveFailures, delay, e);
+            if (flushScheduled.compareAndSet(false, true)) {
+                worker.schedule(this::flush, delay, TimeUnit.MILLISECONDS);
+            }
+        }
+    }
+
+    /**
+     * 渲染一批页面
+     *
+     * @param pages 页面键集合
+     * @return 写入的文件数
+     */
+    private int render(Set<String> pages) throws IOException {
+        JsonNode config = configService.getConfigTree();
+        List<Post> allPosts = null;
+        Set<String> categories = new HashSet<>();
+        int written = 0;
+
+        if (pages.contains(PAGE_ALL)) {
+            allPosts = loadAllPosts();
+            Set<Path> keep = new HashSet<>();
+            for (int from = 0; from < allPosts.size(); from += CONTENT_BATCH_SIZE) {
+                List<Post> batch = allPosts.subList(from, Math.min(from + CONTENT_BATCH_SIZE, allPosts.size()));
+                contentStore.fill(batch);
+                for (Post post : batch) {
+                    keep.add(writePage(postPath(post.getId()), renderPost(post, config)));
+                    renderedCategories.put(post.getId(), nullToEmpty(post.getCategory()));
+                    categories.addAll(categoryPrefixes(post.getCategory()));
+                    post.setContent(null);
+                }
+            }
+            written += allPosts.size();
+            for (String category : categories) {
+                keep.add(writePage(categoryPath(category), renderCategory(category, allPosts, config)));
+                written++;
+            }
+            pruneStale(root.resolve("posts"), keep);
+            pruneStale(root.resolve("category"), keep);
+            renderedCategories.keySet().retainAll(allPosts.stream().map(Post::getId).collect(Collectors.toSet()));
+            pages.add(PAGE_HOME);
+            pages.add(PAGE_ARCHIVE);
+        } else {
+            for (String page : pages) {
+                if (!page.startsWith(PAGE_POST_PREFIX)) {
+                    continue;
+                }
+                String postId = page.substring(PAGE_POST_PREFIX.length());
+                String oldCategory = renderedCategories.get(postId);
+                if (oldCategory != null) {
+                    categories.addAll(categoryPrefixes(oldCategory));
+                }
+                Optional<Post> post = postRepository.findById(postId);
+                if (post.isPresent()) {
+                    post.get().setContent(contentStore.load(postId));
+                    writePage(postPath(postId), renderPost(post.get(), config));
+                    renderedCategories.put(postId, nullToEmpty(post.get().getCategory()));
+                    categories.addAll(categoryPrefixes(post.get().getCategory()));
+                } else {
+                    deletePage(postPath(postId));
+                    renderedCategories.remove(postId);
+                }
+                written++;
+            }
+            if (!categories.isEmpty()) {
+                allPosts = loadAllPosts();
+                for (String category : categories) {
+                    List<Post> inCategory = postsInCategory(category, allPosts);
+                    if (inCategory.isEmpty()) {
+                        deletePage(categoryPath(category));
+                    } else {
+                        writePage(categoryPath(category), renderCategory(category, allPosts, config));
+                    }
+                    written++;
+                }
+            }
+        }
+
+        if (pages.contains(PAGE_HOME) || pages.contains(PAGE_ARCHIVE)) {
+            if (allPosts == null) {
+                allPosts = loadAllPosts();
+            }
+            if (pages.contains(PAGE_HOME)) {
+                writePage(root.resolve("index.html"), renderHome(allPosts, config));
+                written++;
+            }
+            if (pages.contains(PAGE_ARCHIVE)) {
+                writePage(root.resolve("archive").resolve("index.html"), renderArchive(allPosts, config));
+                written++;
+            }
+        }
+        return written;
+    }
+
+    private List<Post> loadAllPosts() {
+        List<Post> posts = new ArrayList<>(postRepository.findAll());
+        posts.sort(BY_DATE_DESC);
+        return posts;
+    }
+
+    // --- 页面渲染 ---
+
+    private String renderHome(List<Post> posts, JsonNode config) throws IOException {
+        StringBuilder body = new StringBuilder();
+        String heroTitle = ConfigService.text(config, "heroTitle", "");
+        if (!heroTitle.isEmpty()) {
+            body.append("<section class=\"hero\"><h1>").append(escape(heroTitle)).append("</h1>");
+            body.append("<p>").append(escape(ConfigService.text(config, "heroSubtitle", ""))).append("</p></section>");
+        }
+        posts.stream().filter(Post::isFeatured).findFirst().ifPresent(featured -> {
+            body.append("<section class=\"featured\"><h2>精选</h2>");
+            appendPostCard(body, featured);
+            body.append("</section>");
+        });
+        body.append("<section class=\"latest\"><h2>最新文章</h2>");
+        posts.stream().limit(HOME_LATEST_COUNT).forEach(p -> appendPostCard(body, p));
+        body.append("</section>");
+
+        Map<String, Long> counts = new TreeMap<>();
+        for (Post post : posts) {
+            for (String category : categoryPrefixes(post.getCategory())) {
+                counts.merge(category, 1L, Long::sum);
+            }
+        }
+        body.append("<section class=\"categories\"><h2>分类</h2><ul>");
+        counts.forEach((category, count) -> body.append("<li><a href=\"").append(categoryUrl(category)).append("\">")
+                .append(escape(category)).append("</a> (").append(count).append(")</li>"));
+        body.append("</ul><p><a href=\"/archive/\">全部归档</a></p></section>");
+
+        String title = ConfigService.text(config, "seo.siteTitle", ConfigService.text(config, "siteName", "BlogOS"));
+        String description = ConfigService.text(config, "seo.description", "");
+        String shell = loadSpaShell();
+        if (shell != null) {
+            // 注入 SPA 外壳，首屏直接包含内容，前端脚本加载后接管页面
+            return shell
+                    .replaceFirst("(?s)<title>.*?</title>",
+                            java.util.regex.Matcher.quoteReplacement("<title>" + escape(title) + "</title>"
+                                    + "<meta name=\"description\" content=\"" + escape(description) + "\">"))
+                    .replace("<div id=\"root\"></div>", "<div id=\"root\">" + body + "</div>");
+        }
+        return layout(title, description, body.toString(), config);
+    }
+
+    private String renderPost(Post post, JsonNode config) {
+        StringBuilder body = new StringBuilder("<article>");
+        body.append("<h1>").append(escape(post.getTitle())).append("</h1>");
+        body.append("<p class=\"meta\">").append(escape(nullToEmpty(post.getDate())));
+        if (post.getAuthor() != null) {
+            body.append(" · ").append(escape(post.getAuthor()));
+        }
+        if (post.getCategory() != null && !post.getCategory().isEmpty()) {
+            body.append(" · <a href=\"").append(categoryUrl(post.getCategory())).append("\">")
+                    .append(escape(post.getCategory())).append("</a>");
+        }
+        body.append("</p>");
+        if (post.getCoverImage() != null && !post.getCoverImage().isEmpty()) {
+            body.append("<img class=\"cover\" src=\"").append(escape(post.getCoverImage())).append("\" alt=\"\">");
+        }
+        body.append(htmlRenderer.render(markdownParser.parse(nullToEmpty(post.getContent()))));
+        if (post.getTags() != null && !post.getTags().isEmpty()) {
+            body.append("<p class=\"tags\">");
+            post.getTags().forEach(tag -> body.append("<span>#").append(escape(tag)).append("</span> "));
+            body.append("</p>");
+        }
+        body.append("</article>");
+        if (!post.getComments().isEmpty()) {
+            body.append("<section class=\"comments\"><h2>评论</h2>");
+            appendComments(body, post.getComments());
+            body.append("</section>");
+        }
+        String siteName = ConfigService.text(config, "siteName", "BlogOS");
+        return layout(HtmlUtils.htmlUnescape(nullToEmpty(post.getTitle())) + " - " + siteName, nullToEmpty(post.getExcerpt()), body.toString(), config);
+    }
+
+    private String renderCategory(String category, List<Post> allPosts, JsonNode config) {
+        StringBuilder body = new StringBuilder("<h1>分类：").append(escape(category)).append("</h1>");
+        postsInCategory(category, allPosts).forEach(p -> appendPostCard(body, p));
+        String siteName = ConfigService.text(config, "siteName", "BlogOS");
+        return layout(category + " - " + siteName, "", body.toString(), config);
+    }
+
+    private String renderArchive(List<Post> posts, JsonNode config) {
+        StringBuilder body = new StringBuilder("<h1>归档</h1>");
+        String currentMonth = null;
+        for (Post post : posts) {
+            String date = nullToEmpty(post.getDate());
+            String month = date.length() >= 7 ? date.substring(0, 7) : "未知日期";
+            if (!month.equals(currentMonth)) {
+                if (currentMonth != null) {
+                    body.append("</ul>");
+                }
+                body.append("<h2>").append(escape(month)).append("</h2><ul>");
+                currentMonth = month;
+            }
+            body.append("<li><a href=\"").append(postUrl(post.getId())).append("\">").append(escape(post.getTitle()))
+                    .append("</a> <small>").append(escape(date)).append("</small></li>");
+        }
+        if (currentMonth != null) {
+            body.append("</ul>");
+        }
+        String siteName = ConfigService.text(config, "siteName", "BlogOS");
+        return layout("归档 - " + siteName, "", body.toString(), config);
+    }
+
+    private void appendPostCard(StringBuilder body, Post post) {
+        body.append("<div class=\"card\"><h3><a href=\"").append(postUrl(post.getId())).append("\">")
+                .append(escape(post.getTitle())).append("</a></h3>");
+        body.append("<p class=\"meta\">").append(escape(nullToEmpty(post.getDate()))).append("</p>");
+        body.append("<p>").append(escape(nullToEmpty(post.getExcerpt()))).append("</p></div>");
+    }
+
+    private void appendComments(StringBuilder body, List<Comment> comments) {
+        body.append("<ul>");
+        for (Comment c : comments) {
+            // 评论内容和作者在入库时已经过 HTML 转义
+            body.append("<li><strong>").append(nullToEmpty(c.getAuthor())).append("</strong> <small>")
+                    .append(escape(nullToEmpty(c.getDate()))).append("</small><p>")
+                    .append(nullToEmpty(c.getContent())).append("</p>");
+            if (c.getReplies() != null && !c.getReplies().isEmpty()) {
+                appendComments(body, c.getReplies());
+            }
+            body.append("</li>");
+        }
+        body.append("</ul>");
+    }
+
+    private String layout(String title, String description, String body, JsonNode config) {
+        String siteName = ConfigService.text(config, "siteName", "BlogOS");
+        String themeColor = ConfigService.text(config, "themeColor", "#0071e3");
+        String icp = ConfigService.text(config, "icpNumber", "");
+        return "<!DOCTYPE html><html lang=\"zh-CN\"><head><meta charset=\"UTF-8\">"
+                + "<meta name=\"viewport\" content=\"width=device-width, initial-scale=1.0\">"
+                + "<title>" + escape(title) + "</title>"
+                + "<meta name=\"description\" content=\"" + escape(description) + "\">"
+                + "<style>body{font-family:-apple-system,BlinkMacSystemFont,\"Helvetica Neue\",Arial,sans-serif;"
+                + "background:#F5F5F7;color:#1d1d1f;margin:0}header,main,footer{max-width:760px;margin:0 auto;padding:16px}"
+                + "a{color:" + escape(themeColor) + ";text-decoration:none}.meta{color:#86868b;font-size:14px}"
+                + ".card{background:#fff;border-radius:16px;padding:16px 20px;margin:12px 0}"
+                + "img{max-width:100%}pre{background:#22272e;color:#adbac7;padding:12px;border-radius:8px;overflow:auto}"
+                + "</style></head><body>"
+                + "<header><a href=\"/\"><strong>" + escape(siteName) + "</strong></a> · <a href=\"/archive/\">归档</a></header>"
+                + "<main>" + body + "</main>"
+                + "<footer class=\"meta\">" + escape(icp) + "</footer>"
+                + "</body></html>";
+    }
+
+    // --- 文件与路径处理 ---
+
+    /**
+     * 写入页面：先写临时文件，再原子替换目标文件，nginx 不会读到写了一半的页面
+     *
+     * @return 目标文件路径
+     */
+    private Path writePage(Path target, String html) throws IOException {
+        Files.createDirectories(target.getParent());
+        Path tmp = Files.createTempFile(target.getParent(), ".render-", ".tmp");
+        try {
+            Files.writeString(tmp, html, StandardCharsets.UTF_8);
+            try {
+                Files.move(tmp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(tmp, target, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+        return target;
+    }
+
+    private void deletePage(Path target) throws IOException {
+        Files.deleteIfExists(target);
+    }
+
+    /**
+     * 删除全量重建后不再存在的页面
+     */
+    private void pruneStale(Path dir, Set<Path> keep) throws IOException {
+        if (!Files.isDirectory(dir)) {
+            return;
+        }
+        try (Stream<Path> files = Files.walk(dir)) {
+            for (Path file : files.filter(Files::isRegularFile).collect(Collectors.toList())) {
+                if (!keep.contains(file)) {
+                    Files.deleteIfExists(file);
+                }
+            }
+        }
+    }
+
+    private String loadSpaShell() throws IOException {
+        if (shellPath == null || shellPath.isEmpty()) {
+            return null;
+        }
+        Path shell = Paths.get(shellPath);
+        if (!Files.isRegularFile(shell)) {
+            return null;
+        }
+        String html = Files.readString(shell, StandardCharsets.UTF_8);
+        return html.contains("<div id=\"root\"></div>") ? html : null;
+    }
+
+    private Path postPath(String postId) {
+        return safeResolve(root.resolve("posts"), List.of(pageSegment(postId))).resolve("index.html");
+    }
+
+    private Path categoryPath(String category) {
+        return safeResolve(root.resolve("category"), categorySegments(category)).resolve("index.html");
+    }
+
+    /**
+     * 将已规范化的路径片段拼接到基础目录下，结果仍需位于基础目录内
+     */
+    private Path safeResolve(Path base, List<String> segments) {
+        Path path = base;
+        for (String segment : segments) {
+            path = path.resolve(segment);
+        }
+        if (!path.normalize().startsWith(base)) {
+            throw new IllegalArgumentException("非法的页面路径: " + segments);
+        }
+        return path;
+    }
+
+    /**
+     * 规范化单个路径片段：去掉反斜杠和空字符，空片段、. 和 .. 替换为 _，不能逃逸出输出目录
+     */
+    private static String pageSegment(String segment) {
+        String clean = segment.replace("\\", "").replace("\0", "").trim();
+        return clean.isEmpty() || clean.equals(".") || clean.equals("..") ? "_" : clean;
+    }
+
+    /**
+     * 分类的目录层级，与 categoryPrefixes 一致跳过空白层级；链接和文件路径都由它生成，保证两者对应
+     */
+    private static List<String> categorySegments(String category) {
+        List<String> segments = new ArrayList<>();
+        for (String part : nullToEmpty(category).split("/")) {
+            if (!part.isBlank()) {
+                segments.add(pageSegment(part));
+            }
+        }
+        if (segments.isEmpty()) {
+            segments.add("_");
+        }
+        return segments;
+    }
+
+    /**
+     * 文章页链接，已编码并转义，可直接写入 href 属性
+     */
+    private static String postUrl(String postId) {
+        return HtmlUtils.htmlEscape("/posts/" + UriUtils.encodePathSegment(pageSegment(postId), StandardCharsets.UTF_8) + "/", "UTF-8");
+    }
+
+    /**
+     * 分类页链接，逐段编码 categorySegments 的结果，与 categoryPath 写出的目录一一对应；空格、#、? 等字符不编码会截断链接。
+     * 路径段中允许出现的 & 仍需按属性值转义，这里不先还原实体，保证链接与磁盘上的目录名一致
+     */
+    private static String categoryUrl(String category) {
+        StringBuilder url = new StringBuilder("/category/");
+        for (String segment : categorySegments(category)) {
+            url.append(UriUtils.encodePathSegment(segment, StandardCharsets.UTF_8)).append('/');
+        }
+        return HtmlUtils.htmlEscape(url.toString(), "UTF-8");
+    }
+
+    /**
+     * 计算分类的所有层级前缀，例如 "Design/UI" 对应 "Design" 与 "Design/UI"
+     */
+    private static List<String> categoryPrefixes(String category) {
+        List<String> prefixes = new ArrayList<>();
+        if (category == null || category.isBlank()) {
+            return prefixes;
+        }
+        StringBuilder current = new StringBuilder();
+        for (String part : category.split("/")) {
+            if (part.isBlank()) {
+                continue;
+            }
+            if (current.length() > 0) {
+                current.append('/');
+            }
+            current.append(part.trim());
+            prefixes.add(current.toString());
+        }
+        return prefixes;
+    }
+
+    private static List<Post> postsInCategory(String category, List<Post> posts) {
+        return posts.stream()
+                .filter(p -> categoryPrefixes(p.getCategory()).contains(category))
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * 转义输出文本；标题等字段入库时已做过转义，先还原再转义，避免二次转义
+     */
+    private static String escape(String value) {
+        return value == null ? "" : HtmlUtils.htmlEscape(HtmlUtils.htmlUnescape(value), "UTF-8");
+    }
+
+    private static String nullToEmpty(String value) {
+        return value == null ? "" : value;
+    }
+}
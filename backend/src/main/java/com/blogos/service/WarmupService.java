@@ -0,0 +1,267 @@
+/**
+ * 启动预热服务类
+ * 应用就绪后在后台线程中预加载站点配置和热门文章，并反复调用 ApiController 与 FeedController 的主要读接口、
+ * 用 MVC 使用的 ObjectMapper 序列化返回值，让 Hibernate 元数据、Jackson 序列化器、各项缓存和 JIT 编译在接收流量前就位；
+ * 每个检查周期结束时比较 JIT 编译耗时的增量，连续两个周期低于阈值（热点方法已编译完成）或超出时间预算后结束，
+ * 之后就绪检查接口才报告就绪，由 Nginx 或编排系统据此决定何时把流量转发到本实例
+ */
+package com.blogos.service;
+
+import com.blogos.controller.ApiController;
+import com.blogos.controller.FeedController;
+import com.blogos.model.Post;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.lang.management.CompilationMXBean;
+import java.lang.management.ManagementFactory;
+import java.time.LocalDate;
+import java.util.*;
+import java.util.concurrent.Callable;
+
+// 服务注解，标记这是一个业务服务类
+@Service
+// 懒加载配置下也在启动时创建，否则不会收到应用就绪事件
+@Lazy(false)
+public class WarmupService {
+    private static final Logger logger = LoggerFactory.getLogger(WarmupService.class);
+
+    // 检查 JIT 编译增量的周期
+    private static final long CHECK_INTERVAL_MS = 500;
+
+    // 连续多少个周期编译增量低于阈值时认为预热完成
+    private static final int QUIET_CHECKS = 2;
+
+    // 是否在启动时预热，关闭后应用就绪即报告就绪
+    @Value("${blogos.warmup.enabled:true}")
+    private boolean enabled;
+
+    // 预热的时间预算（毫秒），超出后无论编译是否停止都报告就绪
+    @Value("${blogos.warmup.budget-ms:30000}")
+    private long budgetMs;
+
+    // 至少执行的轮数
+    @Value("${blogos.warmup.min-rounds:20}")
+    private int minRounds;
+
+    // 一个检查周期内 JIT 编译耗时增量（毫秒）低于该值视为编译已停止
+    @Value("${blogos.warmup.quiet-compile-ms:20}")
+    private long quietCompileMs;
+
+    // 预加载的热门文章数
+    @Value("${blogos.warmup.hot-posts:20}")
+    private int hotPosts;
+
+    // 注入应用上下文，控制器在预热线程中获取，避免与注入本服务的控制器形成循环依赖
+    @Autowired
+    private ApplicationContext context;
+
+    // 自动注入 MVC 使用的 ObjectMapper，序列化方式与真实响应一致
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    // 自动注入浏览统计服务，热门文章按最近浏览量选取
+    @Autowired
+    private PostViewService viewService;
+
+    // 自动注入配置服务
+    @Autowired
+    private ConfigService configService;
+
+    // 自动注入事务管理器，每次调用在只读事务中执行，与请求期间保持打开的持久化上下文一样支持延迟加载
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private volatile boolean complete;
+    private volatile Map<String, Object> report = Map.of("state", "pending");
+
+    private record Probe(String name, Callable<Object> call) {
+    }
+
+    /**
+     * 应用就绪后启动预热线程
+     *
+     * @param event 应用就绪事件
+     */
+    @EventListener
+    public void onReady(ApplicationReadyEvent event) {
+        if (!enabled) {
+            report = Map.of("state", "disabled");
+            complete = true;
+            return;
+        }
+        report = Map.of("state", "warming");
+        Thread thread = new Thread(this::warmUp, "warmup");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * 预热是否已结束（完成、超出预算、失败或未启用）
+     */
+    public boolean isComplete() {
+        return complete;
+    }
+
+    /**
+     * 获取预热报告
+     *
+     * @return 状态、耗时、轮数、调用次数、错误数、结束原因、期间的 JIT 编译耗时，以及各接口首轮与末轮的耗时
+     */
+    public Map<String, Object> getReport() {
+        return report;
+    }
+
+    private void warmUp() {
+        long start = System.currentTimeMillis();
+        CompilationMXBean jit = ManagementFactory.getCompilationMXBean();
+        long compileAtStart = jit.getTotalCompilationTime();
+        int classesAtStart = ManagementFactory.getClassLoadingMXBean().getLoadedClassCount();
+        Map<String, Object> result = new LinkedHashMap<>();
+        Map<String, double[]> timings = new LinkedHashMap<>();
+        int rounds = 0;
+        long calls = 0;
+        long errors = 0;
+        String stopReason;
+        try {
+            ApiController api = context.getBean(ApiController.class);
+            FeedController feeds = context.getBean(FeedController.class);
+            configService.getConfigTree();
+            List<String> hot = hotPostIds(api);
+            List<Probe> probes = probes(api, feeds, hot);
+            TransactionTemplate readOnlyTx = new TransactionTemplate(transactionManager);
+            readOnlyTx.setReadOnly(true);
+
+            long lastCompile = jit.getTotalCompilationTime();
+            long nextCheck = System.currentTimeMillis() + CHECK_INTERVAL_MS;
+            int quietChecks = 0;
+            while (true) {
+                for (Probe probe : probes) {
+                    long t0 = System.nanoTime();
+                    try {
+                        readOnlyTx.executeWithoutResult(status -> serialize(probe.call()));
+                    } catch (Exception e) {
+                        errors++;
+                        if (rounds == 0) {
+                            logger.debug("Warm-up call {} failed", probe.name(), e);
+                        }
+                    }
+                    double ms = (System.nanoTime() - t0) / 1e6;
+                    double[] t = timings.computeIfAbsent(probe.name(), k -> new double[]{ms, ms});
+                    t[1] = ms;
+                    calls++;
+                }
+                rounds++;
+                long now = System.currentTimeMillis();
+                if (now - start >= budgetMs) {
+                    stopReason = "budget";
+                    break;
+                }
+                if (now >= nextCheck) {
+                    long compile = jit.getTotalCompilationTime();
+                    quietChecks = compile - lastCompile < quietCompileMs ? quietChecks + 1 : 0;
+                    lastCompile = compile;
+                    nextCheck = now + CHECK_INTERVAL_MS;
+                    if (rounds >= minRounds && quietChecks >= QUIET_CHECKS) {
+                        stopReason = "jit-quiet";
+                        break;
+                    }
+                }
+            }
+            result.put("state", "ready");
+            result.put("hotPosts", hot.size());
+        } catch (Exception e) {
+            logger.warn("Warm-up failed, reporting ready without it", e);
+            result.put("state", "failed");
+            stopReason = "error";
+        }
+        long durationMs = System.currentTimeMillis() - start;
+        result.put("durationMs", durationMs);
+        result.put("budgetMs", budgetMs);
+        result.put("stopReason", stopReason);
+        result.put("rounds", rounds);
+        result.put("calls", calls);
+        result.put("errors", errors);
+        result.put("jitCompileMs", jit.getTotalCompilationTime() - compileAtStart);
+        result.put("classesLoaded", ManagementFactory.getClassLoadingMXBean().getLoadedClassCount() - classesAtStart);
+        Map<String, Object> paths = new LinkedHashMap<>();
+        timings.forEach((name, t) -> paths.put(name, Map.of(
+                "firstMs", Math.round(t[0] * 100) / 100.0, "lastMs", Math.round(t[1] * 100) / 100.0)));
+        result.put("paths", paths);
+        report = Collections.unmodifiableMap(result);
+        complete = true;
+        logger.info("Warm-up finished in {} ms ({}): {} rounds, {} calls, {} errors, {} ms JIT compilation",
+                durationMs, stopReason, rounds, calls, errors, result.get("jitCompileMs"));
+    }
+
+    /**
+     * 最近 7 天浏览量最高的文章，不足时以文章列表补齐
+     */
+    private List<String> hotPostIds(ApiController api) {
+        Set<String> ids = new LinkedHashSet<>();
+        for (Map<String, Object> top : viewService.getTopPosts(7, hotPosts)) {
+            ids.add((String) top.get("postId"));
+        }
+        List<Post> posts = api.getPosts();
+        posts.stream()
+                .sorted(Comparator.comparing(Post::getDate, Comparator.nullsLast(Comparator.reverseOrder())))
+                .limit(hotPosts)
+                .forEach(post -> {
+                    if (ids.size() < hotPosts) {
+                        ids.add(post.getId());
+                    }
+                });
+        return new ArrayList<>(ids);
+    }
+
+    private List<Probe> probes(ApiController api, FeedController feeds, List<String> hot) {
+        LocalDate today = LocalDate.now();
+        String monthStart = today.withDayOfMonth(1).toString();
+        String monthEnd = today.withDayOfMonth(today.lengthOfMonth()).toString();
+        List<Probe> probes = new ArrayList<>();
+        probes.add(new Probe("GET /api/home", () -> api.getHome("gzip", null)));
+        probes.add(new Probe("GET /api/posts", api::getPosts));
+        probes.add(new Probe("GET /api/config", () -> api.getConfig("gzip", null)));
+        probes.add(new Probe("GET /api/memos/timeline", () -> api.getMemoTimeline(null, null, 20)));
+        probes.add(new Probe("GET /api/memos/archive", api::getMemoArchive));
+        probes.add(new Probe("GET /api/dashboard/summary", () -> api.getDashboardSummary(null)));
+        probes.add(new Probe("GET /api/todos", api::getTodos));
+        probes.add(new Probe("GET /api/schedules/occurrences", () -> api.getScheduleOccurrences(monthStart, monthEnd)));
+        probes.add(new Probe("GET /api/feed/rss.xml", () -> feeds.rss("gzip", null)));
+        probes.add(new Probe("GET /api/sitemap.xml", () -> feeds.sitemap("gzip", null)));
+        // 每轮轮换一篇热门文章，所有热门文章的正文和相关推荐都会被加载
+        int[] next = {0};
+        if (!hot.isEmpty()) {
+            probes.add(new Probe("GET /api/posts/{id}", () -> api.getPost(hot.get(next[0] % hot.size()))));
+            probes.add(new Probe("GET /api/posts/{id}/related", () -> api.getRelatedPosts(hot.get(next[0]++ % hot.size()), 5)));
+        }
+        return probes;
+    }
+
+    private void serialize(Callable<Object> call) {
+        try {
+            Object value = call.call();
+            if (value instanceof ResponseEntity<?> entity) {
+                value = entity.getBody();
+            }
+            if (value != null && !(value instanceof byte[]) && !(value instanceof String)) {
+                objectMapper.writeValueAsBytes(value);
+            }
+        } catch (RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
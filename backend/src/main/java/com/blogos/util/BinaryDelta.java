@@ -0,0 +1,146 @@
+package com.blogos.util;
+
+import java.io.ByteArrayOutputStream;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 二进制差异工具类
+ * 以固定长度块为索引在旧版本中查找匹配片段，生成由 COPY/INSERT 指令组成的差异数据，
+ * 差异大小与改动量成正比，而与文档大小无关
+ */
+public class BinaryDelta {
+
+    // 建立索引的块长度，过短会产生大量无意义的匹配，过长会错过较短的相同片段
+    private static final int BLOCK = 16;
+
+    // 指令：从旧版本复制一段字节
+    private static final int OP_COPY = 0;
+
+    // 指令：插入一段新字节
+    private static final int OP_INSERT = 1;
+
+    /**
+     * 计算从 base 到 target 的差异
+     * @param base 旧版本
+     * @param target 新版本
+     * @return 差异数据
+     */
+    public static byte[] diff(byte[] base, byte[] target) {
+        Map<Long, Integer> index = new HashMap<>(Math.max(16, base.length / BLOCK * 2));
+        for (int i = 0; i + BLOCK <= base.length; i += BLOCK) {
+            index.putIfAbsent(hash(base, i), i);
+        }
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream(64);
+        writeVarint(out, target.length);
+        int pos = 0;
+        int literalStart = 0;
+        while (pos + BLOCK <= target.length) {
+            Integer candidate = index.get(hash(target, pos));
+            if (candidate == null || !regionEquals(base, candidate, target, pos, BLOCK)) {
+                pos++;
+                continue;
+            }
+            // 向前扩展到上一条指令的结尾，向后扩展到第一个不同的字节
+            int baseStart = candidate;
+            int targetStart = pos;
+            while (targetStart > literalStart && baseStart > 0 && base[baseStart - 1] == target[targetStart - 1]) {
+                baseStart--;
+                targetStart--;
+            }
+            int baseEnd = candidate + BLOCK;
+            int targetEnd = pos + BLOCK;
+            while (baseEnd < base.length && targetEnd < target.length && base[baseEnd] == target[targetEnd]) {
+                baseEnd++;
+                targetEnd++;
+            }
+            writeInsert(out, target, literalStart, targetStart);
+            out.write(OP_COPY);
+            writeVarint(out, baseStart);
+            writeVarint(out, baseEnd - baseStart);
+            pos = targetEnd;
+            literalStart = targetEnd;
+        }
+        writeInsert(out, target, literalStart, target.length);
+        return out.toByteArray();
+    }
+
+    /**
+     * 将差异应用到旧版本上，还原出新版本
+     * @param base 旧版本
+     * @param delta 差异数据
+     * @return 新版本
+     */
+    public static byte[] apply(byte[] base, byte[] delta) {
+        int[] cursor = {0};
+        byte[] target = new byte[readVarint(delta, cursor)];
+        int written = 0;
+        while (cursor[0] < delta.length) {
+            int op = delta[cursor[0]++];
+            if (op == OP_COPY) {
+                int offset = readVarint(delta, cursor);
+                int length = readVarint(delta, cursor);
+                System.arraycopy(base, offset, target, written, length);
+                written += length;
+            } else if (op == OP_INSERT) {
+                int length = readVarint(delta, cursor);
+                System.arraycopy(delta, cursor[0], target, written, length);
+                cursor[0] += length;
+                written += length;
+            } else {
+                throw new IllegalArgumentException("Unknown delta op: " + op);
+            }
+        }
+        if (written != target.length) {
+            throw new IllegalArgumentException("Corrupted delta: expected " + target.length + " bytes, got " + written);
+        }
+        return target;
+    }
+
+    private static void writeInsert(ByteArrayOutputStream out, byte[] target, int from, int to) {
+        if (to > from) {
+            out.write(OP_INSERT);
+            writeVarint(out, to - from);
+            out.write(target, from, to - from);
+        }
+    }
+
+    private static long hash(byte[] data, int offset) {
+        long h = 1125899906842597L;
+        for (int i = offset; i < offset + BLOCK; i++) {
+            h = 31 * h + data[i];
+        }
+        return h;
+    }
+
+    private static boolean regionEquals(byte[] a, int aOffset, byte[] b, int bOffset, int length) {
+        for (int i = 0; i < length; i++) {
+            if (a[aOffset + i] != b[bOffset + i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static void writeVarint(ByteArrayOutputStream out, int value) {
+        while ((value & ~0x7F) != 0) {
+            out.write((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.write(value);
+    }
+
+    private static int readVarint(byte[] data, int[] cursor) {
+        int value = 0;
+        int shift = 0;
+        while (true) {
+            int b = data[cursor[0]++];
+            value |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+            shift += 7;
+        }
+    }
+}
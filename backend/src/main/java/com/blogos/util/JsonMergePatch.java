@@ -0,0 +1,39 @@
+package com.blogos.util;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.util.Iterator;
+import java.util.Map;
+
+/**
+ * JSON Merge Patch 工具类（RFC 7386）
+ * 补丁中的对象逐字段递归合并，值为 null 的字段表示删除，其余类型（包括数组）整体替换目标值
+ */
+public class JsonMergePatch {
+
+    /**
+     * 把补丁应用到目标文档
+     * @param target 目标文档，为对象时原地修改
+     * @param patch 补丁文档
+     * @return 合并后的文档
+     */
+    public static JsonNode apply(JsonNode target, JsonNode patch) {
+        if (patch == null || !patch.isObject()) {
+            return patch;
+        }
+        ObjectNode result = target != null && target.isObject()
+                ? (ObjectNode) target
+                : ((ObjectNode) patch).objectNode();
+        Iterator<Map.Entry<String, JsonNode>> fields = patch.fields();
+        while (fields.hasNext()) {
+            Map.Entry<String, JsonNode> field = fields.next();
+            if (field.getValue().isNull()) {
+                result.remove(field.getKey());
+            } else {
+                result.set(field.getKey(), apply(result.get(field.getKey()), field.getValue()));
+            }
+        }
+        return result;
+    }
+}
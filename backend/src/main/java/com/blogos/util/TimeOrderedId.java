@@ -0,0 +1,140 @@
+package com.blogos.util;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+
+/**
+ * 按时间递增的紧凑 ID
+ * 64 位整数按 Crockford Base32 编码为定长 13 个字符：高 42 位为自 2000-01-01 起的毫秒数，
+ * 中间 10 位为节点号，低 12 位为同一毫秒内的序号。定长编码的字典序与数值顺序一致，
+ * 新行总是追加在主键索引的末尾，ID 本身也可以作为按时间翻页的游标。
+ * 节点号取系统属性 blogos.node-id 或环境变量 BLOGOS_NODE_ID（0 到 1022），多实例部署时应为每个实例设置不同的值；
+ * 未设置时由主机名和进程号散列得到。节点号 1023 保留给旧数据迁移
+ */
+public final class TimeOrderedId {
+
+    // 时间部分的起点：2000-01-01T00:00:00Z，42 位毫秒可用到 2139 年
+    public static final long EPOCH_MILLIS = 946684800000L;
+
+    // 编码后的长度
+    public static final int LENGTH = 13;
+
+    // 迁移旧数据时使用的节点号，不会与运行中生成的 ID 冲突
+    public static final int MIGRATION_NODE = 1023;
+
+    private static final int NODE_BITS = 10;
+    private static final int SEQUENCE_BITS = 12;
+    private static final int MAX_SEQUENCE = (1 << SEQUENCE_BITS) - 1;
+    private static final long MAX_MILLIS = (1L << 42) - 1;
+
+    private static final char[] ALPHABET = "0123456789ABCDEFGHJKMNPQRSTVWXYZ".toCharArray();
+
+    private static final Sequence DEFAULT = new Sequence(resolveNode());
+
+    private TimeOrderedId() {
+    }
+
+    /**
+     * 生成一个新 ID
+     */
+    public static String next() {
+        return DEFAULT.next(System.currentTimeMillis());
+    }
+
+    /**
+     * 当前进程使用的节点号
+     */
+    public static int node() {
+        return DEFAULT.node;
+    }
+
+    /**
+     * 解析 ID 中的生成时间
+     *
+     * @param id 由本类生成的 ID
+     * @return 生成时间（纪元毫秒）
+     * @throws IllegalArgumentException 不是有效的 ID
+     */
+    public static long timestampOf(String id) {
+        if (id == null || id.length() != LENGTH) {
+            throw new IllegalArgumentException("无效的 ID：" + id);
+        }
+        long value = 0;
+        for (int i = 0; i < LENGTH; i++) {
+            int digit = indexOf(id.charAt(i));
+            if (digit < 0 || (i == 0 && digit > 15)) {
+                throw new IllegalArgumentException("无效的 ID：" + id);
+            }
+            value = (value << 5) | digit;
+        }
+        return (value >>> (NODE_BITS + SEQUENCE_BITS)) + EPOCH_MILLIS;
+    }
+
+    private static String encode(long value) {
+        char[] chars = new char[LENGTH];
+        for (int i = LENGTH - 1; i >= 0; i--) {
+            chars[i] = ALPHABET[(int) (value & 31)];
+            value >>>= 5;
+        }
+        return new String(chars);
+    }
+
+    private static int indexOf(char c) {
+        for (int i = 0; i < ALPHABET.length; i++) {
+            if (ALPHABET[i] == c) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static int resolveNode() {
+        String configured = System.getProperty("blogos.node-id", System.getenv("BLOGOS_NODE_ID"));
+        if (configured != null && !configured.isBlank()) {
+            int node = Integer.parseInt(configured.trim());
+            if (node < 0 || node >= MIGRATION_NODE) {
+                throw new IllegalStateException("blogos.node-id 应在 0 到 " + (MIGRATION_NODE - 1) + " 之间");
+            }
+            return node;
+        }
+        String host = System.getenv("HOSTNAME");
+        if (host == null || host.isBlank()) {
+            try {
+                host = InetAddress.getLocalHost().getHostName();
+            } catch (UnknownHostException e) {
+                host = "localhost";
+            }
+        }
+        return Math.floorMod((host + "/" + ProcessHandle.current().pid()).hashCode(), MIGRATION_NODE);
+    }
+
+    /**
+     * 单个节点的单调序列：时钟回拨时沿用上次的时间，同一毫秒的序号用尽时借用下一毫秒，生成的 ID 严格递增
+     */
+    public static final class Sequence {
+        private final int node;
+        private long lastMillis = -1;
+        private int sequence;
+
+        public Sequence(int node) {
+            this.node = node;
+        }
+
+        /**
+         * 以给定时间生成下一个 ID
+         *
+         * @param epochMillis 纪元毫秒，早于 2000-01-01 的按起点计算
+         */
+        public synchronized String next(long epochMillis) {
+            long millis = Math.min(MAX_MILLIS, Math.max(0, epochMillis - EPOCH_MILLIS));
+            if (millis > lastMillis) {
+                lastMillis = millis;
+                sequence = 0;
+            } else if (++sequence > MAX_SEQUENCE) {
+                lastMillis++;
+                sequence = 0;
+            }
+            return encode((lastMillis << (NODE_BITS + SEQUENCE_BITS)) | ((long) node << SEQUENCE_BITS) | sequence);
+        }
+    }
+}
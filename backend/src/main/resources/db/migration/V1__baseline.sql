@@ -0,0 +1,139 @@
+-- BlogOS 数据库基线结构（H2）
+-- 与实体映射一致，快速启动配置下由 Flyway 按版本执行，Hibernate 不再比对表结构。
+-- 脚本可重复执行：已由 ddl-auto=update 建好的数据库（可能是缺少部分表的旧版本）首次以快速启动配置运行时，
+-- 记为基线版本 0 后执行本脚本，只补建缺少的表、索引和外键。
+-- 实体结构变化时新增 V2__xxx.sql 等脚本，不要修改已发布的脚本
+
+-- 文章表
+CREATE TABLE IF NOT EXISTS posts (
+    featured BOOLEAN NOT NULL,
+    likes INTEGER NOT NULL,
+    excerpt VARCHAR(1000),
+    author VARCHAR(255),
+    category VARCHAR(255),
+    cover_image VARCHAR(255),
+    date VARCHAR(255),
+    id VARCHAR(255) NOT NULL,
+    title VARCHAR(255),
+    PRIMARY KEY (id)
+);
+
+-- 文章正文表（超过阈值的正文压缩存储）
+CREATE TABLE IF NOT EXISTS post_contents (
+    raw_length INTEGER NOT NULL,
+    codec VARCHAR(16) NOT NULL,
+    data VARBINARY(104857600),
+    post_id VARCHAR(255) NOT NULL,
+    PRIMARY KEY (post_id)
+);
+
+-- 文章修订表
+CREATE TABLE IF NOT EXISTS post_revisions (
+    content_length INTEGER NOT NULL,
+    keyframe BOOLEAN NOT NULL,
+    revision INTEGER NOT NULL,
+    stored_length INTEGER NOT NULL,
+    codec VARCHAR(16) NOT NULL,
+    data VARBINARY(104857600),
+    date VARCHAR(255),
+    id VARCHAR(255) NOT NULL,
+    post_id VARCHAR(255) NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT uk_post_revision UNIQUE (post_id, revision)
+);
+
+-- 文章标签表
+CREATE TABLE IF NOT EXISTS post_tags (
+    post_id VARCHAR(255) NOT NULL,
+    tag VARCHAR(255)
+);
+
+-- 文章浏览统计表（按天分桶，post_id 为 * 的行是全站统计）
+CREATE TABLE IF NOT EXISTS post_view_stats (
+    uniques BIGINT NOT NULL,
+    views BIGINT NOT NULL,
+    stat_date VARCHAR(10) NOT NULL,
+    id VARCHAR(255) NOT NULL,
+    post_id VARCHAR(255) NOT NULL,
+    sketch VARBINARY(8192),
+    PRIMARY KEY (id),
+    CONSTRAINT uk_post_view_day UNIQUE (post_id, stat_date)
+);
+
+-- 评论表（顶层评论关联文章，回复只关联父评论）
+CREATE TABLE IF NOT EXISTS comments (
+    content VARCHAR(2000),
+    author VARCHAR(255),
+    avatar VARCHAR(255),
+    date VARCHAR(255),
+    id VARCHAR(255) NOT NULL,
+    parent_id VARCHAR(255),
+    post_id VARCHAR(255),
+    PRIMARY KEY (id)
+);
+
+-- 随手记表
+CREATE TABLE IF NOT EXISTS memos (
+    date VARCHAR(255),
+    id VARCHAR(255) NOT NULL,
+    content TEXT,
+    PRIMARY KEY (id)
+);
+
+-- 随手记图片表
+CREATE TABLE IF NOT EXISTS memo_images (
+    image_url VARCHAR(255),
+    memo_id VARCHAR(255) NOT NULL
+);
+
+-- 随手记标签表
+CREATE TABLE IF NOT EXISTS memo_tags (
+    memo_id VARCHAR(255) NOT NULL,
+    tag VARCHAR(255)
+);
+
+-- 待办事项表
+CREATE TABLE IF NOT EXISTS todos (
+    completed BOOLEAN NOT NULL,
+    date VARCHAR(255),
+    id VARCHAR(255) NOT NULL,
+    priority VARCHAR(255),
+    text VARCHAR(255),
+    PRIMARY KEY (id)
+);
+
+-- 日程安排表
+CREATE TABLE IF NOT EXISTS schedules (
+    date VARCHAR(255),
+    description VARCHAR(255),
+    id VARCHAR(255) NOT NULL,
+    time VARCHAR(255),
+    title VARCHAR(255),
+    PRIMARY KEY (id)
+);
+
+-- 系统配置表
+CREATE TABLE IF NOT EXISTS system_config (
+    id VARCHAR(255) NOT NULL,
+    config_json TEXT,
+    PRIMARY KEY (id)
+);
+
+-- 用户表
+CREATE TABLE IF NOT EXISTS users (
+    id VARCHAR(255) NOT NULL,
+    password_hash VARCHAR(255),
+    username VARCHAR(255),
+    PRIMARY KEY (id)
+);
+
+-- 索引
+CREATE INDEX IF NOT EXISTS idx_post_view_day ON post_view_stats (stat_date);
+CREATE INDEX IF NOT EXISTS idx_posts_featured ON posts (featured);
+
+-- 外键
+ALTER TABLE comments ADD CONSTRAINT IF NOT EXISTS fk_comments_post FOREIGN KEY (post_id) REFERENCES posts;
+ALTER TABLE comments ADD CONSTRAINT IF NOT EXISTS fk_comments_parent FOREIGN KEY (parent_id) REFERENCES comments;
+ALTER TABLE memo_images ADD CONSTRAINT IF NOT EXISTS fk_memo_images_memo FOREIGN KEY (memo_id) REFERENCES memos;
+ALTER TABLE memo_tags ADD CONSTRAINT IF NOT EXISTS fk_memo_tags_memo FOREIGN KEY (memo_id) REFERENCES memos;
+ALTER TABLE post_tags ADD CONSTRAINT IF NOT EXISTS fk_post_tags_post FOREIGN KEY (post_id) REFERENCES posts;
@@ -0,0 +1,2 @@
+-- 随手记时间线按日期和 ID 倒序做键集翻页
+CREATE INDEX IF NOT EXISTS idx_memos_date_id ON memos (date DESC, id DESC);
@@ -0,0 +1,10 @@
+-- 个人计划计数器，与待办事项和日程的写入在同一事务中维护
+CREATE TABLE IF NOT EXISTS planner_counters (
+    counter_key VARCHAR(64) NOT NULL,
+    counter_value BIGINT NOT NULL,
+    PRIMARY KEY (counter_key)
+);
+
+-- 当天和即将到来的日程、当天待办按日期查询
+CREATE INDEX IF NOT EXISTS idx_schedules_date_time ON schedules (date, time);
+CREATE INDEX IF NOT EXISTS idx_todos_date ON todos (date);
@@ -0,0 +1,7 @@
+-- 日程的时长和重复规则，重复日程只存一行，由日程索引按时间窗口展开
+ALTER TABLE schedules ADD COLUMN IF NOT EXISTS duration INTEGER;
+ALTER TABLE schedules ADD COLUMN IF NOT EXISTS recurrence VARCHAR(16);
+ALTER TABLE schedules ADD COLUMN IF NOT EXISTS recurrence_interval INTEGER;
+ALTER TABLE schedules ADD COLUMN IF NOT EXISTS recurrence_days VARCHAR(32);
+ALTER TABLE schedules ADD COLUMN IF NOT EXISTS recurrence_until VARCHAR(255);
+ALTER TABLE schedules ADD COLUMN IF NOT EXISTS exception_dates VARCHAR(4000);
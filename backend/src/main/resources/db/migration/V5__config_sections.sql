@@ -0,0 +1,8 @@
+-- 站点配置按分区存储，每个分区独立维护版本号；旧版 system_config 中的整体配置在启动时拆分到此表
+CREATE TABLE IF NOT EXISTS config_sections (
+    section VARCHAR(32) NOT NULL,
+    body TEXT NOT NULL,
+    version BIGINT NOT NULL,
+    updated_at VARCHAR(255),
+    PRIMARY KEY (section)
+);
@@ -109,7 +109,10 @@ const App = () => {
   const handleUpdateTheme = async (color: string) => {
     if (!config) return;
     const newConfig = { ...config, themeColor: color };
-    await api.saveConfig(newConfig);
+    if (!await api.saveConfig(newConfig, config)) {
+      alert("主题保存失败，请稍后重试");
+      return;
+    }
     setConfig(newConfig);
   };
 
@@ -144,15 +147,22 @@ const App = () => {
 
   // 保存文章处理函数
   const handleSavePost = async (post: Post) => {
-    await api.addOrUpdatePost(post);
+    if (posts.some(p => p.id === post.id)) {
+      // 已有文章只更新编辑器中的字段，不覆盖评论和点赞数
+      const { id, comments, likes, ...fields } = post;
+      await api.patchPost(id, fields);
+    } else {
+      await api.addOrUpdatePost(post);
+    }
     refreshData();
     navigateTo("admin-dashboard");
   };
 
-  // 保存配置处理函数
-  const handleSaveConfig = async (newConfig: SiteConfig) => {
-    await api.saveConfig(newConfig);
+  // 保存配置处理函数，返回是否全部保存成功
+  const handleSaveConfig = async (newConfig: SiteConfig): Promise<boolean> => {
+    const saved = await api.saveConfig(newConfig, config ?? undefined);
     refreshData();
+    return saved;
   };
 
   // 数据导出处理函数
@@ -254,6 +264,7 @@ const App = () => {
           <PostDetail 
             post={posts.find(p => p.id === activePostId)!} 
             onBack={() => navigateTo(previousView)} 
+            onRead={(id) => navigateTo("post", id)}
           />
         )}
 
@@ -3,8 +3,8 @@
  * 提供与后端 API 交互的封装函数，以及本地存储的 fallback 实现
  */
 
-import { Post, SiteConfig, Comment, Memo, Todo, Schedule } from "../types";
-import { generateId } from "./utils";
+import { Post, PostPatch, HomeData, RelatedPost, LiveHandlers, ViewSeries, TopViewedPost, SiteConfig, ConfigSectionName, Comment, CommentReceipt, CommentStatus, Memo, MemoPage, MemoArchiveMonth, Todo, Schedule, ScheduleOccurrence, ScheduleConflict, DashboardSummary, TodoCounts } from "../types";
+import { applyMergePatch, createMergePatch, generateId, insertComment } from "./utils";
 
 // 本地存储键名常量
 const DB_KEY_POSTS = "blog_posts_data";
@@ -12,6 +12,7 @@ const DB_KEY_CONFIG = "blog_site_config";
 const DB_KEY_MEMOS = "blog_memos_data";
 const DB_KEY_TODOS = "blog_todos_data";
 const DB_KEY_SCHEDULES = "blog_schedules_data";
+const DB_KEY_VISITOR = "blog_visitor_id";
 // 后端 API 基础 URL
 const BASE_URL = import.meta.env.VITE_API_BASE_URL || "http://localhost:8080/api";
 
@@ -169,6 +170,23 @@ const DEFAULT_MEMOS: Memo[] = [
   }
 ];
 
+// 各配置分区拥有的顶层字段，与后端 ConfigService.SECTIONS 一致，未列出的字段属于 site 分区
+const CONFIG_SECTION_FIELDS: Record<string, ConfigSectionName> = {
+  profile: "profile",
+  friendLinks: "friends",
+  friendsMessage: "friends",
+  seo: "seo",
+  sso: "sso",
+  accounts: "accounts"
+};
+
+// 公开配置分区
+const PUBLIC_CONFIG_SECTIONS: ConfigSectionName[] = ["site", "profile", "friends", "seo", "sso"];
+
+// 取出配置中属于指定分区的字段
+const pickConfigSection = (config: any, section: ConfigSectionName): Record<string, any> =>
+    Object.fromEntries(Object.entries(config || {}).filter(([key]) => (CONFIG_SECTION_FIELDS[key] || "site") === section));
+
 // --- 带 fallback 的获取助手函数 ---
 /**
  * 通用的 fetch 函数，带有本地存储 fallback
@@ -239,6 +257,46 @@ const localImpl = {
     },
     // 保存日程安排
     saveSchedules: (schedules: Schedule[]) => localStorage.setItem(DB_KEY_SCHEDULES, JSON.stringify(schedules)),
+    // 展开日期范围内（含两端）的日程发生，规则与后端日程索引一致
+    expandSchedules: (schedules: Schedule[], from: string, to: string): ScheduleOccurrence[] => {
+        const DAY = 86400000;
+        const WEEKDAYS = ["MO", "TU", "WE", "TH", "FR", "SA", "SU"];
+        const toDay = (d: string) => Math.floor(Date.parse(d + "T00:00:00Z") / DAY);
+        const toDate = (n: number) => new Date(n * DAY).toISOString().slice(0, 10);
+        const dow = (n: number) => ((n + 3) % 7 + 7) % 7;
+        const first = toDay(from);
+        const last = toDay(to);
+        const result: ScheduleOccurrence[] = [];
+        for (const s of schedules) {
+            const start = toDay(s.date);
+            if (isNaN(start)) continue;
+            const interval = Math.max(1, s.recurrenceInterval || 1);
+            const until = !s.recurrence ? start : s.recurrenceUntil ? toDay(s.recurrenceUntil) : Infinity;
+            const skipped = new Set((s.exceptionDates || "").split(",").filter(Boolean));
+            const days = s.recurrenceDays ? s.recurrenceDays.split(",").map(d => WEEKDAYS.indexOf(d.trim().toUpperCase())) : [dow(start)];
+            const startDate = new Date(start * DAY);
+            for (let d = Math.max(first, start); d <= Math.min(last, until); d++) {
+                let matches = d === start;
+                if (s.recurrence === 'daily') {
+                    matches = (d - start) % interval === 0;
+                } else if (s.recurrence === 'weekly') {
+                    matches = days.includes(dow(d)) && Math.floor((d - start + dow(start)) / 7) % interval === 0;
+                } else if (s.recurrence === 'monthly') {
+                    const date = new Date(d * DAY);
+                    const months = (date.getUTCFullYear() - startDate.getUTCFullYear()) * 12 + date.getUTCMonth() - startDate.getUTCMonth();
+                    matches = date.getUTCDate() === startDate.getUTCDate() && months % interval === 0;
+                }
+                const date = toDate(d);
+                if (matches && !skipped.has(date)) {
+                    result.push({
+                        scheduleId: s.id, title: s.title, date, time: s.time || null,
+                        duration: s.duration || (s.time ? 60 : 1440), description: s.description, recurring: !!s.recurrence
+                    });
+                }
+            }
+        }
+        return result.sort((a, b) => (a.date + (a.time || "")).localeCompare(b.date + (b.time || "")));
+    },
 
     // 获取配置
     getConfig: () => {
@@ -267,6 +325,26 @@ const localImpl = {
 // --- 导出的异步 API ---
 
 export const api = {
+  /**
+   * 获取首页聚合数据（精选文章、最新文章、分类计数、最新随手记和配置）
+   * @returns Promise<HomeData>
+   */
+  getHome: async (): Promise<HomeData> => {
+    return fetchWithFallback('/home', undefined, () => {
+        const posts = [...localImpl.getPosts()].sort((a, b) => (b.date || "").localeCompare(a.date || ""));
+        const categories: Record<string, number> = {};
+        posts.forEach(p => { const c = p.category || "Uncategorized"; categories[c] = (categories[c] || 0) + 1; });
+        return {
+            featured: posts.find(p => p.featured) || null,
+            latest: posts.slice(0, 6),
+            categories,
+            totalPosts: posts.length,
+            memos: localImpl.getMemos().slice(0, 5),
+            config: localImpl.getConfig()
+        };
+    });
+  },
+
   // 文章相关 API
   /**
    * 获取所有文章
@@ -275,6 +353,16 @@ export const api = {
   getPosts: async (): Promise<Post[]> => {
     return fetchWithFallback('/posts', undefined, localImpl.getPosts);
   },
+
+  /**
+   * 获取单篇文章（含正文）
+   * 文章列表不再携带正文，详情和编辑时按需加载
+   * @param id 文章 ID
+   * @returns Promise<Post | null>
+   */
+  getPost: async (id: string): Promise<Post | null> => {
+    return fetchWithFallback(`/posts/${id}`, undefined, () => localImpl.getPosts().find(p => p.id === id) || null);
+  },
   
   /**
    * 添加或更新文章
@@ -296,6 +384,63 @@ export const api = {
     });
   },
 
+  /**
+   * 获取相关文章
+   * @param id 文章 ID
+   * @param limit 最多返回的篇数
+   * @returns Promise<RelatedPost[]>
+   */
+  getRelatedPosts: async (id: string, limit = 4): Promise<RelatedPost[]> => {
+    return fetchWithFallback(`/posts/${id}/related?limit=${limit}`, undefined, () => {
+        // 本地模式按标签重合度计算
+        const posts = localImpl.getPosts();
+        const tags = new Set(posts.find(p => p.id === id)?.tags || []);
+        return posts
+            .filter(p => p.id !== id)
+            .map(p => ({ post: p, score: p.tags.filter(t => tags.has(t)).length }))
+            .filter(r => r.score > 0)
+            .sort((a, b) => b.score - a.score)
+            .slice(0, limit);
+    });
+  },
+
+  /**
+   * 局部更新文章，只发送修改的字段和正文区间编辑
+   * @param id 文章 ID
+   * @param patch 局部更新请求
+   * @param autosave 是否为自动保存（服务端合并后延迟写入）
+   * @returns Promise<boolean> 是否成功，正文基准不一致时返回 false
+   */
+  patchPost: async (id: string, patch: PostPatch, autosave = false): Promise<boolean> => {
+    try {
+        const res = await fetch(`${BASE_URL}/posts/${id}?autosave=${autosave}`, {
+            method: 'PATCH',
+            headers: { 'Content-Type': 'application/json' },
+            body: JSON.stringify(patch)
+        });
+        if (res.ok) return true;
+        // 请求无效或正文基准不一致
+        if (res.status === 400 || res.status === 409) return false;
+    } catch (e) {
+        // 后端不可用时回退到本地存储
+    }
+    const posts = localImpl.getPosts();
+    const index = posts.findIndex(p => p.id === id);
+    if (index < 0) return false;
+    const { baseLength, contentEdits, ...fields } = patch;
+    let content = posts[index].content || "";
+    if (contentEdits) {
+        if (baseLength !== undefined && baseLength !== content.length) return false;
+        [...contentEdits].sort((a, b) => b.start - a.start).forEach(edit => {
+            content = content.substring(0, edit.start) + edit.text + content.substring(edit.end);
+        });
+    }
+    let updatedPosts = fields.featured ? posts.map(p => ({ ...p, featured: false })) : posts;
+    updatedPosts[index] = { ...updatedPosts[index], ...fields, content: fields.content ?? content };
+    localImpl.savePosts(updatedPosts);
+    return true;
+  },
+
   /**
    * 删除文章
    * @param id 文章 ID
@@ -308,6 +453,66 @@ export const api = {
     });
   },
 
+  /**
+   * 订阅实时更新（SSE），连接断开后浏览器会自动重连
+   * @param postId 文章 ID，为 null 时订阅全站频道
+   * @param handlers 各类事件的处理函数
+   * @returns 取消订阅函数
+   */
+  subscribeLive: (postId: string | null, handlers: LiveHandlers): (() => void) => {
+    if (typeof EventSource === "undefined") return () => {};
+    const source = new EventSource(postId ? `${BASE_URL}/posts/${postId}/live` : `${BASE_URL}/live`);
+    Object.entries(handlers).forEach(([name, handler]) => {
+        source.addEventListener(name, (e) => {
+            try {
+                (handler as (data: unknown) => void)(JSON.parse((e as MessageEvent).data));
+            } catch (err) {
+                // 忽略无法解析的事件
+            }
+        });
+    });
+    return () => source.close();
+  },
+
+  /**
+   * 记录一次文章浏览，失败时忽略
+   * 访客 ID 随机生成并保存在本地，用于服务端估计去重访客数
+   * @param id 文章 ID
+   */
+  recordView: async (id: string): Promise<void> => {
+    try {
+        let visitor = localStorage.getItem(DB_KEY_VISITOR);
+        if (!visitor) {
+            visitor = generateId() + generateId();
+            localStorage.setItem(DB_KEY_VISITOR, visitor);
+        }
+        await fetch(`${BASE_URL}/posts/${id}/view?visitor=${visitor}`, { method: 'POST', keepalive: true });
+    } catch (e) {
+        // 本地模式不统计浏览
+    }
+  },
+
+  /**
+   * 获取最近若干天的逐日浏览统计
+   * @param days 天数
+   * @param postId 文章 ID（可选，缺省为全站）
+   * @returns Promise<ViewSeries | null>
+   */
+  getViewSeries: async (days = 30, postId?: string): Promise<ViewSeries | null> => {
+    const query = postId ? `&postId=${encodeURIComponent(postId)}` : '';
+    return fetchWithFallback(`/admin/analytics/views?days=${days}${query}`, undefined, () => null);
+  },
+
+  /**
+   * 获取最近若干天浏览量最高的文章
+   * @param days 天数
+   * @param limit 最多返回的篇数
+   * @returns Promise<TopViewedPost[]>
+   */
+  getTopViewedPosts: async (days = 7, limit = 10): Promise<TopViewedPost[]> => {
+    return fetchWithFallback(`/admin/analytics/top?days=${days}&limit=${limit}`, undefined, () => []);
+  },
+
   /**
    * 点赞文章
    * @param id 文章 ID
@@ -329,58 +534,61 @@ export const api = {
   },
 
   /**
-   * 添加评论
+   * 添加评论，后端入队后即返回，审核与写入在后台完成
    * @param postId 文章 ID
    * @param comment 评论对象
    * @param parentId 父评论 ID（可选）
-   * @returns Promise<Post | null>
+   * @returns Promise<Comment | null> 已入队的评论；后端繁忙或拒绝时抛出错误
    */
-  addComment: async (postId: string, comment: Omit<Comment, 'id' | 'date'>, parentId?: string): Promise<Post | null> => {
-      return fetchWithFallback(`/posts/${postId}/comments?parentId=${parentId || ''}`, {
-          method: 'POST',
-          headers: { 'Content-Type': 'application/json' },
-          body: JSON.stringify(comment)
-      }, () => {
-        const posts = localImpl.getPosts();
-        const index = posts.findIndex(p => p.id === postId);
-        if (index !== -1) {
-            const post = posts[index];
-            const newComment: Comment = {
-                ...comment,
-                id: generateId(),
-                date: new Date().toISOString().split('T')[0],
-                replies: []
-            };
-
-            if (parentId) {
-                const addReplyRecursively = (comments: Comment[]): boolean => {
-                    for (let c of comments) {
-                        if (c.id === parentId) {
-                            c.replies = [...(c.replies || []), newComment];
-                            return true;
-                        }
-                        if (c.replies && c.replies.length > 0) {
-                            if (addReplyRecursively(c.replies)) return true;
-                        }
-                    }
-                    return false;
-                };
-                const commentsCopy = JSON.parse(JSON.stringify(post.comments || []));
-                if (addReplyRecursively(commentsCopy)) {
-                    const updatedPost = { ...post, comments: commentsCopy };
-                    posts[index] = updatedPost;
-                    localImpl.savePosts(posts);
-                    return updatedPost;
-                }
-            }
+  addComment: async (postId: string, comment: Omit<Comment, 'id' | 'date'>, parentId?: string): Promise<Comment | null> => {
+      let res: Response | null = null;
+      try {
+          res = await fetch(`${BASE_URL}/posts/${postId}/comments?parentId=${parentId || ''}`, {
+              method: 'POST',
+              headers: { 'Content-Type': 'application/json' },
+              body: JSON.stringify(comment)
+          });
+      } catch (e) {
+          // 后端不可用时回退到本地存储
+      }
+      if (res && res.ok) {
+          const data: CommentReceipt = await res.json();
+          return data.comment;
+      }
+      if (res && (res.status === 503 || res.status === 429)) {
+          throw new Error("评论提交繁忙，请稍后再试");
+      }
+      if (res && res.status === 400) {
+          const data = await res.json().catch(() => ({}));
+          throw new Error(data.error || "评论无效");
+      }
+      const posts = localImpl.getPosts();
+      const index = posts.findIndex(p => p.id === postId);
+      if (index === -1) return null;
+      const newComment: Comment = {
+          ...comment,
+          id: generateId(),
+          date: new Date().toISOString().split('T')[0],
+          replies: []
+      };
+      posts[index] = { ...posts[index], comments: insertComment(posts[index].comments || [], newComment, parentId) };
+      localImpl.savePosts(posts);
+      return newComment;
+  },
 
-            const updatedPost = { ...post, comments: [...(post.comments || []), newComment] };
-            posts[index] = updatedPost;
-            localImpl.savePosts(posts);
-            return updatedPost;
-        }
-        return null;
-      });
+  /**
+   * 查询评论的审核与写入结果
+   * @param id 评论 ID
+   * @returns Promise<CommentStatus | null> 未知或本地模式时返回 null
+   */
+  getCommentStatus: async (id: string): Promise<CommentStatus | null> => {
+      try {
+          const res = await fetch(`${BASE_URL}/comments/${id}/status`);
+          if (res.ok) return await res.json();
+      } catch (e) {
+          // 本地模式没有审核
+      }
+      return null;
   },
 
   // 随手记相关 API
@@ -391,6 +599,42 @@ export const api = {
   getMemos: async (): Promise<Memo[]> => {
       return fetchWithFallback('/memos', undefined, localImpl.getMemos);
   },
+
+  /**
+   * 获取随手记时间线的一页（按日期倒序，游标翻页）
+   * @param cursor 上一页返回的游标，首页不传
+   * @param month 从该月（yyyy-MM）开始，用于从归档跳转
+   * @param limit 每页条数
+   * @returns Promise<MemoPage>
+   */
+  getMemoTimeline: async (cursor?: string | null, month?: string | null, limit = 20): Promise<MemoPage> => {
+      const params = new URLSearchParams({ limit: String(limit) });
+      if (cursor) params.set('cursor', cursor);
+      else if (month) params.set('month', month);
+      return fetchWithFallback(`/memos/timeline?${params}`, undefined, () => {
+          // 本地模式：游标为已返回的条数
+          const memos: Memo[] = [...localImpl.getMemos()].sort((a, b) => (b.date || "").localeCompare(a.date || ""));
+          let start = cursor ? Number(cursor) : 0;
+          if (!cursor && month) start = memos.findIndex(m => (m.date || "").slice(0, 7) <= month);
+          if (start < 0) start = memos.length;
+          const end = start + limit;
+          return { memos: memos.slice(start, end), nextCursor: end < memos.length ? String(end) : null };
+      });
+  },
+
+  /**
+   * 获取随手记的按月归档计数
+   * @returns Promise<MemoArchiveMonth[]>
+   */
+  getMemoArchive: async (): Promise<MemoArchiveMonth[]> => {
+      return fetchWithFallback('/memos/archive', undefined, () => {
+          const counts: Record<string, number> = {};
+          localImpl.getMemos().forEach((m: Memo) => {
+              if (m.date) counts[m.date.slice(0, 7)] = (counts[m.date.slice(0, 7)] || 0) + 1;
+          });
+          return Object.keys(counts).sort().reverse().map(month => ({ month, count: counts[month] }));
+      });
+  },
   
   /**
    * 添加随手记
@@ -428,6 +672,43 @@ export const api = {
       });
   },
 
+  // 个人仪表板相关 API
+  /**
+   * 获取个人仪表板摘要（待办计数、当天和即将到来的日程、随手记条数）
+   * @param date 当天日期（YYYY-MM-DD）
+   * @returns Promise<DashboardSummary>
+   */
+  getDashboardSummary: async (date: string): Promise<DashboardSummary> => {
+      return fetchWithFallback(`/dashboard/summary?date=${encodeURIComponent(date)}`, undefined, () => {
+          const todos: Todo[] = localImpl.getTodos();
+          const schedules: Schedule[] = localImpl.getSchedules();
+          const memos: Memo[] = localImpl.getMemos();
+          const count = (list: Todo[]): TodoCounts => ({
+              open: list.filter(t => !t.completed).length,
+              completed: list.filter(t => t.completed).length
+          });
+          const byPriority: Record<string, TodoCounts> = {};
+          for (const p of Array.from(new Set(todos.map(t => t.priority || "none")))) {
+              byPriority[p] = count(todos.filter(t => (t.priority || "none") === p));
+          }
+          const tomorrow = new Date(Date.parse(date + "T00:00:00Z") + 86400000).toISOString().slice(0, 10);
+          const nextYear = new Date(Date.parse(date + "T00:00:00Z") + 366 * 86400000).toISOString().slice(0, 10);
+          return {
+              date,
+              todos: { ...count(todos), byPriority, dueToday: count(todos.filter(t => t.date === date)) },
+              schedules: {
+                  total: schedules.length,
+                  today: localImpl.expandSchedules(schedules, date, date),
+                  upcoming: localImpl.expandSchedules(schedules, tomorrow, nextYear).slice(0, 5)
+              },
+              memos: {
+                  total: memos.length,
+                  thisMonth: memos.filter(m => (m.date || "").startsWith(date.slice(0, 7))).length
+              }
+          };
+      });
+  },
+
   // 待办事项相关 API
   /**
    * 获取所有待办事项
@@ -496,29 +777,87 @@ export const api = {
       return fetchWithFallback('/schedules', undefined, localImpl.getSchedules);
   },
 
+  /**
+   * 获取日期范围内发生的日程，重复日程展开为各次发生
+   * @param from 起始日期（YYYY-MM-DD，含）
+   * @param to 结束日期（YYYY-MM-DD，含）
+   * @returns Promise<ScheduleOccurrence[]>
+   */
+  getScheduleOccurrences: async (from: string, to: string): Promise<ScheduleOccurrence[]> => {
+      return fetchWithFallback(`/schedules/occurrences?from=${encodeURIComponent(from)}&to=${encodeURIComponent(to)}`,
+          undefined, () => localImpl.expandSchedules(localImpl.getSchedules(), from, to));
+  },
+
+  /**
+   * 检查尚未保存的日程与已有日程的时间冲突
+   * @param schedule 待检查的日程（可带重复规则）
+   * @returns Promise<ScheduleConflict[]>
+   */
+  checkScheduleConflicts: async (schedule: Partial<Schedule>): Promise<ScheduleConflict[]> => {
+      return fetchWithFallback('/schedules/conflicts', {
+          method: 'POST',
+          headers: { 'Content-Type': 'application/json' },
+          body: JSON.stringify(schedule)
+      }, () => {
+          // 本地只检查首次发生当天
+          if (!schedule.date || !schedule.time) return [];
+          const minutes = (t: string) => Number(t.slice(0, 2)) * 60 + Number(t.slice(3, 5));
+          const start = minutes(schedule.time);
+          const end = start + (schedule.duration || 60);
+          const occurrence: ScheduleOccurrence = {
+              scheduleId: schedule.id || "", title: schedule.title || "", date: schedule.date, time: schedule.time,
+              duration: end - start, description: schedule.description, recurring: !!schedule.recurrence
+          };
+          return localImpl.expandSchedules(localImpl.getSchedules(), schedule.date, schedule.date)
+              .filter(o => o.scheduleId !== schedule.id)
+              .filter(o => o.time === null || (minutes(o.time) < end && minutes(o.time) + o.duration > start))
+              .map(o => ({ occurrence, conflictsWith: o }));
+      });
+  },
+
   /**
    * 添加日程安排
    * @param title 日程标题
    * @param time 时间
    * @param date 日期
    * @param description 描述（可选）
+   * @param repeat 重复规则等可选字段
    * @returns Promise<Schedule[]>
    */
-  addSchedule: async (title: string, time: string, date: string, description?: string): Promise<Schedule[]> => {
-      const schedule: Partial<Schedule> = { title, time, date, description };
+  addSchedule: async (title: string, time: string, date: string, description?: string,
+                      repeat?: Partial<Schedule>): Promise<Schedule[]> => {
+      const schedule: Partial<Schedule> = { title, time, date, description, ...repeat };
       return fetchWithFallback('/schedules', {
           method: 'POST',
           headers: { 'Content-Type': 'application/json' },
           body: JSON.stringify(schedule)
       }, () => {
           const schedules = localImpl.getSchedules();
-          const newSchedule: Schedule = { id: generateId(), title, time, date, description };
+          const newSchedule: Schedule = { id: generateId(), title, time, date, description, ...repeat };
           const newSchedules = [...schedules, newSchedule].sort((a,b) => a.time.localeCompare(b.time));
           localImpl.saveSchedules(newSchedules);
           return newSchedules;
       });
   },
 
+  /**
+   * 跳过重复日程的某一次发生
+   * @param id 日程安排 ID
+   * @param date 要跳过的日期（YYYY-MM-DD）
+   * @returns Promise<Schedule>
+   */
+  skipScheduleOccurrence: async (id: string, date: string): Promise<Schedule> => {
+      return fetchWithFallback(`/schedules/${id}/skip?date=${encodeURIComponent(date)}`, { method: 'POST' }, () => {
+          const schedules: Schedule[] = localImpl.getSchedules();
+          const schedule = schedules.find(s => s.id === id)!;
+          const dates = new Set((schedule.exceptionDates || "").split(",").filter(Boolean));
+          dates.add(date);
+          schedule.exceptionDates = Array.from(dates).sort().join(",");
+          localImpl.saveSchedules(schedules);
+          return schedule;
+      });
+  },
+
   /**
    * 删除日程安排
    * @param id 日程安排 ID
@@ -564,26 +903,89 @@ export const api = {
 
   /**
    * 保存站点配置
+   * 提供修改前的配置时只为有变化的公开分区发送 JSON Merge Patch，否则整体保存（导入数据时使用，不含账户）
    * @param config 站点配置对象
-   * @returns Promise<void>
+   * @param previous 修改前的配置
+   * @returns Promise<boolean> 是否全部保存成功
    */
-  saveConfig: async (config: SiteConfig): Promise<void> => {
-      return fetchWithFallback('/config', {
-          method: 'POST',
-          headers: { 'Content-Type': 'application/json' },
-          body: JSON.stringify(config)
-      }, () => {
-          localImpl.saveConfig(config);
+  saveConfig: async (config: SiteConfig, previous?: SiteConfig): Promise<boolean> => {
+      if (!previous) {
+          return fetchWithFallback('/config', {
+              method: 'POST',
+              headers: { 'Content-Type': 'application/json' },
+              body: JSON.stringify(config)
+          }, () => {
+              localImpl.saveConfig(config);
+          }).then(() => true);
+      }
+      let saved = true;
+      for (const section of PUBLIC_CONFIG_SECTIONS) {
+          const patch = createMergePatch(pickConfigSection(previous, section), pickConfigSection(config, section));
+          if (patch) saved = (await api.patchConfigSection(section, patch)) && saved;
+      }
+      return saved;
+  },
+
+  /**
+   * 获取单个配置分区，私有分区（账户）通过管理端点读取，只返回用户名
+   * @param section 分区名
+   * @returns Promise 分区文档
+   */
+  getConfigSection: async <T = Record<string, any>>(section: ConfigSectionName): Promise<T> => {
+      const path = PUBLIC_CONFIG_SECTIONS.includes(section) ? `/config/${section}` : `/admin/config/${section}`;
+      return fetchWithFallback(path, undefined, () => {
+          const doc = pickConfigSection(localImpl.getConfig(), section);
+          if (doc.accounts) doc.accounts = doc.accounts.map((a: any) => ({ username: a.username }));
+          return doc as T;
       });
   },
 
+  /**
+   * 以 JSON Merge Patch 更新单个配置分区
+   * @param section 分区名
+   * @param patch 合并补丁，只包含该分区的字段
+   * @returns Promise<boolean> 校验失败或版本冲突时为 false
+   */
+  patchConfigSection: async (section: ConfigSectionName, patch: Record<string, any>): Promise<boolean> => {
+      try {
+          const res = await fetch(`${BASE_URL}/config/${section}`, {
+              method: 'PATCH',
+              headers: { 'Content-Type': 'application/merge-patch+json' },
+              body: JSON.stringify(patch)
+          });
+          if (res.ok) return true;
+          if (res.status === 400 || res.status === 412) return false;
+      } catch (e) {
+          // 后端不可用时回退到本地存储
+      }
+      localImpl.saveConfig(applyMergePatch(localImpl.getConfig(), patch));
+      return true;
+  },
+
+  // 媒体相关 API
+  /**
+   * 上传图片，返回内容寻址的访问地址（相同内容只存储一份）
+   * @param file 图片文件
+   * @returns Promise<string> 图片 URL
+   */
+  uploadImage: async (file: File): Promise<string> => {
+      const form = new FormData();
+      form.append('file', file);
+      const res = await fetch(`${BASE_URL}/media`, { method: 'POST', body: form });
+      if (!res.ok) throw new Error(`Upload failed: ${res.status}`);
+      const info = await res.json();
+      return `${BASE_URL}/media/${info.name}`;
+  },
+
   // 数据导出/导入 API
   /**
    * 导出所有数据
    * @returns Promise<string>
    */
   exportData: async (): Promise<string> => {
-      const posts = await api.getPosts();
+      const summaries = await api.getPosts();
+      // 列表不含正文，逐篇加载完整文章
+      const posts = await Promise.all(summaries.map(async p => (await api.getPost(p.id)) || p));
       const memos = await api.getMemos();
       const todos = await api.getTodos();
       const schedules = await api.getSchedules();
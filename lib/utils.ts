@@ -3,6 +3,8 @@
  * 提供通用的辅助函数，如 ID 生成、日期格式化等
  */
 
+import { Comment, TextEdit } from "../types";
+
 // 生成随机 ID
 export const generateId = () => Math.random().toString(36).substring(2, 9);
 
@@ -29,11 +31,96 @@ export async function sha256(message: string): Promise<string> {
     return hashArray.map(b => b.toString(16).padStart(2, '0')).join('');
 }
 
+const isPlainObject = (value: any): value is Record<string, any> =>
+    value !== null && typeof value === 'object' && !Array.isArray(value);
+
+/**
+ * 计算 JSON Merge Patch（RFC 7386）：对象逐字段比较，删除的字段记为 null，其余有变化的值（包括数组）整体替换
+ * @param before 原文档
+ * @param after 新文档
+ * @returns 补丁，没有变化时为 undefined
+ */
+export const createMergePatch = (before: any, after: any): any => {
+    if (!isPlainObject(before) || !isPlainObject(after)) {
+        if (JSON.stringify(before) === JSON.stringify(after)) return undefined;
+        return after === undefined ? null : after;
+    }
+    const patch: Record<string, any> = {};
+    for (const key of Object.keys(before)) {
+        if (after[key] === undefined && before[key] !== undefined) patch[key] = null;
+    }
+    for (const key of Object.keys(after)) {
+        if (after[key] === undefined) continue;
+        const value = createMergePatch(before[key], after[key]);
+        if (value !== undefined) patch[key] = value;
+    }
+    return Object.keys(patch).length > 0 ? patch : undefined;
+};
+
+/**
+ * 应用 JSON Merge Patch（RFC 7386），不修改原文档
+ * @param target 原文档
+ * @param patch 补丁
+ * @returns 合并后的文档
+ */
+export const applyMergePatch = (target: any, patch: any): any => {
+    if (!isPlainObject(patch)) return patch;
+    const result: Record<string, any> = isPlainObject(target) ? { ...target } : {};
+    for (const [key, value] of Object.entries(patch)) {
+        if (value === null) delete result[key];
+        else result[key] = applyMergePatch(result[key], value);
+    }
+    return result;
+};
+
+/**
+ * 计算两段文本之间的区间编辑（去掉公共前缀和后缀后的单个替换区间）
+ * @param base 原文本
+ * @param next 新文本
+ * @returns TextEdit[]，文本相同时为空数组
+ */
+export const diffText = (base: string, next: string): TextEdit[] => {
+    if (base === next) return [];
+    let prefix = 0;
+    const max = Math.min(base.length, next.length);
+    while (prefix < max && base.charCodeAt(prefix) === next.charCodeAt(prefix)) prefix++;
+    let suffix = 0;
+    while (suffix < max - prefix
+        && base.charCodeAt(base.length - 1 - suffix) === next.charCodeAt(next.length - 1 - suffix)) suffix++;
+    return [{ start: prefix, end: base.length - suffix, text: next.substring(prefix, next.length - suffix) }];
+};
+
 /**
  * 生成标题 ID（用于锚点链接）
  * @param text 文本
  * @returns string
  */
+/**
+ * 把一条评论插入评论树，已存在相同 ID 的评论时原样返回
+ * @param comments 评论树
+ * @param comment 新评论
+ * @param parentId 父评论 ID，为空时作为顶层评论
+ * @returns 新的评论树
+ */
+export const insertComment = (comments: Comment[], comment: Comment, parentId?: string | null): Comment[] => {
+  const contains = (list: Comment[]): boolean => list.some(c => c.id === comment.id || contains(c.replies || []));
+  if (contains(comments)) return comments;
+  if (!parentId) return [...comments, comment];
+  const attach = (list: Comment[]): Comment[] => list.map(c => c.id === parentId
+    ? { ...c, replies: [...(c.replies || []), comment] }
+    : { ...c, replies: attach(c.replies || []) });
+  return attach(comments);
+};
+
+/**
+ * 从评论树中移除指定 ID 的评论
+ * @param comments 评论树
+ * @param id 评论 ID
+ * @returns 新的评论树
+ */
+export const removeComment = (comments: Comment[], id: string): Comment[] =>
+  comments.filter(c => c.id !== id).map(c => ({ ...c, replies: removeComment(c.replies || [], id) }));
+
 export const generateHeadingId = (text: string) => {
     return text.toLowerCase().replace(/[^\w\u4e00-\u9fa5]+/g, '-');
 };
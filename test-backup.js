@@ -0,0 +1,95 @@
+// 在线备份延迟测试脚本：以固定并发持续发送读写请求，期间触发一次数据库在线备份，
+// 预热后分别统计备份前、备份期间和备份后的请求延迟（p50/p99/最大）与错误数，并输出备份文件大小和耗时。
+// 使用 node.js 运行: node test-backup.js [并发数，默认 16] [备份前后各持续秒数，默认 5]
+// 环境变量 BASE_URL 指定后端地址，默认 http://localhost:8080
+
+import http from 'http';
+
+const BASE_URL = new URL(process.env.BASE_URL || 'http://localhost:8080');
+const CONCURRENCY = Number(process.argv[2] || 16);
+const PHASE_S = Number(process.argv[3] || 5);
+// 每 10 个请求中有 1 个写请求
+const WRITE_EVERY = 10;
+const READ_PATHS = ['/api/posts', '/api/memos/timeline?limit=20', '/api/dashboard/summary'];
+
+const agent = new http.Agent({ keepAlive: true, maxSockets: 256 });
+let seq = 0;
+
+// 每个请求使用不同的来源地址，避免触发每 IP 限流
+function request(method, path, body) {
+  const n = seq++;
+  const ip = `10.${(n >> 16) & 255}.${(n >> 8) & 255}.${n & 255}`;
+  const start = process.hrtime.bigint();
+  return new Promise((resolve) => {
+    const req = http.request({
+      hostname: BASE_URL.hostname, port: BASE_URL.port, path, method, agent,
+      headers: { 'X-Forwarded-For': ip, 'Content-Type': 'application/json' }
+    }, (res) => {
+      let data = '';
+      res.on('data', chunk => data += chunk);
+      res.on('end', () => resolve({ status: res.statusCode, ms: Number(process.hrtime.bigint() - start) / 1e6, data }));
+    });
+    req.on('error', () => resolve({ status: 0, ms: Number(process.hrtime.bigint() - start) / 1e6 }));
+    if (body) req.write(JSON.stringify(body));
+    req.end();
+  });
+}
+
+function percentile(sorted, p) {
+  if (sorted.length === 0) return 0;
+  return sorted[Math.min(sorted.length - 1, Math.floor(sorted.length * p))];
+}
+
+async function main() {
+  const phases = { warmup: [], before: [], during: [], after: [] };
+  let phase = 'warmup';
+  let running = true;
+  const createdTodos = [];
+
+  const workers = Array.from({ length: CONCURRENCY }, async (_, w) => {
+    for (let i = 0; running; i++) {
+      const current = phase;
+      let r;
+      if (i % WRITE_EVERY === w % WRITE_EVERY) {
+        const id = `backup-test-${w}-${i}`;
+        createdTodos.push(id);
+        r = await request('POST', '/api/todos', { id, text: 'backup latency test', completed: false, priority: 'low', date: '2000-01-01' });
+      } else {
+        r = await request('GET', READ_PATHS[i % READ_PATHS.length]);
+      }
+      phases[current].push(r);
+    }
+  });
+
+  console.log(`并发 ${CONCURRENCY}，预热 ${PHASE_S} 秒...`);
+  await new Promise(resolve => setTimeout(resolve, PHASE_S * 1000));
+  phase = 'before';
+  console.log(`备份前 ${PHASE_S} 秒...`);
+  await new Promise(resolve => setTimeout(resolve, PHASE_S * 1000));
+  phase = 'during';
+  console.log('触发在线备份...');
+  const backup = await request('POST', '/api/admin/backups');
+  phase = 'after';
+  console.log(`备份完成（HTTP ${backup.status}，${backup.ms.toFixed(0)} ms）：${backup.data}`);
+  await new Promise(resolve => setTimeout(resolve, PHASE_S * 1000));
+  running = false;
+  await Promise.all(workers);
+
+  console.log('\n阶段\t请求数\t错误\tp50(ms)\tp99(ms)\t最大(ms)\t错误状态码');
+  for (const [name, results] of Object.entries(phases)) {
+    if (name === 'warmup') continue;
+    const ok = results.filter(r => r.status === 200).map(r => r.ms).sort((a, b) => a - b);
+    const errors = {};
+    results.filter(r => r.status !== 200).forEach(r => errors[r.status] = (errors[r.status] || 0) + 1);
+    console.log(`${name}\t${results.length}\t${results.length - ok.length}\t${percentile(ok, 0.5).toFixed(1)}\t` +
+      `${percentile(ok, 0.99).toFixed(1)}\t${(ok[ok.length - 1] || 0).toFixed(1)}\t${JSON.stringify(errors)}`);
+  }
+
+  // 清理测试写入的待办事项
+  for (let i = 0; i < createdTodos.length; i += 1000) {
+    await request('POST', '/api/todos/bulk/delete', createdTodos.slice(i, i + 1000));
+  }
+  agent.destroy();
+}
+
+main();
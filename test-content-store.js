@@ -0,0 +1,135 @@
+// 正文存储对比测试脚本：生成 5 万篇文章的合成语料，并测量每次加载文章（点赞请求）在后端分配的堆内存。
+// 测量步骤：
+//   1. node test-content-store.js corpus posts.csv        生成语料（Zipf 分布的词表、标题、列表和代码块，正文 500 B 到 100 KB）
+//   2. 用旧版本后端在空数据目录启动一次建表后停止，再用 H2 Shell 导入：
+//      INSERT INTO posts (id,title,excerpt,content,cover_image,date,category,author,featured,likes)
+//        SELECT ID,TITLE,EXCERPT,CONTENT,COVER_IMAGE,DATE,CATEGORY,AUTHOR,CAST(FEATURED AS BOOLEAN),CAST(LIKES AS INT) FROM CSVREAD('posts.csv');
+//      SHUTDOWN COMPACT
+//      复制一份数据目录，新旧版本各用一份
+//   3. 分别以 java -XX:+UseParallelGC -Xms3g -Xmx3g -Xmn2g -jar <jar> 启动后端，运行
+//      node test-content-store.js likes <后端进程号>，对比两次的每请求分配量；停止后执行 SHUTDOWN COMPACT 对比数据库文件大小，
+//      新版本还可以从 /api/admin/content-store/stats 读取压缩率和按实体测量的每篇文章堆分配量
+// 使用 node.js 运行: node test-content-store.js corpus <输出 CSV> [篇数，默认 50000]
+//                  node test-content-store.js likes <后端进程号> [请求数，默认 2000] [端口，默认 18080]
+
+import fs from 'fs';
+import http from 'http';
+import { execFileSync } from 'child_process';
+
+// 可复现的伪随机数
+function mulberry32(seed) {
+  return () => {
+    seed |= 0;
+    seed = seed + 0x6D2B79F5 | 0;
+    let t = Math.imul(seed ^ seed >>> 15, 1 | seed);
+    t = t + Math.imul(t ^ t >>> 7, 61 | t) ^ t;
+    return ((t ^ t >>> 14) >>> 0) / 4294967296;
+  };
+}
+
+function corpus(file, count) {
+  const random = mulberry32(32);
+  const letters = 'abcdefghijklmnopqrstuvwxyz';
+  const vocab = Array.from({ length: 3000 }, () =>
+    Array.from({ length: 2 + Math.floor(random() * 9) }, () => letters[Math.floor(random() * 26)]).join(''));
+  // 按 1/(i+1) 的频率取词，接近自然语言的词频分布
+  const cumulative = [];
+  let sum = 0;
+  vocab.forEach((_, i) => cumulative.push(sum += 1 / (i + 1)));
+  const word = () => {
+    const r = random() * sum;
+    let lo = 0, hi = cumulative.length - 1;
+    while (lo < hi) {
+      const mid = (lo + hi) >> 1;
+      if (cumulative[mid] < r) lo = mid + 1; else hi = mid;
+    }
+    return vocab[lo];
+  };
+  const words = (min, max) => Array.from({ length: min + Math.floor(random() * (max - min + 1)) }, word).join(' ');
+  const capitalize = s => s.charAt(0).toUpperCase() + s.slice(1);
+  const code = '```java\npublic void handle(Request req) {\n    return service.process(req.getId());\n}\n```';
+  const body = size => {
+    const parts = [];
+    let length = 0;
+    while (length < size) {
+      const r = random();
+      const part = r < 0.08 ? '## ' + capitalize(words(2, 6))
+        : r < 0.12 ? code
+        : r < 0.18 ? '- ' + words(4, 12)
+        : capitalize(words(20, 80)) + '.';
+      parts.push(part);
+      length += part.length + 2;
+    }
+    return parts.join('\n\n').slice(0, size);
+  };
+  // 正文长度取对数正态分布（中位数 4 KB），限制在 500 B 到 100 KB
+  const gaussian = () => Math.sqrt(-2 * Math.log(1 - random())) * Math.cos(2 * Math.PI * random());
+  const csv = v => '"' + String(v).replace(/"/g, '""') + '"';
+  const categories = ['Tech', 'Life', 'Notes', 'Design', 'Travel'];
+
+  const out = fs.openSync(file, 'w');
+  fs.writeSync(out, 'ID,TITLE,EXCERPT,CONTENT,COVER_IMAGE,DATE,CATEGORY,AUTHOR,FEATURED,LIKES\n');
+  let total = 0;
+  for (let i = 0; i < count; i++) {
+    const size = Math.round(Math.min(100000, Math.max(500, 4000 * Math.exp(gaussian()))));
+    const text = body(size);
+    total += text.length;
+    const date = `2024-${String(1 + i % 12).padStart(2, '0')}-${String(1 + i % 28).padStart(2, '0')}`;
+    fs.writeSync(out, [`post-${String(i).padStart(5, '0')}`, capitalize(words(5, 5)), text.slice(0, 200), text, '', date,
+      categories[Math.floor(random() * categories.length)], 'Admin', 'FALSE', Math.floor(random() * 51)].map(csv).join(',') + '\n');
+  }
+  fs.closeSync(out);
+  console.log(`${count} 篇文章，正文共 ${total} 字节，平均 ${Math.round(total / count)} 字节`);
+}
+
+// 读取新生代 Eden 已用量（KB）和 Young GC 次数
+function eden(pid) {
+  const [header, values] = execFileSync('jstat', ['-gc', String(pid)]).toString().trim().split('\n').map(l => l.trim().split(/\s+/));
+  return { used: Number(values[header.indexOf('EU')]), gcs: Number(values[header.indexOf('YGC')]) };
+}
+
+async function likes(pid, count, port) {
+  const agent = new http.Agent({ keepAlive: true, maxSockets: 4 });
+  let seq = 0;
+  // 每个请求使用不同的来源地址，避免触发每 IP 限流
+  const like = id => new Promise(resolve => {
+    const n = seq++;
+    const req = http.request({
+      hostname: 'localhost', port, path: `/api/posts/${id}/like`, method: 'POST', agent,
+      headers: { 'X-Forwarded-For': `10.${(n >> 16) & 255}.${(n >> 8) & 255}.${n & 255}` }
+    }, res => { res.resume(); res.on('end', () => resolve(res.statusCode)); });
+    req.on('error', () => resolve(0));
+    req.end();
+  });
+  const run = async (n, offset) => {
+    let ok = 0;
+    for (let i = 0; i < n; i++) {
+      if (await like(`post-${String((offset + i * 7) % 50000).padStart(5, '0')}`) === 200) ok++;
+    }
+    return ok;
+  };
+
+  // 预热后触发一次 GC，测量期间 Eden 足够大，不应再发生 Young GC
+  await run(3000, 0);
+  execFileSync('jcmd', [String(pid), 'GC.run']);
+  await new Promise(resolve => setTimeout(resolve, 1000));
+  const before = eden(pid);
+  const ok = await run(count, 1);
+  const after = eden(pid);
+  agent.destroy();
+  if (after.gcs !== before.gcs) {
+    console.error('测量期间发生了 Young GC，请增大 -Xmn 或减少请求数');
+    process.exit(1);
+  }
+  console.log(`点赞 ${ok}/${count} 成功，每次请求分配 ${Math.round((after.used - before.used) * 1024 / count)} 字节`);
+}
+
+const [mode, arg, countArg, portArg] = process.argv.slice(2);
+if (mode === 'corpus' && arg) {
+  corpus(arg, Number(countArg || 50000));
+} else if (mode === 'likes' && arg) {
+  likes(Number(arg), Number(countArg || 2000), Number(portArg || 18080));
+} else {
+  console.error('用法: node test-content-store.js corpus <输出 CSV> [篇数] | likes <后端进程号> [请求数] [端口]');
+  process.exit(1);
+}
@@ -0,0 +1,97 @@
+// 主键插入基准测试脚本：以固定并发批量创建待办事项，比较客户端随机 UUID 主键与服务端按时间递增 ID 的写入吞吐量，
+// 并通过 /api/admin/ids/status 读取写入前后 todos 表（含主键索引）的磁盘占用变化，结束后删除测试数据。
+// 两种模式应分别在同一份数据库副本上运行，避免前一次删除留下的空闲页影响占用统计。
+// 使用 node.js 运行: node test-id-insert.js [uuid|server，默认 server] [总行数，默认 100000] [并发数，默认 4]
+// 环境变量 BASE_URL 指定后端地址，默认 http://localhost:8080
+
+import http from 'http';
+import { randomUUID } from 'crypto';
+
+const BASE_URL = new URL(process.env.BASE_URL || 'http://localhost:8080');
+const MODE = process.argv[2] || 'server';
+const TOTAL = Number(process.argv[3] || 100000);
+const CONCURRENCY = Number(process.argv[4] || 4);
+// 每个批量请求的行数（服务端上限 5000）
+const BATCH = 1000;
+
+const agent = new http.Agent({ keepAlive: true, maxSockets: 64 });
+let seq = 0;
+
+// 每个请求使用不同的来源地址，避免触发每 IP 限流
+function request(method, path, body) {
+  const n = seq++;
+  const ip = `10.${(n >> 16) & 255}.${(n >> 8) & 255}.${n & 255}`;
+  const start = process.hrtime.bigint();
+  return new Promise((resolve) => {
+    const req = http.request({
+      hostname: BASE_URL.hostname, port: BASE_URL.port, path, method, agent,
+      headers: { 'X-Forwarded-For': ip, 'Content-Type': 'application/json' }
+    }, (res) => {
+      let data = '';
+      res.on('data', chunk => data += chunk);
+      res.on('end', () => resolve({ status: res.statusCode, ms: Number(process.hrtime.bigint() - start) / 1e6, data }));
+    });
+    req.on('error', () => resolve({ status: 0, ms: Number(process.hrtime.bigint() - start) / 1e6 }));
+    if (body) req.write(JSON.stringify(body));
+    req.end();
+  });
+}
+
+async function todoStats() {
+  const r = await request('GET', '/api/admin/ids/status');
+  return JSON.parse(r.data).tables.todos;
+}
+
+async function main() {
+  if (MODE !== 'uuid' && MODE !== 'server') {
+    console.error('模式应为 uuid 或 server');
+    process.exit(1);
+  }
+  const before = await todoStats();
+  console.log(`模式 ${MODE}，共 ${TOTAL} 行，每批 ${BATCH} 行，并发 ${CONCURRENCY}`);
+  console.log(`写入前：${before.rows} 行，占用 ${(before.diskBytes / 1024).toFixed(0)} KB`);
+
+  const created = [];
+  const latencies = [];
+  let errors = 0;
+  let next = 0;
+  const start = Date.now();
+  const workers = Array.from({ length: CONCURRENCY }, async () => {
+    while (next < TOTAL) {
+      const size = Math.min(BATCH, TOTAL - next);
+      next += size;
+      const batch = Array.from({ length: size }, () => ({
+        ...(MODE === 'uuid' ? { id: randomUUID() } : {}),
+        text: 'id insert benchmark', completed: false, priority: 'low', date: '2000-01-01'
+      }));
+      const r = await request('POST', '/api/todos/bulk', batch);
+      latencies.push(r.ms);
+      if (r.status !== 200) {
+        errors++;
+        continue;
+      }
+      for (const item of JSON.parse(r.data).items) {
+        if (item.status === 'created') created.push(item.id);
+      }
+    }
+  });
+  await Promise.all(workers);
+  const elapsed = (Date.now() - start) / 1000;
+  const after = await todoStats();
+
+  latencies.sort((a, b) => a - b);
+  const p = q => latencies[Math.min(latencies.length - 1, Math.floor(latencies.length * q))].toFixed(0);
+  const grown = after.diskBytes - before.diskBytes;
+  console.log(`写入 ${created.length} 行，耗时 ${elapsed.toFixed(1)} 秒，${(created.length / elapsed).toFixed(0)} 行/秒，失败批次 ${errors}`);
+  console.log(`每批延迟 p50 ${p(0.5)} ms，p99 ${p(0.99)} ms`);
+  console.log(`写入后：${after.rows} 行，占用 ${(after.diskBytes / 1024).toFixed(0)} KB，` +
+    `增长 ${(grown / 1024).toFixed(0)} KB（每行 ${(grown / Math.max(1, created.length)).toFixed(1)} 字节），平均主键长度 ${Number(after.avgKeyLength).toFixed(1)}`);
+
+  // 清理测试写入的待办事项
+  for (let i = 0; i < created.length; i += BATCH) {
+    await request('POST', '/api/todos/bulk/delete', created.slice(i, i + BATCH));
+  }
+  agent.destroy();
+}
+
+main();
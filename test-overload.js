@@ -0,0 +1,122 @@
+// 过载测试脚本：先测出接口的饱和吞吐量，再以其数倍的速率持续发送请求（开环，不等待响应），
+// 按秒输出成功请求的 p50/p99 延迟和 503 比例，并以低速率穿插管理接口请求，检查高优先级请求是否受影响。
+// 使用 node.js 运行: node test-overload.js [倍数，默认 3] [持续秒数，默认 20] [路径，默认 /api/posts]
+// 环境变量 BASE_URL 指定后端地址，默认 http://localhost:8080
+
+import http from 'http';
+
+const BASE_URL = new URL(process.env.BASE_URL || 'http://localhost:8080');
+const FACTOR = Number(process.argv[2] || 3);
+const DURATION_S = Number(process.argv[3] || 20);
+const PATH = process.argv[4] || '/api/posts';
+const PROBE_PATH = '/api/admin/concurrency/status';
+const MAX_OUTSTANDING = 4000;
+
+const agent = new http.Agent({ keepAlive: true, maxSockets: 1024 });
+let seq = 0;
+
+// 每个请求使用不同的来源地址，避免触发每 IP 限流
+function request(path) {
+  const n = seq++;
+  const ip = `10.${(n >> 16) & 255}.${(n >> 8) & 255}.${n & 255}`;
+  const start = process.hrtime.bigint();
+  return new Promise((resolve) => {
+    const req = http.request({
+      hostname: BASE_URL.hostname, port: BASE_URL.port, path, agent,
+      headers: { 'X-Forwarded-For': ip }
+    }, (res) => {
+      res.resume();
+      res.on('end', () => resolve({ status: res.statusCode, ms: Number(process.hrtime.bigint() - start) / 1e6 }));
+    });
+    req.on('error', () => resolve({ status: 0, ms: Number(process.hrtime.bigint() - start) / 1e6 }));
+    req.end();
+  });
+}
+
+function percentile(sorted, p) {
+  if (sorted.length === 0) return 0;
+  return sorted[Math.min(sorted.length - 1, Math.floor(sorted.length * p))];
+}
+
+// 闭环测量饱和吞吐量：固定并发数持续请求若干秒
+async function measureCapacity(concurrency, seconds) {
+  let done = 0;
+  const deadline = Date.now() + seconds * 1000;
+  await Promise.all(Array.from({ length: concurrency }, async () => {
+    while (Date.now() < deadline) {
+      const r = await request(PATH);
+      if (r.status === 200) done++;
+    }
+  }));
+  return done / seconds;
+}
+
+async function main() {
+  console.log(`预热并测量 ${PATH} 的饱和吞吐量...`);
+  await measureCapacity(32, 3);
+  const capacity = await measureCapacity(64, 5);
+  const rate = capacity * FACTOR;
+  console.log(`饱和吞吐量约 ${capacity.toFixed(0)} 次/秒，以 ${FACTOR} 倍（${rate.toFixed(0)} 次/秒）持续 ${DURATION_S} 秒\n`);
+  console.log('秒\t发送\t成功\t503\t其他\tp50(ms)\tp99(ms)\t管理接口(ms)');
+
+  let outstanding = 0;
+  let second = [];
+  const all = [];
+  const totals = { sent: 0, ok: 0, shed: 0, other: 0, dropped: 0 };
+  let probes = [];
+  const interval = 1000 / rate;
+  const start = Date.now();
+  let next = start;
+
+  const report = setInterval(() => {
+    const window = second;
+    second = [];
+    const ok = window.filter(r => r.status === 200).map(r => r.ms).sort((a, b) => a - b);
+    const shed = window.filter(r => r.status === 503).length;
+    const other = window.length - ok.length - shed;
+    const probe = probes.length ? Math.max(...probes).toFixed(0) : '-';
+    probes = [];
+    console.log(`${Math.round((Date.now() - start) / 1000)}\t${window.length}\t${ok.length}\t${shed}\t${other}\t` +
+      `${percentile(ok, 0.5).toFixed(0)}\t${percentile(ok, 0.99).toFixed(0)}\t${probe}`);
+  }, 1000);
+
+  // 管理接口探测：每 200 毫秒一次
+  const probeTimer = setInterval(async () => {
+    const r = await request(PROBE_PATH);
+    probes.push(r.status === 200 ? r.ms : Infinity);
+  }, 200);
+
+  while (Date.now() - start < DURATION_S * 1000) {
+    const now = Date.now();
+    while (next <= now) {
+      next += interval;
+      if (outstanding >= MAX_OUTSTANDING) {
+        totals.dropped++;
+        continue;
+      }
+      outstanding++;
+      totals.sent++;
+      request(PATH).then(r => {
+        outstanding--;
+        second.push(r);
+        all.push(r);
+      });
+    }
+    await new Promise(resolve => setTimeout(resolve, 1));
+  }
+  clearInterval(probeTimer);
+  while (outstanding > 0) await new Promise(resolve => setTimeout(resolve, 10));
+  clearInterval(report);
+
+  const ok = all.filter(r => r.status === 200).map(r => r.ms).sort((a, b) => a - b);
+  totals.ok = ok.length;
+  totals.shed = all.filter(r => r.status === 503).length;
+  totals.other = all.length - totals.ok - totals.shed;
+  console.log('\n=== 测试结果 ===');
+  console.log(`发送: ${totals.sent}  成功: ${totals.ok}  503: ${totals.shed}  其他: ${totals.other}  客户端丢弃: ${totals.dropped}`);
+  console.log(`成功吞吐量: ${(totals.ok / DURATION_S).toFixed(0)} 次/秒`);
+  console.log(`成功请求延迟 p50: ${percentile(ok, 0.5).toFixed(0)} ms  p90: ${percentile(ok, 0.9).toFixed(0)} ms  p99: ${percentile(ok, 0.99).toFixed(0)} ms`);
+  agent.destroy();
+}
+
+main();
@@ -0,0 +1,103 @@
+// 启动预热效果测试脚本：在当前目录（数据位于 ./data）启动后端，轮询 /api/ready 直到就绪，
+// 随后以固定并发发送首批读请求，统计就绪耗时以及首批请求的延迟（前 100 个与全部的 p50/p99/最大），
+// 分别以预热开启和关闭各运行一次即可对比部署后的延迟改善。
+// 使用 node.js 运行: node test-warmup.js <后端 jar 路径> [on|off，默认 on] [请求数，默认 600] [并发数，默认 8] [端口，默认 18080]
+
+import http from 'http';
+import { spawn } from 'child_process';
+
+const JAR = process.argv[2];
+const WARMUP = (process.argv[3] || 'on') === 'on';
+const TOTAL = Number(process.argv[4] || 600);
+const CONCURRENCY = Number(process.argv[5] || 8);
+const PORT = Number(process.argv[6] || 18080);
+
+const agent = new http.Agent({ keepAlive: true, maxSockets: 64 });
+let seq = 0;
+
+// 每个请求使用不同的来源地址，避免触发每 IP 限流
+function request(path) {
+  const n = seq++;
+  const ip = `10.${(n >> 16) & 255}.${(n >> 8) & 255}.${n & 255}`;
+  const start = process.hrtime.bigint();
+  return new Promise((resolve) => {
+    const req = http.request({
+      hostname: 'localhost', port: PORT, path, agent,
+      headers: { 'X-Forwarded-For': ip, 'Accept-Encoding': 'gzip' }
+    }, (res) => {
+      let data = '';
+      res.on('data', chunk => data += chunk);
+      res.on('end', () => resolve({ status: res.statusCode, ms: Number(process.hrtime.bigint() - start) / 1e6, data }));
+    });
+    req.on('error', () => resolve({ status: 0, ms: Number(process.hrtime.bigint() - start) / 1e6 }));
+    req.end();
+  });
+}
+
+function summary(values) {
+  const sorted = [...values].sort((a, b) => a - b);
+  const p = q => sorted[Math.min(sorted.length - 1, Math.floor(sorted.length * q))].toFixed(1);
+  return `p50 ${p(0.5)} ms\tp99 ${p(0.99)} ms\t最大 ${sorted[sorted.length - 1].toFixed(1)} ms`;
+}
+
+async function main() {
+  if (!JAR) {
+    console.error('用法: node test-warmup.js <后端 jar 路径> [on|off] [请求数] [并发数] [端口]');
+    process.exit(1);
+  }
+  const launched = Date.now();
+  let ready;
+  const app = spawn('java', ['-jar', JAR, `--server.port=${PORT}`, '--spring.jpa.show-sql=false',
+    '--blogos.prerender.enabled=false', '--blogos.backup.enabled=false', `--blogos.warmup.enabled=${WARMUP}`],
+    { stdio: 'ignore' });
+  app.on('exit', code => {
+    if (!ready) {
+      console.error(`后端在就绪前退出（退出码 ${code}）`);
+      process.exit(1);
+    }
+  });
+
+  // 轮询就绪检查，连接失败（尚未监听端口）与 503 都继续等待
+  let listening = 0;
+  while (true) {
+    await new Promise(resolve => setTimeout(resolve, 100));
+    const r = await request('/api/ready');
+    if (r.status !== 0 && !listening) listening = Date.now() - launched;
+    if (r.status === 200) {
+      ready = JSON.parse(r.data);
+      break;
+    }
+  }
+  const readyMs = Date.now() - launched;
+  console.log(`预热 ${WARMUP ? '开启' : '关闭'}：端口可连接 ${listening} ms，就绪 ${readyMs} ms`);
+  if (WARMUP) {
+    const w = ready.warmup;
+    console.log(`预热 ${w.durationMs} ms（${w.stopReason}），${w.rounds} 轮 ${w.calls} 次调用，错误 ${w.errors}，JIT 编译 ${w.jitCompileMs} ms`);
+  }
+
+  const posts = JSON.parse((await request('/api/posts')).data).slice(0, 20).map(p => p.id);
+  const paths = ['/api/home', '/api/config', '/api/memos/timeline?limit=20', '/api/dashboard/summary',
+    '/api/memos/archive', '/api/feed/rss.xml', ...posts.map(id => `/api/posts/${id}`)];
+
+  const results = [];
+  let next = 0;
+  await Promise.all(Array.from({ length: CONCURRENCY }, async () => {
+    while (next < TOTAL) {
+      const i = next++;
+      const r = await request(paths[i % paths.length]);
+      results[i] = r;
+    }
+  }));
+  const ok = results.filter(r => r.status === 200 || r.status === 304);
+  console.log(`首批 ${TOTAL} 个请求（并发 ${CONCURRENCY}），成功 ${ok.length}`);
+  console.log(`前 100 个\t${summary(results.slice(0, 100).map(r => r.ms))}`);
+  console.log(`全部\t\t${summary(results.map(r => r.ms))}`);
+
+  // 等待后端退出并释放数据库文件锁，便于紧接着进行下一次测试
+  agent.destroy();
+  const exited = new Promise(resolve => app.on('exit', resolve));
+  app.kill();
+  await exited;
+}
+
+main();
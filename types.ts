@@ -8,7 +8,7 @@ export interface Post {
   id: string;                // 文章唯一标识符
   title: string;             // 文章标题
   excerpt: string;           // 文章摘要
-  content: string;           // 文章内容（Markdown 格式）
+  content: string;           // 文章内容（Markdown 格式，文章列表中为 null，需通过详情接口加载）
   coverImage: string;        // 封面图片 URL
   date: string;              // 发布日期
   tags: string[];            // 标签数组
@@ -19,6 +19,100 @@ export interface Post {
   likes?: number;            // 点赞数（可选）
 }
 
+// 首页文章卡片：首页展示所需的文章元数据
+export type PostCard = Pick<Post, 'id' | 'title' | 'excerpt' | 'coverImage' | 'date' | 'category' | 'author' | 'featured'>;
+
+// 相关文章：文章卡片与相似度
+export interface RelatedPost {
+  post: PostCard;
+  score: number;
+}
+
+// 实时推送事件：新评论
+export interface LiveCommentEvent {
+  postId: string;
+  parentId?: string | null;  // 父评论 ID，顶层评论为空
+  comment?: Comment;         // 新评论（全站频道不携带）
+}
+
+// 实时推送事件：点赞数变化
+export interface LiveLikeEvent {
+  postId: string;
+  likes: number;
+}
+
+// 实时推送事件：文章更新
+export interface LivePostEvent {
+  postId: string;
+  post: PostCard;
+}
+
+// 实时推送事件处理函数
+export interface LiveHandlers {
+  comment?: (e: LiveCommentEvent) => void;
+  like?: (e: LiveLikeEvent) => void;
+  post?: (e: LivePostEvent) => void;
+  "post-deleted"?: (e: { postId: string }) => void;
+  site?: (e: { type: string }) => void;
+}
+
+// 单日浏览统计
+export interface ViewPoint {
+  date: string;              // 日期 yyyy-MM-dd
+  views: number;             // 浏览次数
+  uniques: number;           // 去重访客数（估计值）
+}
+
+// 一段时间内的浏览统计
+export interface ViewSeries {
+  postId: string | null;     // 文章 ID，全站统计为 null
+  from: string;              // 起始日期
+  to: string;                // 结束日期
+  totalViews: number;        // 区间总浏览次数
+  uniqueVisitors: number;    // 区间去重访客数（估计值）
+  series: ViewPoint[];       // 逐日数据
+}
+
+// 文章浏览排行项
+export interface TopViewedPost {
+  postId: string;
+  title: string | null;
+  views: number;
+  uniques: number;
+}
+
+// 首页聚合数据
+export interface HomeData {
+  featured: PostCard | null;            // 精选文章
+  latest: PostCard[];                   // 按日期降序的最新文章
+  categories: Record<string, number>;   // 分类计数
+  totalPosts: number;                   // 文章总数
+  memos: Memo[];                        // 最新随手记
+  config: Partial<SiteConfig>;          // 站点配置
+}
+
+// 文本区间编辑：将 [start, end) 替换为 text
+export interface TextEdit {
+  start: number;
+  end: number;
+  text: string;
+}
+
+// 文章局部更新请求，只包含需要修改的字段
+export interface PostPatch {
+  title?: string;
+  excerpt?: string;
+  coverImage?: string;
+  date?: string;
+  category?: string;
+  author?: string;
+  featured?: boolean;
+  tags?: string[];
+  content?: string;          // 整体替换的正文
+  baseLength?: number;       // 正文编辑所基于的正文长度
+  contentEdits?: TextEdit[]; // 相对基准正文的区间编辑
+}
+
 // 评论类型定义
 export interface Comment {
   id: string;                // 评论唯一标识符
@@ -29,6 +123,20 @@ export interface Comment {
   replies?: Comment[];       // 回复数组（可选）
 }
 
+// 评论处理结果接口定义
+export interface CommentStatus {
+  id: string;                                               // 评论 ID
+  status: 'queued' | 'published' | 'rejected' | 'failed';   // 排队中、已发布、被拒绝或写入失败
+  reason?: string | null;                                   // 拒绝或失败原因
+}
+
+// 提交评论的回执接口定义
+export interface CommentReceipt {
+  id: string;                // 评论 ID
+  status: 'queued';          // 提交后总是排队中
+  comment: Comment;          // 已入队的评论
+}
+
 // 随手记类型定义
 export interface Memo {
   id: string;                // 随手记唯一标识符
@@ -38,6 +146,18 @@ export interface Memo {
   tags?: string[];           // 标签数组（可选）
 }
 
+// 随手记时间线的一页
+export interface MemoPage {
+  memos: Memo[];                // 本页随手记，按日期倒序
+  nextCursor: string | null;    // 下一页游标，没有更多时为 null
+}
+
+// 随手记按月归档条目
+export interface MemoArchiveMonth {
+  month: string;             // 月份（yyyy-MM）
+  count: number;             // 该月随手记条数
+}
+
 // 友情链接类型定义
 export interface FriendLink {
   id: string;                // 链接唯一标识符
@@ -62,8 +182,58 @@ export interface Schedule {
   id: string;                // 日程唯一标识符
   title: string;             // 日程标题
   time: string;              // 时间（格式：HH:MM）
-  date: string;              // 日期（格式：YYYY-MM-DD）
+  date: string;              // 日期（格式：YYYY-MM-DD），重复日程为首次日期
   description?: string;      // 描述（可选）
+  duration?: number;         // 持续分钟数（可选）
+  recurrence?: ScheduleRecurrence | null;  // 重复规则（可选）
+  recurrenceInterval?: number;             // 每 N 天/周/月重复一次（可选，默认 1）
+  recurrenceDays?: string;   // 每周重复的星期，逗号分隔的 MO..SU（可选）
+  recurrenceUntil?: string;  // 重复截止日期（可选，含）
+  exceptionDates?: string;   // 跳过的日期，逗号分隔（可选）
+}
+
+// 日程重复规则
+export type ScheduleRecurrence = 'daily' | 'weekly' | 'monthly';
+
+// 日程的一次具体发生（重复日程按查询范围展开）
+export interface ScheduleOccurrence {
+  scheduleId: string;        // 所属日程 ID
+  title: string;             // 日程标题
+  date: string;              // 发生日期（格式：YYYY-MM-DD）
+  time: string | null;       // 开始时间（格式：HH:MM），全天日程为 null
+  duration: number;          // 持续分钟数
+  description?: string;      // 描述
+  recurring: boolean;        // 是否属于重复日程
+}
+
+// 日程时间冲突
+export interface ScheduleConflict {
+  occurrence: ScheduleOccurrence;      // 待检查日程的一次发生
+  conflictsWith: ScheduleOccurrence;   // 与之重叠的已有日程
+}
+
+// 待办事项按完成状态的计数
+export interface TodoCounts {
+  open: number;              // 未完成数
+  completed: number;         // 已完成数
+}
+
+// 个人仪表板摘要类型定义
+export interface DashboardSummary {
+  date: string;                                     // 摘要对应的当天日期（YYYY-MM-DD）
+  todos: TodoCounts & {
+    byPriority: Record<string, TodoCounts>;         // 按优先级的计数
+    dueToday: TodoCounts;                           // 当天的待办计数
+  };
+  schedules: {
+    total: number;                                  // 日程总数
+    today: ScheduleOccurrence[];                    // 当天日程，按时间排序
+    upcoming: ScheduleOccurrence[];                 // 之后最近的几条日程
+  };
+  memos: {
+    total: number;                                  // 随手记总数
+    thisMonth: number;                              // 本月随手记数
+  };
 }
 
 // 个人资料配置类型定义
@@ -119,6 +289,15 @@ export interface SiteConfig {
   seo: SeoConfig;            // SEO 配置
 }
 
+// 配置分区名：site 为站点信息（含未归属其他分区的字段），accounts 为私有分区，不包含在公开配置中
+export type ConfigSectionName = "site" | "profile" | "friends" | "seo" | "sso" | "accounts";
+
+// 账户条目：读取时只有用户名；写入时提供 password 表示设置新密码，省略则保留原密码
+export interface AccountEntry {
+  username: string;
+  password?: string;
+}
+
 // 视图模式类型定义
 export type ViewMode = "home" | "categories" | "post" | "profile" | "friends" | "memos" | "dashboard" | "admin-login" | "admin-dashboard" | "admin-editor" | "settings";
 
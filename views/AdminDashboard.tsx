@@ -5,9 +5,9 @@
 
 import React, { useState, useRef, useMemo, useEffect } from "react";
 // 导入图标组件
-import { Download, Upload, Plus, User, Edit3, Trash2, Search, Filter, X, PenLine, Star } from "lucide-react";
+import { Download, Upload, Plus, User, Edit3, Trash2, Search, Filter, X, PenLine, Star, BarChart3, Eye } from "lucide-react";
 // 导入类型定义
-import { Post, SiteConfig, Memo } from "../types";
+import { Post, SiteConfig, Memo, ViewSeries, TopViewedPost } from "../types";
 // 导入 API 工具
 import { api } from "../lib/api";
 
@@ -20,7 +20,7 @@ interface AdminDashboardProps {
   onDelete: (id: string) => void;          // 删除文章回调函数
   onExport: () => void;                    // 导出数据回调函数
   onImport: (e: any) => void;              // 导入数据回调函数
-  onSaveConfig: (c: SiteConfig) => void;   // 保存配置回调函数
+  onSaveConfig: (c: SiteConfig) => Promise<boolean>;   // 保存配置回调函数，返回是否保存成功
 }
 
 // 管理员仪表板视图组件
@@ -35,7 +35,7 @@ export const AdminDashboard = ({
   // 引用 DOM 元素
   const fileInputRef = useRef<HTMLInputElement>(null);
   // 状态管理：活动标签页
-  const [activeTab, setActiveTab] = useState<"posts" | "memos">("posts");
+  const [activeTab, setActiveTab] = useState<"posts" | "memos" | "analytics">("posts");
 
   // 随手记状态管理
   const [memos, setMemos] = useState<Memo[]>([]);
@@ -43,6 +43,10 @@ export const AdminDashboard = ({
   const [newMemoImage, setNewMemoImage] = useState("");
   const [newMemoTags, setNewMemoTags] = useState("");
 
+  // 访问统计状态管理
+  const [viewSeries, setViewSeries] = useState<ViewSeries | null>(null);
+  const [topPosts, setTopPosts] = useState<TopViewedPost[]>([]);
+
   // 文章筛选状态管理
   const [adminSearch, setAdminSearch] = useState("");
   const [adminCategory, setAdminCategory] = useState("All");
@@ -52,8 +56,17 @@ export const AdminDashboard = ({
     if (activeTab === "memos") {
       api.getMemos().then(setMemos);
     }
+    if (activeTab === "analytics") {
+      api.getViewSeries(30).then(setViewSeries);
+      api.getTopViewedPosts(7, 10).then(setTopPosts);
+    }
   }, [activeTab]);
 
+  // 图表纵轴最大值
+  const maxDailyViews = useMemo(() => {
+    return Math.max(1, ...(viewSeries?.series.map(p => p.views) || []));
+  }, [viewSeries]);
+
   // 使用 useMemo 计算唯一分类，仅在文章数组变化时重新计算
   const uniqueCategories = useMemo(() => {
     return ["All", ...Array.from(new Set(posts.map(p => p.category || "Uncategorized")))];
@@ -119,6 +132,12 @@ export const AdminDashboard = ({
           >
             随手记管理
           </button>
+           <button 
+            onClick={() => setActiveTab("analytics")}
+            className={`px-5 py-2 rounded-full text-sm font-medium transition-all whitespace-nowrap ${activeTab === 'analytics' ? 'bg-black text-white shadow-md' : 'text-gray-500 hover:text-black'}`}
+          >
+            访问统计
+          </button>
         </div>
       </div>
 
@@ -330,6 +349,75 @@ export const AdminDashboard = ({
             </div>
         </div>
       )}
+
+      {/* 访问统计标签页 */}
+      {activeTab === "analytics" && (
+        <div className="animate-slide-up space-y-6">
+            {/* 概览 */}
+            <div className="grid grid-cols-1 md:grid-cols-2 gap-6">
+                <div className="bg-white rounded-3xl p-6 shadow-sm border border-gray-200">
+                    <div className="text-xs text-gray-400 font-bold uppercase tracking-widest flex items-center gap-2">
+                        <Eye className="w-4 h-4" /> 近 30 天浏览
+                    </div>
+                    <div className="text-4xl font-bold text-[#1D1D1F] mt-2">{viewSeries?.totalViews ?? "-"}</div>
+                </div>
+                <div className="bg-white rounded-3xl p-6 shadow-sm border border-gray-200">
+                    <div className="text-xs text-gray-400 font-bold uppercase tracking-widest flex items-center gap-2">
+                        <User className="w-4 h-4" /> 近 30 天独立访客
+                    </div>
+                    <div className="text-4xl font-bold text-[#1D1D1F] mt-2">{viewSeries?.uniqueVisitors ?? "-"}</div>
+                </div>
+            </div>
+
+            {/* 逐日浏览图表 */}
+            <div className="bg-white rounded-3xl p-6 shadow-sm border border-gray-200">
+                <h3 className="text-lg font-bold text-[#1D1D1F] mb-6 flex items-center gap-2">
+                    <BarChart3 className="w-5 h-5" /> 每日浏览
+                </h3>
+                {viewSeries ? (
+                    <div className="flex items-end gap-1 h-48">
+                        {viewSeries.series.map(point => (
+                            <div
+                                key={point.date}
+                                className="flex-1 bg-[var(--theme-color)] rounded-t opacity-80 hover:opacity-100 transition-opacity"
+                                style={{ height: `${(point.views / maxDailyViews) * 100}%`, minHeight: point.views > 0 ? 2 : 0 }}
+                                title={`${point.date}：${point.views} 次浏览，${point.uniques} 位访客`}
+                            />
+                        ))}
+                    </div>
+                ) : (
+                    <div className="py-16 text-center text-gray-400">暂无统计数据（需要连接后端）</div>
+                )}
+                {viewSeries && (
+                    <div className="flex justify-between text-xs text-gray-400 mt-2">
+                        <span>{viewSeries.from}</span>
+                        <span>{viewSeries.to}</span>
+                    </div>
+                )}
+            </div>
+
+            {/* 近 7 天热门文章 */}
+            <div className="bg-white rounded-3xl shadow-sm border border-gray-200/70 overflow-hidden">
+                <div className="grid grid-cols-12 gap-4 px-8 py-4 border-b border-gray-100 bg-gray-50/80 text-xs font-bold text-gray-400 uppercase tracking-widest">
+                    <div className="col-span-8">近 7 天热门文章</div>
+                    <div className="col-span-2 text-right">浏览</div>
+                    <div className="col-span-2 text-right">访客</div>
+                </div>
+                <div className="divide-y divide-gray-100">
+                    {topPosts.map(item => (
+                        <div key={item.postId} className="grid grid-cols-12 gap-4 px-8 py-4 items-center">
+                            <div className="col-span-8 font-semibold text-[#1D1D1F] truncate">{item.title || item.postId}</div>
+                            <div className="col-span-2 text-right text-sm text-gray-600">{item.views}</div>
+                            <div className="col-span-2 text-right text-sm text-gray-600">{item.uniques}</div>
+                        </div>
+                    ))}
+                    {topPosts.length === 0 && (
+                        <div className="py-12 text-center text-gray-400">暂无浏览记录</div>
+                    )}
+                </div>
+            </div>
+        </div>
+      )}
     </div>
   );
 };
\ No newline at end of file
@@ -3,16 +3,18 @@
  * 提供文章创建和编辑功能，支持 AI 辅助写作
  */
 
-import React, {useState} from "react";
+import React, {useEffect, useRef, useState} from "react";
 // 导入图标组件
-import {Columns, Edit3, Eye, Image as ImageIcon, LayoutGrid, Save, Sparkles, Star, Tag, User} from "lucide-react";
+import {Columns, Edit3, Eye, Image as ImageIcon, LayoutGrid, Save, Sparkles, Star, Tag, Upload, User} from "lucide-react";
 // 导入 Google GenAI（注：实际项目中可能需要配置 API 密钥）
 import {GoogleGenAI} from "@google/genai";
 // 导入类型定义
-import {Post} from "../types";
+import {Post, PostPatch} from "../types";
 // 导入工具函数
-import {generateId} from "../lib/utils";
+import {diffText, generateId} from "../lib/utils";
 import {sanitizeContent, sanitizeTitle} from "../lib/validation";
+// 导入 API 工具
+import {api} from "../lib/api";
 // 导入子组件
 import {MarkdownRenderer} from "../components/MarkdownRenderer";
 
@@ -35,8 +37,46 @@ export const AdminEditor = ({initialPost, onSave, onCancel}: AdminEditorProps) =
     const [author, setAuthor] = useState(initialPost?.author || "Admin");      // 作者
     const [featured, setFeatured] = useState(initialPost?.featured || false);  // 是否为特色文章
     const [isGenerating, setIsGenerating] = useState(false);                   // AI 生成状态
+    const [isUploading, setIsUploading] = useState(false);                     // 封面上传状态
     const [viewMode, setViewMode] = useState<"edit" | "preview" | "split">("split");  // 视图模式
 
+    // 服务端已保存的标题和正文，作为自动保存计算区间编辑的基准；正文加载完成前为 null
+    const savedRef = useRef<{ title: string, content: string } | null>(null);
+
+    // 列表中的文章不含正文，编辑已有文章时按需加载
+    useEffect(() => {
+        if (!initialPost) return;
+        if (initialPost.content == null) {
+            api.getPost(initialPost.id).then(full => {
+                if (full?.content != null) {
+                    savedRef.current = { title: initialPost.title, content: full.content };
+                    setContent(full.content);
+                }
+            });
+        } else {
+            savedRef.current = { title: initialPost.title, content: initialPost.content };
+        }
+    }, [initialPost]);
+
+    // 编辑已有文章时，停止输入 2 秒后只发送标题变化和正文的区间编辑
+    useEffect(() => {
+        const saved = savedRef.current;
+        if (!initialPost || !saved || !title || (title === saved.title && content === saved.content)) return;
+        const timer = setTimeout(async () => {
+            const patch: PostPatch = {};
+            if (title !== saved.title) patch.title = sanitizeTitle(title);
+            if (content !== saved.content) {
+                patch.baseLength = saved.content.length;
+                patch.contentEdits = diffText(saved.content, content);
+            }
+            // 基准不一致（例如在别处被修改）时退回整体替换正文
+            const ok = await api.patchPost(initialPost.id, patch, true)
+                || await api.patchPost(initialPost.id, { title: patch.title, content }, true);
+            if (ok) savedRef.current = { title, content };
+        }, 2000);
+        return () => clearTimeout(timer);
+    }, [initialPost, title, content]);
+
     /**
      * 处理 AI 生成内容
      */
@@ -82,6 +122,24 @@ export const AdminEditor = ({initialPost, onSave, onCancel}: AdminEditorProps) =
         }
     };
 
+    /**
+     * 处理上传封面图片，上传成功后使用服务端返回的内容寻址地址
+     */
+    const handleUploadCover = async (e: React.ChangeEvent<HTMLInputElement>) => {
+        const file = e.target.files?.[0];
+        e.target.value = "";
+        if (!file) return;
+        setIsUploading(true);
+        try {
+            setCoverImage(await api.uploadImage(file));
+        } catch (error) {
+            console.error(error);
+            alert("图片上传失败，仅支持 JPEG、PNG、GIF 和 WebP 图片");
+        } finally {
+            setIsUploading(false);
+        }
+    };
+
     /**
      * 处理保存文章
      */
@@ -229,10 +287,17 @@ export const AdminEditor = ({initialPost, onSave, onCancel}: AdminEditorProps) =
                         </div>
                     )}
                     <div
-                        className="absolute bottom-4 left-4 right-4 opacity-0 group-hover:opacity-100 transition-opacity duration-300">
+                        className="absolute bottom-4 left-4 right-4 flex gap-2 opacity-0 group-hover:opacity-100 transition-opacity duration-300">
                         <input type="text" value={coverImage} onChange={(e) => setCoverImage(e.target.value)}
-                               className="w-full bg-white/90 backdrop-blur text-gray-800 border-none rounded-xl px-4 py-3 text-sm shadow-lg focus:ring-2 focus:ring-[#0071e3]"
+                               className="flex-1 bg-white/90 backdrop-blur text-gray-800 border-none rounded-xl px-4 py-3 text-sm shadow-lg focus:ring-2 focus:ring-[#0071e3]"
                                placeholder="输入图片 URL..."/>
+                        <label
+                            className={`flex items-center gap-2 bg-white/90 backdrop-blur text-gray-800 rounded-xl px-4 py-3 text-sm font-medium shadow-lg cursor-pointer hover:text-[#0071e3] ${isUploading ? "opacity-50 pointer-events-none" : ""}`}>
+                            <Upload className="w-4 h-4"/>
+                            {isUploading ? "上传中..." : "上传"}
+                            <input type="file" accept="image/jpeg,image/png,image/gif,image/webp" className="hidden"
+                                   onChange={handleUploadCover}/>
+                        </label>
                     </div>
                 </div>
 
@@ -7,9 +7,11 @@ import React, { useState, useEffect, useRef } from "react";
 // 导入图标组件
 import { Search, X, ChevronRight, Navigation, Sun, Cloud, Wind, CloudRain, CloudSnow, CloudLightning, RefreshCw, Sparkles, ArrowRight, ArrowUpRight, Clock, MapPin, Palette } from "lucide-react";
 // 导入类型定义
-import { Post, SiteConfig } from "../types";
+import { HomeData, Post, SiteConfig } from "../types";
 // 导入工具函数
 import { formatDate } from "../lib/utils";
+// 导入 API 工具
+import { api } from "../lib/api";
 
 // 首页视图组件属性接口
 interface IndexViewProps {
@@ -89,6 +91,7 @@ export const IndexView = ({
 }: IndexViewProps) => {
   // 状态管理
   const [searchQuery, setSearchQuery] = useState("");          // 搜索关键词
+  const [home, setHome] = useState<HomeData | null>(null);     // 首页聚合数据
   const [weather, setWeather] = useState<WeatherData | null>(null);  // 天气数据
   const [location, setLocation] = useState<LocationData | null>(null);  // 位置数据
   const [quote, setQuote] = useState<HitokotoData | null>(null);  // 一言数据
@@ -129,6 +132,13 @@ export const IndexView = ({
     };
   }, [showLocationInput]);
 
+  // --- 首页聚合数据：一次请求获取精选与最新文章，文章列表变化后重新协商（ETag 未变时返回 304） ---
+  useEffect(() => {
+    let isMounted = true;
+    api.getHome().then(data => { if (isMounted) setHome(data); });
+    return () => { isMounted = false; };
+  }, [posts]);
+
   // --- 数据获取 ---
   useEffect(() => {
     let isMounted = true;
@@ -272,10 +282,10 @@ export const IndexView = ({
     return <Sun className={`${className}`} />;
   };
 
-  // 查找特色文章（优先级：特色标志 -> 第一篇文章）
-  const featuredPost = posts.find(p => p.featured) || posts[0];
+  // 首页聚合数据加载完成前使用完整文章列表计算
+  const featuredPost = home ? (home.featured || home.latest[0]) : (posts.find(p => p.featured) || posts[0]);
   // 最新文章（排除特色文章）
-  const latestPosts = posts.filter(p => p.id !== featuredPost?.id).slice(0, 3);
+  const latestPosts = (home ? home.latest : posts).filter(p => p.id !== featuredPost?.id).slice(0, 3);
 
   return (
     <div className="animate-fade-in space-y-12 pb-20 pt-4 px-0">
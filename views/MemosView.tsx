@@ -1,13 +1,13 @@
 /**
  * 随手记视图组件
- * 展示用户的随手记内容，按月份分组显示
+ * 展示用户的随手记内容，按月份分组显示；按页加载时间线，滚动到底部时加载下一页，可从归档跳转到指定月份
  */
 
-import React, { useEffect, useState } from "react";
+import React, { useCallback, useEffect, useRef, useState } from "react";
 // 导入图标组件
 import { PenLine, Calendar } from "lucide-react";
 // 导入类型定义
-import { Memo, SiteConfig } from "../types";
+import { Memo, MemoArchiveMonth, SiteConfig } from "../types";
 // 导入 API 工具
 import { api } from "../lib/api";
 // 导入子组件
@@ -20,20 +20,60 @@ interface MemosViewProps {
 
 // 随手记视图组件
 export const MemosView = ({ config }: MemosViewProps) => {
-    // 状态管理：随手记数组
+    // 状态管理：已加载的随手记、下一页游标、是否正在加载
     const [memos, setMemos] = useState<Memo[]>([]);
+    const [nextCursor, setNextCursor] = useState<string | null>(null);
+    const [loading, setLoading] = useState(false);
+    // 状态管理：按月归档计数和当前跳转的月份
+    const [archive, setArchive] = useState<MemoArchiveMonth[]>([]);
+    const [activeMonth, setActiveMonth] = useState<string | null>(null);
+    // 列表底部的哨兵元素，进入视口时加载下一页
+    const sentinelRef = useRef<HTMLDivElement | null>(null);
     // 解构站点配置中的主题颜色
     const { themeColor = "#0071e3" } = config;
 
-    // 组件挂载时获取随手记数据
-    useEffect(() => {
-        api.getMemos().then(setMemos);
+    // 加载一页，cursor 为空时从头（或从指定月份）重新开始
+    const loadPage = useCallback(async (cursor: string | null, month: string | null) => {
+        setLoading(true);
+        try {
+            const page = await api.getMemoTimeline(cursor, month);
+            setMemos(prev => cursor ? [...prev, ...page.memos] : page.memos);
+            setNextCursor(page.nextCursor);
+        } finally {
+            setLoading(false);
+        }
     }, []);
 
+    // 组件挂载时获取第一页和归档
+    useEffect(() => {
+        loadPage(null, null);
+        api.getMemoArchive().then(setArchive);
+    }, [loadPage]);
+
+    // 哨兵进入视口且还有下一页时继续加载
+    useEffect(() => {
+        const sentinel = sentinelRef.current;
+        if (!sentinel || !nextCursor || loading) return;
+        const observer = new IntersectionObserver(entries => {
+            if (entries[0].isIntersecting) loadPage(nextCursor, null);
+        }, { rootMargin: "400px" });
+        observer.observe(sentinel);
+        return () => observer.disconnect();
+    }, [nextCursor, loading, loadPage]);
+
+    // 从归档跳转到指定月份，再次点击回到最新
+    const jumpToMonth = (month: string) => {
+        const target = activeMonth === month ? null : month;
+        setActiveMonth(target);
+        loadPage(null, target);
+    };
+
+    // 月份标签，与归档计数使用相同的月份键
+    const monthLabel = (month: string) => `${Number(month.slice(0, 4))}年${Number(month.slice(5, 7))}月`;
+
     // 将随手记按月份分组
     const groupedMemos = memos.reduce((groups, memo) => {
-        const date = new Date(memo.date);
-        const key = `${date.getFullYear()}年${date.getMonth() + 1}月`;
+        const key = monthLabel((memo.date || "").slice(0, 7));
         if (!groups[key]) groups[key] = [];
         groups[key].push(memo);
         return groups;
@@ -67,6 +107,24 @@ export const MemosView = ({ config }: MemosViewProps) => {
                 </div>
             </div>
 
+            {/* 按月归档 */}
+            {archive.length > 0 && (
+                <div className="flex flex-wrap gap-2 mb-10">
+                    {archive.map(({ month, count }) => (
+                        <button
+                            key={month}
+                            onClick={() => jumpToMonth(month)}
+                            className="px-3 py-1.5 rounded-full text-xs font-bold border transition-colors"
+                            style={activeMonth === month
+                                ? { backgroundColor: themeColor, borderColor: themeColor, color: "#fff" }
+                                : { borderColor: "#e5e7eb", color: "#6b7280" }}
+                        >
+                            {monthLabel(month)} · {count}
+                        </button>
+                    ))}
+                </div>
+            )}
+
             {/* 时间线布局 */}
             <div className="relative border-l-2 border-gray-100/80 ml-4 sm:ml-8 space-y-12">
                 {Object.keys(groupedMemos).length > 0 ? (
@@ -139,11 +197,15 @@ export const MemosView = ({ config }: MemosViewProps) => {
                             </div>
                         </div>
                     ))
-                ) : (
+                ) : !loading && (
                     /* 无随手记时的提示 */
                     <div className="pl-8 text-gray-400 italic">暂无记录，去控制台写一条吧。</div>
                 )}
             </div>
+
+            {/* 加载下一页的哨兵和加载提示 */}
+            <div ref={sentinelRef} className="h-10" />
+            {loading && <div className="text-center text-sm text-gray-400">加载中...</div>}
         </div>
     );
 };
\ No newline at end of file
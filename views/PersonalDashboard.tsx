@@ -1,13 +1,14 @@
 /**
  * 个人仪表板视图组件
- * 提供个人任务管理和日程安排功能，包括日历视图、待办事项和日程安排
+ * 提供个人任务管理和日程安排功能，包括日历视图、待办事项和日程安排；
+ * 顶部统计来自服务端维护的摘要，日历只获取当前月份展开后的日程，不在客户端遍历全部数据
  */
 
 import React, { useState, useEffect, useMemo } from "react";
 // 导入图标组件
-import { CheckSquare, Square, Trash2, Plus, Calendar, Clock, LayoutDashboard, ChevronLeft, ChevronRight } from "lucide-react";
+import { CheckSquare, Square, Trash2, Plus, Calendar, Clock, LayoutDashboard, ChevronLeft, ChevronRight, PenLine, Repeat, X } from "lucide-react";
 // 导入类型定义
-import { Todo, Schedule, SiteConfig } from "../types";
+import { Todo, ScheduleOccurrence, ScheduleRecurrence, SiteConfig, DashboardSummary } from "../types";
 // 导入 API 工具
 import { api } from "../lib/api";
 
@@ -20,7 +21,10 @@ interface PersonalDashboardProps {
 export const PersonalDashboard = ({ config }: PersonalDashboardProps) => {
   // 状态管理：待办事项、日程安排和当前日期
   const [todos, setTodos] = useState<Todo[]>([]);
-  const [schedules, setSchedules] = useState<Schedule[]>([]);
+  // 当前月份内的日程发生（重复日程已展开）
+  const [occurrences, setOccurrences] = useState<ScheduleOccurrence[]>([]);
+  // 状态管理：服务端统计摘要
+  const [summary, setSummary] = useState<DashboardSummary | null>(null);
   // 解构站点配置中的主题颜色
   const { themeColor = "#0071e3" } = config;
 
@@ -32,18 +36,33 @@ export const PersonalDashboard = ({ config }: PersonalDashboardProps) => {
   const [newTodoPriority, setNewTodoPriority] = useState<'low'|'medium'|'high'>("medium");
   const [newScheduleTitle, setNewScheduleTitle] = useState("");
   const [newScheduleTime, setNewScheduleTime] = useState("");
+  const [newScheduleRecurrence, setNewScheduleRecurrence] = useState<ScheduleRecurrence | "">("");
 
-  // 组件挂载时获取待办事项和日程安排数据
+  // 重新获取统计摘要，待办和日程变化后调用
+  const refreshSummary = () => {
+    api.getDashboardSummary(new Date().toISOString().split('T')[0]).then(setSummary);
+  };
+
+  // 当前月份的首尾日期（YYYY-MM-DD）
+  const monthStart = `${currentDate.getFullYear()}-${String(currentDate.getMonth()+1).padStart(2,'0')}-01`;
+  const monthEnd = `${monthStart.slice(0, 8)}${String(new Date(currentDate.getFullYear(), currentDate.getMonth() + 1, 0).getDate()).padStart(2,'0')}`;
+
+  // 重新获取当前月份的日程发生，日程变化或切换月份后调用
+  const refreshOccurrences = () => {
+    api.getScheduleOccurrences(monthStart, monthEnd).then(setOccurrences);
+  };
+
+  // 组件挂载时获取待办事项和统计摘要
   useEffect(() => {
-    Promise.all([
-        api.getTodos(),
-        api.getSchedules()
-    ]).then(([fetchedTodos, fetchedSchedules]) => {
-        setTodos(fetchedTodos);
-        setSchedules(fetchedSchedules);
-    });
+    refreshSummary();
+    api.getTodos().then(setTodos);
   }, []);
 
+  // 切换月份时获取该月的日程
+  useEffect(() => {
+    refreshOccurrences();
+  }, [monthStart]);
+
   // 使用 useMemo 计算当月天数，仅在当前日期变化时重新计算
   const daysInMonth = useMemo(() => {
     return new Date(currentDate.getFullYear(), currentDate.getMonth() + 1, 0).getDate();
@@ -66,7 +85,7 @@ export const PersonalDashboard = ({ config }: PersonalDashboardProps) => {
 
   // 筛选选定日期的待办事项和日程安排
   const dayTodos = todos.filter(t => t.date === selectedDateStr);
-  const daySchedules = schedules.filter(s => s.date === selectedDateStr).sort((a,b) => a.time.localeCompare(b.time));
+  const daySchedules = occurrences.filter(o => o.date === selectedDateStr);
 
   /**
    * 添加待办事项
@@ -78,6 +97,7 @@ export const PersonalDashboard = ({ config }: PersonalDashboardProps) => {
       const updated = await api.addTodo(newTodo, newTodoPriority, selectedDateStr);
       setTodos(updated);
       setNewTodo("");
+      refreshSummary();
   };
 
   /**
@@ -87,29 +107,43 @@ export const PersonalDashboard = ({ config }: PersonalDashboardProps) => {
   const addSchedule = async (e: React.FormEvent) => {
       e.preventDefault();
       if(!newScheduleTitle.trim() || !newScheduleTime.trim()) return;
-      const updated = await api.addSchedule(newScheduleTitle, newScheduleTime, selectedDateStr);
-      setSchedules(updated);
+      const repeat = newScheduleRecurrence ? { recurrence: newScheduleRecurrence } : {};
+      const conflicts = await api.checkScheduleConflicts({ title: newScheduleTitle, time: newScheduleTime, date: selectedDateStr, ...repeat });
+      if (conflicts.length > 0) {
+          const first = conflicts[0].conflictsWith;
+          if (!window.confirm(`与 ${conflicts.length} 个日程时间冲突（如 ${first.date} ${first.time ?? ""} ${first.title}），仍然添加？`)) return;
+      }
+      await api.addSchedule(newScheduleTitle, newScheduleTime, selectedDateStr, undefined, repeat);
       setNewScheduleTitle("");
       setNewScheduleTime("");
+      setNewScheduleRecurrence("");
+      refreshOccurrences();
+      refreshSummary();
   };
 
   /**
    * 删除待办事项
    * @param id 待办事项 ID
    */
-  const deleteTodo = async (id: string) => setTodos(await api.deleteTodo(id));
+  const deleteTodo = async (id: string) => { setTodos(await api.deleteTodo(id)); refreshSummary(); };
   
   /**
    * 切换待办事项完成状态
    * @param id 待办事项 ID
    */
-  const toggleTodo = async (id: string) => setTodos(await api.toggleTodo(id));
+  const toggleTodo = async (id: string) => { setTodos(await api.toggleTodo(id)); refreshSummary(); };
   
   /**
-   * 删除日程安排
+   * 删除日程安排，重复日程删除整个系列
+   * @param id 日程安排 ID
+   */
+  const deleteSchedule = async (id: string) => { await api.deleteSchedule(id); refreshOccurrences(); refreshSummary(); };
+
+  /**
+   * 跳过重复日程在选定日期的发生
    * @param id 日程安排 ID
    */
-  const deleteSchedule = async (id: string) => setSchedules(await api.deleteSchedule(id));
+  const skipOccurrence = async (id: string) => { await api.skipScheduleOccurrence(id, selectedDateStr); refreshOccurrences(); refreshSummary(); };
 
   /**
    * 渲染优先级标签
@@ -136,7 +170,7 @@ export const PersonalDashboard = ({ config }: PersonalDashboardProps) => {
    */
   const hasEventOnDate = (day: number) => {
       const dateStr = `${currentDate.getFullYear()}-${String(currentDate.getMonth()+1).padStart(2,'0')}-${String(day).padStart(2,'0')}`;
-      return schedules.some(s => s.date === dateStr) || todos.some(t => t.date === dateStr && !t.completed);
+      return occurrences.some(o => o.date === dateStr) || todos.some(t => t.date === dateStr && !t.completed);
   };
 
   return (
@@ -157,6 +191,40 @@ export const PersonalDashboard = ({ config }: PersonalDashboardProps) => {
             </div>
         </div>
 
+        {/* 统计摘要 */}
+        {summary && (
+            <div className="grid grid-cols-2 lg:grid-cols-4 gap-4 mb-8">
+                <div className="bg-white rounded-[24px] p-5 shadow-sm border border-gray-100">
+                    <p className="text-xs font-bold text-gray-400 uppercase tracking-wider flex items-center gap-1.5"><Square className="w-3.5 h-3.5" /> Open Tasks</p>
+                    <p className="text-3xl font-bold text-[#1D1D1F] mt-2">{summary.todos.open}</p>
+                    <div className="flex gap-1.5 mt-2">
+                        {(['high', 'medium', 'low'] as const).map(p => summary.todos.byPriority[p]?.open ? (
+                            <span key={p} className="flex items-center gap-1">{renderPriorityBadge(p)}<span className="text-xs text-gray-500">{summary.todos.byPriority[p].open}</span></span>
+                        ) : null)}
+                    </div>
+                </div>
+                <div className="bg-white rounded-[24px] p-5 shadow-sm border border-gray-100">
+                    <p className="text-xs font-bold text-gray-400 uppercase tracking-wider flex items-center gap-1.5"><CheckSquare className="w-3.5 h-3.5" /> Completed</p>
+                    <p className="text-3xl font-bold text-[#1D1D1F] mt-2">{summary.todos.completed}</p>
+                    <p className="text-xs text-gray-500 mt-2">Today: {summary.todos.dueToday.completed} / {summary.todos.dueToday.open + summary.todos.dueToday.completed}</p>
+                </div>
+                <div className="bg-white rounded-[24px] p-5 shadow-sm border border-gray-100">
+                    <p className="text-xs font-bold text-gray-400 uppercase tracking-wider flex items-center gap-1.5"><Calendar className="w-3.5 h-3.5" /> Today's Events</p>
+                    <p className="text-3xl font-bold text-[#1D1D1F] mt-2">{summary.schedules.today.length}</p>
+                    <p className="text-xs text-gray-500 mt-2 truncate">
+                        {summary.schedules.upcoming.length > 0
+                            ? `Next: ${summary.schedules.upcoming[0].date} ${summary.schedules.upcoming[0].time ?? ""} ${summary.schedules.upcoming[0].title}`
+                            : "Nothing upcoming"}
+                    </p>
+                </div>
+                <div className="bg-white rounded-[24px] p-5 shadow-sm border border-gray-100">
+                    <p className="text-xs font-bold text-gray-400 uppercase tracking-wider flex items-center gap-1.5"><PenLine className="w-3.5 h-3.5" /> Memos</p>
+                    <p className="text-3xl font-bold text-[#1D1D1F] mt-2">{summary.memos.total}</p>
+                    <p className="text-xs text-gray-500 mt-2">This month: {summary.memos.thisMonth}</p>
+                </div>
+            </div>
+        )}
+
         <div className="flex flex-col lg:flex-row gap-8 min-h-[700px]">
             {/* 日历侧边栏 */}
             <div className="lg:w-1/3 bg-white rounded-[32px] p-6 shadow-sm border border-gray-100 flex flex-col">
@@ -236,14 +304,22 @@ export const PersonalDashboard = ({ config }: PersonalDashboardProps) => {
                             ) : (
                                 /* 日程安排列表 */
                                 daySchedules.map(item => (
-                                    <div key={item.id} className="relative pl-6 pb-2 group">
+                                    <div key={`${item.scheduleId}-${item.date}`} className="relative pl-6 pb-2 group">
                                         <div className="absolute left-0 top-0 bottom-0 w-px bg-gray-100 group-last:bottom-auto group-last:h-4" />
                                         <div className="absolute left-[-4px] top-1.5 w-2 h-2 rounded-full bg-purple-400 ring-4 ring-white" />
                                         
                                         <div className="bg-gray-50/50 hover:bg-white p-3 rounded-xl border border-transparent hover:border-gray-100 hover:shadow-sm transition-all">
                                             <div className="flex justify-between items-start">
-                                                <span className="text-xs font-bold text-purple-500 bg-purple-50 px-2 py-0.5 rounded-md">{item.time}</span>
-                                                <button onClick={() => deleteSchedule(item.id)} className="text-gray-300 hover:text-red-500"><Trash2 className="w-3.5 h-3.5" /></button>
+                                                <span className="text-xs font-bold text-purple-500 bg-purple-50 px-2 py-0.5 rounded-md flex items-center gap-1">
+                                                    {item.time ?? "All day"}
+                                                    {item.recurring && <Repeat className="w-3 h-3" />}
+                                                </span>
+                                                <div className="flex gap-1">
+                                                    {item.recurring && (
+                                                        <button onClick={() => skipOccurrence(item.scheduleId)} title="Skip this date" className="text-gray-300 hover:text-orange-500"><X className="w-3.5 h-3.5" /></button>
+                                                    )}
+                                                    <button onClick={() => deleteSchedule(item.scheduleId)} title={item.recurring ? "Delete series" : "Delete"} className="text-gray-300 hover:text-red-500"><Trash2 className="w-3.5 h-3.5" /></button>
+                                                </div>
                                             </div>
                                             <div className="font-semibold text-gray-800 mt-1">{item.title}</div>
                                         </div>
@@ -256,6 +332,12 @@ export const PersonalDashboard = ({ config }: PersonalDashboardProps) => {
                         <form onSubmit={addSchedule} className="mt-4 pt-4 border-t border-gray-100 flex gap-2">
                              <input type="time" value={newScheduleTime} onChange={e => setNewScheduleTime(e.target.value)} className="w-20 bg-gray-50 rounded-xl px-2 text-xs border-none" />
                              <input type="text" value={newScheduleTitle} onChange={e => setNewScheduleTitle(e.target.value)} placeholder="New Event..." className="flex-1 bg-gray-50 rounded-xl px-3 py-2 text-sm border-none focus:bg-white focus:ring-2 focus:ring-purple-100" />
+                             <select value={newScheduleRecurrence} onChange={e => setNewScheduleRecurrence(e.target.value as ScheduleRecurrence | "")} className="bg-gray-50 rounded-xl px-2 text-xs border-none">
+                                 <option value="">Once</option>
+                                 <option value="daily">Daily</option>
+                                 <option value="weekly">Weekly</option>
+                                 <option value="monthly">Monthly</option>
+                             </select>
                              <button type="submit" className="bg-purple-500 text-white p-2 rounded-xl hover:bg-purple-600"><Plus className="w-4 h-4" /></button>
                         </form>
                     </div>
@@ -7,9 +7,9 @@ import React, { useState, useEffect } from "react";
 // 导入图标组件
 import { ArrowLeft, User, Heart, Share2, MessageCircle, Copy, Check, Twitter, Linkedin, Link as LinkIcon } from "lucide-react";
 // 导入类型定义
-import { Post } from "../types";
+import { Post, RelatedPost } from "../types";
 // 导入工具函数
-import { formatDate } from "../lib/utils";
+import { formatDate, insertComment, removeComment } from "../lib/utils";
 // 导入子组件
 import { MarkdownRenderer } from "../components/MarkdownRenderer";
 import { TableOfContents } from "../components/TableOfContents";
@@ -18,26 +18,60 @@ import { CommentSection } from "../components/CommentSection";
 import { api } from "../lib/api";
 
 // 文章详情视图组件属性接口
-export const PostDetail = ({ post: initialPost, onBack }: { post: Post, onBack: () => void }) => {
+export const PostDetail = ({ post: initialPost, onBack, onRead }: { post: Post, onBack: () => void, onRead?: (id: string) => void }) => {
   // 状态管理
   const [post, setPost] = useState(initialPost);  // 当前文章
   const [isLiked, setIsLiked] = useState(false);  // 是否已点赞
   const [copied, setCopied] = useState(false);    // 是否已复制链接
   const [showShareMenu, setShowShareMenu] = useState(false);  // 是否显示分享菜单
   const [isTocCollapsed, setIsTocCollapsed] = useState(false); // 目录是否收起
+  const [related, setRelated] = useState<RelatedPost[]>([]);  // 相关文章
 
   // 当初始文章变化时更新状态
   useEffect(() => {
     setPost(initialPost);
+    // 列表中的文章不含正文，按需加载
+    if (initialPost.content == null) {
+      api.getPost(initialPost.id).then(full => {
+        if (full) setPost(prev => prev.id === full.id ? { ...prev, content: full.content } : prev);
+      });
+    }
   }, [initialPost]);
 
+  // 记录浏览
+  useEffect(() => {
+    api.recordView(initialPost.id);
+  }, [initialPost.id]);
+
+  // 订阅文章的实时更新：其他读者的新评论和点赞直接合并到当前页面
+  useEffect(() => {
+    return api.subscribeLive(initialPost.id, {
+      comment: (e) => {
+        if (e.comment) {
+          const comment = e.comment;
+          setPost(prev => ({ ...prev, comments: insertComment(prev.comments || [], comment, e.parentId) }));
+        }
+      },
+      like: (e) => setPost(prev => ({ ...prev, likes: e.likes })),
+      post: (e) => setPost(prev => ({ ...prev, ...e.post, content: prev.content })),
+    });
+  }, [initialPost.id]);
+
+  // 加载相关文章
+  useEffect(() => {
+    let isMounted = true;
+    api.getRelatedPosts(initialPost.id).then(list => { if (isMounted) setRelated(list); });
+    return () => { isMounted = false; };
+  }, [initialPost.id]);
+
   /**
    * 处理点赞功能
    */
   const handleLike = async () => {
     const updated = await api.likePost(post.id);
     if (updated) {
-      setPost(updated);
+      // 点赞接口返回的文章不含正文，保留已加载的正文
+      setPost(prev => ({ ...updated, content: updated.content ?? prev.content }));
       setIsLiked(true);
       setTimeout(() => setIsLiked(false), 300);
     }
@@ -50,8 +84,24 @@ export const PostDetail = ({ post: initialPost, onBack }: { post: Post, onBack:
    * @param parentId 父评论 ID（可选）
    */
   const handleAddComment = async (content: string, author: string, parentId?: string) => {
-    const updated = await api.addComment(post.id, { content, author }, parentId);
-    if (updated) setPost(updated);
+    let comment;
+    try {
+      comment = await api.addComment(post.id, { content, author }, parentId);
+    } catch (e) {
+      alert((e as Error).message);
+      return;
+    }
+    if (!comment) return;
+    // 评论已入队，先显示出来；后台审核未通过时再移除
+    const queued = comment;
+    setPost(prev => ({ ...prev, comments: insertComment(prev.comments || [], queued, parentId) }));
+    setTimeout(async () => {
+      const status = await api.getCommentStatus(queued.id);
+      if (status && (status.status === 'rejected' || status.status === 'failed')) {
+        setPost(prev => ({ ...prev, comments: removeComment(prev.comments || [], queued.id) }));
+        alert(`评论未能发布：${status.reason || status.status}`);
+      }
+    }, 2000);
   };
 
   /**
@@ -157,6 +207,26 @@ export const PostDetail = ({ post: initialPost, onBack }: { post: Post, onBack:
              <MarkdownRenderer content={post.content} />
           </div>
 
+          {/* 相关阅读 */}
+          {related.length > 0 && (
+            <section className="mt-16 pt-10 border-t border-gray-100">
+              <h3 className="text-xl font-bold mb-6">相关阅读</h3>
+              <div className="grid grid-cols-1 sm:grid-cols-2 gap-4">
+                {related.map(({ post: item }) => (
+                  <button
+                    key={item.id}
+                    onClick={() => onRead?.(item.id)}
+                    className="text-left p-5 rounded-2xl bg-gray-50 hover:bg-gray-100 transition-colors"
+                  >
+                    <div className="text-xs font-bold text-gray-400 uppercase mb-2">{item.category?.split('/').pop()}</div>
+                    <div className="font-semibold text-gray-900 mb-1 line-clamp-2">{item.title}</div>
+                    <div className="text-sm text-gray-500 line-clamp-2">{item.excerpt}</div>
+                  </button>
+                ))}
+              </div>
+            </section>
+          )}
+
           {/* 评论区 */}
           <CommentSection 
             comments={post.comments || []} 
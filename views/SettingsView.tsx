@@ -3,7 +3,7 @@
  * 提供网站各项配置的管理界面，包括通用设置、主题、个人资料、SEO 和友情链接
  */
 
-import React, {useState} from "react";
+import React, {useEffect, useState} from "react";
 // 导入图标组件
 import {
     Check,
@@ -18,34 +18,15 @@ import {
     UserCircle
 } from "lucide-react";
 // 导入类型定义
-import {FriendLink, PRESET_THEMES, ProfileConfig, SeoConfig, SiteConfig, SsoConfig} from "../types";
+import {AccountEntry, FriendLink, PRESET_THEMES, SiteConfig} from "../types";
+import {api} from "../lib/api";
 import {sha256} from "../lib/utils";
 import {sanitizeHtml, validatePassword, validateUsername} from "../lib/validation";
 
-// 定义账户类型
-interface Account {
-    username: string;
-    password: string;
-}
-
 // 设置视图组件属性接口
 interface SettingsViewProps {
-    config: SiteConfig;               // 当前站点配置
-    onSaveConfig: (c: {
-        icpNumber?: string;
-        profile: ProfileConfig;
-        siteName: string;
-        heroImage: string;
-        logoUrl?: string;
-        sso?: SsoConfig;
-        friendsMessage?: string;
-        themeColor?: string;
-        friendLinks?: FriendLink[];
-        heroTitle: string;
-        accounts: Awaited<{ password: string; username: string }>[];
-        seo: SeoConfig;
-        heroSubtitle: string
-    }) => void;  // 保存配置回调函数
+    config: SiteConfig;                        // 当前站点配置（公开分区）
+    onSaveConfig: (c: SiteConfig) => Promise<boolean>;  // 保存配置回调函数，返回是否保存成功
 }
 
 // 设置视图组件
@@ -55,29 +36,29 @@ export const SettingsView = ({config, onSaveConfig}: SettingsViewProps) => {
     const [tempConfig, setTempConfig] = useState<SiteConfig>(config);
     // 新友情链接状态管理
     const [newFriendLink, setNewFriendLink] = useState<Partial<FriendLink>>({});
-    // 账户管理状态
-    const [accounts, setAccounts] = useState<Account[]>(() => {
-        // 从配置中提取账户信息
-        const configStr = JSON.stringify(config);
-        try {
-            const parsed = JSON.parse(configStr);
-            return parsed.accounts || [];
-        } catch (e) {
-            return [];
-        }
-    });
+    // 账户管理状态：账户不在公开配置中，单独读取账户分区；新添加的账户带有待设置的密码
+    const [accounts, setAccounts] = useState<AccountEntry[]>([]);
+    const [savedUsernames, setSavedUsernames] = useState<string[]>([]);
+
+    useEffect(() => {
+        api.getConfigSection<{ accounts?: AccountEntry[] }>("accounts").then(doc => {
+            const usernames = (doc.accounts || []).map(a => a.username);
+            setAccounts(usernames.map(username => ({username})));
+            setSavedUsernames(usernames);
+        });
+    }, []);
     const [newAccount, setNewAccount] = useState<{ username: string, password: string }>({username: '', password: ''});
 
     // 保存配置处理函数
     const handleSave = async () => {
-        // 验证账户信息
+        // 验证账户信息，已有账户不回传密码，只校验新设置的密码
         for (const account of accounts) {
             if (!validateUsername(account.username)) {
                 alert("用户名格式不正确（3-20位字母、数字或下划线）");
                 return;
             }
 
-            if (!validatePassword(account.password)) {
+            if (account.password !== undefined && !validatePassword(account.password)) {
                 alert("密码强度不足（至少8位，包含字母和数字）");
                 return;
             }
@@ -122,18 +103,26 @@ export const SettingsView = ({config, onSaveConfig}: SettingsViewProps) => {
             seo: cleanSeo
         };
 
-        // 保存前对密码进行哈希处理
-        const accountsWithHashedPasswords = await Promise.all(
-            accounts.map(async (account) => ({
-                ...account,
-                password: await sha256(account.password)
-            }))
-        );
-
-        onSaveConfig({
-            ...cleanConfig,
-            accounts: accountsWithHashedPasswords
-        });
+        if (!await onSaveConfig(cleanConfig)) {
+            alert("设置保存失败，请检查输入后重试");
+            return;
+        }
+
+        // 账户有增删时才更新账户分区，只为新账户发送哈希后的密码，已有账户保留服务端原有的密码
+        const usernames = accounts.map(a => a.username);
+        if (accounts.some(a => a.password !== undefined) || usernames.join("\n") !== savedUsernames.join("\n")) {
+            const entries = await Promise.all(accounts.map(async (account) =>
+                account.password === undefined
+                    ? {username: account.username}
+                    : {username: account.username, password: await sha256(account.password)}
+            ));
+            if (!await api.patchConfigSection("accounts", {accounts: entries})) {
+                alert("账户保存失败，请检查用户名和密码");
+                return;
+            }
+            setAccounts(usernames.map(username => ({username})));
+            setSavedUsernames(usernames);
+        }
         alert("设置已保存");
     };
 
@@ -183,9 +172,6 @@ export const SettingsView = ({config, onSaveConfig}: SettingsViewProps) => {
                 return;
             }
 
-            // 对密码进行哈希处理
-            // const hashedPassword = await sha256(newAccount.password);
-
             // 添加新账户
             const updatedAccounts = [
                 ...accounts,